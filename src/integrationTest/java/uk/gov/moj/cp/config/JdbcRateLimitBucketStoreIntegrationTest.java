@@ -0,0 +1,114 @@
+package uk.gov.moj.cp.config;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+class JdbcRateLimitBucketStoreIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:16-alpine");
+
+    private static final String SESSION_ID = RateLimitInterceptor.compactKey("session-abc-123");
+
+    private static DriverManagerDataSource dataSource;
+
+    private final List<JdbcRateLimitBucketStore> stores = new ArrayList<>();
+
+    @BeforeAll
+    static void createSchema() {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        new ResourceDatabasePopulator(
+            new ClassPathResource("db/migration/V3__create_tmc_rate_limit_bucket_table.sql")
+        ).execute(dataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        new JdbcTemplate(dataSource).execute("TRUNCATE " + JdbcRateLimitBucketStore.TABLE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stores.forEach(JdbcRateLimitBucketStore::destroy);
+    }
+
+    @Test
+    @DisplayName("Should share one bucket per key between instances")
+    void shouldShareBucketsBetweenInstances() {
+        JdbcRateLimitBucketStore instance1 = newStore(0);
+        JdbcRateLimitBucketStore instance2 = newStore(0);
+        BucketConfiguration configuration = configuration(5);
+
+        assertThat(consume(instance1, configuration, 3)).isEqualTo(3);
+        assertThat(consume(instance2, configuration, 3)).isEqualTo(2);
+        assertThat(instance1.resolveBucket(SESSION_ID, configuration).tryConsume(1)).isFalse();
+        assertThat(instance2.resolveBucket(RateLimitInterceptor.compactKey("another-session"), configuration).tryConsume(1))
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("Should keep an exhausted bucket after the instance restarts")
+    void shouldKeepBucketsAcrossRestarts() {
+        JdbcRateLimitBucketStore instance = newStore(0);
+        assertThat(consume(instance, configuration(2), 2)).isEqualTo(2);
+        instance.destroy();
+
+        assertThat(newStore(0).resolveBucket(SESSION_ID, configuration(2)).tryConsume(1)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should let each instance exceed the limit by at most its unsynchronised tokens")
+    void shouldBoundOvershootWithLocalSynchronisation() {
+        JdbcRateLimitBucketStore instance1 = newStore(2);
+        JdbcRateLimitBucketStore instance2 = newStore(2);
+        BucketConfiguration configuration = configuration(10);
+
+        int consumed = 0;
+        for (int i = 0; i < 20; i++) {
+            consumed += consume(instance1, configuration, 1) + consume(instance2, configuration, 1);
+        }
+
+        // capacity, plus per instance the unsynchronised tokens and the request that triggers the write back
+        assertThat(consumed).isBetween(10, 10 + 2 * (2 + 1));
+    }
+
+    private JdbcRateLimitBucketStore newStore(long syncTokens) {
+        JdbcRateLimitBucketStore store = new JdbcRateLimitBucketStore(
+            dataSource, new CacheMetricsService(new PrometheusRegistry()), 1000, syncTokens, 60_000, 3600);
+        stores.add(store);
+        return store;
+    }
+
+    private static BucketConfiguration configuration(int capacity) {
+        return BucketConfiguration.builder()
+            .addLimit(RateLimitBucketStore.bandwidth(capacity, 1, Duration.ofHours(1)))
+            .build();
+    }
+
+    private static int consume(JdbcRateLimitBucketStore store, BucketConfiguration configuration, int requests) {
+        return (int) IntStream.range(0, requests)
+            .filter(i -> store.resolveBucket(SESSION_ID, configuration).tryConsume(1))
+            .count();
+    }
+}
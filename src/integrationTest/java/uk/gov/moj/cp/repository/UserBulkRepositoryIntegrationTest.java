@@ -0,0 +1,108 @@
+package uk.gov.moj.cp.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import uk.gov.moj.cp.config.SecretKeyLoader;
+import uk.gov.moj.cp.repository.UserBulkRepository.UserRow;
+import uk.gov.moj.cp.util.CryptoUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+class UserBulkRepositoryIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:16-alpine");
+
+    private static DriverManagerDataSource dataSource;
+
+    private final SecretKeyLoader secretKeyLoader = new SecretKeyLoader(
+        "FmkCWyCPfsuVD3r1SHqS3BFtB4YI1i7QdiZrfGKjv4k=",
+        "oUO29pYYc9n4XlvAbPt8B0ncfadyqnI8C63tKCWKuao="
+    );
+
+    private UserBulkRepository userBulkRepository;
+
+    @BeforeAll
+    static void createSchema() {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__create_tmc_user_table.sql")).execute(dataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        new JdbcTemplate(dataSource).execute("TRUNCATE tmc_user");
+        userBulkRepository = new UserBulkRepository(dataSource, secretKeyLoader);
+    }
+
+    @Test
+    @DisplayName("Should insert rows that decrypt to their email and match the entity's email lookup")
+    void shouldInsertEncryptedRows() {
+        List<UserRow> rows = userBulkRepository.prepare(List.of("user1@example.com", "user2@example.com"));
+
+        assertThat(userBulkRepository.insertIgnoringConflicts(rows)).containsExactly(1, 1);
+
+        Map<String, Object> stored = new JdbcTemplate(dataSource).queryForMap(
+            "SELECT email, email_lookup, status, role FROM tmc_user WHERE id = ?", rows.getFirst().id());
+        assertThat(CryptoUtils.aesDecrypt((String) stored.get("email"), secretKeyLoader.getAesSecretKeySpec()))
+            .isEqualTo("user1@example.com");
+        assertThat(stored.get("email_lookup"))
+            .isEqualTo(CryptoUtils.hmacEncrypt("user1@example.com", secretKeyLoader.getHmacEncryptionSecret()));
+        assertThat(stored.get("status")).isEqualTo("ACTIVE");
+        assertThat(stored.get("role")).isEqualTo("USER");
+    }
+
+    @Test
+    @DisplayName("Should find the existing email lookups in one query")
+    void shouldFindExistingEmailLookups() {
+        List<UserRow> rows = userBulkRepository.prepare(List.of("user1@example.com", "user2@example.com"));
+        userBulkRepository.insertIgnoringConflicts(rows.subList(0, 1));
+
+        assertThat(userBulkRepository.findExistingEmailLookups(rows.stream().map(UserRow::emailLookup).toList()))
+            .containsExactly(rows.getFirst().emailLookup());
+        assertThat(userBulkRepository.findExistingEmailLookups(List.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should skip rows that conflict with an existing user")
+    void shouldSkipConflictingRows() {
+        userBulkRepository.insertIgnoringConflicts(userBulkRepository.prepare(List.of("user1@example.com")));
+
+        int[] updateCounts = userBulkRepository.insertIgnoringConflicts(
+            userBulkRepository.prepare(List.of("user1@example.com", "user2@example.com")));
+
+        assertThat(updateCounts).containsExactly(0, 1);
+        assertThat(new JdbcTemplate(dataSource).queryForObject("SELECT count(*) FROM tmc_user", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should report skipped rows as 0 when the driver rewrites the batch and reports no update counts")
+    void shouldResolveRewrittenBatchUpdateCounts() {
+        String jdbcUrl = POSTGRES.getJdbcUrl();
+        DriverManagerDataSource rewritingDataSource = new DriverManagerDataSource(
+            jdbcUrl + (jdbcUrl.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true",
+            POSTGRES.getUsername(),
+            POSTGRES.getPassword()
+        );
+        UserBulkRepository rewritingRepository = new UserBulkRepository(rewritingDataSource, secretKeyLoader);
+        rewritingRepository.insertIgnoringConflicts(rewritingRepository.prepare(List.of("user1@example.com")));
+
+        int[] updateCounts = rewritingRepository.insertIgnoringConflicts(
+            rewritingRepository.prepare(List.of("user1@example.com", "user2@example.com", "user3@example.com")));
+
+        assertThat(updateCounts).containsExactly(0, 1, 1);
+        assertThat(new JdbcTemplate(dataSource).queryForObject("SELECT count(*) FROM tmc_user", Integer.class)).isEqualTo(3);
+    }
+}
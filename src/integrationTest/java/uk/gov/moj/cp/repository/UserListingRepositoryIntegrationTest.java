@@ -0,0 +1,105 @@
+package uk.gov.moj.cp.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import uk.gov.moj.cp.config.SecretKeyLoader;
+import uk.gov.moj.cp.model.UserRole;
+import uk.gov.moj.cp.model.UserStatus;
+import uk.gov.moj.cp.repository.UserListingRepository.Cursor;
+import uk.gov.moj.cp.repository.UserListingRepository.UserListing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+class UserListingRepositoryIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:16-alpine");
+
+    private static DriverManagerDataSource dataSource;
+
+    private final SecretKeyLoader secretKeyLoader = new SecretKeyLoader(
+        "FmkCWyCPfsuVD3r1SHqS3BFtB4YI1i7QdiZrfGKjv4k=",
+        "oUO29pYYc9n4XlvAbPt8B0ncfadyqnI8C63tKCWKuao="
+    );
+
+    private UserListingRepository userListingRepository;
+    private List<String> emails;
+
+    @BeforeAll
+    static void createSchema() {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        new ResourceDatabasePopulator(
+            new ClassPathResource("db/migration/V1__create_tmc_user_table.sql"),
+            new ClassPathResource("db/migration/V2__index_tmc_user_created_id.sql")
+        ).execute(dataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("TRUNCATE tmc_user");
+        userListingRepository = new UserListingRepository(dataSource, secretKeyLoader, 2);
+
+        // one batch shares its created timestamp, so the pages below also have to be ordered by id
+        UserBulkRepository userBulkRepository = new UserBulkRepository(dataSource, secretKeyLoader);
+        emails = IntStream.range(0, 5).mapToObj(i -> "user" + i + "@example.com").toList();
+        userBulkRepository.insertIgnoringConflicts(userBulkRepository.prepare(emails));
+        jdbcTemplate.update("UPDATE tmc_user SET role = ? WHERE email_lookup IN (?, ?)",
+                            UserRole.ADMIN.name(),
+                            userBulkRepository.prepare(List.of(emails.get(1))).getFirst().emailLookup(),
+                            userBulkRepository.prepare(List.of(emails.get(3))).getFirst().emailLookup());
+    }
+
+    @Test
+    @DisplayName("Should page through every user once, in order, after each page's last row")
+    void shouldPageThroughUsers() {
+        List<UserListing> firstPage = userListingRepository.findPage(null, null, null, 2);
+        List<UserListing> secondPage = userListingRepository.findPage(null, null, Cursor.after(firstPage.getLast()), 2);
+        List<UserListing> lastPage = userListingRepository.findPage(null, null, Cursor.after(secondPage.getLast()), 2);
+
+        List<UserListing> all = new ArrayList<>(firstPage);
+        all.addAll(secondPage);
+        all.addAll(lastPage);
+        assertThat(lastPage).hasSize(1);
+        assertThat(all).extracting(UserListing::email).containsExactlyInAnyOrderElementsOf(emails);
+        assertThat(all).isEqualTo(userListingRepository.findPage(null, null, null, 10));
+    }
+
+    @Test
+    @DisplayName("Should filter pages by status and role")
+    void shouldFilterByStatusAndRole() {
+        assertThat(userListingRepository.findPage(UserStatus.ACTIVE, UserRole.ADMIN, null, 10))
+            .extracting(UserListing::email)
+            .containsExactlyInAnyOrder(emails.get(1), emails.get(3));
+        assertThat(userListingRepository.findPage(UserStatus.DELETED, null, null, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should stream every matching user with decrypted emails in a transaction")
+    void shouldStreamUsers() {
+        List<UserListing> streamed = new ArrayList<>();
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(
+            status -> userListingRepository.streamAll(UserStatus.ACTIVE, UserRole.USER, streamed::add)
+        );
+
+        assertThat(streamed).extracting(UserListing::email)
+            .containsExactlyInAnyOrder(emails.get(0), emails.get(2), emails.get(4));
+        assertThat(streamed).isEqualTo(userListingRepository.findPage(UserStatus.ACTIVE, UserRole.USER, null, 10));
+    }
+}
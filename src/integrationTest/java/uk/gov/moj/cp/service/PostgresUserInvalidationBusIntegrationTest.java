@@ -0,0 +1,179 @@
+package uk.gov.moj.cp.service;
+
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.HistogramSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import uk.gov.moj.cp.config.EmailLookupMemo;
+import uk.gov.moj.cp.config.SecretKeyLoader;
+import uk.gov.moj.cp.entity.User;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+import uk.gov.moj.cp.metrics.UserInvalidationMetricsService;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@Testcontainers
+class PostgresUserInvalidationBusIntegrationTest {
+
+    private static final String EMAIL = "user@example.com";
+
+    @Container
+    private static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:16-alpine");
+
+    private final SecretKeyLoader secretKeyLoader = new SecretKeyLoader(
+        Base64.getEncoder().encodeToString(new byte[32]),
+        "hmac-secret"
+    );
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private DriverManagerDataSource dataSource;
+    private PrometheusRegistry publisherRegistry;
+    private PrometheusRegistry subscriberRegistry;
+    private PostgresUserInvalidationBus publisherBus;
+    private PostgresUserInvalidationBus subscriberBus;
+    private ActiveUserCache publisherCache;
+    private ActiveUserCache subscriberCache;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        publisherRegistry = new PrometheusRegistry();
+        subscriberRegistry = new PrometheusRegistry();
+        publisherBus = newBus(publisherRegistry);
+        subscriberBus = newBus(subscriberRegistry);
+        publisherCache = newCache(publisherBus, publisherRegistry);
+        subscriberCache = newCache(subscriberBus, subscriberRegistry);
+        await().atMost(Duration.ofSeconds(10)).until(() -> listenerCount() == 2);
+
+        subscriberCache.get(EMAIL, email -> load());
+        loads.set(0);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        publisherBus.destroy();
+        subscriberBus.destroy();
+    }
+
+    @Test
+    @DisplayName("Should evict the entry on the other instance and record the propagation lag")
+    void shouldPropagateInvalidationToOtherInstance() {
+        publisherCache.invalidate(EMAIL);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> isEvicted(subscriberCache));
+        assertThat(counterValue(publisherRegistry, "trackmycase_user_invalidation_published")).isEqualTo(1);
+        await().atMost(Duration.ofSeconds(5))
+            .until(() -> propagationCount(subscriberRegistry) == 1 && propagationCount(publisherRegistry) == 1);
+    }
+
+    @Test
+    @DisplayName("Should only deliver the invalidation once the publishing transaction commits")
+    void shouldDeliverInvalidationOnCommit() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            publisherCache.invalidate(EMAIL);
+            await().during(Duration.ofMillis(500)).atMost(Duration.ofSeconds(1)).until(() -> !isEvicted(subscriberCache));
+        });
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> isEvicted(subscriberCache));
+    }
+
+    @Test
+    @DisplayName("Should not deliver the invalidation of a rolled back transaction")
+    void shouldNotDeliverInvalidationOnRollback() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            publisherCache.invalidate(EMAIL);
+            status.setRollbackOnly();
+        });
+
+        await().during(Duration.ofMillis(500)).atMost(Duration.ofSeconds(1)).until(() -> !isEvicted(subscriberCache));
+        assertThat(propagationCount(subscriberRegistry)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should clear the cache when the listener reconnects, as events may have been missed")
+    void shouldClearCacheWhenListenerReconnects() {
+        new JdbcTemplate(dataSource).query(
+            "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE query = ?",
+            resultSet -> null,
+            "LISTEN " + PostgresUserInvalidationBus.CHANNEL
+        );
+
+        await().atMost(Duration.ofSeconds(10))
+            .until(() -> counterValue(subscriberRegistry, "trackmycase_user_invalidation_listener_reconnects") == 1);
+        assertThat(isEvicted(subscriberCache)).isTrue();
+    }
+
+    private boolean isEvicted(ActiveUserCache cache) {
+        final int loadsBefore = loads.get();
+        cache.get(EMAIL, email -> load());
+        return loads.get() > loadsBefore;
+    }
+
+    private Optional<User> load() {
+        loads.incrementAndGet();
+        return Optional.of(new User(EMAIL));
+    }
+
+    private int listenerCount() {
+        return new JdbcTemplate(dataSource).queryForObject(
+            "SELECT count(*) FROM pg_stat_activity WHERE query = ?",
+            Integer.class,
+            "LISTEN " + PostgresUserInvalidationBus.CHANNEL
+        );
+    }
+
+    private PostgresUserInvalidationBus newBus(PrometheusRegistry registry) {
+        return new PostgresUserInvalidationBus(
+            dataSource,
+            new UserInvalidationMetricsService(registry),
+            POSTGRES.getJdbcUrl(),
+            POSTGRES.getUsername(),
+            POSTGRES.getPassword(),
+            200,
+            100
+        );
+    }
+
+    private ActiveUserCache newCache(UserInvalidationBus bus, PrometheusRegistry registry) {
+        CacheMetricsService cacheMetricsService = new CacheMetricsService(registry);
+        return new ActiveUserCache(
+            new EmailLookupMemo(secretKeyLoader, cacheMetricsService, 100), cacheMetricsService, bus, true, 100, 60, 60);
+    }
+
+    private static double counterValue(PrometheusRegistry registry, String name) {
+        return ((CounterSnapshot) snapshot(registry, name)).getDataPoints().getFirst().getValue();
+    }
+
+    private static long propagationCount(PrometheusRegistry registry) {
+        return ((HistogramSnapshot) snapshot(registry, "trackmycase_user_invalidation_propagation_seconds"))
+            .getDataPoints().getFirst().getCount();
+    }
+
+    private static MetricSnapshot snapshot(PrometheusRegistry registry, String name) {
+        return registry.scrape().stream()
+            .filter(snapshot -> name.equals(snapshot.getMetadata().getName()))
+            .findFirst()
+            .orElseThrow();
+    }
+}
@@ -0,0 +1,109 @@
+package uk.gov.moj.cp.benchmark;
+
+import com.moj.generated.hmcts.CourtSchedule;
+import com.moj.generated.hmcts.CourtSitting;
+import com.moj.generated.hmcts.Hearing;
+import com.moj.generated.hmcts.WeekCommencing;
+import uk.gov.moj.cp.dto.inbound.CourtScheduleDto;
+import uk.gov.moj.cp.dto.inbound.CourtSittingDto;
+import uk.gov.moj.cp.dto.inbound.HearingDto;
+import uk.gov.moj.cp.dto.inbound.WeekCommencingDto;
+import uk.gov.moj.cp.model.HearingType;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds deterministic court schedules for the benchmarks.
+ *
+ * <p>Hearings mix valid and unknown hearing types, about a third are listed for a week commencing, and dates range
+ * from a month in the past to a little over a year ahead, so that filtering and ordering both have work to do.
+ */
+public final class SyntheticSchedules {
+
+    private static final ZoneId LONDON = ZoneId.of("Europe/London");
+    private static final String[] UNKNOWN_HEARING_TYPES = {"Plea and Trial Preparation", "Mention", "Bail Application"};
+
+    private SyntheticSchedules() {
+    }
+
+    public static CourtSchedule courtSchedule(int hearingCount) {
+        final Random random = new Random(hearingCount);
+        final HearingType[] hearingTypes = HearingType.values();
+        final LocalDate today = LocalDate.now();
+        final List<Hearing> hearings = new ArrayList<>(hearingCount);
+
+        for (int i = 0; i < hearingCount; i++) {
+            final String hearingType = random.nextInt(5) == 0
+                ? UNKNOWN_HEARING_TYPES[random.nextInt(UNKNOWN_HEARING_TYPES.length)]
+                : hearingTypes[random.nextInt(hearingTypes.length - 1)].getValue();
+            final LocalDate hearingDate = today.plusDays(random.nextInt(431) - 30);
+
+            WeekCommencing weekCommencing = null;
+            final List<CourtSitting> courtSittings = new ArrayList<>();
+            if (random.nextInt(10) < 3) {
+                weekCommencing = new WeekCommencing("court-house-" + random.nextInt(50), hearingDate, hearingDate.plusDays(4), 1);
+            } else {
+                final int sittingCount = 1 + random.nextInt(3);
+                for (int s = 0; s < sittingCount; s++) {
+                    final ZonedDateTime sittingStart = hearingDate.plusDays(s).atTime(10, 0).atZone(LONDON);
+                    courtSittings.add(new CourtSitting(
+                        sittingStart,
+                        sittingStart.plusHours(6),
+                        "judge-" + random.nextInt(200),
+                        "court-house-" + random.nextInt(50),
+                        "court-room-" + random.nextInt(20)
+                    ));
+                }
+            }
+
+            hearings.add(new Hearing("hearing-" + i, hearingType, "Hearing " + i, "List note " + i, weekCommencing, courtSittings));
+        }
+        return new CourtSchedule(hearings);
+    }
+
+    /**
+     * The same schedule in the inbound form produced by {@code CourtScheduleService}.
+     */
+    public static CourtScheduleDto courtScheduleDto(int hearingCount) {
+        final List<HearingDto> hearings = courtSchedule(hearingCount).getHearings().stream()
+            .map(SyntheticSchedules::toHearingDto)
+            .toList();
+        return CourtScheduleDto.builder()
+            .hearings(hearings)
+            .build();
+    }
+
+    private static HearingDto toHearingDto(Hearing hearing) {
+        final WeekCommencing weekCommencing = hearing.getWeekCommencing();
+        final WeekCommencingDto weekCommencingDto = weekCommencing == null ? null : WeekCommencingDto.builder()
+            .courtHouse(weekCommencing.getCourtHouse())
+            .startDate(weekCommencing.getStartDate())
+            .endDate(weekCommencing.getEndDate())
+            .durationInWeeks(weekCommencing.getDurationInWeeks())
+            .build();
+
+        final List<CourtSittingDto> courtSittings = hearing.getCourtSittings().stream()
+            .map(courtSitting -> CourtSittingDto.builder()
+                .sittingStart(courtSitting.getSittingStart().toLocalDateTime())
+                .sittingEnd(courtSitting.getSittingEnd().toLocalDateTime())
+                .judiciaryId(courtSitting.getJudiciaryId())
+                .courtHouse(courtSitting.getCourtHouse())
+                .courtRoom(courtSitting.getCourtRoom())
+                .build())
+            .toList();
+
+        return HearingDto.builder()
+            .hearingId(hearing.getHearingId())
+            .hearingType(hearing.getHearingType())
+            .hearingDescription(hearing.getHearingDescription())
+            .listNote(hearing.getListNote())
+            .weekCommencing(weekCommencingDto)
+            .courtSittings(courtSittings)
+            .build();
+    }
+}
@@ -0,0 +1,51 @@
+package uk.gov.moj.cp.client.api;
+
+import com.moj.generated.hmcts.CourtScheduleSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.moj.cp.benchmark.SyntheticSchedules;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.moj.cp.util.Utils.objectMapper;
+
+/**
+ * Cost of reading a court schedule response, binding the whole object graph against the filtering streaming parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CourtScheduleParsingBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int hearingCount;
+
+    private CourtScheduleStreamingParser courtScheduleStreamingParser;
+    private byte[] responseBody;
+
+    @Setup
+    public void setUp() throws IOException {
+        courtScheduleStreamingParser = new CourtScheduleStreamingParser();
+        responseBody = objectMapper.writeValueAsBytes(new CourtScheduleSchema(List.of(SyntheticSchedules.courtSchedule(hearingCount))));
+    }
+
+    @Benchmark
+    public CourtScheduleSchema bindFullSchema() throws IOException {
+        return objectMapper.readValue(responseBody, CourtScheduleSchema.class);
+    }
+
+    @Benchmark
+    public CourtScheduleSchema streamingParse() throws IOException {
+        return courtScheduleStreamingParser.parse(new ByteArrayInputStream(responseBody), LocalDate.now());
+    }
+}
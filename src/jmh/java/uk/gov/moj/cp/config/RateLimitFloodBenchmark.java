@@ -0,0 +1,72 @@
+package uk.gov.moj.cp.config;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rate limiting a flood of requests that each carry a new session ID, as a client rotating its ID on every
+ * request would send, through a {@link LocalRateLimitBucketStore} bounded to {@code maximumBuckets}. Session IDs are
+ * 500 characters, so an unhashed key would cost far more than the bucket. After every iteration the heap used after a
+ * full GC and the number of buckets held are reported as the {@code usedHeapMegabytes} and {@code bucketsHeld} secondary
+ * results, and should stay flat however many keys have been seen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RateLimitFloodBenchmark {
+
+    @Param({"10000", "100000"})
+    private long maximumBuckets;
+
+    private LocalRateLimitBucketStore store;
+    private BucketConfiguration configuration;
+    private String sessionIdPrefix;
+    private long counter;
+
+    @Setup
+    public void setUp() {
+        store = new LocalRateLimitBucketStore(new CacheMetricsService(new PrometheusRegistry()), maximumBuckets);
+        configuration = BucketConfiguration.builder()
+            .addLimit(RateLimitBucketStore.bandwidth(100, 100, Duration.ofMinutes(1)))
+            .build();
+        sessionIdPrefix = "s".repeat(480);
+    }
+
+    @Benchmark
+    public boolean uniqueSessionIds(Retained retained) {
+        final String key = RateLimitInterceptor.compactKey(sessionIdPrefix + counter++);
+        return store.resolveBucket(key, configuration).tryConsume(1);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Retained {
+
+        public long bucketsHeld;
+        public long usedHeapMegabytes;
+
+        @TearDown(Level.Iteration)
+        public void measure(RateLimitFloodBenchmark benchmark) {
+            benchmark.store.cleanUp();
+            System.gc();
+            bucketsHeld = benchmark.store.size();
+            usedHeapMegabytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024 * 1024);
+        }
+    }
+}
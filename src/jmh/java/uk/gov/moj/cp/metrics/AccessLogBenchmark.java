@@ -0,0 +1,119 @@
+package uk.gov.moj.cp.metrics;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.slf4j.LoggerFactory;
+import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService.Stage;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of logging on the /casedetails path from several request threads at once: the three INFO lines
+ * per request it used to write, against one access log event for a {@code sampleRate} share of requests. Both write
+ * through the same encoder to a discarding stream, either on the request thread ({@code sync}) or through the bounded
+ * async appender the service uses ({@code async}). {@code sampleRate} does not apply to {@code perRequestInfoLogs}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class AccessLogBenchmark {
+
+    private static final String CASE_URN = "CASE123";
+    private static final String HEARING_ID = "b1c9f1a0-7c2e-4d7e-9a57-6c1f4f0f2d11";
+    private static final String ROUTE = "/api/cases/{case_urn}/casedetails";
+
+    @Param({"0", "0.05", "1"})
+    private double sampleRate;
+
+    @Param({"sync", "async"})
+    private String appender;
+
+    private final Logger requestLogger = (Logger) LoggerFactory.getLogger("uk.gov.moj.cp.benchmark.requests");
+    private final Logger accessLogger = (Logger) LoggerFactory.getLogger(AccessLog.LOGGER_NAME);
+    private Appender<ILoggingEvent> target;
+    private AccessLog accessLog;
+
+    @Setup
+    public void setUp() {
+        final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        final PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %-5level %logger{36} %msg %kvp%n");
+        encoder.start();
+
+        final OutputStreamAppender<ILoggingEvent> discarding = new OutputStreamAppender<>();
+        discarding.setContext(context);
+        discarding.setEncoder(encoder);
+        discarding.setOutputStream(OutputStream.nullOutputStream());
+        discarding.start();
+        target = discarding;
+
+        if ("async".equals(appender)) {
+            final AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(1024);
+            async.setDiscardingThreshold(0);
+            async.setNeverBlock(true);
+            async.addAppender(discarding);
+            async.start();
+            target = async;
+        }
+
+        for (Logger logger : new Logger[] {requestLogger, accessLogger}) {
+            logger.detachAndStopAllAppenders();
+            logger.setAdditive(false);
+            logger.setLevel(Level.INFO);
+            logger.addAppender(target);
+        }
+        accessLog = new AccessLog(true, sampleRate);
+    }
+
+    @TearDown
+    public void tearDown() {
+        target.stop();
+    }
+
+    @Benchmark
+    public void perRequestInfoLogs() {
+        requestLogger.info("Received request to get case details for caseUrn: {}", CASE_URN);
+        requestLogger.info("Received Hearing Ids : {} for caseUrn : {} ", HEARING_ID, CASE_URN);
+        requestLogger.info("caseUrn -{} : hearingId (W/C) - {} : CourtHouse Id - {} ", CASE_URN, HEARING_ID, "325");
+    }
+
+    @Benchmark
+    public void sampledAccessLog() {
+        final long startedNanos = System.nanoTime();
+        final RequestTimings timings = accessLog.start();
+        recordTimings();
+        if (timings != null) {
+            accessLog.finish(timings, "GET", ROUTE, 200, System.nanoTime() - startedNanos, null);
+        }
+    }
+
+    // what the request path records into the bound timings, without the histograms around it
+    private static void recordTimings() {
+        RequestTimings.recordDownstreamCall(40_000_000);
+        RequestTimings.recordStage(Stage.COURT_SCHEDULE_CONVERSION, 20_000);
+        RequestTimings.recordStage(Stage.HEARING_SELECTION, 5_000);
+        RequestTimings.recordDownstreamCall(15_000_000);
+        RequestTimings.recordStage(Stage.COURT_HOUSE_CONVERSION, 10_000);
+    }
+}
@@ -0,0 +1,53 @@
+package uk.gov.moj.cp.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of looking up and collapsing the hearing type strings received from SLC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HearingTypeBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    private int hearingCount;
+
+    private String[] hearingTypes;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(hearingCount);
+        final HearingType[] values = HearingType.values();
+        hearingTypes = new String[hearingCount];
+        for (int i = 0; i < hearingCount; i++) {
+            // UNKNOWN is the last constant and is rejected by filterHearingType
+            hearingTypes[i] = values[random.nextInt(values.length - 1)].getValue();
+        }
+    }
+
+    @Benchmark
+    public void fromValue(Blackhole blackhole) {
+        for (String hearingType : hearingTypes) {
+            blackhole.consume(HearingType.fromValue(hearingType));
+        }
+    }
+
+    @Benchmark
+    public void filterHearingType(Blackhole blackhole) {
+        for (String hearingType : hearingTypes) {
+            blackhole.consume(HearingType.filterHearingType(hearingType));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package uk.gov.moj.cp.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.moj.cp.benchmark.SyntheticSchedules;
+import uk.gov.moj.cp.dto.inbound.CourtScheduleDto;
+import uk.gov.moj.cp.dto.outbound.CaseDetailsHearingDto;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of choosing the next hearing of a court schedule with the single-pass {@link NextHearingSelector}, against
+ * the comparator based selection it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CaseDetailsHearingSelectionBenchmark {
+
+    @Param({"1", "10", "100", "500", "1000", "10000"})
+    private int hearingCount;
+
+    private ComparatorHearingSelector comparatorHearingSelector;
+    private CourtScheduleDto courtSchedule;
+
+    @Setup
+    public void setUp() {
+        comparatorHearingSelector = new ComparatorHearingSelector();
+        courtSchedule = SyntheticSchedules.courtScheduleDto(hearingCount);
+    }
+
+    @Benchmark
+    public Optional<CaseDetailsHearingDto> comparatorSelection() {
+        return comparatorHearingSelector.selectNextHearing(courtSchedule);
+    }
+
+    @Benchmark
+    public Optional<CaseDetailsHearingDto> singlePassSelection() {
+        return NextHearingSelector.selectNextHearing(courtSchedule.getHearings(), LocalDate.now());
+    }
+}
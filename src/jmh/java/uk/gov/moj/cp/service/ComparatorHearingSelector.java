@@ -0,0 +1,235 @@
+package uk.gov.moj.cp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.moj.cp.dto.inbound.CourtScheduleDto;
+import uk.gov.moj.cp.dto.inbound.CourtSittingDto;
+import uk.gov.moj.cp.dto.inbound.HearingDto;
+import uk.gov.moj.cp.dto.inbound.WeekCommencingDto;
+import uk.gov.moj.cp.dto.outbound.CaseDetailsCourtSittingDto;
+import uk.gov.moj.cp.dto.outbound.CaseDetailsHearingDto;
+import uk.gov.moj.cp.dto.outbound.CaseDetailsWeekCommencingDto;
+import uk.gov.moj.cp.dto.outbound.CourtHouseDto;
+import uk.gov.moj.cp.model.HearingType;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import static java.time.LocalDateTime.parse;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * The next hearing selection as it was before {@link NextHearingSelector}, kept as the benchmark baseline. It builds
+ * a DTO for every candidate hearing, formatting its dates, and re-parses them on every comparison.
+ */
+class ComparatorHearingSelector {
+
+    private static final Logger log = LoggerFactory.getLogger(ComparatorHearingSelector.class);
+
+    private static final Pattern HEARING_TYPE_TRIAL_PATTERN = Pattern.compile(
+        "\\b" + HearingType.TRIAL.getValue() + "\\b",
+        Pattern.CASE_INSENSITIVE
+    );
+
+    Optional<CaseDetailsHearingDto> selectNextHearing(final CourtScheduleDto schedule) {
+        return schedule.getHearings().stream()
+            .map(this::getHearingDetails)
+            .filter(Objects::nonNull)
+            .min(getCaseDetailsHearingDtoComparator());
+    }
+
+    private CaseDetailsHearingDto getHearingDetails(final HearingDto hearing) {
+        CaseDetailsWeekCommencingDto weekCommencing = null;
+        List<CaseDetailsCourtSittingDto> courtSittings = null;
+
+        if (isNull(hearing) || !isValidHearingType(hearing.getHearingType())) {
+            return null;
+        }
+
+        if (Optional.ofNullable(hearing.getWeekCommencing()).isPresent()) {
+            weekCommencing = getWeekCommencing(hearing);
+            if (isNull(weekCommencing)) {
+                return null;
+            }
+        } else {
+            courtSittings = getCourtSittings(hearing);
+            if (isNull(courtSittings)) {
+                return null;
+            }
+        }
+
+        return CaseDetailsHearingDto.builder()
+            .hearingId(hearing.getHearingId())
+            .hearingType(hearing.getHearingType())
+            .hearingDescription(hearing.getHearingDescription())
+            .listNote(hearing.getListNote())
+            .courtSittings(courtSittings)
+            .weekCommencing(weekCommencing)
+            .build();
+    }
+
+    private static Comparator<CaseDetailsHearingDto> getCaseDetailsHearingDtoComparator() {
+        return Comparator.comparing(
+                ComparatorHearingSelector::getEarliestHearingDate,
+                Comparator.nullsLast(Comparator.naturalOrder())
+            )
+            .thenComparing((CaseDetailsHearingDto dto) -> hasFixedDateHearing(dto) ? 0 : 1)
+            .thenComparingInt((CaseDetailsHearingDto dto) ->
+                                  nonNull(dto.getHearingType())
+                                      && HEARING_TYPE_TRIAL_PATTERN.matcher(dto.getHearingType()).find()
+                                      ? 0 : 1
+            );
+    }
+
+    private static boolean hasFixedDateHearing(final CaseDetailsHearingDto hearingDto) {
+        return nonNull(hearingDto.getCourtSittings())
+            && !hearingDto.getCourtSittings().isEmpty()
+            && hearingDto.getCourtSittings().stream()
+            .anyMatch(s -> nonNull(s.getSittingStart()) && !s.getSittingStart().isEmpty());
+    }
+
+    private static LocalDate getEarliestHearingDate(final CaseDetailsHearingDto hearingDto) {
+        LocalDate weekCommencingStartDate = null;
+        LocalDate weekCommencingEndDate = null;
+
+        LocalDate earliestSittingDate = getEarliestCourtSittingDate(hearingDto);
+        try {
+            weekCommencingStartDate = Optional.ofNullable(hearingDto.getWeekCommencing())
+                .map(weekCommencing -> LocalDate.parse(weekCommencing.getStartDate()))
+                .orElse(null);
+            weekCommencingEndDate = Optional.ofNullable(hearingDto.getWeekCommencing())
+                .map(weekCommencing -> LocalDate.parse(weekCommencing.getEndDate()))
+                .orElse(null);
+        } catch (Exception e) {
+            log.error("parsing error for hearing {} : {}", hearingDto.getHearingId(), e.getMessage());
+        }
+
+        if (nonNull(earliestSittingDate) && nonNull(weekCommencingStartDate)) {
+            return earliestSittingDate.isBefore(weekCommencingStartDate)
+                || earliestSittingDate.equals(weekCommencingStartDate)
+                ||
+                (
+                    earliestSittingDate.isAfter(weekCommencingStartDate)
+                        && earliestSittingDate.isBefore(weekCommencingEndDate)
+                )
+                ? earliestSittingDate : weekCommencingStartDate;
+        } else if (nonNull(earliestSittingDate)) {
+            return earliestSittingDate;
+        } else {
+            return weekCommencingEndDate;
+        }
+    }
+
+    private static LocalDate getEarliestCourtSittingDate(final CaseDetailsHearingDto hearingDto) {
+        LocalDate earliestSittingDate = null;
+        if (nonNull(hearingDto.getCourtSittings()) && !hearingDto.getCourtSittings().isEmpty()) {
+            Optional<LocalDate> sittingDate = hearingDto.getCourtSittings()
+                .stream()
+                .filter(s -> nonNull(s.getSittingStart()))
+                .map(s -> {
+                    try {
+                        return parse(s.getSittingStart()).toLocalDate();
+                    } catch (Exception e) {
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder());
+
+            if (sittingDate.isPresent()) {
+                earliestSittingDate = sittingDate.get();
+            }
+        }
+        return earliestSittingDate;
+    }
+
+    private CaseDetailsWeekCommencingDto getWeekCommencing(final HearingDto hearing) {
+        final WeekCommencingDto weekCommencingDto = hearing.getWeekCommencing();
+        if (isNull(weekCommencingDto.getStartDate()) || isNull(weekCommencingDto.getEndDate())) {
+            return null;
+        }
+
+        final boolean hasValidWeekCommencingDate = validateDateNotInPastAndNotAfterTenYears(weekCommencingDto.getStartDate())
+            || validateDateNotInPastAndNotAfterTenYears(weekCommencingDto.getEndDate());
+        if (!hasValidWeekCommencingDate) {
+            return null;
+        }
+
+        final CourtHouseDto courtHouseDto = CourtHouseDto.builder()
+            .courtHouseId(weekCommencingDto.getCourtHouse())
+            .build();
+
+        return CaseDetailsWeekCommencingDto.builder()
+            .startDate(weekCommencingDto.getStartDate().format(DateTimeFormatter.ISO_DATE))
+            .endDate(weekCommencingDto.getEndDate().format(DateTimeFormatter.ISO_DATE))
+            .durationInWeeks(weekCommencingDto.getDurationInWeeks())
+            .courtHouse(courtHouseDto)
+            .build();
+
+    }
+
+    private List<CaseDetailsCourtSittingDto> getCourtSittings(final HearingDto hearing) {
+
+        final List<CourtSittingDto> sittings = hearing.getCourtSittings();
+        final boolean hasAnyCurrentOrFutureSitting = (nonNull(sittings) && !sittings.isEmpty())
+            && sittings.stream()
+            .anyMatch(s -> validateDateNotInPastAndNotAfterTenYears(s.getSittingStart().toLocalDate()));
+
+        if (!hasAnyCurrentOrFutureSitting) {
+            return null;
+        }
+
+        return sittings.stream()
+            .map(this::populateCourtSittings)
+            .toList();
+    }
+
+    private CaseDetailsCourtSittingDto populateCourtSittings(final CourtSittingDto courtSitting) {
+        final CourtHouseDto courtHouseDto = CourtHouseDto.builder()
+            .courtHouseId(courtSitting.getCourtHouse())
+            .courtRoomId(courtSitting.getCourtRoom())
+            .build();
+
+        return CaseDetailsCourtSittingDto.builder()
+            .judiciaryId(courtSitting.getJudiciaryId())
+            .sittingStart(courtSitting.getSittingStart().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+            .sittingEnd(courtSitting.getSittingEnd().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+            .courtHouse(courtHouseDto)
+            .build();
+    }
+
+    private boolean validateDateNotInPastAndNotAfterTenYears(final LocalDate hearingDate) {
+        if (nonNull(hearingDate)) {
+            try {
+                return !(hearingDate.isBefore(LocalDate.now()) || hearingDate.isAfter(LocalDate.now().plusYears(10)));
+            } catch (Exception e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isValidHearingType(final String hearingType) {
+        if (isNull(hearingType)) {
+            return false;
+        }
+        HearingType fromValue = HearingType.fromValue(hearingType);
+        if (nonNull(fromValue)) {
+            return true;
+        }
+        final String hearingTypeInLowerCase = hearingType.toLowerCase();
+        if (hearingTypeInLowerCase.contains(HearingType.TRIAL.getValue().toLowerCase())
+            || hearingTypeInLowerCase.contains(HearingType.SENTENCE.getValue().toLowerCase())) {
+            // this is a case if you missed any hearing type in HearingType enum, which has "trial" or "sentence" in the value
+            log.info("Hearing type does match Trail or Sentence filtering and not included in the enum [{}]", hearingType);
+            return false;
+        }
+        return false;
+    }
+}
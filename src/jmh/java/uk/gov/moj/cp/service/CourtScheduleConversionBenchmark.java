@@ -0,0 +1,44 @@
+package uk.gov.moj.cp.service;
+
+import com.moj.generated.hmcts.CourtSchedule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.moj.cp.benchmark.SyntheticSchedules;
+import uk.gov.moj.cp.dto.inbound.CourtScheduleDto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of converting the SLC court schedule response into the inbound DTOs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CourtScheduleConversionBenchmark {
+
+    private static final String CASE_URN = "CASE123";
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    private int hearingCount;
+
+    private CourtScheduleService courtScheduleService;
+    private List<CourtSchedule> courtSchedules;
+
+    @Setup
+    public void setUp() {
+        courtScheduleService = new CourtScheduleService(null, null);
+        courtSchedules = List.of(SyntheticSchedules.courtSchedule(hearingCount));
+    }
+
+    @Benchmark
+    public List<CourtScheduleDto> convertToCourtScheduleDto() {
+        return courtScheduleService.convertToCourtScheduleDto(CASE_URN, courtSchedules);
+    }
+}
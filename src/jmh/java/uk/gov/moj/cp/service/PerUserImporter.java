@@ -0,0 +1,70 @@
+package uk.gov.moj.cp.service;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.moj.cp.dto.UserCreationResponseDto;
+import uk.gov.moj.cp.dto.UserDto;
+import uk.gov.moj.cp.entity.User;
+import uk.gov.moj.cp.model.UserCreationStatus;
+import uk.gov.moj.cp.repository.UserRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * User creation as it was before the bulk import, kept as the benchmark baseline. Each user is looked up by its email
+ * lookup and then saved through JPA, one SELECT and one INSERT per user inside a single transaction.
+ */
+class PerUserImporter {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    PerUserImporter(UserRepository userRepository, TransactionTemplate transactionTemplate) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    List<UserCreationResponseDto> addUsers(final List<UserDto> userDtos) {
+        return transactionTemplate.execute(status -> userDtos.stream().map(this::validateAndCreateUser).toList());
+    }
+
+    private UserCreationResponseDto validateAndCreateUser(UserDto userDto) {
+        try {
+            validateEmail(userDto.getEmail());
+            User user = new User(userDto.getEmail().toLowerCase().trim());
+            Optional<User> emailOptional = userRepository.findByEmailLookup(user.getEmail());
+            if (emailOptional.isEmpty()) {
+                User savedUser = userRepository.save(user);
+                return UserCreationResponseDto.builder()
+                    .email(savedUser.getEmail())
+                    .status(UserCreationStatus.CREATED)
+                    .build();
+            } else {
+                return UserCreationResponseDto.builder()
+                    .email(user.getEmail())
+                    .status(UserCreationStatus.FAILED)
+                    .reason("Email already exists")
+                    .build();
+            }
+        } catch (IllegalArgumentException e) {
+            return UserCreationResponseDto.builder()
+                .email(userDto.getEmail())
+                .status(UserCreationStatus.FAILED)
+                .reason("User email validation failed")
+                .build();
+        } catch (Exception e) {
+            return UserCreationResponseDto.builder()
+                .email(userDto.getEmail())
+                .status(UserCreationStatus.FAILED)
+                .reason("Invalid user data")
+                .build();
+        }
+    }
+
+    private static void validateEmail(String email) {
+        if (StringUtils.isBlank(email) || !email.contains("@")) {
+            throw new IllegalArgumentException("Invalid email: " + email);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package uk.gov.moj.cp.service;
+
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.moj.cp.config.EmailLookupMemo;
+import uk.gov.moj.cp.config.SecretKeyLoader;
+import uk.gov.moj.cp.dto.UserCreationResponseDto;
+import uk.gov.moj.cp.dto.UserDto;
+import uk.gov.moj.cp.entity.User;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+import uk.gov.moj.cp.repository.UserBulkRepository;
+import uk.gov.moj.cp.repository.UserRepository;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Time to create a batch of users with the bulk {@link UserService#addUsers}, against the per-user lookup and save it
+ * replaced. Runs against an in-memory H2 database in PostgreSQL mode, so the network round trip the per-user path
+ * pays for every statement against a remote Postgres is not measured here. The table is emptied before every import
+ * and a tenth of the emails already exist.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UserImportBenchmark {
+
+    @Param({"1000", "10000"})
+    private int userCount;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private UserService userService;
+    private PerUserImporter perUserImporter;
+    private List<UserDto> users;
+    private List<UserDto> existingUsers;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(UserImportConfiguration.class).run(
+            "--spring.config.name=user-import-benchmark",
+            "--spring.main.web-application-type=none",
+            "--spring.main.banner-mode=off",
+            "--spring.datasource.url=jdbc:h2:mem:userimport;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.flyway.enabled=false",
+            "--services.users.active-user-cache.enabled=true",
+            "--services.users.active-user-cache.maximum-size=10000",
+            "--services.users.active-user-cache.ttl-seconds=60",
+            "--services.users.active-user-cache.negative-ttl-seconds=10",
+            "--services.users.active-user-cache.invalidation.enabled=false",
+            "--services.users.email-lookup-memo.maximum-size=10000",
+            "--services.users.bulk-import.chunk-size=500"
+        );
+        jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        userService = context.getBean(UserService.class);
+        perUserImporter = new PerUserImporter(
+            context.getBean(UserRepository.class),
+            context.getBean(TransactionTemplate.class)
+        );
+
+        users = IntStream.range(0, userCount)
+            .mapToObj(i -> UserDto.builder().email("user" + i + "@example.com").build())
+            .toList();
+        existingUsers = users.subList(0, userCount / 10);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetUsers() {
+        jdbcTemplate.execute("TRUNCATE TABLE tmc_user");
+        userService.addUsers(existingUsers);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserCreationResponseDto> perUserImport() {
+        return perUserImporter.addUsers(users);
+    }
+
+    @Benchmark
+    public List<UserCreationResponseDto> bulkImport() {
+        return userService.addUsers(users);
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @AutoConfigurationPackage(basePackageClasses = {User.class, UserRepository.class})
+    @Import({
+        UserService.class,
+        ActiveUserCache.class,
+        EmailLookupMemo.class,
+        LocalUserInvalidationBus.class,
+        UserBulkRepository.class,
+        CacheMetricsService.class
+    })
+    static class UserImportConfiguration {
+
+        @Bean
+        SecretKeyLoader secretKeyLoader() {
+            return new SecretKeyLoader(
+                "FmkCWyCPfsuVD3r1SHqS3BFtB4YI1i7QdiZrfGKjv4k=",
+                "oUO29pYYc9n4XlvAbPt8B0ncfadyqnI8C63tKCWKuao="
+            );
+        }
+
+        @Bean
+        PrometheusRegistry prometheusRegistry() {
+            return new PrometheusRegistry();
+        }
+    }
+}
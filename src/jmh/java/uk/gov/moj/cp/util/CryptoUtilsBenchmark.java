@@ -0,0 +1,90 @@
+package uk.gov.moj.cp.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of encrypting, decrypting and hashing user emails, as done on every user lookup and write, with a new
+ * {@code Cipher} or {@code Mac} per call through {@link CryptoUtils} and with the pooled ones of {@link CryptoEngine}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CryptoUtilsBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    private int emailCount;
+
+    private Key secretKey;
+    private byte[] lookupKey;
+    private String[] emails;
+    private String[] encryptedEmails;
+    private CryptoEngine cryptoEngine;
+
+    @Setup
+    public void setUp() {
+        secretKey = new SecretKeySpec("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8), "AES");
+        lookupKey = "benchmark-lookup-key".getBytes(StandardCharsets.UTF_8);
+        cryptoEngine = new CryptoEngine(secretKey, lookupKey);
+        emails = new String[emailCount];
+        encryptedEmails = new String[emailCount];
+        for (int i = 0; i < emailCount; i++) {
+            emails[i] = "user" + i + "@example.com";
+            encryptedEmails[i] = CryptoUtils.aesEncrypt(emails[i], secretKey);
+        }
+    }
+
+    @Benchmark
+    public void aesEncrypt(Blackhole blackhole) {
+        for (String email : emails) {
+            blackhole.consume(CryptoUtils.aesEncrypt(email, secretKey));
+        }
+    }
+
+    @Benchmark
+    public void aesDecrypt(Blackhole blackhole) {
+        for (String encryptedEmail : encryptedEmails) {
+            blackhole.consume(CryptoUtils.aesDecrypt(encryptedEmail, secretKey));
+        }
+    }
+
+    @Benchmark
+    public void hmacEncrypt(Blackhole blackhole) {
+        for (String email : emails) {
+            blackhole.consume(CryptoUtils.hmacEncrypt(email, lookupKey));
+        }
+    }
+
+    @Benchmark
+    public void engineAesEncrypt(Blackhole blackhole) {
+        for (String email : emails) {
+            blackhole.consume(cryptoEngine.aesEncrypt(email));
+        }
+    }
+
+    @Benchmark
+    public void engineAesDecrypt(Blackhole blackhole) {
+        for (String encryptedEmail : encryptedEmails) {
+            blackhole.consume(cryptoEngine.aesDecrypt(encryptedEmail));
+        }
+    }
+
+    @Benchmark
+    public void engineHmacEncrypt(Blackhole blackhole) {
+        for (String email : emails) {
+            blackhole.consume(cryptoEngine.hmacEncrypt(email));
+        }
+    }
+}
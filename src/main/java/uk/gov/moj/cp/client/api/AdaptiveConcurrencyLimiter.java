@@ -0,0 +1,123 @@
+package uk.gov.moj.cp.client.api;
+
+import io.prometheus.metrics.core.datapoints.CounterDataPoint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import uk.gov.moj.cp.exception.UpstreamOverloadedException;
+import uk.gov.moj.cp.metrics.ConcurrencyLimitMetricsService;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of calls in flight to one upstream, adjusting the cap to how the upstream copes (AIMD). A call
+ * that finds the cap reached is rejected straight away with an {@link UpstreamOverloadedException} rather than
+ * queued, so request threads do not pile up behind a slow upstream.
+ *
+ * <p>The cap grows by one for every call that completes within {@code slowCallMillis} while at least half of it was
+ * in use, up to {@code maxLimit}. It shrinks by {@code backoffRatio}, down to {@code minLimit}, when a call is slow,
+ * times out, fails to connect, or is answered with 429 or a 5xx status, unless the cap has already shrunk since that
+ * call started. A burst of calls that all went out under the same cap and all came back slow is one sign of overload,
+ * so it backs off one step rather than one step per call. Other error responses, such as a 404 for an unknown case,
+ * say nothing about the upstream's load and leave the cap unchanged when they are fast.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private final String upstream;
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long slowCallNanos;
+    private final double backoffRatio;
+    private final CounterDataPoint rejectedCounter;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    // bumped on every back off, so a call can tell whether the cap shrank while it was in flight
+    private volatile long backoffs;
+
+    public AdaptiveConcurrencyLimiter(String upstream,
+                                      boolean enabled,
+                                      int initialLimit,
+                                      int minLimit,
+                                      int maxLimit,
+                                      long slowCallMillis,
+                                      double backoffRatio,
+                                      ConcurrencyLimitMetricsService metricsService) {
+        this.upstream = upstream;
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.rejectedCounter = metricsService.registerLimiter(upstream, this::getLimit, this::getInFlight);
+    }
+
+    public <T> T call(Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        if (!tryAcquire()) {
+            rejectedCounter.inc();
+            throw new UpstreamOverloadedException(upstream);
+        }
+        final long backoffsAtAcquire = backoffs;
+        final long started = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            return call.get();
+        } catch (HttpStatusCodeException e) {
+            overloaded = e.getStatusCode().is5xxServerError() || e.getStatusCode().value() == 429;
+            throw e;
+        } catch (ResourceAccessException e) {
+            // timeouts and connection failures
+            overloaded = true;
+            throw e;
+        } finally {
+            release(System.nanoTime() - started, overloaded, backoffsAtAcquire);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            final int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release(long durationNanos, boolean overloaded, long backoffsAtAcquire) {
+        final int wasInFlight = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (overloaded || durationNanos > slowCallNanos) {
+                if (backoffs != backoffsAtAcquire) {
+                    return;
+                }
+                backoffs++;
+                final double reduced = Math.max(minLimit, limit * backoffRatio);
+                if ((int) reduced < (int) limit) {
+                    log.debug("Concurrency limit of {} reduced to {}", upstream, (int) reduced);
+                }
+                limit = reduced;
+            } else if (wasInFlight * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+}
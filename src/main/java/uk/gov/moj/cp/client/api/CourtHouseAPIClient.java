@@ -4,6 +4,7 @@ import com.moj.generated.hmcts.CourtHouse;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -14,9 +15,12 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
+import uk.gov.moj.cp.exception.UpstreamOverloadedException;
 
 import java.util.List;
 import static java.util.Objects.isNull;
+import static uk.gov.moj.cp.config.HttpClientConfig.RCC_CONCURRENCY_LIMITER;
+import static uk.gov.moj.cp.config.HttpClientConfig.RCC_REST_TEMPLATE;
 
 @Slf4j
 @Component
@@ -24,8 +28,12 @@ import static java.util.Objects.isNull;
 
 public class CourtHouseAPIClient implements CourtHouseClient {
 
+    @Qualifier(RCC_REST_TEMPLATE)
     private final RestTemplate restTemplate;
 
+    @Qualifier(RCC_CONCURRENCY_LIMITER)
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
     @Getter
     @Value("${services.amp-url}")
     private String ampUrl;
@@ -66,14 +74,14 @@ public class CourtHouseAPIClient implements CourtHouseClient {
             : buildCourtHearingCourtHousesAndCourtRoomsByIdUrl(courtId, courtRoomId);
 
         try {
-            return restTemplate.exchange(
+            return concurrencyLimiter.call(() -> restTemplate.exchange(
                 courtHouseAmpUrl,
                 HttpMethod.GET,
                 getRequestEntity(accessToken),
                 CourtHouse.class
-            );
+            ));
 
-        } catch (HttpStatusCodeException e) {
+        } catch (HttpStatusCodeException | UpstreamOverloadedException e) {
             throw e;
         } catch (Exception e) {
             log.error("Error while calling CourtHouse API: courtId: {}, exception: {}",
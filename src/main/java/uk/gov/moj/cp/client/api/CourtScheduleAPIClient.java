@@ -4,6 +4,7 @@ import com.moj.generated.hmcts.CourtScheduleSchema;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -14,17 +15,28 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
+import uk.gov.moj.cp.exception.UpstreamOverloadedException;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import static uk.gov.moj.cp.config.HttpClientConfig.SLC_CONCURRENCY_LIMITER;
+import static uk.gov.moj.cp.config.HttpClientConfig.SLC_REST_TEMPLATE;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
 
 public class CourtScheduleAPIClient implements CourtScheduleClient {
 
+    @Qualifier(SLC_REST_TEMPLATE)
     private final RestTemplate restTemplate;
 
+    @Qualifier(SLC_CONCURRENCY_LIMITER)
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    private final CourtScheduleStreamingParser courtScheduleStreamingParser;
+
     @Getter
     @Value("${services.amp-url}")
     private String ampUrl;
@@ -37,6 +49,10 @@ public class CourtScheduleAPIClient implements CourtScheduleClient {
     @Value("${services.api-cp-crime-schedulingandlisting-courtschedule.path}")
     private String apiCpCrimeSchedulingAndListingCourtSchedulePath;
 
+    @Getter
+    @Value("${services.court-schedule.streaming-parse-enabled}")
+    private boolean streamingParseEnabled;
+
     protected String buildCourtScheduleUrl(String caseUrn) {
         return UriComponentsBuilder
             .fromUriString(getAmpUrl())
@@ -47,13 +63,16 @@ public class CourtScheduleAPIClient implements CourtScheduleClient {
 
     public ResponseEntity<CourtScheduleSchema> getCourtScheduleByCaseUrn(String accessToken, String caseUrn) {
         try {
-            return restTemplate.exchange(
+            if (isStreamingParseEnabled()) {
+                return concurrencyLimiter.call(() -> getFilteredCourtSchedule(accessToken, caseUrn));
+            }
+            return concurrencyLimiter.call(() -> restTemplate.exchange(
                 buildCourtScheduleUrl(caseUrn),
                 HttpMethod.GET,
                 getRequestEntity(accessToken),
                 CourtScheduleSchema.class
-            );
-        } catch (HttpStatusCodeException e) {
+            ));
+        } catch (HttpStatusCodeException | UpstreamOverloadedException e) {
             throw e;
         } catch (Exception e) {
             log.error("Error while calling CourtSchedule API: caseUrn: {}, exception: {}",
@@ -62,6 +81,20 @@ public class CourtScheduleAPIClient implements CourtScheduleClient {
         }
     }
 
+    /**
+     * Parses the response as it is read, keeping only the hearings that can be the next hearing of the case.
+     */
+    private ResponseEntity<CourtScheduleSchema> getFilteredCourtSchedule(String accessToken, String caseUrn) {
+        return restTemplate.execute(
+            buildCourtScheduleUrl(caseUrn),
+            HttpMethod.GET,
+            restTemplate.httpEntityCallback(getRequestEntity(accessToken)),
+            response -> ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .body(courtScheduleStreamingParser.parse(response.getBody(), LocalDate.now()))
+        );
+    }
+
     protected HttpEntity<String> getRequestEntity(String accessToken) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
@@ -0,0 +1,184 @@
+package uk.gov.moj.cp.client.api;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.moj.generated.hmcts.CourtSchedule;
+import com.moj.generated.hmcts.CourtScheduleSchema;
+import com.moj.generated.hmcts.CourtSitting;
+import com.moj.generated.hmcts.Hearing;
+import com.moj.generated.hmcts.WeekCommencing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import uk.gov.moj.cp.model.NextHearingWindow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static uk.gov.moj.cp.util.Utils.objectMapper;
+
+/**
+ * Reads a court schedule response token by token and keeps only the hearings that can be chosen as the next hearing.
+ *
+ * <p>A hearing is dropped when it breaks the rules of {@link NextHearingWindow}. The next hearing selection applies the
+ * same rules, so dropping the hearings here does not change the case details. The remaining fields of a hearing are
+ * skipped as soon as its hearing type is known to be unwanted, and only kept hearings are materialised.
+ */
+@Slf4j
+@Component
+public class CourtScheduleStreamingParser {
+
+    private static final ObjectReader ZONED_DATE_TIME_READER = objectMapper.readerFor(ZonedDateTime.class);
+    private static final ObjectReader LOCAL_DATE_READER = objectMapper.readerFor(LocalDate.class);
+
+    public CourtScheduleSchema parse(final InputStream body, final LocalDate today) throws IOException {
+        final NextHearingWindow window = NextHearingWindow.startingOn(today);
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (isNull(parser.nextToken())) {
+                return null;
+            }
+            expect(parser, JsonToken.START_OBJECT);
+
+            final List<CourtSchedule> courtSchedules = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.currentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && "courtSchedule".equals(field)) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        courtSchedules.add(readCourtSchedule(parser, window));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return new CourtScheduleSchema(courtSchedules);
+        }
+    }
+
+    private CourtSchedule readCourtSchedule(final JsonParser parser, final NextHearingWindow window) throws IOException {
+        final List<Hearing> hearings = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.START_ARRAY && "hearings".equals(field)) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    final Hearing hearing = readHearing(parser, window);
+                    if (nonNull(hearing)) {
+                        hearings.add(hearing);
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new CourtSchedule(hearings);
+    }
+
+    private Hearing readHearing(final JsonParser parser, final NextHearingWindow window) throws IOException {
+        String hearingId = null;
+        String hearingType = null;
+        String hearingDescription = null;
+        String listNote = null;
+        WeekCommencing weekCommencing = null;
+        List<CourtSitting> courtSittings = new ArrayList<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "hearingId" -> hearingId = parser.getValueAsString();
+                case "hearingType" -> {
+                    hearingType = parser.getValueAsString();
+                    if (isNull(NextHearingWindow.candidateHearingType(hearingType))) {
+                        log.debug("Skipping hearing with hearing type [{}]", hearingType);
+                        skipRemainingFields(parser);
+                        return null;
+                    }
+                }
+                case "hearingDescription" -> hearingDescription = parser.getValueAsString();
+                case "listNote" -> listNote = parser.getValueAsString();
+                case "weekCommencing" -> weekCommencing = readWeekCommencing(parser);
+                case "courtSittings" -> courtSittings = readCourtSittings(parser);
+                default -> parser.skipChildren();
+            }
+        }
+
+        // the hearing type may be missing or come after the dates
+        if (isNull(NextHearingWindow.candidateHearingType(hearingType)) || !hasCandidateDate(window, weekCommencing, courtSittings)) {
+            return null;
+        }
+        return new Hearing(hearingId, hearingType, hearingDescription, listNote, weekCommencing, courtSittings);
+    }
+
+    private WeekCommencing readWeekCommencing(final JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        final WeekCommencing weekCommencing = new WeekCommencing();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "courtHouse" -> weekCommencing.setCourtHouse(parser.getValueAsString());
+                case "startDate" -> weekCommencing.setStartDate(LOCAL_DATE_READER.readValue(parser));
+                case "endDate" -> weekCommencing.setEndDate(LOCAL_DATE_READER.readValue(parser));
+                case "durationInWeeks" -> weekCommencing.setDurationInWeeks(parser.getValueAsInt());
+                default -> parser.skipChildren();
+            }
+        }
+        return weekCommencing;
+    }
+
+    private List<CourtSitting> readCourtSittings(final JsonParser parser) throws IOException {
+        final List<CourtSitting> courtSittings = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return courtSittings;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            final CourtSitting courtSitting = new CourtSitting();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "sittingStart" -> courtSitting.setSittingStart(ZONED_DATE_TIME_READER.readValue(parser));
+                    case "sittingEnd" -> courtSitting.setSittingEnd(ZONED_DATE_TIME_READER.readValue(parser));
+                    case "judiciaryId" -> courtSitting.setJudiciaryId(parser.getValueAsString());
+                    case "courtHouse" -> courtSitting.setCourtHouse(parser.getValueAsString());
+                    case "courtRoom" -> courtSitting.setCourtRoom(parser.getValueAsString());
+                    default -> parser.skipChildren();
+                }
+            }
+            courtSittings.add(courtSitting);
+        }
+        return courtSittings;
+    }
+
+    private static void skipRemainingFields(final JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            parser.skipChildren();
+        }
+    }
+
+    private static void expect(final JsonParser parser, final JsonToken expected) throws IOException {
+        if (parser.currentToken() != expected) {
+            throw new IOException("Unexpected token " + parser.currentToken() + " in court schedule response, expected " + expected);
+        }
+    }
+
+    private static boolean hasCandidateDate(final NextHearingWindow window, final WeekCommencing weekCommencing,
+                                            final List<CourtSitting> courtSittings) {
+        if (nonNull(weekCommencing)) {
+            return window.containsWeekCommencing(weekCommencing.getStartDate(), weekCommencing.getEndDate());
+        }
+        return courtSittings.stream()
+            .anyMatch(courtSitting -> nonNull(courtSitting.getSittingStart())
+                && window.containsSitting(courtSitting.getSittingStart().toLocalDate()));
+    }
+}
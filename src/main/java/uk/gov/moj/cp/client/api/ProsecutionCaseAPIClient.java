@@ -4,6 +4,7 @@ import com.moj.generated.hmcts.ProsecutionCase;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -14,17 +15,25 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
+import uk.gov.moj.cp.exception.UpstreamOverloadedException;
 
 import java.util.List;
 
+import static uk.gov.moj.cp.config.HttpClientConfig.PCD_CONCURRENCY_LIMITER;
+import static uk.gov.moj.cp.config.HttpClientConfig.PCD_REST_TEMPLATE;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
 
 public class ProsecutionCaseAPIClient implements ProsecutionCaseClient {
 
+    @Qualifier(PCD_REST_TEMPLATE)
     private final RestTemplate restTemplate;
 
+    @Qualifier(PCD_CONCURRENCY_LIMITER)
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
     @Getter
     @Value("${services.amp-url}")
     private String ampUrl;
@@ -47,13 +56,13 @@ public class ProsecutionCaseAPIClient implements ProsecutionCaseClient {
 
     public ResponseEntity<ProsecutionCase> getCaseDetails(final String accessToken, final String caseUrn) {
         try {
-            return restTemplate.exchange(
+            return concurrencyLimiter.call(() -> restTemplate.exchange(
                 buildCourtScheduleUrl(caseUrn),
                 HttpMethod.GET,
                 getRequestEntity(accessToken),
                 ProsecutionCase.class
-            );
-        } catch (HttpStatusCodeException e) {
+            ));
+        } catch (HttpStatusCodeException | UpstreamOverloadedException e) {
             throw e;
         } catch (Exception e) {
             log.error("Error while calling ProsecutionCase API: caseUrn: {}, exception: {}",
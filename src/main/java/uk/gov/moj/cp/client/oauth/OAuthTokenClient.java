@@ -3,6 +3,7 @@ package uk.gov.moj.cp.client.oauth;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -16,11 +17,14 @@ import org.springframework.web.util.UriComponentsBuilder;
 import uk.gov.moj.cp.model.OAuthTokenResponse;
 import uk.gov.moj.cp.model.AmpApiType;
 
+import static uk.gov.moj.cp.config.HttpClientConfig.OAUTH_TOKEN_REST_TEMPLATE;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class OAuthTokenClient {
 
+    @Qualifier(OAUTH_TOKEN_REST_TEMPLATE)
     private final RestTemplate restTemplate;
 
     @Getter
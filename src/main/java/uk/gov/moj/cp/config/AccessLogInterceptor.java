@@ -0,0 +1,63 @@
+package uk.gov.moj.cp.config;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import uk.gov.moj.cp.metrics.AccessLog;
+import uk.gov.moj.cp.metrics.RequestTimings;
+
+/**
+ * Writes an {@link AccessLog} event for each sampled API request. The route pattern is logged rather than the URI, so
+ * no case URN reaches the access log.
+ *
+ * <p>An asynchronous request, such as a streamed user listing, is sampled once on its first dispatch and logged when
+ * its async dispatch completes. Spring skips {@code afterCompletion} on the first dispatch, so the timings are unbound
+ * from the worker thread once concurrent handling starts, rather than leaking into the next request on that thread.
+ */
+public class AccessLogInterceptor implements AsyncHandlerInterceptor {
+
+    static final String TIMINGS_ATTRIBUTE = AccessLogInterceptor.class.getName() + ".timings";
+    static final String STARTED_NANOS_ATTRIBUTE = AccessLogInterceptor.class.getName() + ".startedNanos";
+
+    private final AccessLog accessLog;
+
+    public AccessLogInterceptor(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        final RequestTimings timings = accessLog.start();
+        if (timings != null) {
+            request.setAttribute(TIMINGS_ATTRIBUTE, timings);
+            request.setAttribute(STARTED_NANOS_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestTimings.unbind();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(TIMINGS_ATTRIBUTE) instanceof RequestTimings timings
+            && request.getAttribute(STARTED_NANOS_ATTRIBUTE) instanceof Long startedNanos) {
+            final Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            accessLog.finish(
+                timings,
+                request.getMethod(),
+                route == null ? "unmatched" : route.toString(),
+                response.getStatus(),
+                System.nanoTime() - startedNanos,
+                ex
+            );
+        }
+    }
+}
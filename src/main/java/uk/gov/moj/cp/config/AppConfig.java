@@ -3,18 +3,20 @@ package uk.gov.moj.cp.config;
 import io.prometheus.metrics.model.registry.PrometheusRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 public class AppConfig {
 
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
-
     @Bean
     public PrometheusRegistry prometheusRegistry() {
         return new PrometheusRegistry();
     }
+
+    @Bean(destroyMethod = "close")
+    public ExecutorService downstreamExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
 }
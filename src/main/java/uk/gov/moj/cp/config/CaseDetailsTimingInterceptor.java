@@ -0,0 +1,34 @@
+package uk.gov.moj.cp.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService;
+
+/**
+ * Times /casedetails requests end to end by status class. It is registered ahead of the rate limit interceptors, so
+ * rejected requests are timed too.
+ */
+public class CaseDetailsTimingInterceptor implements HandlerInterceptor {
+
+    static final String STARTED_NANOS_ATTRIBUTE = CaseDetailsTimingInterceptor.class.getName() + ".startedNanos";
+
+    private final TrackMyCaseMetricsService trackMyCaseMetricsService;
+
+    public CaseDetailsTimingInterceptor(TrackMyCaseMetricsService trackMyCaseMetricsService) {
+        this.trackMyCaseMetricsService = trackMyCaseMetricsService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(STARTED_NANOS_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(STARTED_NANOS_ATTRIBUTE) instanceof Long startedNanos) {
+            trackMyCaseMetricsService.recordCaseDetailsRequest(response.getStatus(), System.nanoTime() - startedNanos);
+        }
+    }
+}
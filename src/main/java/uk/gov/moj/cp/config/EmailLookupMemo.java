@@ -0,0 +1,46 @@
+package uk.gov.moj.cp.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+import uk.gov.moj.cp.util.CryptoEngine;
+
+/**
+ * Remembers the HMAC lookup value of recently used emails, so that authorising the same user again, or querying
+ * users by email, does not recompute it. The HMAC key never changes while the application runs, so entries are
+ * only dropped when the memo is full. Its keys are plaintext emails, like the decrypted {@code User} entities they
+ * come from they are held on the heap only and never written anywhere.
+ */
+@Component
+public class EmailLookupMemo {
+
+    private static final String EMAIL_LOOKUP_CACHE_NAME = "emaillookup";
+
+    private final CryptoEngine cryptoEngine;
+    private final Cache<String, String> memo;
+
+    public EmailLookupMemo(SecretKeyLoader secretKeyLoader,
+                           CacheMetricsService cacheMetricsService,
+                           @Value("${services.users.email-lookup-memo.maximum-size}") long maximumSize) {
+        this.cryptoEngine = secretKeyLoader.getCryptoEngine();
+        this.memo = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .recordStats()
+            .build();
+        cacheMetricsService.registerCache(EMAIL_LOOKUP_CACHE_NAME, memo);
+    }
+
+    /**
+     * Returns the HMAC lookup value of an email as stored in {@code tmc_user.email_lookup}. Callers pass the
+     * normalised email.
+     */
+    public String emailLookup(String email) {
+        if (email == null) {
+            // not memoised, Caffeine takes no null keys; fails the same way as an unmemoised call
+            return cryptoEngine.hmacEncrypt(null);
+        }
+        return memo.get(email, cryptoEngine::hmacEncrypt);
+    }
+}
@@ -0,0 +1,127 @@
+package uk.gov.moj.cp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+import uk.gov.moj.cp.client.api.AdaptiveConcurrencyLimiter;
+import uk.gov.moj.cp.metrics.ConcurrencyLimitMetricsService;
+
+/**
+ * One {@link RestTemplate} per upstream so that a slow API cannot exhaust the connections of the others, and one
+ * {@link AdaptiveConcurrencyLimiter} per upstream API, never allowing more calls in flight than it has connections.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    public static final String SLC_REST_TEMPLATE = "slcRestTemplate";
+    public static final String RCC_REST_TEMPLATE = "rccRestTemplate";
+    public static final String PCD_REST_TEMPLATE = "pcdRestTemplate";
+    public static final String OAUTH_TOKEN_REST_TEMPLATE = "oauthTokenRestTemplate";
+    public static final String SLC_CONCURRENCY_LIMITER = "slcConcurrencyLimiter";
+    public static final String RCC_CONCURRENCY_LIMITER = "rccConcurrencyLimiter";
+    public static final String PCD_CONCURRENCY_LIMITER = "pcdConcurrencyLimiter";
+
+    private final PooledRestTemplateFactory pooledRestTemplateFactory;
+    private final long connectTimeoutMs;
+    private final long connectionRequestTimeoutMs;
+    private final long keepAliveSeconds;
+    private final long idleEvictionSeconds;
+    private final boolean http2Enabled;
+    private final ConcurrencyLimitMetricsService concurrencyLimitMetricsService;
+    private final boolean concurrencyLimitEnabled;
+    private final int minConcurrencyLimit;
+    private final double concurrencyLimitBackoffRatio;
+
+    public HttpClientConfig(PooledRestTemplateFactory pooledRestTemplateFactory,
+                            ConcurrencyLimitMetricsService concurrencyLimitMetricsService,
+                            @Value("${services.http-client.connect-timeout-ms}") long connectTimeoutMs,
+                            @Value("${services.http-client.connection-request-timeout-ms}") long connectionRequestTimeoutMs,
+                            @Value("${services.http-client.keep-alive-seconds}") long keepAliveSeconds,
+                            @Value("${services.http-client.idle-eviction-seconds}") long idleEvictionSeconds,
+                            @Value("${services.http-client.http2-enabled}") boolean http2Enabled,
+                            @Value("${services.http-client.concurrency-limit.enabled}") boolean concurrencyLimitEnabled,
+                            @Value("${services.http-client.concurrency-limit.min-limit}") int minConcurrencyLimit,
+                            @Value("${services.http-client.concurrency-limit.backoff-ratio}") double concurrencyLimitBackoffRatio) {
+        this.pooledRestTemplateFactory = pooledRestTemplateFactory;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.connectionRequestTimeoutMs = connectionRequestTimeoutMs;
+        this.keepAliveSeconds = keepAliveSeconds;
+        this.idleEvictionSeconds = idleEvictionSeconds;
+        this.http2Enabled = http2Enabled;
+        this.concurrencyLimitMetricsService = concurrencyLimitMetricsService;
+        this.concurrencyLimitEnabled = concurrencyLimitEnabled;
+        this.minConcurrencyLimit = minConcurrencyLimit;
+        this.concurrencyLimitBackoffRatio = concurrencyLimitBackoffRatio;
+    }
+
+    @Bean(SLC_REST_TEMPLATE)
+    public RestTemplate slcRestTemplate(@Value("${services.http-client.slc.max-connections}") int maxConnections,
+                                        @Value("${services.http-client.slc.read-timeout-ms}") long readTimeoutMs) {
+        return pooledRestTemplateFactory.create("slc", settings(maxConnections, readTimeoutMs));
+    }
+
+    @Bean(RCC_REST_TEMPLATE)
+    public RestTemplate rccRestTemplate(@Value("${services.http-client.rcc.max-connections}") int maxConnections,
+                                        @Value("${services.http-client.rcc.read-timeout-ms}") long readTimeoutMs) {
+        return pooledRestTemplateFactory.create("rcc", settings(maxConnections, readTimeoutMs));
+    }
+
+    @Bean(PCD_REST_TEMPLATE)
+    public RestTemplate pcdRestTemplate(@Value("${services.http-client.pcd.max-connections}") int maxConnections,
+                                        @Value("${services.http-client.pcd.read-timeout-ms}") long readTimeoutMs) {
+        return pooledRestTemplateFactory.create("pcd", settings(maxConnections, readTimeoutMs));
+    }
+
+    @Bean(OAUTH_TOKEN_REST_TEMPLATE)
+    public RestTemplate oauthTokenRestTemplate(@Value("${services.http-client.oauth-token.max-connections}") int maxConnections,
+                                               @Value("${services.http-client.oauth-token.read-timeout-ms}") long readTimeoutMs) {
+        return pooledRestTemplateFactory.create("oauth-token", settings(maxConnections, readTimeoutMs));
+    }
+
+    @Bean(SLC_CONCURRENCY_LIMITER)
+    public AdaptiveConcurrencyLimiter slcConcurrencyLimiter(@Value("${services.http-client.slc.max-connections}") int maxConnections,
+                                                            @Value("${services.http-client.slc.initial-concurrency-limit}") int initialLimit,
+                                                            @Value("${services.http-client.slc.slow-call-ms}") long slowCallMillis) {
+        return concurrencyLimiter("slc", maxConnections, initialLimit, slowCallMillis);
+    }
+
+    @Bean(RCC_CONCURRENCY_LIMITER)
+    public AdaptiveConcurrencyLimiter rccConcurrencyLimiter(@Value("${services.http-client.rcc.max-connections}") int maxConnections,
+                                                            @Value("${services.http-client.rcc.initial-concurrency-limit}") int initialLimit,
+                                                            @Value("${services.http-client.rcc.slow-call-ms}") long slowCallMillis) {
+        return concurrencyLimiter("rcc", maxConnections, initialLimit, slowCallMillis);
+    }
+
+    @Bean(PCD_CONCURRENCY_LIMITER)
+    public AdaptiveConcurrencyLimiter pcdConcurrencyLimiter(@Value("${services.http-client.pcd.max-connections}") int maxConnections,
+                                                            @Value("${services.http-client.pcd.initial-concurrency-limit}") int initialLimit,
+                                                            @Value("${services.http-client.pcd.slow-call-ms}") long slowCallMillis) {
+        return concurrencyLimiter("pcd", maxConnections, initialLimit, slowCallMillis);
+    }
+
+    private AdaptiveConcurrencyLimiter concurrencyLimiter(String upstream, int maxConnections, int initialLimit, long slowCallMillis) {
+        return new AdaptiveConcurrencyLimiter(
+            upstream,
+            concurrencyLimitEnabled,
+            initialLimit,
+            minConcurrencyLimit,
+            maxConnections,
+            slowCallMillis,
+            concurrencyLimitBackoffRatio,
+            concurrencyLimitMetricsService
+        );
+    }
+
+    private HttpClientSettings settings(int maxConnections, long readTimeoutMs) {
+        return new HttpClientSettings(
+            maxConnections,
+            connectTimeoutMs,
+            connectionRequestTimeoutMs,
+            readTimeoutMs,
+            keepAliveSeconds,
+            idleEvictionSeconds,
+            http2Enabled
+        );
+    }
+}
@@ -0,0 +1,12 @@
+package uk.gov.moj.cp.config;
+
+public record HttpClientSettings(
+    int maxConnections,
+    long connectTimeoutMs,
+    long connectionRequestTimeoutMs,
+    long readTimeoutMs,
+    long keepAliveSeconds,
+    long idleEvictionSeconds,
+    boolean http2Enabled
+) {
+}
@@ -0,0 +1,110 @@
+package uk.gov.moj.cp.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.jdbc.PrimaryKeyMapper;
+import io.github.bucket4j.distributed.proxy.RemoteBucketBuilder;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import io.github.bucket4j.postgresql.Bucket4jPostgreSQL;
+import io.github.bucket4j.postgresql.PostgreSQLSelectForUpdateBasedProxyManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps bucket state in the {@code tmc_rate_limit_bucket} table, so the limit applies across all instances and
+ * survives restarts. Rows are locked with {@code SELECT ... FOR UPDATE} while a bucket is updated.
+ *
+ * <p>With a positive {@code sync-tokens}, each instance consumes up to that many tokens of a bucket locally and
+ * writes them back once they are used up or {@code sync-period-ms} has passed, so most requests do not touch the
+ * database. A user can then exceed the limit by at most {@code sync-tokens} per instance. Keys are already hashed,
+ * so no session ID or token is written to the database. Rows of buckets that have refilled are deleted every
+ * {@code cleanup-period-seconds}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "services.rate-limit.store", havingValue = "jdbc")
+public class JdbcRateLimitBucketStore implements RateLimitBucketStore, DisposableBean {
+
+    static final String TABLE = "tmc_rate_limit_bucket";
+
+    private static final int CLEANUP_BATCH_SIZE = 1000;
+
+    private final PostgreSQLSelectForUpdateBasedProxyManager<String> proxyManager;
+    private final DelayParameters delayParameters;
+
+    // proxies carry the locally consumed tokens that have not been written back yet, so they are kept between requests
+    private final Cache<String, Bucket> bucketProxies;
+    private final ScheduledExecutorService cleanupScheduler =
+        Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("rate-limit-bucket-cleanup").factory());
+
+    public JdbcRateLimitBucketStore(DataSource dataSource,
+                                    CacheMetricsService cacheMetricsService,
+                                    @Value("${services.rate-limit.maximum-buckets}") long maximumBuckets,
+                                    @Value("${services.rate-limit.jdbc.sync-tokens}") long syncTokens,
+                                    @Value("${services.rate-limit.jdbc.sync-period-ms}") long syncPeriodMillis,
+                                    @Value("${services.rate-limit.jdbc.cleanup-period-seconds}") long cleanupPeriodSeconds) {
+        this.proxyManager = Bucket4jPostgreSQL.selectForUpdateBasedBuilder(dataSource)
+            .primaryKeyMapper(PrimaryKeyMapper.STRING)
+            .table(TABLE)
+            .idColumn("id")
+            .stateColumn("state")
+            .expiresAtColumn("expires_at")
+            .expirationAfterWrite(ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(Duration.ofMinutes(1)))
+            .build();
+        this.bucketProxies = Caffeine.newBuilder()
+            .maximumSize(maximumBuckets)
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .recordStats()
+            .build();
+        cacheMetricsService.registerCache(RATE_LIMIT_CACHE_NAME, bucketProxies);
+        this.delayParameters = syncTokens > 0 ? new DelayParameters(syncTokens, Duration.ofMillis(syncPeriodMillis)) : null;
+        cleanupScheduler.scheduleWithFixedDelay(this::removeExpiredBuckets, cleanupPeriodSeconds, cleanupPeriodSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public Bucket resolveBucket(String key, BucketConfiguration configuration) {
+        return bucketProxies.get(key, k -> newBucketProxy(k, configuration));
+    }
+
+    @Override
+    public void destroy() {
+        cleanupScheduler.shutdownNow();
+    }
+
+    int removeExpiredBuckets() {
+        int removed = 0;
+        try {
+            int removedInBatch;
+            do {
+                removedInBatch = proxyManager.removeExpired(CLEANUP_BATCH_SIZE);
+                removed += removedInBatch;
+            } while (removedInBatch == CLEANUP_BATCH_SIZE);
+            log.debug("Removed {} expired rate limit buckets", removed);
+        } catch (RuntimeException e) {
+            log.warn("Failed to remove expired rate limit buckets", e);
+        }
+        return removed;
+    }
+
+    private Bucket newBucketProxy(String key, BucketConfiguration configuration) {
+        RemoteBucketBuilder<String> builder = proxyManager.builder();
+        if (delayParameters != null) {
+            builder = builder.withOptimization(Optimizations.delaying(delayParameters));
+        }
+        return builder.build(key, () -> configuration);
+    }
+}
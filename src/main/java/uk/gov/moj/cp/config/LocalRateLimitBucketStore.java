@@ -0,0 +1,59 @@
+package uk.gov.moj.cp.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.local.LocalBucketBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps buckets in memory, so each instance enforces the limit on its own and buckets start full after a restart.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "services.rate-limit.store", havingValue = "local")
+public class LocalRateLimitBucketStore implements RateLimitBucketStore {
+
+    private final Cache<String, Bucket> userLimitBuckets;
+
+    public LocalRateLimitBucketStore(CacheMetricsService cacheMetricsService,
+                                     @Value("${services.rate-limit.maximum-buckets}") long maximumBuckets) {
+        this.userLimitBuckets = Caffeine.newBuilder()
+            .maximumSize(maximumBuckets)
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .recordStats()
+            .build();
+        cacheMetricsService.registerCache(RATE_LIMIT_CACHE_NAME, userLimitBuckets);
+    }
+
+    @Override
+    public Bucket resolveBucket(String key, BucketConfiguration configuration) {
+        return userLimitBuckets.get(key, k -> newBucket(k, configuration));
+    }
+
+    // runs pending evictions now rather than on the next cache write
+    void cleanUp() {
+        userLimitBuckets.cleanUp();
+    }
+
+    long size() {
+        return userLimitBuckets.estimatedSize();
+    }
+
+    private Bucket newBucket(String key, BucketConfiguration configuration) {
+        log.debug("Rate limiting bucket created for a user [{}]", key);
+        LocalBucketBuilder builder = Bucket.builder();
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            builder = builder.addLimit(bandwidth);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,166 @@
+package uk.gov.moj.cp.config;
+
+import io.prometheus.metrics.core.datapoints.CounterDataPoint;
+import io.prometheus.metrics.core.datapoints.DistributionDataPoint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.ManagedHttpClientConnectionFactory;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.io.ManagedHttpClientConnection;
+import org.apache.hc.core5.http.io.HttpConnectionFactory;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import uk.gov.moj.cp.metrics.HttpClientMetricsService;
+import uk.gov.moj.cp.metrics.RequestTimings;
+import uk.gov.moj.cp.metrics.StatusClassHistogram;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Builds a {@link RestTemplate} with its own connection pool for each upstream.
+ *
+ * <p>By default requests go through a pooled Apache HttpClient whose utilisation, connection acquire time and
+ * connection churn are exported through {@link HttpClientMetricsService}. When HTTP/2 is enabled the JDK
+ * {@link HttpClient} is used instead; it multiplexes requests over its own connections, so no pool metrics are
+ * exported for that upstream.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PooledRestTemplateFactory implements DisposableBean {
+
+    private static final String ACQUIRE_STARTED_ATTRIBUTE = "uk.gov.moj.cp.connection-acquire-started";
+
+    private final HttpClientMetricsService httpClientMetricsService;
+    private final ExecutorService downstreamExecutor;
+    private final List<AutoCloseable> clients = new CopyOnWriteArrayList<>();
+
+    public RestTemplate create(String upstream, HttpClientSettings settings) {
+        final ClientHttpRequestFactory requestFactory = settings.http2Enabled()
+            ? http2RequestFactory(settings)
+            : pooledRequestFactory(upstream, settings);
+        final RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(timingInterceptor(httpClientMetricsService.requestHistogram(upstream)));
+        return restTemplate;
+    }
+
+    @Override
+    public void destroy() {
+        for (AutoCloseable client : clients) {
+            try {
+                client.close();
+            } catch (Exception e) {
+                log.warn("Failed to close HTTP client", e);
+            }
+        }
+    }
+
+    private ClientHttpRequestFactory pooledRequestFactory(String upstream, HttpClientSettings settings) {
+        final PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(settings.maxConnections())
+            // every client talks to a single host, so one route may use the whole pool
+            .setMaxConnPerRoute(settings.maxConnections())
+            .setConnPoolPolicy(PoolReusePolicy.LIFO)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(settings.connectTimeoutMs()))
+                .setSocketTimeout(Timeout.ofMilliseconds(settings.readTimeoutMs()))
+                .build())
+            .setConnectionFactory(countingConnectionFactory(httpClientMetricsService.connectionsOpenedCounter(upstream)))
+            .build();
+        httpClientMetricsService.registerPool(upstream, connectionManager::getTotalStats);
+        final DistributionDataPoint connectionAcquireHistogram = httpClientMetricsService.connectionAcquireHistogram(upstream);
+
+        final TimeValue keepAlive = TimeValue.ofSeconds(settings.keepAliveSeconds());
+        final CloseableHttpClient httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(settings.connectionRequestTimeoutMs()))
+                .setResponseTimeout(Timeout.ofMilliseconds(settings.readTimeoutMs()))
+                .build())
+            .setKeepAliveStrategy((response, context) -> {
+                final TimeValue serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                return serverKeepAlive.compareTo(keepAlive) < 0 ? serverKeepAlive : keepAlive;
+            })
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofSeconds(settings.idleEvictionSeconds()))
+            // the CONNECT element leases a pooled connection and opens it if needed, so the time between entering
+            // it and reaching the next element is the time spent waiting for a usable connection
+            .addExecInterceptorBefore(ChainElement.CONNECT.name(), "connection-acquire-start", (request, scope, chain) -> {
+                scope.clientContext.setAttribute(ACQUIRE_STARTED_ATTRIBUTE, System.nanoTime());
+                return chain.proceed(request, scope);
+            })
+            .addExecInterceptorAfter(ChainElement.CONNECT.name(), "connection-acquire-end", (request, scope, chain) -> {
+                if (scope.clientContext.getAttribute(ACQUIRE_STARTED_ATTRIBUTE) instanceof Long startedNanos) {
+                    connectionAcquireHistogram.observe((System.nanoTime() - startedNanos) / 1_000_000_000d);
+                }
+                return chain.proceed(request, scope);
+            })
+            .build();
+        clients.add(httpClient);
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    // times the exchange up to the response headers, a body read as a stream afterwards is not included
+    private static ClientHttpRequestInterceptor timingInterceptor(StatusClassHistogram requestHistogram) {
+        return (request, body, execution) -> {
+            final long startedNanos = System.nanoTime();
+            final ClientHttpResponse response;
+            try {
+                response = execution.execute(request, body);
+            } catch (IOException | RuntimeException e) {
+                final long elapsedNanos = System.nanoTime() - startedNanos;
+                requestHistogram.observeError(elapsedNanos);
+                RequestTimings.recordDownstreamCall(elapsedNanos);
+                throw e;
+            }
+            final long elapsedNanos = System.nanoTime() - startedNanos;
+            requestHistogram.observe(response.getStatusCode().value(), elapsedNanos);
+            RequestTimings.recordDownstreamCall(elapsedNanos);
+            return response;
+        };
+    }
+
+    private static HttpConnectionFactory<ManagedHttpClientConnection> countingConnectionFactory(CounterDataPoint connectionsOpened) {
+        return new HttpConnectionFactory<>() {
+            @Override
+            public ManagedHttpClientConnection createConnection(Socket socket) throws IOException {
+                connectionsOpened.inc();
+                return ManagedHttpClientConnectionFactory.INSTANCE.createConnection(socket);
+            }
+        };
+    }
+
+    private ClientHttpRequestFactory http2RequestFactory(HttpClientSettings settings) {
+        final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(settings.connectTimeoutMs()))
+            .executor(downstreamExecutor)
+            .build();
+        clients.add(httpClient);
+        final JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(settings.readTimeoutMs()));
+        return requestFactory;
+    }
+}
@@ -0,0 +1,30 @@
+package uk.gov.moj.cp.config;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+
+import java.time.Duration;
+
+/**
+ * Holds the token buckets of {@link RateLimitInterceptor}, one per rate limit key. Keys are made by
+ * {@link RateLimitPolicy#bucketKey(String)} from the fixed-width hashes of {@link RateLimitInterceptor#compactKey},
+ * and at most {@code services.rate-limit.maximum-buckets} buckets are held in memory, least recently used first out.
+ */
+public interface RateLimitBucketStore {
+
+    String RATE_LIMIT_CACHE_NAME = "ratelimit";
+
+    /**
+     * Returns the bucket of a key, creating it with the given configuration if there is none. The configuration of
+     * an existing bucket is not changed.
+     */
+    Bucket resolveBucket(String key, BucketConfiguration configuration);
+
+    static Bandwidth bandwidth(int maximumTokensCapacity, int refillTokens, Duration refillPeriod) {
+        return Bandwidth.builder()
+            .capacity(maximumTokensCapacity)
+            .refillGreedy(refillTokens, refillPeriod)
+            .build();
+    }
+}
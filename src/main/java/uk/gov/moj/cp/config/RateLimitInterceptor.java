@@ -1,52 +1,72 @@
 package uk.gov.moj.cp.config;
 
-import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
 import io.github.bucket4j.ConsumptionProbe;
+import io.prometheus.metrics.core.datapoints.CounterDataPoint;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.entity.ContentType;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.servlet.HandlerInterceptor;
+import uk.gov.moj.cp.metrics.RateLimitMetricsService;
+import uk.gov.moj.cp.util.RateLimitedLog;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
-import java.util.concurrent.TimeUnit;
+import java.util.Arrays;
+import java.util.Base64;
 
+/**
+ * Applies one {@link RateLimitPolicy} to the requests it is registered for, counting the requests it rejects and the
+ * ones it lets through because the bucket store failed under the policy's name.
+ */
 @Slf4j
 public class RateLimitInterceptor implements HandlerInterceptor {
 
-    private final int rateLimitMaximumTokensCapacity;
-    private final int rateLimitRefillTokens;
-    private final int rateLimitRefillPeriodMinutes;
+    // shared by the interceptors of every policy, which all resolve the key of the same request
+    private static final RateLimitedLog MISSING_SESSION_ID_LOG = new RateLimitedLog(1, Duration.ofMinutes(1));
 
-    private final Cache<String, Bucket> userLimitBuckets = Caffeine.newBuilder()
-        .expireAfterAccess(1, TimeUnit.HOURS)
-        .build();
+    private final RateLimitPolicy policy;
+    private final RateLimitBucketStore rateLimitBucketStore;
+    private final CounterDataPoint rejectedCounter;
+    private final CounterDataPoint storeFailureCounter;
 
-    public RateLimitInterceptor(int rateLimitMaximumTokensCapacity, int rateLimitRefillTokens, int rateLimitRefillPeriodMinutes) {
-        this.rateLimitMaximumTokensCapacity = rateLimitMaximumTokensCapacity;
-        this.rateLimitRefillTokens = rateLimitRefillTokens;
-        this.rateLimitRefillPeriodMinutes = rateLimitRefillPeriodMinutes;
+    public RateLimitInterceptor(RateLimitPolicy policy,
+                                RateLimitBucketStore rateLimitBucketStore,
+                                RateLimitMetricsService rateLimitMetricsService) {
+        this.policy = policy;
+        this.rateLimitBucketStore = rateLimitBucketStore;
+        this.rejectedCounter = rateLimitMetricsService.rejectedCounter(policy.name());
+        this.storeFailureCounter = rateLimitMetricsService.storeFailureCounter(policy.name());
     }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        final String rateLimitKey = resolveRateLimitKey(request);
+        final String rateLimitKey = policy.scope() == RateLimitPolicy.Scope.GLOBAL
+            ? policy.name()
+            : policy.bucketKey(compactKey(resolveRateLimitKey(request)));
         log.debug("Rate limit key [{}]", rateLimitKey);
 
-        Bucket bucket = userLimitBuckets.get(rateLimitKey, this::newBucket);
         ConsumptionProbe consumptionProbe = null;
-        if (bucket != null) {
-            consumptionProbe = bucket.tryConsumeAndReturnRemaining(1);
-            if (consumptionProbe.isConsumed()) {
-                return true;
+        try {
+            Bucket bucket = rateLimitBucketStore.resolveBucket(rateLimitKey, policy.configuration());
+            if (bucket != null) {
+                consumptionProbe = bucket.tryConsumeAndReturnRemaining(1);
+                if (consumptionProbe.isConsumed()) {
+                    return true;
+                }
             }
+        } catch (RuntimeException e) {
+            // a shared store that cannot be reached must not take the API down with it
+            log.warn("Rate limit bucket store unavailable, allowing request", e);
+            storeFailureCounter.inc();
+            return true;
         }
 
+        rejectedCounter.inc();
         response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
         response.setContentType(ContentType.APPLICATION_JSON.getMimeType());
         if (consumptionProbe != null) {
@@ -60,30 +80,48 @@ public class RateLimitInterceptor implements HandlerInterceptor {
         return false;
     }
 
-    private Bucket newBucket(String key) {
-        Bandwidth limit = Bandwidth.builder()
-            .capacity(rateLimitMaximumTokensCapacity)
-            .refillGreedy(rateLimitRefillTokens, Duration.ofMinutes(rateLimitRefillPeriodMinutes))
-            .build();
-        log.debug("Rate limiting bucket created for a user [{}]", key);
-        return Bucket.builder().addLimit(limit).build();
+    /**
+     * Hashes a rate limit key to 22 characters, so that a bucket costs the same memory whatever the length of the
+     * session ID or token it is for, and no token is held as a key or written to a shared store.
+     */
+    static String compactKey(String key) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            // 128 bits are plenty to keep distinct users apart
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
+    // only where the key came from is logged, the key itself only once compacted
     private String resolveRateLimitKey(HttpServletRequest request) {
         final String sessionId = request.getHeader("X-Session-Id");
         if (sessionId != null && !sessionId.isBlank()) {
-            log.debug("Rate limiting by X-Session-Id header [{}]", sessionId);
+            log.debug("Rate limiting by X-Session-Id header");
             return sessionId;
         }
-        log.error("X-Session-Id header not set, please check request on UI");
+        if (MISSING_SESSION_ID_LOG.tryAcquire()) {
+            log.error("X-Session-Id header not set, please check request on UI ({} similar messages suppressed)",
+                      MISSING_SESSION_ID_LOG.drainSuppressed());
+        }
+
+        final String credentials = credentials(request.getHeader("Authorization"));
+        if (credentials != null) {
+            log.debug("Rate limiting by Authorization header");
+            return credentials;
+        }
+        log.debug("Rate limiting by remoteAddr");
+        return request.getRemoteAddr();
+    }
 
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && !authHeader.isBlank()) {
-            log.debug("Rate limiting by Authorization header [{}]", authHeader);
-            return authHeader.split(" ")[1].trim();
+    // the part after the scheme, or null for a header that has none
+    private static String credentials(String authHeader) {
+        if (authHeader == null) {
+            return null;
         }
-        final String remoteAddr = request.getRemoteAddr();
-        log.debug("Rate limiting by remoteAddr [{}]", remoteAddr);
-        return remoteAddr;
+        final int separator = authHeader.indexOf(' ');
+        final String credentials = separator < 0 ? "" : authHeader.substring(separator + 1).trim();
+        return credentials.isEmpty() ? null : credentials;
     }
 }
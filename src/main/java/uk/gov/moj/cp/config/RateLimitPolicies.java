@@ -0,0 +1,92 @@
+package uk.gov.moj.cp.config;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConfigurationBuilder;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+import static uk.gov.moj.cp.config.ApiPaths.PATH_API;
+import static uk.gov.moj.cp.config.ApiPaths.PATH_API_CASES;
+import static uk.gov.moj.cp.config.ApiPaths.PATH_API_HEALTH;
+import static uk.gov.moj.cp.config.ApiPaths.PATH_API_USERS;
+import static uk.gov.moj.cp.config.RateLimitBucketStore.bandwidth;
+
+/**
+ * The rate limit policies of the API, in the order their interceptors run:
+ * <ul>
+ *     <li>{@code case-details}: each caller's {@code /casedetails} requests, which fan out to three downstream APIs,
+ *     limited by a burst and a sustained bandwidth</li>
+ *     <li>{@code users}: each caller's calls to the admin users API</li>
+ *     <li>{@code default}: each caller's other API requests</li>
+ *     <li>{@code case-details-global}: all callers' {@code /casedetails} requests together, keeping the service
+ *     inside its quota of the upstream APIs</li>
+ * </ul>
+ * The global ceiling runs last, so that a caller over its own limit does not use up tokens all callers share.
+ */
+@Getter
+@Component
+public class RateLimitPolicies {
+
+    static final String CASE_DETAILS_PATH = PATH_API_CASES + "/*/casedetails";
+
+    private final List<RateLimitPolicy> policies;
+
+    public RateLimitPolicies(@Value("${services.rate-limit.maximum-tokens-capacity}") int defaultCapacity,
+                             @Value("${services.rate-limit.refill-tokens}") int defaultRefillTokens,
+                             @Value("${services.rate-limit.refill-period-minutes}") int defaultRefillPeriodMinutes,
+                             @Value("${services.rate-limit.case-details.burst-capacity}") int caseDetailsBurstCapacity,
+                             @Value("${services.rate-limit.case-details.burst-period-seconds}") int caseDetailsBurstPeriodSeconds,
+                             @Value("${services.rate-limit.case-details.sustained-capacity}") int caseDetailsSustainedCapacity,
+                             @Value("${services.rate-limit.case-details.sustained-period-minutes}") int caseDetailsSustainedPeriodMinutes,
+                             @Value("${services.rate-limit.users.capacity}") int usersCapacity,
+                             @Value("${services.rate-limit.users.refill-period-minutes}") int usersRefillPeriodMinutes,
+                             @Value("${services.rate-limit.case-details-global.capacity}") int globalCapacity,
+                             @Value("${services.rate-limit.case-details-global.refill-period-seconds}") int globalRefillPeriodSeconds) {
+        this.policies = List.of(
+            new RateLimitPolicy(
+                "case-details",
+                RateLimitPolicy.Scope.CALLER,
+                List.of(CASE_DETAILS_PATH),
+                List.of(),
+                configuration(
+                    bandwidth(caseDetailsBurstCapacity, caseDetailsBurstCapacity, Duration.ofSeconds(caseDetailsBurstPeriodSeconds)),
+                    bandwidth(caseDetailsSustainedCapacity, caseDetailsSustainedCapacity, Duration.ofMinutes(caseDetailsSustainedPeriodMinutes))
+                )
+            ),
+            new RateLimitPolicy(
+                "users",
+                RateLimitPolicy.Scope.CALLER,
+                List.of(PATH_API_USERS + "/**"),
+                List.of(),
+                configuration(bandwidth(usersCapacity, usersCapacity, Duration.ofMinutes(usersRefillPeriodMinutes)))
+            ),
+            new RateLimitPolicy(
+                "default",
+                RateLimitPolicy.Scope.CALLER,
+                List.of(PATH_API + "/**"),
+                List.of(PATH_API_HEALTH, CASE_DETAILS_PATH, PATH_API_USERS + "/**"),
+                configuration(bandwidth(defaultCapacity, defaultRefillTokens, Duration.ofMinutes(defaultRefillPeriodMinutes)))
+            ),
+            new RateLimitPolicy(
+                "case-details-global",
+                RateLimitPolicy.Scope.GLOBAL,
+                List.of(CASE_DETAILS_PATH),
+                List.of(),
+                configuration(bandwidth(globalCapacity, globalCapacity, Duration.ofSeconds(globalRefillPeriodSeconds)))
+            )
+        );
+    }
+
+    private static BucketConfiguration configuration(Bandwidth... bandwidths) {
+        ConfigurationBuilder builder = BucketConfiguration.builder();
+        for (Bandwidth bandwidth : bandwidths) {
+            builder = builder.addLimit(bandwidth);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,33 @@
+package uk.gov.moj.cp.config;
+
+import io.github.bucket4j.BucketConfiguration;
+
+import java.util.List;
+
+/**
+ * A rate limit applied by one {@link RateLimitInterceptor} to the requests matching its path patterns. Every
+ * bandwidth of the configuration must have a token left for a request to pass, so a short burst bandwidth can be
+ * combined with a longer sustained one. A {@link Scope#CALLER} policy gives each caller a bucket of its own, a
+ * {@link Scope#GLOBAL} policy has one bucket shared by all callers. The name is part of the bucket keys and labels
+ * the policy's metrics, so it must be short and stable.
+ */
+public record RateLimitPolicy(String name,
+                              Scope scope,
+                              List<String> pathPatterns,
+                              List<String> excludePathPatterns,
+                              BucketConfiguration configuration) {
+
+    public enum Scope {
+        CALLER,
+        GLOBAL
+    }
+
+    /**
+     * Returns the bucket key of a caller under a {@link Scope#CALLER} policy, given the caller's compact key. The
+     * policy name is part of the key, so a caller matched by several policies has a bucket in each. The bucket of a
+     * {@link Scope#GLOBAL} policy is keyed by the policy name alone.
+     */
+    String bucketKey(String callerKey) {
+        return name + ":" + callerKey;
+    }
+}
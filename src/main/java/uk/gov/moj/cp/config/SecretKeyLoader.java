@@ -3,6 +3,7 @@ package uk.gov.moj.cp.config;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import uk.gov.moj.cp.util.CryptoEngine;
 
 import javax.crypto.spec.SecretKeySpec;
 import java.util.Base64;
@@ -16,6 +17,9 @@ public class SecretKeyLoader {
     @Getter
     private final byte[] hmacEncryptionSecret;
 
+    @Getter
+    private final CryptoEngine cryptoEngine;
+
     public SecretKeyLoader(@Value("${services.users.aes-encryption-secret}") String aesEncryptionSecret,
                            @Value("${services.users.hmac-encryption-secret}") String hmacEncryptionSecret) {
         byte[] key = Base64.getDecoder().decode(aesEncryptionSecret);
@@ -24,5 +28,6 @@ public class SecretKeyLoader {
         }
         this.aesSecretKeySpec = new SecretKeySpec(key, "AES");
         this.hmacEncryptionSecret = hmacEncryptionSecret.getBytes();
+        this.cryptoEngine = new CryptoEngine(this.aesSecretKeySpec, this.hmacEncryptionSecret);
     }
 }
@@ -4,40 +4,52 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import uk.gov.moj.cp.metrics.AccessLog;
+import uk.gov.moj.cp.metrics.RateLimitMetricsService;
+import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService;
 
 import java.util.List;
 
 import static uk.gov.moj.cp.config.ApiPaths.PATH_API;
-import static uk.gov.moj.cp.config.ApiPaths.PATH_API_HEALTH;
 import static uk.gov.moj.cp.config.ApiPaths.PATH_API_USERS;
 
 @Configuration
 public class SecurityConfig implements WebMvcConfigurer {
 
     private final String usersAuthorizationHeader;
-    private final int rateLimitMaximumTokensCapacity;
-    private final int rateLimitRefillTokens;
-    private final int rateLimitRefillPeriodMinutes;
+    private final RateLimitBucketStore rateLimitBucketStore;
+    private final RateLimitPolicies rateLimitPolicies;
+    private final RateLimitMetricsService rateLimitMetricsService;
+    private final TrackMyCaseMetricsService trackMyCaseMetricsService;
+    private final AccessLog accessLog;
 
     public SecurityConfig(@Value("${services.users.authorization-header}") String usersAuthorizationHeader,
-                          @Value("${services.rate-limit.maximum-tokens-capacity}") int rateLimitMaximumTokensCapacity,
-                          @Value("${services.rate-limit.refill-tokens}") int rateLimitRefillTokens,
-                          @Value("${services.rate-limit.refill-period-minutes}") int rateLimitRefillPeriodMinutes) {
+                          RateLimitBucketStore rateLimitBucketStore,
+                          RateLimitPolicies rateLimitPolicies,
+                          RateLimitMetricsService rateLimitMetricsService,
+                          TrackMyCaseMetricsService trackMyCaseMetricsService,
+                          AccessLog accessLog) {
         this.usersAuthorizationHeader = usersAuthorizationHeader;
-        this.rateLimitMaximumTokensCapacity = rateLimitMaximumTokensCapacity;
-        this.rateLimitRefillTokens = rateLimitRefillTokens;
-        this.rateLimitRefillPeriodMinutes = rateLimitRefillPeriodMinutes;
+        this.rateLimitBucketStore = rateLimitBucketStore;
+        this.rateLimitPolicies = rateLimitPolicies;
+        this.rateLimitMetricsService = rateLimitMetricsService;
+        this.trackMyCaseMetricsService = trackMyCaseMetricsService;
+        this.accessLog = accessLog;
     }
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(new RateLimitInterceptor(
-                rateLimitMaximumTokensCapacity,
-                rateLimitRefillTokens,
-                rateLimitRefillPeriodMinutes
-            ))
-            .addPathPatterns(PATH_API + "/**")
-            .excludePathPatterns(PATH_API_HEALTH);
+        registry.addInterceptor(new AccessLogInterceptor(accessLog))
+            .addPathPatterns(List.of(PATH_API + "/**"));
+
+        registry.addInterceptor(new CaseDetailsTimingInterceptor(trackMyCaseMetricsService))
+            .addPathPatterns(List.of(RateLimitPolicies.CASE_DETAILS_PATH));
+
+        for (RateLimitPolicy policy : rateLimitPolicies.getPolicies()) {
+            registry.addInterceptor(new RateLimitInterceptor(policy, rateLimitBucketStore, rateLimitMetricsService))
+                .addPathPatterns(policy.pathPatterns())
+                .excludePathPatterns(policy.excludePathPatterns());
+        }
 
         registry.addInterceptor(new UsersAuthorizationInterceptor(usersAuthorizationHeader))
             .addPathPatterns(List.of(
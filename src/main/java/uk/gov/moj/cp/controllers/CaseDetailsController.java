@@ -1,15 +1,29 @@
 package uk.gov.moj.cp.controllers;
 
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import tools.jackson.databind.json.JsonMapper;
 import uk.gov.moj.cp.config.ApiPaths;
 import uk.gov.moj.cp.service.CaseDetailsService;
+import uk.gov.moj.cp.service.ServedCaseDetails;
+import uk.gov.moj.cp.util.ApiUtils;
+import uk.gov.moj.cp.util.HashedJson;
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+
 import static org.springframework.http.ResponseEntity.ok;
 
 @RequiredArgsConstructor
@@ -19,12 +33,55 @@ import static org.springframework.http.ResponseEntity.ok;
 public class CaseDetailsController {
 
     private final CaseDetailsService caseDetailsService;
+    private final JsonMapper jsonMapper;
+
+    @Value("${services.users.authorization-header}")
+    private String supportAuthorizationToken;
+
+    @Value("${services.case-details.response.max-age-seconds}")
+    private long responseMaxAgeSeconds;
 
     @GetMapping("/{case_urn}/casedetails")
-    public ResponseEntity<?> getCaseDetailsByCaseUrn(@PathVariable("case_urn") String caseUrn) {
+    public ResponseEntity<?> getCaseDetailsByCaseUrn(@PathVariable("case_urn") String caseUrn,
+                                                     @RequestHeader(value = HttpHeaders.CACHE_CONTROL, required = false) String cacheControl,
+                                                     @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
 
         final String caseUrnUpperCase = caseUrn.toUpperCase();
-        log.atInfo().log("Received request to get case details for caseUrn: {}", caseUrnUpperCase);
-        return ok(caseDetailsService.getCaseDetailsByCaseUrn(caseUrnUpperCase));
+        log.debug("Received request to get case details for caseUrn: {}", caseUrnUpperCase);
+        final boolean bypassCache = isSupportCacheBypass(cacheControl, authorization);
+        final ServedCaseDetails servedCaseDetails = caseDetailsService.serveCaseDetailsByCaseUrn(caseUrnUpperCase, bypassCache);
+        final ResponseEntity.BodyBuilder response = ok();
+        if (servedCaseDetails.stale()) {
+            // details served from the last known good store say how long ago they were fetched
+            response.header(HttpHeaders.AGE, String.valueOf(servedCaseDetails.age().toSeconds()));
+        }
+        if (servedCaseDetails.caseDetails() == null) {
+            return response.body(null);
+        }
+        // with an ETag set, a GET whose If-None-Match matches it is answered 304 with no body
+        final HashedJson body = HashedJson.of(jsonMapper, servedCaseDetails.caseDetails());
+        return response
+            .eTag(body.etag())
+            .cacheControl(responseCacheControl())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body.body());
+    }
+
+    // case details are personal, so shared caches must not keep them
+    private CacheControl responseCacheControl() {
+        return responseMaxAgeSeconds > 0
+            ? CacheControl.maxAge(Duration.ofSeconds(responseMaxAgeSeconds)).cachePrivate()
+            : CacheControl.noCache().cachePrivate();
+    }
+
+    private boolean isSupportCacheBypass(String cacheControl, String authorization) {
+        return StringUtils.containsIgnoreCase(cacheControl, CacheControl.noCache().getHeaderValue())
+            && StringUtils.isNotEmpty(supportAuthorizationToken)
+            && authorization != null
+            // compared in constant time, so response times reveal nothing of the token
+            && MessageDigest.isEqual(
+                (ApiUtils.BEARER_TOKEN_PREFIX + supportAuthorizationToken).getBytes(StandardCharsets.UTF_8),
+                authorization.getBytes(StandardCharsets.UTF_8)
+            );
     }
 }
@@ -3,6 +3,7 @@ package uk.gov.moj.cp.controllers;
 import io.micrometer.common.util.StringUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,12 +13,21 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
 import uk.gov.moj.cp.config.ApiPaths;
 import uk.gov.moj.cp.dto.ErrorResponseDto;
 import uk.gov.moj.cp.dto.UpdateUserDto;
 import uk.gov.moj.cp.dto.UserCreationResponseDto;
 import uk.gov.moj.cp.dto.UserDto;
+import uk.gov.moj.cp.dto.UserPageDto;
 import uk.gov.moj.cp.dto.UserResponseDto;
+import uk.gov.moj.cp.model.UserRole;
+import uk.gov.moj.cp.model.UserStatus;
 import uk.gov.moj.cp.service.UserService;
 
 import java.net.URLDecoder;
@@ -29,10 +39,17 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final UserService userService;
+    private final JsonMapper jsonMapper;
 
     @GetMapping
-    public ResponseEntity<Object> getAllUsers(@RequestParam(name = "email", required = false) final String email) {
+    public ResponseEntity<Object> getAllUsers(@RequestParam(name = "email", required = false) final String email,
+                                              @RequestParam(name = "status", required = false) final String status,
+                                              @RequestParam(name = "role", required = false) final String role,
+                                              @RequestParam(name = "after", required = false) final String after,
+                                              @RequestParam(name = "limit", required = false) final Integer limit) {
         if (StringUtils.isNotEmpty(email)) {
             final String decodedEmail = URLDecoder.decode(email, StandardCharsets.UTF_8).toLowerCase().trim();
             UserResponseDto userResponseDto = userService.getUser(decodedEmail);
@@ -45,7 +62,50 @@ public class UserController {
                           .message("User not found by email: " + decodedEmail)
                           .build());
         }
-        return ResponseEntity.ok(userService.getAllUsers());
+        final UserStatus userStatus = parse(UserStatus.class, "status", status);
+        final UserRole userRole = parse(UserRole.class, "role", role);
+        // paging is opt in, so clients that never asked for a page still get every user
+        if (StringUtils.isEmpty(after) && limit == null) {
+            return ResponseEntity.ok(userService.getAllUsers(userStatus, userRole));
+        }
+        UserPageDto userPage = userService.getUsers(userStatus, userRole, after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (userPage.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, userPage.getNextCursor());
+        }
+        return response.body(userPage.getUsers());
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers(@RequestParam(name = "status", required = false) final String status,
+                                                                @RequestParam(name = "role", required = false) final String role) {
+        final UserStatus userStatus = parse(UserStatus.class, "status", status);
+        final UserRole userRole = parse(UserRole.class, "role", role);
+        // the same mapper as the JSON form, so each line is a user exactly as the array holds it; the generator is
+        // flushed by the servlet response buffer rather than after every user
+        final ObjectWriter ndjsonWriter = jsonMapper.writer()
+            .without(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = ndjsonWriter.createGenerator(outputStream)) {
+                userService.streamUsers(userStatus, userRole, user -> {
+                    ndjsonWriter.writeValue(generator, user);
+                    generator.writeRaw('\n');
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String name, String value) {
+        if (StringUtils.isEmpty(value)) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value, e);
+        }
     }
 
     @PostMapping("/create")
@@ -0,0 +1,15 @@
+package uk.gov.moj.cp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@Builder
+public class UserPageDto {
+    private List<UserResponseDto> users;
+    private String nextCursor;
+}
@@ -4,15 +4,17 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Builder;
 import lombok.Value;
 
+import java.time.LocalDateTime;
+
 @Value
 @Builder
 public class CourtSittingDto {
 
     @JsonProperty("sittingStart")
-    String sittingStart;
+    LocalDateTime sittingStart;
 
     @JsonProperty("sittingEnd")
-    String sittingEnd;
+    LocalDateTime sittingEnd;
 
     @JsonProperty("judiciaryId")
     String judiciaryId;
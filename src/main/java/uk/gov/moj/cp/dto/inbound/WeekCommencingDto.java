@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Builder;
 import lombok.Value;
 
+import java.time.LocalDate;
+
 @Value
 @Builder
 public class WeekCommencingDto {
@@ -12,10 +14,10 @@ public class WeekCommencingDto {
     String courtHouse;
 
     @JsonProperty("startDate")
-    String startDate;
+    LocalDate startDate;
 
     @JsonProperty("endDate")
-    String endDate;
+    LocalDate endDate;
 
     @JsonProperty("durationInWeeks")
     int durationInWeeks;
@@ -4,7 +4,6 @@ import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
 import lombok.RequiredArgsConstructor;
 import uk.gov.moj.cp.config.SecretKeyLoader;
-import uk.gov.moj.cp.util.CryptoUtils;
 
 @Converter
 @RequiredArgsConstructor
@@ -14,11 +13,11 @@ public class AttributeAesEncryptor implements AttributeConverter<String, String>
 
     @Override
     public String convertToDatabaseColumn(final String attribute) {
-        return CryptoUtils.aesEncrypt(attribute, this.encryptionSecret.getAesSecretKeySpec());
+        return this.encryptionSecret.getCryptoEngine().aesEncrypt(attribute);
     }
 
     @Override
     public String convertToEntityAttribute(String dbData) {
-        return CryptoUtils.aesDecrypt(dbData, this.encryptionSecret.getAesSecretKeySpec());
+        return this.encryptionSecret.getCryptoEngine().aesDecrypt(dbData);
     }
 }
@@ -3,18 +3,17 @@ package uk.gov.moj.cp.entity;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
 import lombok.RequiredArgsConstructor;
-import uk.gov.moj.cp.config.SecretKeyLoader;
-import uk.gov.moj.cp.util.CryptoUtils;
+import uk.gov.moj.cp.config.EmailLookupMemo;
 
 @Converter
 @RequiredArgsConstructor
 public class AttributeHmacEncryptor implements AttributeConverter<String, String> {
 
-    private final SecretKeyLoader encryptionSecret;
+    private final EmailLookupMemo emailLookupMemo;
 
     @Override
     public String convertToDatabaseColumn(final String attribute) {
-        return CryptoUtils.hmacEncrypt(attribute, this.encryptionSecret.getHmacEncryptionSecret());
+        return this.emailLookupMemo.emailLookup(attribute);
     }
 
     @Override
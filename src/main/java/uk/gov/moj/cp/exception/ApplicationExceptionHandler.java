@@ -2,17 +2,26 @@ package uk.gov.moj.cp.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.HttpStatusCodeException;
+import uk.gov.moj.cp.util.RateLimitedLog;
+
+import java.time.Duration;
 
 @Slf4j
 @RestControllerAdvice
 public class ApplicationExceptionHandler {
 
+    // a downstream outage or overload fails every request the same way, so only the first few are logged in full
+    private static final RateLimitedLog DOWNSTREAM_ERROR_LOG = new RateLimitedLog(10, Duration.ofMinutes(1));
+    private static final RateLimitedLog SHED_LOG = new RateLimitedLog(1, Duration.ofSeconds(10));
+
     @ExceptionHandler(HttpClientErrorException.NotFound.class)
     public ResponseEntity<String> handleHttpStatusCodeExceptionNotFound(HttpStatusCodeException e, HttpServletRequest request) {
 
@@ -27,8 +36,7 @@ public class ApplicationExceptionHandler {
     @ExceptionHandler(HttpClientErrorException.TooManyRequests.class)
     public ResponseEntity<String> handleHttpStatusCodeExceptionTooManyRequests(HttpStatusCodeException e, HttpServletRequest request) {
 
-        log.error("Downstream service error (Too Many Requests) for request [{}]: status={}, body={}",
-                  request.getRequestURI(), e.getStatusCode(), e.getResponseBodyAsString(), e);
+        logDownstreamError("Downstream service error (Too Many Requests)", e, request);
 
         return ResponseEntity
             .status(e.getStatusCode())
@@ -38,8 +46,7 @@ public class ApplicationExceptionHandler {
     @ExceptionHandler(HttpServerErrorException.ServiceUnavailable.class)
     public ResponseEntity<String> handleHttpStatusCodeExceptionServiceUnavailable(HttpStatusCodeException e, HttpServletRequest request) {
 
-        log.error("Downstream service error (Service Unavailable) for request [{}]: status={}, body={}",
-                  request.getRequestURI(), e.getStatusCode(), e.getResponseBodyAsString(), e);
+        logDownstreamError("Downstream service error (Service Unavailable)", e, request);
 
         return ResponseEntity
             .status(e.getStatusCode())
@@ -49,8 +56,7 @@ public class ApplicationExceptionHandler {
     @ExceptionHandler(HttpStatusCodeException.class)
     public ResponseEntity<String> handleHttpStatusCodeException(HttpStatusCodeException e, HttpServletRequest request) {
 
-        log.error("Downstream service error for request [{}]: status={}, body={}",
-                  request.getRequestURI(), e.getStatusCode(), e.getResponseBodyAsString(), e);
+        logDownstreamError("Downstream service error", e, request);
 
         return ResponseEntity
             .status(e.getStatusCode())
@@ -60,14 +66,27 @@ public class ApplicationExceptionHandler {
     @ExceptionHandler(HttpServerErrorException.class)
     public ResponseEntity<String> handleHttpServerErrorException(HttpServerErrorException e, HttpServletRequest request) {
 
-        log.error("Downstream service error for request [{}]: status={}, body={}",
-                  request.getRequestURI(), e.getStatusCode(), e.getResponseBodyAsString(), e);
+        logDownstreamError("Downstream service error", e, request);
 
         return ResponseEntity
             .status(e.getStatusCode())
             .body(e.getResponseBodyAsString());
     }
 
+    @ExceptionHandler(UpstreamOverloadedException.class)
+    public ResponseEntity<String> handleUpstreamOverloadedException(UpstreamOverloadedException e, HttpServletRequest request) {
+
+        if (SHED_LOG.tryAcquire()) {
+            log.warn("Request [{}] shed: {} ({} similar messages suppressed)",
+                     request.getRequestURI(), e.getMessage(), SHED_LOG.drainSuppressed());
+        }
+
+        return ResponseEntity
+            .status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body("Service busy - please retry after the Retry-After period");
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException e, HttpServletRequest request) {
 
@@ -86,5 +105,12 @@ public class ApplicationExceptionHandler {
             .internalServerError()
             .body("An error occurred while processing, see the logs for more details");
     }
-}
 
+    private static void logDownstreamError(String description, HttpStatusCodeException e, HttpServletRequest request) {
+        if (DOWNSTREAM_ERROR_LOG.tryAcquire()) {
+            log.error("{} for request [{}]: status={}, body={} ({} similar messages suppressed)",
+                      description, request.getRequestURI(), e.getStatusCode(), e.getResponseBodyAsString(),
+                      DOWNSTREAM_ERROR_LOG.drainSuppressed(), e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package uk.gov.moj.cp.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown instead of calling an upstream API that already has as many calls in flight as its concurrency limit allows.
+ */
+@Getter
+public class UpstreamOverloadedException extends RuntimeException {
+
+    private final String upstream;
+
+    public UpstreamOverloadedException(String upstream) {
+        // no stack trace, these are thrown in bursts while an upstream is slow
+        super("Concurrency limit of upstream " + upstream + " reached", null, false, false);
+        this.upstream = upstream;
+    }
+}
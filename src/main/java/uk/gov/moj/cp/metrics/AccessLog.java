@@ -0,0 +1,72 @@
+package uk.gov.moj.cp.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService.Stage;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Emits one structured event per sampled API request to the {@value #LOGGER_NAME} logger, with the request's status,
+ * duration, stage timings and time spent in downstream calls as key-value pairs. Whether a request is sampled is
+ * decided when it arrives, so requests that are not pay for neither the timings nor the event. The logger is routed
+ * to a bounded asynchronous appender in logback-spring.xml, which drops events rather than block a request once full.
+ */
+@Component
+public class AccessLog {
+
+    public static final String LOGGER_NAME = "trackmycase.access";
+
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger(LOGGER_NAME);
+    private static final Stage[] STAGES = Stage.values();
+    private static final String[] STAGE_KEYS = new String[STAGES.length];
+
+    static {
+        for (Stage stage : STAGES) {
+            STAGE_KEYS[stage.ordinal()] = stage.getLabel() + "_ms";
+        }
+    }
+
+    private final double sampleRate;
+
+    public AccessLog(@Value("${services.access-log.enabled}") boolean enabled,
+                     @Value("${services.access-log.sample-rate}") double sampleRate) {
+        this.sampleRate = enabled ? sampleRate : 0;
+    }
+
+    /**
+     * Returns the timings bound to the current thread for a sampled request, or {@code null} if it is not sampled.
+     */
+    public RequestTimings start() {
+        if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return null;
+        }
+        return RequestTimings.bind();
+    }
+
+    public void finish(RequestTimings timings, String method, String route, int status, long durationNanos,
+                       Exception exception) {
+        RequestTimings.unbind();
+        final LoggingEventBuilder event = ACCESS_LOG.atInfo()
+            .addKeyValue("method", method)
+            .addKeyValue("route", route)
+            .addKeyValue("status", status)
+            .addKeyValue("duration_ms", millis(durationNanos))
+            .addKeyValue("downstream_calls", timings.downstreamCalls())
+            .addKeyValue("downstream_ms", millis(timings.downstreamNanos()));
+        for (Stage stage : STAGES) {
+            event.addKeyValue(STAGE_KEYS[stage.ordinal()], millis(timings.stageNanos(stage)));
+        }
+        if (exception != null) {
+            event.addKeyValue("error", exception.getClass().getSimpleName());
+        }
+        event.log("request");
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000d) / 1_000d;
+    }
+}
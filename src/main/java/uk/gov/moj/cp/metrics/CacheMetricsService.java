@@ -0,0 +1,68 @@
+package uk.gov.moj.cp.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.prometheus.metrics.core.metrics.CounterWithCallback;
+import io.prometheus.metrics.core.metrics.GaugeWithCallback;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exports the statistics of the in-memory Caffeine caches to Prometheus.
+ *
+ * <p>Values are read from {@link Cache#stats()} at scrape time, so registering a cache adds no cost to the
+ * request path beyond Caffeine's own stats recording. Caches must be built with {@code recordStats()}.
+ */
+@Service
+public class CacheMetricsService {
+
+    private static final String CACHE_LABEL = "cache";
+
+    private final Map<String, Cache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    public CacheMetricsService(PrometheusRegistry meterRegistry) {
+        registerCounter(meterRegistry, "trackmycase_cache_hits", "Number of cache lookups that found an entry", CacheStats::hitCount);
+        registerCounter(meterRegistry, "trackmycase_cache_misses", "Number of cache lookups that did not find an entry", CacheStats::missCount);
+        registerCounter(meterRegistry, "trackmycase_cache_evictions", "Number of entries evicted from the cache", CacheStats::evictionCount);
+        registerCounter(meterRegistry, "trackmycase_cache_loads", "Number of successful cache loads and refreshes", CacheStats::loadSuccessCount);
+        registerCounter(meterRegistry, "trackmycase_cache_load_failures", "Number of failed cache loads and refreshes", CacheStats::loadFailureCount);
+        registerCounter(
+            meterRegistry,
+            "trackmycase_cache_load_duration_seconds",
+            "Total time spent loading and refreshing cache entries",
+            stats -> stats.totalLoadTime() / 1_000_000_000d
+        );
+
+        GaugeWithCallback.builder()
+            .name("trackmycase_cache_size")
+            .help("Approximate number of entries in the cache")
+            .labelNames(CACHE_LABEL)
+            .callback(callback -> caches.forEach((name, cache) -> callback.call(cache.estimatedSize(), name)))
+            .register(meterRegistry);
+        GaugeWithCallback.builder()
+            .name("trackmycase_cache_hit_ratio")
+            .help("Ratio of cache lookups that found an entry since startup, 1 when there were no lookups")
+            .labelNames(CACHE_LABEL)
+            .callback(callback -> caches.forEach((name, cache) -> callback.call(cache.stats().hitRate(), name)))
+            .register(meterRegistry);
+    }
+
+    public void registerCache(String cacheName, Cache<?, ?> cache) {
+        caches.put(cacheName, cache);
+    }
+
+    private void registerCounter(PrometheusRegistry meterRegistry, String name, String help, ToDoubleFunction<CacheStats> value) {
+        CounterWithCallback.builder()
+            .name(name)
+            .help(help)
+            .labelNames(CACHE_LABEL)
+            .callback(callback -> caches.forEach(
+                (cacheName, cache) -> callback.call(value.applyAsDouble(cache.stats()), cacheName)
+            ))
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,57 @@
+package uk.gov.moj.cp.metrics;
+
+import io.prometheus.metrics.core.datapoints.CounterDataPoint;
+import io.prometheus.metrics.core.metrics.Counter;
+import io.prometheus.metrics.core.metrics.GaugeWithCallback;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+/**
+ * Exports the adaptive concurrency limit, the calls in flight and the rejected calls of each upstream API.
+ */
+@Service
+public class ConcurrencyLimitMetricsService {
+
+    private static final String UPSTREAM_LABEL = "upstream";
+
+    private final Map<String, IntSupplier> limits = new ConcurrentHashMap<>();
+    private final Map<String, IntSupplier> inFlight = new ConcurrentHashMap<>();
+    private final Counter rejectedCounter;
+
+    public ConcurrencyLimitMetricsService(PrometheusRegistry meterRegistry) {
+        registerGauge(meterRegistry, "trackmycase_upstream_concurrency_limit",
+                      "Current number of calls allowed in flight to an upstream", limits);
+        registerGauge(meterRegistry, "trackmycase_upstream_concurrency_in_flight",
+                      "Number of calls in flight to an upstream", inFlight);
+        this.rejectedCounter = Counter.builder()
+            .name("trackmycase_upstream_concurrency_rejections")
+            .help("Number of upstream calls rejected with 503 because the upstream's concurrency limit was reached")
+            .labelNames(UPSTREAM_LABEL)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Exports the limit and calls in flight of an upstream's limiter, and returns its rejected calls counter so the
+     * limiter looks it up once rather than per rejection.
+     */
+    public CounterDataPoint registerLimiter(String upstream, IntSupplier limit, IntSupplier inFlightCalls) {
+        limits.put(upstream, limit);
+        inFlight.put(upstream, inFlightCalls);
+        return rejectedCounter.labelValues(upstream);
+    }
+
+    private void registerGauge(PrometheusRegistry meterRegistry, String name, String help, Map<String, IntSupplier> values) {
+        GaugeWithCallback.builder()
+            .name(name)
+            .help(help)
+            .labelNames(UPSTREAM_LABEL)
+            .callback(callback -> values.forEach(
+                (upstream, value) -> callback.call(value.getAsInt(), upstream)
+            ))
+            .register(meterRegistry);
+    }
+}
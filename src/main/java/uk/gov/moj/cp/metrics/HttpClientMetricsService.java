@@ -0,0 +1,89 @@
+package uk.gov.moj.cp.metrics;
+
+import io.prometheus.metrics.core.datapoints.CounterDataPoint;
+import io.prometheus.metrics.core.datapoints.DistributionDataPoint;
+import io.prometheus.metrics.core.metrics.Counter;
+import io.prometheus.metrics.core.metrics.GaugeWithCallback;
+import io.prometheus.metrics.core.metrics.Histogram;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Exports connection pool utilisation, connection acquire time, connection churn and request latency by outcome of
+ * the outbound HTTP clients, labelled by upstream.
+ */
+@Service
+public class HttpClientMetricsService {
+
+    private static final String UPSTREAM_LABEL = "upstream";
+
+    private final Map<String, Supplier<PoolStats>> pools = new ConcurrentHashMap<>();
+    private final Histogram connectionAcquireHistogram;
+    private final Counter connectionsOpenedCounter;
+    private final Histogram requestHistogram;
+
+    public HttpClientMetricsService(PrometheusRegistry meterRegistry) {
+        registerPoolGauge(meterRegistry, "trackmycase_http_client_pool_leased", "Number of pooled connections currently leased", PoolStats::getLeased);
+        registerPoolGauge(meterRegistry, "trackmycase_http_client_pool_available", "Number of idle pooled connections", PoolStats::getAvailable);
+        registerPoolGauge(meterRegistry, "trackmycase_http_client_pool_pending", "Number of requests waiting for a pooled connection", PoolStats::getPending);
+        registerPoolGauge(meterRegistry, "trackmycase_http_client_pool_max", "Maximum number of pooled connections", PoolStats::getMax);
+
+        this.connectionAcquireHistogram = Histogram.builder()
+            .name("trackmycase_http_client_connection_acquire_seconds")
+            .help("Time taken to obtain a connected endpoint, including the pool lease wait and connect time of new connections")
+            .labelNames(UPSTREAM_LABEL)
+            .register(meterRegistry);
+        this.connectionsOpenedCounter = Counter.builder()
+            .name("trackmycase_http_client_connections_opened")
+            .help("Number of new connections opened to an upstream")
+            .labelNames(UPSTREAM_LABEL)
+            .register(meterRegistry);
+        this.requestHistogram = Histogram.builder()
+            .name("trackmycase_http_client_request_duration_seconds")
+            .help("Time from sending a request to an upstream to receiving its response headers, by status class")
+            .labelNames(UPSTREAM_LABEL, StatusClassHistogram.OUTCOME_LABEL)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Returns the request latency children of an upstream, to be looked up once per client rather than per request.
+     */
+    public StatusClassHistogram requestHistogram(String upstream) {
+        return new StatusClassHistogram(requestHistogram, upstream);
+    }
+
+    public void registerPool(String upstream, Supplier<PoolStats> poolStats) {
+        pools.put(upstream, poolStats);
+    }
+
+    /**
+     * Returns the connection acquire time child of an upstream, in seconds, to be looked up once per client.
+     */
+    public DistributionDataPoint connectionAcquireHistogram(String upstream) {
+        return connectionAcquireHistogram.labelValues(upstream);
+    }
+
+    /**
+     * Returns the opened connections child of an upstream, to be looked up once per client.
+     */
+    public CounterDataPoint connectionsOpenedCounter(String upstream) {
+        return connectionsOpenedCounter.labelValues(upstream);
+    }
+
+    private void registerPoolGauge(PrometheusRegistry meterRegistry, String name, String help, ToIntFunction<PoolStats> value) {
+        GaugeWithCallback.builder()
+            .name(name)
+            .help(help)
+            .labelNames(UPSTREAM_LABEL)
+            .callback(callback -> pools.forEach(
+                (upstream, poolStats) -> callback.call(value.applyAsInt(poolStats.get()), upstream)
+            ))
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,112 @@
+package uk.gov.moj.cp.metrics;
+
+import io.prometheus.metrics.core.datapoints.CounterDataPoint;
+import io.prometheus.metrics.core.datapoints.DistributionDataPoint;
+import io.prometheus.metrics.core.metrics.Counter;
+import io.prometheus.metrics.core.metrics.Histogram;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import org.springframework.stereotype.Service;
+import uk.gov.moj.cp.model.AmpApiType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Metrics for fetching and refreshing the OAuth tokens of the AMP APIs, labelled by API.
+ */
+@Service
+public class OAuthTokenMetricsService {
+
+    private static final String API_LABEL = "api";
+    private static final String TRIGGER_LABEL = "trigger";
+
+    public static final String TRIGGER_REQUEST = "request";
+    public static final String TRIGGER_SCHEDULED = "scheduled";
+
+    private final Map<AmpApiType, ApiDataPoints> dataPoints = new EnumMap<>(AmpApiType.class);
+
+    public OAuthTokenMetricsService(PrometheusRegistry meterRegistry) {
+        final Histogram tokenFetchHistogram = Histogram.builder()
+            .name("trackmycase_oauth_token_fetch_duration_seconds")
+            .help("Time taken to fetch an OAuth token, on the request path or by the scheduled refresh")
+            .labelNames(API_LABEL, TRIGGER_LABEL)
+            .register(meterRegistry);
+        final Counter tokenFetchFailureCounter = Counter.builder()
+            .name("trackmycase_oauth_token_fetch_failures")
+            .help("Number of failed OAuth token fetches")
+            .labelNames(API_LABEL, TRIGGER_LABEL)
+            .register(meterRegistry);
+        final Counter coalescedWaitCounter = Counter.builder()
+            .name("trackmycase_oauth_token_coalesced_waits")
+            .help("Number of token lookups that waited on another thread's in-flight token fetch")
+            .labelNames(API_LABEL)
+            .register(meterRegistry);
+        final Counter tokenRejectedCounter = Counter.builder()
+            .name("trackmycase_oauth_token_rejections")
+            .help("Number of downstream calls that failed with 401 or 403 because the API rejected its token")
+            .labelNames(API_LABEL)
+            .register(meterRegistry);
+        final Counter replayCounter = Counter.builder()
+            .name("trackmycase_oauth_token_replays")
+            .help("Number of downstream calls replayed with a new token after their token was rejected")
+            .labelNames(API_LABEL)
+            .register(meterRegistry);
+        final Counter evictionCircuitOpenCounter = Counter.builder()
+            .name("trackmycase_oauth_token_eviction_circuit_open")
+            .help("Number of token rejections not replayed because too many tokens were evicted recently")
+            .labelNames(API_LABEL)
+            .register(meterRegistry);
+
+        for (AmpApiType ampApiType : AmpApiType.values()) {
+            final String api = ampApiType.name();
+            dataPoints.put(ampApiType, new ApiDataPoints(
+                tokenFetchHistogram.labelValues(api, TRIGGER_REQUEST),
+                tokenFetchHistogram.labelValues(api, TRIGGER_SCHEDULED),
+                tokenFetchFailureCounter.labelValues(api, TRIGGER_REQUEST),
+                tokenFetchFailureCounter.labelValues(api, TRIGGER_SCHEDULED),
+                coalescedWaitCounter.labelValues(api),
+                tokenRejectedCounter.labelValues(api),
+                replayCounter.labelValues(api),
+                evictionCircuitOpenCounter.labelValues(api)
+            ));
+        }
+    }
+
+    public void recordTokenFetch(AmpApiType ampApiType, String trigger, long durationNanos) {
+        final ApiDataPoints api = dataPoints.get(ampApiType);
+        (TRIGGER_SCHEDULED.equals(trigger) ? api.scheduledTokenFetch() : api.requestTokenFetch())
+            .observe(durationNanos / 1_000_000_000d);
+    }
+
+    public void recordTokenFetchFailure(AmpApiType ampApiType, String trigger) {
+        final ApiDataPoints api = dataPoints.get(ampApiType);
+        (TRIGGER_SCHEDULED.equals(trigger) ? api.scheduledTokenFetchFailure() : api.requestTokenFetchFailure()).inc();
+    }
+
+    public void recordCoalescedWait(AmpApiType ampApiType) {
+        dataPoints.get(ampApiType).coalescedWait().inc();
+    }
+
+    public void recordTokenRejected(AmpApiType ampApiType) {
+        dataPoints.get(ampApiType).tokenRejected().inc();
+    }
+
+    public void recordReplay(AmpApiType ampApiType) {
+        dataPoints.get(ampApiType).replay().inc();
+    }
+
+    public void recordEvictionCircuitOpen(AmpApiType ampApiType) {
+        dataPoints.get(ampApiType).evictionCircuitOpen().inc();
+    }
+
+    // the children of every metric for one API, resolved up front so recording looks up no labels
+    private record ApiDataPoints(DistributionDataPoint requestTokenFetch,
+                                 DistributionDataPoint scheduledTokenFetch,
+                                 CounterDataPoint requestTokenFetchFailure,
+                                 CounterDataPoint scheduledTokenFetchFailure,
+                                 CounterDataPoint coalescedWait,
+                                 CounterDataPoint tokenRejected,
+                                 CounterDataPoint replay,
+                                 CounterDataPoint evictionCircuitOpen) {
+    }
+}
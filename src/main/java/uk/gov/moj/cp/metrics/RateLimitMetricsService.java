@@ -0,0 +1,40 @@
+package uk.gov.moj.cp.metrics;
+
+import io.prometheus.metrics.core.datapoints.CounterDataPoint;
+import io.prometheus.metrics.core.metrics.Counter;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import org.springframework.stereotype.Service;
+
+/**
+ * Metrics for the rate limit policies, labelled by policy. The interceptors look up their counters once, so the
+ * request path does not resolve label values.
+ */
+@Service
+public class RateLimitMetricsService {
+
+    private static final String POLICY_LABEL = "policy";
+
+    private final Counter rejectedCounter;
+    private final Counter storeFailureCounter;
+
+    public RateLimitMetricsService(PrometheusRegistry meterRegistry) {
+        this.rejectedCounter = Counter.builder()
+            .name("trackmycase_rate_limit_rejections")
+            .help("Number of requests rejected with 429 because a rate limit policy had no tokens left")
+            .labelNames(POLICY_LABEL)
+            .register(meterRegistry);
+        this.storeFailureCounter = Counter.builder()
+            .name("trackmycase_rate_limit_store_failures")
+            .help("Number of requests allowed without a rate limit check because the bucket store failed")
+            .labelNames(POLICY_LABEL)
+            .register(meterRegistry);
+    }
+
+    public CounterDataPoint rejectedCounter(String policy) {
+        return rejectedCounter.labelValues(policy);
+    }
+
+    public CounterDataPoint storeFailureCounter(String policy) {
+        return storeFailureCounter.labelValues(policy);
+    }
+}
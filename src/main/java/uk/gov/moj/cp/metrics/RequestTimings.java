@@ -0,0 +1,77 @@
+package uk.gov.moj.cp.metrics;
+
+import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService.Stage;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The stage and downstream call timings of one sampled request, for its access log event. They are bound to the
+ * request thread while the request is handled and follow the work it hands to an executor wrapped by
+ * {@link #propagating(Executor)}. Requests that are not sampled bind nothing, so recording costs them one thread local
+ * read.
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final AtomicLongArray stageNanos = new AtomicLongArray(Stage.values().length);
+    private final AtomicLong downstreamNanos = new AtomicLong();
+    private final AtomicInteger downstreamCalls = new AtomicInteger();
+
+    public static RequestTimings bind() {
+        final RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    public static void recordStage(Stage stage, long durationNanos) {
+        final RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.stageNanos.addAndGet(stage.ordinal(), durationNanos);
+        }
+    }
+
+    public static void recordDownstreamCall(long durationNanos) {
+        final RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.downstreamNanos.addAndGet(durationNanos);
+            timings.downstreamCalls.incrementAndGet();
+        }
+    }
+
+    /**
+     * Runs each task on {@code delegate} with the timings of the request that submitted it, if it is sampled.
+     */
+    public static Executor propagating(Executor delegate) {
+        return command -> {
+            final RequestTimings timings = CURRENT.get();
+            delegate.execute(timings == null ? command : () -> {
+                CURRENT.set(timings);
+                try {
+                    command.run();
+                } finally {
+                    CURRENT.remove();
+                }
+            });
+        };
+    }
+
+    public long stageNanos(Stage stage) {
+        return stageNanos.get(stage.ordinal());
+    }
+
+    public long downstreamNanos() {
+        return downstreamNanos.get();
+    }
+
+    public int downstreamCalls() {
+        return downstreamCalls.get();
+    }
+}
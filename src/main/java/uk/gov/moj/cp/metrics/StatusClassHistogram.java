@@ -0,0 +1,37 @@
+package uk.gov.moj.cp.metrics;
+
+import io.prometheus.metrics.core.datapoints.DistributionDataPoint;
+import io.prometheus.metrics.core.metrics.Histogram;
+
+/**
+ * The children of a histogram whose last label is the {@code outcome} of an HTTP exchange, one per status class
+ * ({@code 2xx}, {@code 4xx}, ...) plus {@code error} for an exchange that got no response, all resolved up front so
+ * that recording an exchange looks nothing up and allocates nothing. The {@code _count} of each child doubles as the
+ * exchange's outcome counter.
+ */
+public final class StatusClassHistogram {
+
+    static final String OUTCOME_LABEL = "outcome";
+
+    private static final String[] OUTCOMES = {"error", "1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final DistributionDataPoint[] dataPoints = new DistributionDataPoint[OUTCOMES.length];
+
+    StatusClassHistogram(Histogram histogram, String... leadingLabelValues) {
+        for (int i = 0; i < OUTCOMES.length; i++) {
+            final String[] labelValues = new String[leadingLabelValues.length + 1];
+            System.arraycopy(leadingLabelValues, 0, labelValues, 0, leadingLabelValues.length);
+            labelValues[leadingLabelValues.length] = OUTCOMES[i];
+            dataPoints[i] = histogram.labelValues(labelValues);
+        }
+    }
+
+    public void observe(int statusCode, long durationNanos) {
+        final int statusClass = statusCode / 100;
+        dataPoints[statusClass >= 1 && statusClass <= 5 ? statusClass : 0].observe(durationNanos / 1_000_000_000d);
+    }
+
+    public void observeError(long durationNanos) {
+        dataPoints[0].observe(durationNanos / 1_000_000_000d);
+    }
+}
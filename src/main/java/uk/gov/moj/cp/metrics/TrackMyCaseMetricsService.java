@@ -1,17 +1,56 @@
 package uk.gov.moj.cp.metrics;
 
+import io.prometheus.metrics.core.datapoints.CounterDataPoint;
+import io.prometheus.metrics.core.datapoints.DistributionDataPoint;
 import io.prometheus.metrics.core.metrics.Counter;
+import io.prometheus.metrics.core.metrics.Histogram;
 import io.prometheus.metrics.model.registry.PrometheusRegistry;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import uk.gov.moj.cp.dto.outbound.CaseStatus;
+import uk.gov.moj.cp.model.HearingType;
+
+import java.util.EnumMap;
+import java.util.Map;
 
 @Slf4j
 @Service
 public class TrackMyCaseMetricsService {
 
+    private static final String STAGE_LABEL = "stage";
+    private static final String OTHER = "other";
+
+    /**
+     * The in-process stages of building case details, timed separately from the downstream calls around them.
+     */
+    public enum Stage {
+        COURT_SCHEDULE_CONVERSION("court_schedule_conversion"),
+        COURT_HOUSE_CONVERSION("court_house_conversion"),
+        HEARING_SELECTION("hearing_selection");
+
+        @Getter
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
     @Getter
     private final Counter caseDetailsCounter;
+    private final Map<Stage, DistributionDataPoint> stageHistograms = new EnumMap<>(Stage.class);
+    private final StatusClassHistogram caseDetailsRequestHistogram;
+    private final CounterDataPoint activeCaseCounter;
+    private final CounterDataPoint inactiveCaseCounter;
+    private final CounterDataPoint otherCaseStatusCounter;
+    private final CounterDataPoint nextHearingFoundCounter;
+    private final CounterDataPoint nextHearingNotFoundCounter;
+    private final CounterDataPoint trialHearingCounter;
+    private final CounterDataPoint sentenceHearingCounter;
+    private final CounterDataPoint otherHearingTypeCounter;
+    private final CounterDataPoint fixedDateListingCounter;
+    private final CounterDataPoint weekCommencingListingCounter;
 
     public TrackMyCaseMetricsService(PrometheusRegistry meterRegistry) {
         this.caseDetailsCounter =
@@ -19,11 +58,96 @@ public class TrackMyCaseMetricsService {
                 .name("trackmycase_service_started")
                 .help("Total number of cases viewed in Track a case service")
                 .register(meterRegistry);
+
+        final Histogram stageHistogram = Histogram.builder()
+            .name("trackmycase_case_details_stage_duration_seconds")
+            .help("Time spent in each in-process stage of building case details")
+            .labelNames(STAGE_LABEL)
+            .register(meterRegistry);
+        for (Stage stage : Stage.values()) {
+            stageHistograms.put(stage, stageHistogram.labelValues(stage.label));
+        }
+
+        this.caseDetailsRequestHistogram = new StatusClassHistogram(
+            Histogram.builder()
+                .name("trackmycase_case_details_request_duration_seconds")
+                .help("End-to-end time of /casedetails requests, including writing the response, by status class")
+                .labelNames(StatusClassHistogram.OUTCOME_LABEL)
+                .register(meterRegistry)
+        );
+
+        // label values are a fixed set so that no case or hearing identifier can reach a label
+        final Counter caseStatusCounter = Counter.builder()
+            .name("trackmycase_case_details_case_status")
+            .help("Number of case details served, cached or not, by case status")
+            .labelNames("case_status")
+            .register(meterRegistry);
+        this.activeCaseCounter = caseStatusCounter.labelValues("active");
+        this.inactiveCaseCounter = caseStatusCounter.labelValues("inactive");
+        this.otherCaseStatusCounter = caseStatusCounter.labelValues(OTHER);
+
+        final Counter nextHearingCounter = Counter.builder()
+            .name("trackmycase_case_details_next_hearing")
+            .help("Number of court schedules served, cached or not, by whether they hold a next hearing")
+            .labelNames("result")
+            .register(meterRegistry);
+        this.nextHearingFoundCounter = nextHearingCounter.labelValues("found");
+        this.nextHearingNotFoundCounter = nextHearingCounter.labelValues("not_found");
+
+        final Counter hearingTypeCounter = Counter.builder()
+            .name("trackmycase_case_details_next_hearing_type")
+            .help("Number of next hearings served, cached or not, by hearing type")
+            .labelNames("hearing_type")
+            .register(meterRegistry);
+        this.trialHearingCounter = hearingTypeCounter.labelValues("trial");
+        this.sentenceHearingCounter = hearingTypeCounter.labelValues("sentence");
+        this.otherHearingTypeCounter = hearingTypeCounter.labelValues(OTHER);
+
+        final Counter listingCounter = Counter.builder()
+            .name("trackmycase_case_details_next_hearing_listing")
+            .help("Number of next hearings served, cached or not, by whether they are listed for a fixed date or a week commencing")
+            .labelNames("listing")
+            .register(meterRegistry);
+        this.fixedDateListingCounter = listingCounter.labelValues("fixed_date");
+        this.weekCommencingListingCounter = listingCounter.labelValues("week_commencing");
     }
 
     public void incrementCaseDetailsCount(String caseReference) {
-        log.info("Case reference {} created", caseReference);
+        log.debug("Case reference {} viewed", caseReference);
         caseDetailsCounter.inc();
     }
 
+    public void recordCaseStatus(String caseStatus) {
+        if (CaseStatus.ACTIVE.equals(caseStatus)) {
+            activeCaseCounter.inc();
+        } else if (CaseStatus.INACTIVE.equals(caseStatus)) {
+            inactiveCaseCounter.inc();
+        } else {
+            otherCaseStatusCounter.inc();
+        }
+    }
+
+    public void recordNextHearingFound(boolean found) {
+        (found ? nextHearingFoundCounter : nextHearingNotFoundCounter).inc();
+    }
+
+    public void recordNextHearing(HearingType hearingType, boolean weekCommencing) {
+        if (hearingType == HearingType.TRIAL) {
+            trialHearingCounter.inc();
+        } else if (hearingType == HearingType.SENTENCE) {
+            sentenceHearingCounter.inc();
+        } else {
+            otherHearingTypeCounter.inc();
+        }
+        (weekCommencing ? weekCommencingListingCounter : fixedDateListingCounter).inc();
+    }
+
+    public void recordStage(Stage stage, long durationNanos) {
+        stageHistograms.get(stage).observe(durationNanos / 1_000_000_000d);
+        RequestTimings.recordStage(stage, durationNanos);
+    }
+
+    public void recordCaseDetailsRequest(int statusCode, long durationNanos) {
+        caseDetailsRequestHistogram.observe(statusCode, durationNanos);
+    }
 }
@@ -0,0 +1,55 @@
+package uk.gov.moj.cp.metrics;
+
+import io.prometheus.metrics.core.metrics.Counter;
+import io.prometheus.metrics.core.metrics.Histogram;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import org.springframework.stereotype.Service;
+
+/**
+ * Metrics for user cache invalidations exchanged between the instances of the service.
+ */
+@Service
+public class UserInvalidationMetricsService {
+
+    private final Counter publishedCounter;
+    private final Counter receivedCounter;
+    private final Histogram propagationHistogram;
+    private final Counter listenerReconnectCounter;
+
+    public UserInvalidationMetricsService(PrometheusRegistry meterRegistry) {
+        this.publishedCounter = Counter.builder()
+            .name("trackmycase_user_invalidation_published")
+            .help("Number of user cache invalidations published to the other instances")
+            .register(meterRegistry);
+        this.receivedCounter = Counter.builder()
+            .name("trackmycase_user_invalidation_received")
+            .help("Number of user cache invalidations received, including this instance's own")
+            .register(meterRegistry);
+        // measured against the publishing instance's clock, so clock skew between instances is included
+        this.propagationHistogram = Histogram.builder()
+            .name("trackmycase_user_invalidation_propagation_seconds")
+            .help("Time from publishing a user cache invalidation to receiving it")
+            .register(meterRegistry);
+        this.listenerReconnectCounter = Counter.builder()
+            .name("trackmycase_user_invalidation_listener_reconnects")
+            .help("Number of times the invalidation listener lost its connection and cleared the user cache")
+            .register(meterRegistry);
+    }
+
+    public void recordPublished() {
+        publishedCounter.inc();
+    }
+
+    public void recordPublished(int count) {
+        publishedCounter.inc(count);
+    }
+
+    public void recordReceived(long propagationMillis) {
+        receivedCounter.inc();
+        propagationHistogram.observe(Math.max(0, propagationMillis) / 1_000d);
+    }
+
+    public void recordListenerReconnect() {
+        listenerReconnectCounter.inc();
+    }
+}
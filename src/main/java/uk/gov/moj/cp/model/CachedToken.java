@@ -9,11 +9,16 @@ public class CachedToken {
     @Getter
     private final String token;
 
+    @Getter
     private final Instant expiresAt;
 
     public CachedToken(String token, long ttlMinutes) {
+        this(token, Instant.now().plusSeconds(ttlMinutes * 60));
+    }
+
+    public CachedToken(String token, Instant expiresAt) {
         this.token = token;
-        this.expiresAt = Instant.now().plusSeconds(ttlMinutes * 60);
+        this.expiresAt = expiresAt;
     }
 
     public boolean isExpired() {
@@ -0,0 +1,57 @@
+package uk.gov.moj.cp.model;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * The rules a hearing has to meet to be chosen as the next hearing of a case: a hearing type from {@link HearingType},
+ * and a week commencing or at least one sitting between today and ten years from now. When a hearing has a week
+ * commencing only that is looked at. The court schedule parser drops hearings that break these rules and the next
+ * hearing selection ranks the rest, so both take them from here.
+ */
+@Slf4j
+public record NextHearingWindow(long firstValidDay, long lastValidDay) {
+
+    private static final int YEARS_AHEAD = 10;
+
+    public static NextHearingWindow startingOn(final LocalDate today) {
+        return new NextHearingWindow(today.toEpochDay(), today.plusYears(YEARS_AHEAD).toEpochDay());
+    }
+
+    /**
+     * Returns the hearing type of a hearing that can be the next hearing, or null when it cannot be whatever its dates.
+     */
+    public static HearingType candidateHearingType(final String hearingType) {
+        if (isNull(hearingType)) {
+            return null;
+        }
+        final HearingType fromValue = HearingType.fromValue(hearingType);
+        if (isNull(fromValue)) {
+            final String hearingTypeInLowerCase = hearingType.toLowerCase();
+            if (hearingTypeInLowerCase.contains(HearingType.TRIAL.getValue().toLowerCase())
+                || hearingTypeInLowerCase.contains(HearingType.SENTENCE.getValue().toLowerCase())) {
+                // this is a case if you missed any hearing type in HearingType enum, which has "trial" or "sentence" in the value
+                log.info("Hearing type does match Trail or Sentence filtering and not included in the enum [{}]", hearingType);
+            }
+        }
+        return fromValue;
+    }
+
+    // an open ended week commencing is never a candidate
+    public boolean containsWeekCommencing(final LocalDate startDate, final LocalDate endDate) {
+        return nonNull(startDate) && nonNull(endDate)
+            && (contains(startDate.toEpochDay()) || contains(endDate.toEpochDay()));
+    }
+
+    public boolean containsSitting(final LocalDate sittingDate) {
+        return nonNull(sittingDate) && contains(sittingDate.toEpochDay());
+    }
+
+    public boolean contains(final long epochDay) {
+        return epochDay >= firstValidDay && epochDay <= lastValidDay;
+    }
+}
@@ -0,0 +1,139 @@
+package uk.gov.moj.cp.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import uk.gov.moj.cp.config.SecretKeyLoader;
+import uk.gov.moj.cp.model.UserRole;
+import uk.gov.moj.cp.model.UserStatus;
+import uk.gov.moj.cp.util.CryptoEngine;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Plain JDBC access to {@code tmc_user} for importing many users at once.
+ *
+ * <p>Rows are encrypted here the same way {@code AttributeAesEncryptor} and {@code AttributeHmacEncryptor} encrypt
+ * a {@code User}, so imported users can be read back through {@link UserRepository}.
+ */
+@Repository
+public class UserBulkRepository {
+
+    // Postgres accepts at most 65535 bind parameters per statement
+    private static final int MAX_IN_PARAMETERS = 30_000;
+
+    private static final String INSERT_SQL = """
+        INSERT INTO tmc_user (id, email, email_lookup, status, role, created, updated)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT DO NOTHING
+        """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final CryptoEngine cryptoEngine;
+
+    public UserBulkRepository(DataSource dataSource, SecretKeyLoader secretKeyLoader) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.cryptoEngine = secretKeyLoader.getCryptoEngine();
+    }
+
+    /**
+     * Encrypts and hashes normalised emails on the common fork-join pool, keeping their order.
+     */
+    public List<UserRow> prepare(List<String> emails) {
+        return emails.parallelStream()
+            .map(email -> new UserRow(
+                UUID.randomUUID(),
+                email,
+                cryptoEngine.aesEncrypt(email),
+                cryptoEngine.hmacEncrypt(email)
+            ))
+            .toList();
+    }
+
+    public Set<String> findExistingEmailLookups(List<String> emailLookups) {
+        final Set<String> existing = new HashSet<>();
+        for (int from = 0; from < emailLookups.size(); from += MAX_IN_PARAMETERS) {
+            final List<String> chunk = emailLookups.subList(from, Math.min(from + MAX_IN_PARAMETERS, emailLookups.size()));
+            existing.addAll(jdbcTemplate.queryForList(
+                "SELECT email_lookup FROM tmc_user WHERE email_lookup IN (:emailLookups)",
+                Map.of("emailLookups", chunk),
+                String.class
+            ));
+        }
+        return existing;
+    }
+
+    /**
+     * Inserts the rows as active users in one JDBC batch and returns 1 for each row inserted and 0 for each row
+     * skipped because it conflicts with an existing user, for example one created concurrently since the duplicate
+     * check. A driver that rewrites the batch, such as Postgres with {@code reWriteBatchedInserts}, reports
+     * {@link Statement#SUCCESS_NO_INFO} instead; those rows are looked up by their generated id, which only exists in
+     * the table if this insert won.
+     */
+    public int[] insertIgnoringConflicts(List<UserRow> rows) {
+        final Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        final JdbcTemplate jdbcOperations = jdbcTemplate.getJdbcTemplate();
+        final int[] updateCounts = jdbcOperations.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                final UserRow row = rows.get(i);
+                statement.setObject(1, row.id());
+                statement.setString(2, row.encryptedEmail());
+                statement.setString(3, row.emailLookup());
+                statement.setString(4, UserStatus.ACTIVE.name());
+                statement.setString(5, UserRole.USER.name());
+                statement.setTimestamp(6, now);
+                statement.setTimestamp(7, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+
+        final List<UUID> unknownIds = new ArrayList<>();
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == Statement.SUCCESS_NO_INFO) {
+                unknownIds.add(rows.get(i).id());
+            }
+        }
+        if (!unknownIds.isEmpty()) {
+            final Set<UUID> insertedIds = findExistingIds(unknownIds);
+            for (int i = 0; i < updateCounts.length; i++) {
+                if (updateCounts[i] == Statement.SUCCESS_NO_INFO) {
+                    updateCounts[i] = insertedIds.contains(rows.get(i).id()) ? 1 : 0;
+                }
+            }
+        }
+        return updateCounts;
+    }
+
+    private Set<UUID> findExistingIds(List<UUID> ids) {
+        final Set<UUID> existing = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += MAX_IN_PARAMETERS) {
+            final List<UUID> chunk = ids.subList(from, Math.min(from + MAX_IN_PARAMETERS, ids.size()));
+            existing.addAll(jdbcTemplate.queryForList(
+                "SELECT id FROM tmc_user WHERE id IN (:ids)",
+                Map.of("ids", chunk),
+                UUID.class
+            ));
+        }
+        return existing;
+    }
+
+    public record UserRow(UUID id, String email, String encryptedEmail, String emailLookup) {
+    }
+}
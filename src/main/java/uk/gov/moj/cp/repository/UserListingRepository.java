@@ -0,0 +1,127 @@
+package uk.gov.moj.cp.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import uk.gov.moj.cp.config.SecretKeyLoader;
+import uk.gov.moj.cp.model.UserRole;
+import uk.gov.moj.cp.model.UserStatus;
+import uk.gov.moj.cp.util.CryptoEngine;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Reads {@code tmc_user} in {@code (created, id)} order without loading the whole table, either a page at a time
+ * after a keyset cursor or as a stream of rows fetched {@code stream-fetch-size} at a time.
+ *
+ * <p>Emails are decrypted row by row, the same way {@code AttributeAesEncryptor} decrypts them for a {@code User}.
+ */
+@Repository
+public class UserListingRepository {
+
+    private static final String SELECT_SQL = "SELECT id, email, status, role, created, updated FROM tmc_user";
+    private static final String ORDER_BY_SQL = " ORDER BY created, id";
+
+    private final NamedParameterJdbcTemplate pageJdbcTemplate;
+    private final NamedParameterJdbcTemplate streamJdbcTemplate;
+    private final CryptoEngine cryptoEngine;
+
+    public UserListingRepository(DataSource dataSource,
+                                 SecretKeyLoader secretKeyLoader,
+                                 @Value("${services.users.listing.stream-fetch-size}") int streamFetchSize) {
+        this.pageJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        // Postgres only fetches in batches inside a transaction, the stream callers must be transactional
+        final JdbcTemplate streamJdbcOperations = new JdbcTemplate(dataSource);
+        streamJdbcOperations.setFetchSize(streamFetchSize);
+        this.streamJdbcTemplate = new NamedParameterJdbcTemplate(streamJdbcOperations);
+        this.cryptoEngine = secretKeyLoader.getCryptoEngine();
+    }
+
+    public List<UserListing> findPage(UserStatus status, UserRole role, Cursor after, int limit) {
+        final MapSqlParameterSource parameters = new MapSqlParameterSource();
+        final StringBuilder sql = new StringBuilder(SELECT_SQL).append(where(status, role, after, parameters))
+            .append(ORDER_BY_SQL)
+            .append(" LIMIT :limit");
+        parameters.addValue("limit", limit);
+        return pageJdbcTemplate.query(sql.toString(), parameters, (resultSet, rowNum) -> toUserListing(resultSet));
+    }
+
+    public void streamAll(UserStatus status, UserRole role, Consumer<UserListing> consumer) {
+        final MapSqlParameterSource parameters = new MapSqlParameterSource();
+        final String sql = SELECT_SQL + where(status, role, null, parameters) + ORDER_BY_SQL;
+        streamJdbcTemplate.query(sql, parameters, (RowCallbackHandler) resultSet -> consumer.accept(toUserListing(resultSet)));
+    }
+
+    private static String where(UserStatus status, UserRole role, Cursor after, MapSqlParameterSource parameters) {
+        final StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        if (nonNull(status)) {
+            where.append(" AND status = :status");
+            parameters.addValue("status", status.name());
+        }
+        if (nonNull(role)) {
+            where.append(" AND role = :role");
+            parameters.addValue("role", role.name());
+        }
+        if (nonNull(after)) {
+            where.append(" AND (created, id) > (:afterCreated, :afterId)");
+            parameters.addValue("afterCreated", Timestamp.valueOf(after.created()));
+            parameters.addValue("afterId", after.id());
+        }
+        return where.toString();
+    }
+
+    private UserListing toUserListing(ResultSet resultSet) throws SQLException {
+        return new UserListing(
+            resultSet.getObject("id", UUID.class),
+            cryptoEngine.aesDecrypt(resultSet.getString("email")),
+            UserStatus.valueOf(resultSet.getString("status")),
+            UserRole.valueOf(resultSet.getString("role")),
+            resultSet.getTimestamp("created").toLocalDateTime(),
+            resultSet.getTimestamp("updated").toLocalDateTime()
+        );
+    }
+
+    public record UserListing(UUID id, String email, UserStatus status, UserRole role, LocalDateTime created,
+                              LocalDateTime updated) {
+    }
+
+    /**
+     * Position after a row in {@code (created, id)} order, exchanged with clients as an opaque URL-safe string.
+     */
+    public record Cursor(LocalDateTime created, UUID id) {
+
+        public static Cursor after(UserListing userListing) {
+            return new Cursor(userListing.created(), userListing.id());
+        }
+
+        public static Cursor decode(String cursor) {
+            try {
+                final String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                final int separator = decoded.indexOf('|');
+                return new Cursor(LocalDateTime.parse(decoded.substring(0, separator)), UUID.fromString(decoded.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+            }
+        }
+
+        public String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((created + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
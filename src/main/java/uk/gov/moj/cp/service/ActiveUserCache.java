@@ -0,0 +1,140 @@
+package uk.gov.moj.cp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.gov.moj.cp.config.EmailLookupMemo;
+import uk.gov.moj.cp.entity.User;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of active user lookups, keyed by the HMAC email lookup value that invalidation events carry.
+ * Unknown or inactive emails are cached as empty for a shorter negative TTL.
+ *
+ * <p>Writes to a user must call {@link #invalidate(String)}, so that a suspended or deleted user is locked out
+ * straight away rather than when the entry expires. Invalidations are also published on the
+ * {@link UserInvalidationBus}, so that the caches of the other instances drop the entry too.
+ */
+@Component
+public class ActiveUserCache {
+
+    private static final String ACTIVE_USER_CACHE_NAME = "activeuser";
+
+    private final boolean enabled;
+    private final EmailLookupMemo emailLookupMemo;
+    private final Cache<String, Optional<User>> cache;
+    private final UserInvalidationBus userInvalidationBus;
+
+    public ActiveUserCache(EmailLookupMemo emailLookupMemo,
+                           CacheMetricsService cacheMetricsService,
+                           UserInvalidationBus userInvalidationBus,
+                           @Value("${services.users.active-user-cache.enabled}") boolean enabled,
+                           @Value("${services.users.active-user-cache.maximum-size}") long maximumSize,
+                           @Value("${services.users.active-user-cache.ttl-seconds}") long ttlSeconds,
+                           @Value("${services.users.active-user-cache.negative-ttl-seconds}") long negativeTtlSeconds) {
+        this.enabled = enabled;
+        this.emailLookupMemo = emailLookupMemo;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new ActiveUserExpiry(Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(negativeTtlSeconds)))
+            .recordStats()
+            .build();
+        cacheMetricsService.registerCache(ACTIVE_USER_CACHE_NAME, cache);
+
+        this.userInvalidationBus = userInvalidationBus;
+        if (enabled) {
+            userInvalidationBus.subscribe(new UserInvalidationBus.Subscriber() {
+                @Override
+                public void onInvalidate(String emailLookup) {
+                    cache.invalidate(emailLookup);
+                }
+
+                @Override
+                public void onInvalidateAll() {
+                    cache.invalidateAll();
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the cached lookup of a normalised email, calling the loader on a miss. A loader that throws leaves
+     * nothing in the cache.
+     */
+    public Optional<User> get(String email, Function<String, Optional<User>> loader) {
+        if (!enabled) {
+            return loader.apply(email);
+        }
+        return cache.get(emailLookup(email), key -> loader.apply(email));
+    }
+
+    /**
+     * Drops the entry of a normalised email now and, inside a transaction, again once it commits, so that a lookup
+     * racing the write cannot cache the row as it was before the commit. The other instances are notified through
+     * the bus, which only delivers the event once the transaction commits.
+     */
+    public void invalidate(String email) {
+        if (!enabled) {
+            return;
+        }
+        final String emailLookup = emailLookup(email);
+        invalidateLocally(List.of(emailLookup));
+        userInvalidationBus.publish(emailLookup);
+    }
+
+    /**
+     * Same as {@link #invalidate(String)} for emails whose HMAC lookup values are already known, published to the
+     * other instances together.
+     */
+    public void invalidateEmailLookups(Collection<String> emailLookups) {
+        if (!enabled || emailLookups.isEmpty()) {
+            return;
+        }
+        invalidateLocally(emailLookups);
+        userInvalidationBus.publish(emailLookups);
+    }
+
+    private void invalidateLocally(Collection<String> emailLookups) {
+        cache.invalidateAll(emailLookups);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidateAll(emailLookups);
+                }
+            });
+        }
+    }
+
+    private String emailLookup(String email) {
+        return emailLookupMemo.emailLookup(email);
+    }
+
+    private record ActiveUserExpiry(Duration ttl, Duration negativeTtl) implements Expiry<String, Optional<User>> {
+
+        @Override
+        public long expireAfterCreate(String key, Optional<User> value, long currentTime) {
+            return (value.isPresent() ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<User> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<User> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package uk.gov.moj.cp.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.prometheus.metrics.core.datapoints.CounterDataPoint;
+import io.prometheus.metrics.core.metrics.Counter;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import uk.gov.moj.cp.dto.outbound.CaseDetailsDto;
+import uk.gov.moj.cp.exception.UpstreamOverloadedException;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+import uk.gov.moj.cp.service.LastKnownGoodCaseDetailsStore.StoredCaseDetails;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static uk.gov.moj.cp.util.FutureUtils.join;
+
+/**
+ * Short-lived per-URN cache of assembled case details.
+ *
+ * <p>Concurrent misses for the same URN share a single in-flight downstream fetch. Entries older than
+ * {@code refresh-after-seconds} are still served while one background refresh replaces them. An entry starts at most
+ * one refresh per {@code refresh-after-seconds}, whether or not the last one succeeded, so a failing upstream is not
+ * retried back to back.
+ *
+ * <p>Once an entry has expired, a miss falls back to the {@link LastKnownGoodCaseDetailsStore}: details it holds
+ * from within its stale-while-revalidate window are served straight away and refreshed in the background, and older
+ * ones are served only when the fetch fails because a downstream API is unavailable.
+ */
+@Slf4j
+@Component
+public class CaseDetailsCache {
+
+    private static final String CASE_DETAILS_CACHE_NAME = "casedetails";
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Duration refreshAfter;
+    private final ExecutorService downstreamExecutor;
+    private final LastKnownGoodCaseDetailsStore lastKnownGoodStore;
+    private final AsyncCache<String, CachedCaseDetails> cache;
+    private final Set<String> refreshesInFlight = ConcurrentHashMap.newKeySet();
+
+    private final Counter coalescedWaitCounter;
+    private final Counter staleServedCounter;
+    private final Counter bypassCounter;
+    private final CounterDataPoint lastKnownGoodRevalidateCounter;
+    private final CounterDataPoint lastKnownGoodErrorCounter;
+
+    public CaseDetailsCache(CacheMetricsService cacheMetricsService,
+                            PrometheusRegistry meterRegistry,
+                            ExecutorService downstreamExecutor,
+                            LastKnownGoodCaseDetailsStore lastKnownGoodStore,
+                            @Value("${services.case-details.cache.enabled}") boolean enabled,
+                            @Value("${services.case-details.cache.maximum-size}") long maximumSize,
+                            @Value("${services.case-details.cache.ttl-seconds}") long ttlSeconds,
+                            @Value("${services.case-details.cache.refresh-after-seconds}") long refreshAfterSeconds) {
+        this.enabled = enabled;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.refreshAfter = Duration.ofSeconds(refreshAfterSeconds);
+        this.downstreamExecutor = downstreamExecutor;
+        this.lastKnownGoodStore = lastKnownGoodStore;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .executor(downstreamExecutor)
+            .recordStats()
+            .buildAsync();
+        cacheMetricsService.registerCache(CASE_DETAILS_CACHE_NAME, cache.synchronous());
+
+        this.coalescedWaitCounter = Counter.builder()
+            .name("trackmycase_case_details_cache_coalesced_waits")
+            .help("Number of case details requests that waited on another request's in-flight fetch")
+            .register(meterRegistry);
+        this.staleServedCounter = Counter.builder()
+            .name("trackmycase_case_details_cache_stale_served")
+            .help("Number of case details responses served from an entry that was due for refresh")
+            .register(meterRegistry);
+        this.bypassCounter = Counter.builder()
+            .name("trackmycase_case_details_cache_bypassed")
+            .help("Number of case details requests that bypassed the cache")
+            .register(meterRegistry);
+        final Counter lastKnownGoodCounter = Counter.builder()
+            .name("trackmycase_case_details_last_known_good_served")
+            .help("Number of case details responses served from the last known good store after the cache entry "
+                      + "expired, while revalidating or because the downstream APIs failed")
+            .labelNames("reason")
+            .register(meterRegistry);
+        this.lastKnownGoodRevalidateCounter = lastKnownGoodCounter.labelValues("revalidate");
+        this.lastKnownGoodErrorCounter = lastKnownGoodCounter.labelValues("error");
+    }
+
+    public ServedCaseDetails get(String caseUrn, boolean bypassCache, Function<String, CaseDetailsDto> loader) {
+        if (!enabled) {
+            return fetch(caseUrn, loader);
+        }
+        if (bypassCache) {
+            bypassCounter.inc();
+            final CaseDetailsDto caseDetails = loader.apply(caseUrn);
+            if (caseDetails != null) {
+                cache.put(caseUrn, CompletableFuture.completedFuture(CachedCaseDetails.fetched(caseDetails)));
+                lastKnownGoodStore.put(caseUrn, caseDetails);
+            }
+            return ServedCaseDetails.fresh(caseDetails);
+        }
+
+        final CompletableFuture<CachedCaseDetails> leader = new CompletableFuture<>();
+        final CompletableFuture<CachedCaseDetails> cached = cache.get(caseUrn, (key, executor) -> leader);
+        if (cached == leader) {
+            return load(caseUrn, leader, loader);
+        }
+        if (!cached.isDone()) {
+            coalescedWaitCounter.inc();
+        }
+
+        final CachedCaseDetails cachedCaseDetails = join(cached);
+        if (cachedCaseDetails == null) {
+            return ServedCaseDetails.fresh(null);
+        }
+        if (cachedCaseDetails.isOlderThan(refreshAfter)) {
+            staleServedCounter.inc();
+            // one request per refresh-after claims the refresh, so a failing upstream is retried at that pace
+            if (cachedCaseDetails.claimRefresh(refreshAfter)) {
+                refreshInBackground(caseUrn, loader);
+            }
+        }
+        return served(cachedCaseDetails);
+    }
+
+    private ServedCaseDetails load(String caseUrn, CompletableFuture<CachedCaseDetails> leader, Function<String, CaseDetailsDto> loader) {
+        final StoredCaseDetails lastKnownGood = lastKnownGoodStore.get(caseUrn);
+        if (lastKnownGood != null && lastKnownGood.age().compareTo(lastKnownGoodStore.getStaleWhileRevalidate()) <= 0) {
+            // the restored entry counts this refresh as its last attempt, so requests sharing it do not start their own
+            final CachedCaseDetails restored = CachedCaseDetails.restored(lastKnownGood);
+            leader.complete(restored);
+            lastKnownGoodRevalidateCounter.inc();
+            refreshInBackground(caseUrn, loader);
+            return served(restored);
+        }
+
+        try {
+            final CaseDetailsDto caseDetails = loader.apply(caseUrn);
+            // a null value or a failed future is discarded by the cache, so the next request fetches again
+            leader.complete(caseDetails == null ? null : CachedCaseDetails.fetched(caseDetails));
+            if (caseDetails != null) {
+                lastKnownGoodStore.put(caseUrn, caseDetails);
+            }
+            return ServedCaseDetails.fresh(caseDetails);
+        } catch (RuntimeException e) {
+            if (lastKnownGood != null && isDownstreamUnavailable(e)) {
+                // cached until the TTL expires and, with this fetch as its last attempt, retried at most once per
+                // refresh-after, so an outage is not met with a fetch per request
+                final CachedCaseDetails restored = CachedCaseDetails.restored(lastKnownGood);
+                leader.complete(restored);
+                lastKnownGoodErrorCounter.inc();
+                log.warn("Serving last known good case details for caseUrn: {} fetched {} ago, as the fetch failed with {}",
+                         caseUrn, lastKnownGood.age(), e.toString());
+                return served(restored);
+            }
+            leader.completeExceptionally(e);
+            throw e;
+        } catch (Error e) {
+            leader.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private ServedCaseDetails fetch(String caseUrn, Function<String, CaseDetailsDto> loader) {
+        try {
+            final CaseDetailsDto caseDetails = loader.apply(caseUrn);
+            if (caseDetails != null) {
+                lastKnownGoodStore.put(caseUrn, caseDetails);
+            }
+            return ServedCaseDetails.fresh(caseDetails);
+        } catch (RuntimeException e) {
+            final StoredCaseDetails lastKnownGood =
+                isDownstreamUnavailable(e) ? lastKnownGoodStore.get(caseUrn) : null;
+            if (lastKnownGood == null) {
+                throw e;
+            }
+            lastKnownGoodErrorCounter.inc();
+            return served(CachedCaseDetails.restored(lastKnownGood));
+        }
+    }
+
+    private void refreshInBackground(String caseUrn, Function<String, CaseDetailsDto> loader) {
+        if (!refreshesInFlight.add(caseUrn)) {
+            return;
+        }
+        CompletableFuture.supplyAsync(() -> loader.apply(caseUrn), downstreamExecutor)
+            .whenComplete((caseDetails, e) -> {
+                refreshesInFlight.remove(caseUrn);
+                if (e != null) {
+                    log.warn("Background refresh of case details failed for caseUrn: {}", caseUrn, e);
+                } else if (caseDetails != null) {
+                    cache.put(caseUrn, CompletableFuture.completedFuture(CachedCaseDetails.fetched(caseDetails)));
+                    lastKnownGoodStore.put(caseUrn, caseDetails);
+                }
+            });
+    }
+
+    private ServedCaseDetails served(CachedCaseDetails cachedCaseDetails) {
+        final Duration age = Duration.ofNanos(Math.max(0, System.nanoTime() - cachedCaseDetails.fetchedAtNanos()));
+        return new ServedCaseDetails(cachedCaseDetails.caseDetails(), age, age.compareTo(ttl) > 0);
+    }
+
+    // failures that say nothing about the case, so details fetched earlier are still the best answer
+    static boolean isDownstreamUnavailable(RuntimeException e) {
+        return e instanceof HttpServerErrorException
+            || e instanceof HttpClientErrorException.TooManyRequests
+            || e instanceof ResourceAccessException
+            || e instanceof UpstreamOverloadedException;
+    }
+
+    /**
+     * {@code fetchedAtNanos} dates the details themselves, while {@code lastAttemptNanos} is when a fetch to replace
+     * them last started, successful or not, and paces the refreshes.
+     */
+    private record CachedCaseDetails(CaseDetailsDto caseDetails, long fetchedAtNanos, AtomicLong lastAttemptNanos) {
+
+        static CachedCaseDetails fetched(CaseDetailsDto caseDetails) {
+            final long now = System.nanoTime();
+            return new CachedCaseDetails(caseDetails, now, new AtomicLong(now));
+        }
+
+        static CachedCaseDetails restored(StoredCaseDetails stored) {
+            final long now = System.nanoTime();
+            return new CachedCaseDetails(stored.caseDetails(), now - stored.age().toNanos(), new AtomicLong(now));
+        }
+
+        boolean isOlderThan(Duration age) {
+            return System.nanoTime() - fetchedAtNanos > age.toNanos();
+        }
+
+        boolean claimRefresh(Duration interval) {
+            final long now = System.nanoTime();
+            final long lastAttempt = lastAttemptNanos.get();
+            return now - lastAttempt > interval.toNanos() && lastAttemptNanos.compareAndSet(lastAttempt, now);
+        }
+    }
+}
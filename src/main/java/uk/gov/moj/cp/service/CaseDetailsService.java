@@ -2,13 +2,9 @@ package uk.gov.moj.cp.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.logging.log4j.util.Strings;
-import org.springframework.http.HttpStatusCode;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import uk.gov.moj.cp.dto.inbound.CourtScheduleDto;
-import uk.gov.moj.cp.dto.inbound.CourtSittingDto;
-import uk.gov.moj.cp.dto.inbound.HearingDto;
-import uk.gov.moj.cp.dto.inbound.WeekCommencingDto;
 import uk.gov.moj.cp.dto.outbound.CaseDetailsCourtScheduleDto;
 import uk.gov.moj.cp.dto.outbound.CaseDetailsCourtSittingDto;
 import uk.gov.moj.cp.dto.outbound.CaseDetailsDto;
@@ -16,23 +12,24 @@ import uk.gov.moj.cp.dto.outbound.CaseDetailsHearingDto;
 import uk.gov.moj.cp.dto.outbound.CaseDetailsWeekCommencingDto;
 import uk.gov.moj.cp.dto.outbound.ProsecutionCaseDTO;
 import uk.gov.moj.cp.dto.outbound.CourtHouseDto;
+import uk.gov.moj.cp.metrics.RequestTimings;
 import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService;
+import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService.Stage;
 import uk.gov.moj.cp.model.HearingType;
 import uk.gov.moj.cp.model.AmpApiType;
 
-import org.springframework.http.HttpStatus;
-import org.springframework.web.client.HttpStatusCodeException;
-
 import java.time.LocalDate;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 
-import static java.time.LocalDateTime.parse;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static uk.gov.moj.cp.util.FutureUtils.join;
 
 @Service
 @Slf4j
@@ -44,246 +41,192 @@ public class CaseDetailsService {
     private final CourtHouseService courtHouseService;
     private final OAuthTokenService oauthTokenService;
     private final TrackMyCaseMetricsService trackMyCaseMetricsService;
+    private final ExecutorService downstreamExecutor;
+    private final CaseDetailsCache caseDetailsCache;
 
-    private static final Pattern HEARING_TYPE_TRIAL_PATTERN = Pattern.compile(
-        "\\b" + HearingType.TRIAL.getValue() + "\\b",
-        Pattern.CASE_INSENSITIVE
-    );
+    @Value("${services.case-details.concurrent-fetch-enabled}")
+    private boolean concurrentFetchEnabled;
 
     public CaseDetailsDto getCaseDetailsByCaseUrn(final String caseUrn) {
-        try {
-            return fetchCaseDetails(caseUrn);
-        } catch (HttpStatusCodeException e) {
-            HttpStatusCode statusCode = e.getStatusCode();
-            if (statusCode == HttpStatus.UNAUTHORIZED || statusCode == HttpStatus.FORBIDDEN) {
-                log.warn("Token rejected with status {} for caseUrn: {}, evicting caches and retrying", statusCode, caseUrn);
-                oauthTokenService.evictAllTokenCaches();
-                return fetchCaseDetails(caseUrn);
+        return getCaseDetailsByCaseUrn(caseUrn, false);
+    }
+
+    public CaseDetailsDto getCaseDetailsByCaseUrn(final String caseUrn, final boolean bypassCache) {
+        return serveCaseDetailsByCaseUrn(caseUrn, bypassCache).caseDetails();
+    }
+
+    public ServedCaseDetails serveCaseDetailsByCaseUrn(final String caseUrn, final boolean bypassCache) {
+        final ServedCaseDetails servedCaseDetails = caseDetailsCache.get(caseUrn, bypassCache, this::fetchCaseDetails);
+        // all counted per serve, cached or not, so the case statuses and next hearings add up to the cases viewed
+        trackMyCaseMetricsService.incrementCaseDetailsCount(caseUrn);
+        if (servedCaseDetails.caseDetails() != null) {
+            recordServedCaseDetails(servedCaseDetails.caseDetails());
+        }
+        return servedCaseDetails;
+    }
+
+    private void recordServedCaseDetails(final CaseDetailsDto caseDetails) {
+        trackMyCaseMetricsService.recordCaseStatus(caseDetails.getCaseStatus());
+        if (isNull(caseDetails.getCourtSchedules())) {
+            return;
+        }
+        for (CaseDetailsCourtScheduleDto courtSchedule : caseDetails.getCourtSchedules()) {
+            final List<CaseDetailsHearingDto> hearings = courtSchedule.getHearings();
+            trackMyCaseMetricsService.recordNextHearingFound(nonNull(hearings) && !hearings.isEmpty());
+            if (nonNull(hearings)) {
+                // served hearing types are already reduced to Trial or Sentence
+                hearings.forEach(hearing -> trackMyCaseMetricsService.recordNextHearing(
+                    HearingType.fromValue(hearing.getHearingType()),
+                    nonNull(hearing.getWeekCommencing())
+                ));
             }
-            throw e;
         }
     }
 
     private CaseDetailsDto fetchCaseDetails(final String caseUrn) {
-        final String courtScheduleAccessToken = oauthTokenService.getJwtToken(AmpApiType.SLC);
-        final String courtHouseAccessToken = oauthTokenService.getJwtToken(AmpApiType.RCC);
-        final String prosecutionCaseAccessToken = oauthTokenService.getJwtToken(AmpApiType.PCD);
+        return concurrentFetchEnabled
+            ? fetchCaseDetailsConcurrently(caseUrn)
+            : fetchCaseDetailsSequentially(caseUrn);
+    }
 
-        final List<CourtScheduleDto> courtSchedule = courtScheduleService.getCourtScheduleByCaseUrn(courtScheduleAccessToken, caseUrn);
-        final ProsecutionCaseDTO prosecutionCaseDto = prosectionCaseService.getCaseStatus(prosecutionCaseAccessToken, caseUrn);
+    private CaseDetailsDto fetchCaseDetailsSequentially(final String caseUrn) {
+        final List<CourtScheduleDto> courtSchedule = fetchCourtSchedule(caseUrn);
+        final ProsecutionCaseDTO prosecutionCaseDto = fetchProsecutionCase(caseUrn);
 
         final List<CaseDetailsCourtScheduleDto> caseDetailsCourtSchedules = courtSchedule.stream()
             .map(schedule -> {
-                List<CaseDetailsHearingDto> nextHearings = schedule.getHearings().stream()
-                    .map(this::getHearingDetails)
-                    .filter(Objects::nonNull)
-                    .min(getCaseDetailsHearingDtoComparator())
-                    .map(h -> enrichHearingWithCourtDetails(caseUrn, courtHouseAccessToken, h))
+                List<CaseDetailsHearingDto> nextHearings = selectNextHearing(schedule)
+                    .map(h -> enrichHearingWithCourtDetails(caseUrn, h))
                     .stream()
                     .toList();
-                return CaseDetailsCourtScheduleDto.builder()
-                    .hearings(nextHearings)
-                    .build();
-
+                return toCourtScheduleDto(nextHearings);
             })
             .toList();
 
-        trackMyCaseMetricsService.incrementCaseDetailsCount(caseUrn);
-        return CaseDetailsDto.builder()
-            .caseUrn(caseUrn)
-            .caseStatus(prosecutionCaseDto.getCaseStatus())
-            .courtSchedules(caseDetailsCourtSchedules)
-            .build();
+        return buildCaseDetails(caseUrn, prosecutionCaseDto, caseDetailsCourtSchedules);
     }
 
-
-    private CaseDetailsHearingDto getHearingDetails(final HearingDto hearing) {
-        CaseDetailsWeekCommencingDto weekCommencing = null;
-        List<CaseDetailsCourtSittingDto> courtSittings = null;
-
-        if (isNull(hearing) || !isValidHearingType(hearing.getHearingType())) {
-            return null;
-        }
-
-        if (Optional.ofNullable(hearing.getWeekCommencing()).isPresent()) {
-            weekCommencing = getWeekCommencing(hearing);
-            if (isNull(weekCommencing)) {
-                return null;
-            }
-        } else {
-            courtSittings = getCourtSittings(hearing);
-            if (isNull(courtSittings)) {
-                return null;
-            }
-        }
-
-        return CaseDetailsHearingDto.builder()
-            .hearingId(hearing.getHearingId())
-            .hearingType(hearing.getHearingType())
-            .hearingDescription(hearing.getHearingDescription())
-            .listNote(hearing.getListNote())
-            .courtSittings(courtSittings)
-            .weekCommencing(weekCommencing)
-            .build();
-    }
-
-    private static Comparator<CaseDetailsHearingDto> getCaseDetailsHearingDtoComparator() {
-        return Comparator.comparing(
-                CaseDetailsService::getEarliestHearingDate,
-                Comparator.nullsLast(Comparator.naturalOrder())
+    /**
+     * Issues the SLC and PCD lookups in parallel and starts the RCC enrichment of each court schedule as soon
+     * as the SLC response arrives, so the overall latency is bounded by the slowest leg rather than their sum.
+     * The first leg to fail fails the fetch straight away and cancels the others, so legs that have not started yet
+     * never call their upstream.
+     */
+    private CaseDetailsDto fetchCaseDetailsConcurrently(final String caseUrn) {
+        final CompletableFuture<CaseDetailsDto> caseDetails = new CompletableFuture<>();
+        final List<CompletableFuture<?>> legs = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<ProsecutionCaseDTO> prosecutionCase = startLeg(
+            () -> fetchProsecutionCase(caseUrn),
+            caseDetails,
+            legs
+        );
+        final CompletableFuture<List<CaseDetailsCourtScheduleDto>> caseDetailsCourtSchedules = startLeg(
+                () -> fetchCourtSchedule(caseUrn),
+                caseDetails,
+                legs
             )
-            .thenComparing((CaseDetailsHearingDto dto) -> hasFixedDateHearing(dto) ? 0 : 1)
-            .thenComparingInt((CaseDetailsHearingDto dto) ->
-                                  nonNull(dto.getHearingType())
-                                      && HEARING_TYPE_TRIAL_PATTERN.matcher(dto.getHearingType()).find()
-                                      ? 0 : 1
-            );
-    }
-
-    private static boolean hasFixedDateHearing(final CaseDetailsHearingDto hearingDto) {
-        return nonNull(hearingDto.getCourtSittings())
-            && !hearingDto.getCourtSittings().isEmpty()
-            && hearingDto.getCourtSittings().stream()
-            .anyMatch(s -> nonNull(s.getSittingStart()) && !s.getSittingStart().isEmpty());
+            .thenCompose(courtSchedule -> enrichCourtSchedulesConcurrently(caseUrn, courtSchedule, caseDetails, legs));
+
+        prosecutionCase
+            .thenCombine(caseDetailsCourtSchedules, (prosecutionCaseDto, courtSchedules) ->
+                buildCaseDetails(caseUrn, prosecutionCaseDto, courtSchedules))
+            .whenComplete((built, failure) -> {
+                if (isNull(failure)) {
+                    caseDetails.complete(built);
+                } else {
+                    caseDetails.completeExceptionally(failure);
+                }
+            });
+        return join(caseDetails);
     }
 
-    private static LocalDate getEarliestHearingDate(final CaseDetailsHearingDto hearingDto) {
-        LocalDate weekCommencingStartDate = null;
-        LocalDate weekCommencingEndDate = null;
-
-        LocalDate earliestSittingDate = getEarliestCourtSittingDate(hearingDto);
-        try {
-            weekCommencingStartDate = Optional.ofNullable(hearingDto.getWeekCommencing())
-                .map(weekCommencing -> LocalDate.parse(weekCommencing.getStartDate()))
-                .orElse(null);
-            weekCommencingEndDate = Optional.ofNullable(hearingDto.getWeekCommencing())
-                .map(weekCommencing -> LocalDate.parse(weekCommencing.getEndDate()))
-                .orElse(null);
-        } catch (Exception e) {
-            log.error("parsing error for hearing {} : {}", hearingDto.getHearingId(), e.getMessage());
-        }
+    private CompletableFuture<List<CaseDetailsCourtScheduleDto>> enrichCourtSchedulesConcurrently(final String caseUrn,
+                                                                                                final List<CourtScheduleDto> courtSchedule,
+                                                                                                final CompletableFuture<CaseDetailsDto> caseDetails,
+                                                                                                final List<CompletableFuture<?>> legs) {
+        final List<CompletableFuture<CaseDetailsCourtScheduleDto>> enrichedSchedules = courtSchedule.stream()
+            .map(schedule -> selectNextHearing(schedule)
+                .map(h -> startLeg(
+                    () -> List.of(enrichHearingWithCourtDetails(caseUrn, h)),
+                    caseDetails,
+                    legs
+                ))
+                .orElseGet(() -> CompletableFuture.completedFuture(List.of()))
+                .thenApply(CaseDetailsService::toCourtScheduleDto))
+            .toList();
 
-        if (nonNull(earliestSittingDate) && nonNull(weekCommencingStartDate)) {
-            return earliestSittingDate.isBefore(weekCommencingStartDate)
-                || earliestSittingDate.equals(weekCommencingStartDate)
-                ||
-                (
-                    earliestSittingDate.isAfter(weekCommencingStartDate)
-                        && earliestSittingDate.isBefore(weekCommencingEndDate)
-                )
-                ? earliestSittingDate : weekCommencingStartDate;
-        } else if (nonNull(earliestSittingDate)) {
-            return earliestSittingDate;
-        } else {
-            return weekCommencingEndDate;
-        }
+        return CompletableFuture.allOf(enrichedSchedules.toArray(new CompletableFuture<?>[0]))
+            .thenApply(ignored -> enrichedSchedules.stream()
+                .map(CompletableFuture::join)
+                .toList());
     }
 
-    private static LocalDate getEarliestCourtSittingDate(final CaseDetailsHearingDto hearingDto) {
-        LocalDate earliestSittingDate = null;
-        if (nonNull(hearingDto.getCourtSittings()) && !hearingDto.getCourtSittings().isEmpty()) {
-            Optional<LocalDate> sittingDate = hearingDto.getCourtSittings()
-                .stream()
-                .filter(s -> nonNull(s.getSittingStart()))
-                .map(s -> {
-                    try {
-                        return parse(s.getSittingStart()).toLocalDate();
-                    } catch (Exception e) {
-                        return null;
-                    }
-                })
-                .filter(Objects::nonNull)
-                .min(Comparator.naturalOrder());
-
-            if (sittingDate.isPresent()) {
-                earliestSittingDate = sittingDate.get();
-            }
+    private <T> CompletableFuture<T> startLeg(final Supplier<T> leg,
+                                              final CompletableFuture<CaseDetailsDto> caseDetails,
+                                              final List<CompletableFuture<?>> legs) {
+        final CompletableFuture<T> future = CompletableFuture.supplyAsync(leg, timedDownstreamExecutor());
+        legs.add(future);
+        // a leg started after another one failed is cancelled here, before its task gets to call the upstream
+        if (caseDetails.isCompletedExceptionally()) {
+            future.cancel(false);
         }
-        return earliestSittingDate;
+        future.whenComplete((ignored, failure) -> {
+            if (nonNull(failure) && caseDetails.completeExceptionally(failure)) {
+                legs.forEach(other -> other.cancel(false));
+            }
+        });
+        return future;
     }
 
-    private CaseDetailsWeekCommencingDto getWeekCommencing(final HearingDto hearing) {
-        final WeekCommencingDto weekCommencingDto = hearing.getWeekCommencing();
-        if (Strings.isEmpty(weekCommencingDto.getStartDate()) || Strings.isEmpty(weekCommencingDto.getEndDate())) {
-            return null;
-        }
-
-        final boolean hasValidWeekCommencingDate = validateDateNotInPastAndNotAfterTenYears(LocalDate.parse(weekCommencingDto.getStartDate()))
-            || validateDateNotInPastAndNotAfterTenYears(LocalDate.parse(weekCommencingDto.getEndDate()));
-        if (!hasValidWeekCommencingDate) {
-            return null;
-        }
-
-        final CourtHouseDto courtHouseDto = CourtHouseDto.builder()
-            .courtHouseId(weekCommencingDto.getCourtHouse())
-            .build();
-
-        return CaseDetailsWeekCommencingDto.builder()
-            .startDate(weekCommencingDto.getStartDate())
-            .endDate(weekCommencingDto.getEndDate())
-            .durationInWeeks(weekCommencingDto.getDurationInWeeks())
-            .courtHouse(courtHouseDto)
-            .build();
-
+    // the legs add their timings to the access log event of the request that started them
+    private Executor timedDownstreamExecutor() {
+        return RequestTimings.propagating(downstreamExecutor);
     }
 
-    private List<CaseDetailsCourtSittingDto> getCourtSittings(final HearingDto hearing) {
-
-        final List<CourtSittingDto> sittings = hearing.getCourtSittings();
-        final boolean hasAnyCurrentOrFutureSitting = (nonNull(sittings) && !sittings.isEmpty())
-            && sittings.stream()
-            .anyMatch(s -> validateDateNotInPastAndNotAfterTenYears(parse(s.getSittingStart()).toLocalDate()));
-
-        if (!hasAnyCurrentOrFutureSitting) {
-            return null;
-        }
+    // each downstream leg runs with its own API token, so a rejected token only evicts that token and replays that leg
+    private List<CourtScheduleDto> fetchCourtSchedule(final String caseUrn) {
+        return oauthTokenService.executeWithToken(
+            AmpApiType.SLC,
+            accessToken -> courtScheduleService.getCourtScheduleByCaseUrn(accessToken, caseUrn)
+        );
+    }
 
-        return sittings.stream()
-            .map(this::populateCourtSittings)
-            .toList();
+    private ProsecutionCaseDTO fetchProsecutionCase(final String caseUrn) {
+        return oauthTokenService.executeWithToken(
+            AmpApiType.PCD,
+            accessToken -> prosectionCaseService.getCaseStatus(accessToken, caseUrn)
+        );
     }
 
-    private CaseDetailsCourtSittingDto populateCourtSittings(final CourtSittingDto courtSitting) {
-        final CourtHouseDto courtHouseDto = CourtHouseDto.builder()
-            .courtHouseId(courtSitting.getCourtHouse())
-            .courtRoomId(courtSitting.getCourtRoom())
-            .build();
+    private CaseDetailsHearingDto enrichHearingWithCourtDetails(final String caseUrn, final CaseDetailsHearingDto hearing) {
+        return oauthTokenService.executeWithToken(
+            AmpApiType.RCC,
+            accessToken -> enrichHearingWithCourtDetails(caseUrn, accessToken, hearing)
+        );
+    }
 
-        return CaseDetailsCourtSittingDto.builder()
-            .judiciaryId(courtSitting.getJudiciaryId())
-            .sittingStart(courtSitting.getSittingStart())
-            .sittingEnd(courtSitting.getSittingEnd())
-            .courtHouse(courtHouseDto)
-            .build();
+    private Optional<CaseDetailsHearingDto> selectNextHearing(final CourtScheduleDto schedule) {
+        final long startedNanos = System.nanoTime();
+        final Optional<CaseDetailsHearingDto> nextHearing = NextHearingSelector.selectNextHearing(schedule.getHearings(), LocalDate.now());
+        trackMyCaseMetricsService.recordStage(Stage.HEARING_SELECTION, System.nanoTime() - startedNanos);
+        return nextHearing;
     }
 
-    private boolean validateDateNotInPastAndNotAfterTenYears(final LocalDate hearingDate) {
-        if (nonNull(hearingDate)) {
-            try {
-                return !(hearingDate.isBefore(LocalDate.now()) || hearingDate.isAfter(LocalDate.now().plusYears(10)));
-            } catch (Exception e) {
-                return false;
-            }
-        }
-        return false;
+    private static CaseDetailsCourtScheduleDto toCourtScheduleDto(final List<CaseDetailsHearingDto> nextHearings) {
+        return CaseDetailsCourtScheduleDto.builder()
+            .hearings(nextHearings)
+            .build();
     }
 
-    private static boolean isValidHearingType(final String hearingType) {
-        if (isNull(hearingType)) {
-            return false;
-        }
-        HearingType fromValue = HearingType.fromValue(hearingType);
-        if (nonNull(fromValue)) {
-            return true;
-        }
-        final String hearingTypeInLowerCase = hearingType.toLowerCase();
-        if (hearingTypeInLowerCase.contains(HearingType.TRIAL.getValue().toLowerCase())
-            || hearingTypeInLowerCase.contains(HearingType.SENTENCE.getValue().toLowerCase())) {
-            // this is a case if you missed any hearing type in HearingType enum, which has "trial" or "sentence" in the value
-            log.info("Hearing type does match Trail or Sentence filtering and not included in the enum [{}]", hearingType);
-            return false;
-        }
-        return false;
+    private static CaseDetailsDto buildCaseDetails(final String caseUrn,
+                                                   final ProsecutionCaseDTO prosecutionCaseDto,
+                                                   final List<CaseDetailsCourtScheduleDto> caseDetailsCourtSchedules) {
+        return CaseDetailsDto.builder()
+            .caseUrn(caseUrn)
+            .caseStatus(prosecutionCaseDto.getCaseStatus())
+            .courtSchedules(caseDetailsCourtSchedules)
+            .build();
     }
 
     private CaseDetailsHearingDto enrichHearingWithCourtDetails(final String caseUrn, final String courtHouseAccessToken, CaseDetailsHearingDto hearing) {
@@ -297,16 +240,17 @@ public class CaseDetailsService {
                 ? enrichCourtSittingsWithCourtDetails(courtHouseAccessToken, hearing.getCourtSittings())
                 : null;
 
-        if (nonNull(enrichedWeekCommencing)) {
-            log.info(
-                "caseUrn -{} : hearingId (W/C) - {} : CourtHouse Id - {} ",
-                caseUrn,
-                hearing.getHearingId(),
-                enrichedWeekCommencing.getCourtHouse().getCourtHouseId()
-            );
-        } else {
-            if (nonNull(enrichedCourtSittings)) {
-                log.info(
+        // per hearing detail is for diagnosing single cases, the metrics carry the volumes
+        if (log.isDebugEnabled()) {
+            if (nonNull(enrichedWeekCommencing)) {
+                log.debug(
+                    "caseUrn -{} : hearingId (W/C) - {} : CourtHouse Id - {} ",
+                    caseUrn,
+                    hearing.getHearingId(),
+                    enrichedWeekCommencing.getCourtHouse().getCourtHouseId()
+                );
+            } else if (nonNull(enrichedCourtSittings)) {
+                log.debug(
                     "caseUrn [{}] : hearingId [{}] : CourtHouse Id [{}] :  CourtRoom Id [{}]",
                     caseUrn,
                     hearing.getHearingId(),
@@ -314,7 +258,7 @@ public class CaseDetailsService {
                     enrichedCourtSittings.getFirst().getCourtHouse().getCourtRoomId()
                 );
             } else {
-                log.info(
+                log.debug(
                     "caseUrn -{} : hearingId - {} : CourtHouse details are null",
                     caseUrn,
                     hearing.getHearingId()
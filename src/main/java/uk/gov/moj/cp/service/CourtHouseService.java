@@ -1,38 +1,109 @@
 package uk.gov.moj.cp.service;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.moj.generated.hmcts.Address;
 import com.moj.generated.hmcts.CourtHouse;
 import com.moj.generated.hmcts.CourtHouse.CourtHouseType;
 import com.moj.generated.hmcts.CourtRoom;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import uk.gov.moj.cp.client.api.CourtHouseClient;
 import uk.gov.moj.cp.dto.outbound.CourtHouseDto;
 import uk.gov.moj.cp.dto.outbound.CourtRoomDto;
 import uk.gov.moj.cp.dto.outbound.AddressDto;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService;
+import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService.Stage;
+import uk.gov.moj.cp.model.AmpApiType;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class CourtHouseService {
 
+    private static final String COURT_HOUSE_CACHE_NAME = "courthouse";
+
     private final CourtHouseClient courtHouseClient;
+    private final OAuthTokenService oauthTokenService;
+    private final TrackMyCaseMetricsService trackMyCaseMetricsService;
+    private final LoadingCache<CourtHouseKey, CachedCourtHouse> courtHouseCache;
+
+    public CourtHouseService(CourtHouseClient courtHouseClient,
+                             OAuthTokenService oauthTokenService,
+                             CacheMetricsService cacheMetricsService,
+                             TrackMyCaseMetricsService trackMyCaseMetricsService,
+                             ExecutorService downstreamExecutor,
+                             @Value("${services.reference-data-cache.maximum-size}") long maximumSize,
+                             @Value("${services.reference-data-cache.ttl-minutes}") long ttlMinutes,
+                             @Value("${services.reference-data-cache.refresh-after-minutes}") long refreshAfterMinutes,
+                             @Value("${services.reference-data-cache.negative-ttl-minutes}") long negativeTtlMinutes) {
+        this.courtHouseClient = courtHouseClient;
+        this.oauthTokenService = oauthTokenService;
+        this.trackMyCaseMetricsService = trackMyCaseMetricsService;
+        // hot entries are reloaded in the background once they are older than refreshAfterMinutes,
+        // so a court house that is looked up regularly never expires on the request path
+        this.courtHouseCache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new CourtHouseExpiry(Duration.ofMinutes(ttlMinutes), Duration.ofMinutes(negativeTtlMinutes)))
+            .refreshAfterWrite(Duration.ofMinutes(refreshAfterMinutes))
+            .executor(downstreamExecutor)
+            .recordStats()
+            .build(this::refreshCourtHouse);
+        cacheMetricsService.registerCache(COURT_HOUSE_CACHE_NAME, courtHouseCache);
+    }
 
     public CourtHouseDto getCourtHouseById(String accessToken, String courtId, String courtRoomId) {
-        HttpEntity<CourtHouse> result = courtHouseClient.getCourtHouseById(accessToken, courtId, courtRoomId);
+        final CachedCourtHouse cached = courtHouseCache.get(
+            new CourtHouseKey(courtId, courtRoomId),
+            key -> loadCourtHouse(accessToken, key)
+        );
+        if (isNull(cached)) {
+            return null;
+        }
+        if (nonNull(cached.notFound())) {
+            throw HttpClientErrorException.create(
+                cached.notFound().getStatusCode(),
+                cached.notFound().getStatusText(),
+                cached.notFound().getResponseHeaders(),
+                cached.notFound().getResponseBodyAsByteArray(),
+                null
+            );
+        }
+        return cached.courtHouse();
+    }
+
+    private CachedCourtHouse refreshCourtHouse(CourtHouseKey key) {
+        return loadCourtHouse(oauthTokenService.getJwtToken(AmpApiType.RCC), key);
+    }
+
+    private CachedCourtHouse loadCourtHouse(String accessToken, CourtHouseKey key) {
+        final HttpEntity<CourtHouse> result;
+        try {
+            result = courtHouseClient.getCourtHouseById(accessToken, key.courtId(), key.courtRoomId());
+        } catch (HttpClientErrorException.NotFound e) {
+            log.atWarn().log("CourtHouse not found for courtId: {}, courtRoomId: {}", key.courtId(), key.courtRoomId());
+            return new CachedCourtHouse(null, e);
+        }
 
         if (isNull(result) || isNull(result.getBody())) {
             log.atError().log("Response body is null or empty");
             return null;
         }
-        return convertToCourtHouseDto(result.getBody(), courtId, courtRoomId);
+        final long startedNanos = System.nanoTime();
+        final CourtHouseDto courtHouse = convertToCourtHouseDto(result.getBody(), key.courtId(), key.courtRoomId());
+        trackMyCaseMetricsService.recordStage(Stage.COURT_HOUSE_CONVERSION, System.nanoTime() - startedNanos);
+        return new CachedCourtHouse(courtHouse, null);
     }
 
     private CourtHouseDto convertToCourtHouseDto(CourtHouse courtHouse, String id, String courtRoomId) {
@@ -72,5 +143,28 @@ public class CourtHouseService {
             .country(address.getCountry())
             .build();
     }
-}
 
+    private record CourtHouseKey(String courtId, String courtRoomId) {
+    }
+
+    private record CachedCourtHouse(CourtHouseDto courtHouse, HttpClientErrorException notFound) {
+    }
+
+    private record CourtHouseExpiry(Duration ttl, Duration negativeTtl) implements Expiry<CourtHouseKey, CachedCourtHouse> {
+
+        @Override
+        public long expireAfterCreate(CourtHouseKey key, CachedCourtHouse value, long currentTime) {
+            return (nonNull(value.notFound()) ? negativeTtl : ttl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(CourtHouseKey key, CachedCourtHouse value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(CourtHouseKey key, CachedCourtHouse value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -14,14 +14,13 @@ import uk.gov.moj.cp.dto.inbound.CourtScheduleDto;
 import uk.gov.moj.cp.dto.inbound.CourtSittingDto;
 import uk.gov.moj.cp.dto.inbound.HearingDto;
 import uk.gov.moj.cp.dto.inbound.WeekCommencingDto;
+import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService;
+import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService.Stage;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.isNull;
-import static java.util.Objects.nonNull;
 
 @Service
 @Slf4j
@@ -29,6 +28,7 @@ import static java.util.Objects.nonNull;
 public class CourtScheduleService {
 
     private final CourtScheduleClient courtScheduleClient;
+    private final TrackMyCaseMetricsService trackMyCaseMetricsService;
 
     public List<CourtScheduleDto> getCourtScheduleByCaseUrn(String accessToken, String caseUrn) {
         ResponseEntity<CourtScheduleSchema> result = courtScheduleClient.getCourtScheduleByCaseUrn(
@@ -38,17 +38,22 @@ public class CourtScheduleService {
         if (isNull(result) || isNull(result.getBody())) {
             throw new RuntimeException("Response body is null or empty for caseUrn: " + caseUrn);
         }
-        return convertToCourtScheduleDto(caseUrn, result.getBody().getCourtSchedule());
+        final long startedNanos = System.nanoTime();
+        final List<CourtScheduleDto> courtSchedules = convertToCourtScheduleDto(caseUrn, result.getBody().getCourtSchedule());
+        trackMyCaseMetricsService.recordStage(Stage.COURT_SCHEDULE_CONVERSION, System.nanoTime() - startedNanos);
+        return courtSchedules;
     }
 
-    private List<CourtScheduleDto> convertToCourtScheduleDto(String caseUrn,
-                                                             List<CourtSchedule> courtScheduleResultList) {
-        String hearingIdList = courtScheduleResultList.stream()
-            .map(courtSchedule -> courtSchedule.getHearings().stream()
-                .map(Hearing::getHearingId)
-                .collect(Collectors.joining(",")))
-            .collect(Collectors.joining(","));
-        log.atInfo().log("Received Hearing Ids : {} for caseUrn : {} ", hearingIdList, caseUrn);
+    List<CourtScheduleDto> convertToCourtScheduleDto(String caseUrn,
+                                                     List<CourtSchedule> courtScheduleResultList) {
+        if (log.isDebugEnabled()) {
+            String hearingIdList = courtScheduleResultList.stream()
+                .map(courtSchedule -> courtSchedule.getHearings().stream()
+                    .map(Hearing::getHearingId)
+                    .collect(Collectors.joining(",")))
+                .collect(Collectors.joining(","));
+            log.debug("Received Hearing Ids : {} for caseUrn : {} ", hearingIdList, caseUrn);
+        }
 
         List<CourtScheduleDto> courtScheduleDtos = courtScheduleResultList.stream()
             .map(courtSchedule -> {
@@ -70,8 +75,8 @@ public class CourtScheduleService {
 
             weekCommencingDto = WeekCommencingDto.builder()
                 .courtHouse(weekCommencing.getCourtHouse())
-                .startDate(convertLocalDateToString(weekCommencing.getStartDate()))
-                .endDate(convertLocalDateToString(weekCommencing.getEndDate()))
+                .startDate(weekCommencing.getStartDate())
+                .endDate(weekCommencing.getEndDate())
                 .durationInWeeks(weekCommencing.getDurationInWeeks())
                 .build();
         }
@@ -88,15 +93,11 @@ public class CourtScheduleService {
             .build();
     }
 
-    private String convertLocalDateToString(LocalDate date) {
-        return nonNull(date) ? date.format(DateTimeFormatter.ISO_DATE) : null;
-    }
-
     private CourtSittingDto getCourtSittings(CourtSitting courtSitting) {
 
         return CourtSittingDto.builder()
-            .sittingStart(courtSitting.getSittingStart().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
-            .sittingEnd(courtSitting.getSittingEnd().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+            .sittingStart(courtSitting.getSittingStart().toLocalDateTime())
+            .sittingEnd(courtSitting.getSittingEnd().toLocalDateTime())
             .judiciaryId(courtSitting.getJudiciaryId())
             .courtHouse(courtSitting.getCourtHouse())
             .courtRoom(courtSitting.getCourtRoom())
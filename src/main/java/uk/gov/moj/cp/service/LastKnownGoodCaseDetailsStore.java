@@ -0,0 +1,303 @@
+package uk.gov.moj.cp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.moj.cp.config.SecretKeyLoader;
+import uk.gov.moj.cp.dto.outbound.CaseDetailsDto;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+import uk.gov.moj.cp.util.CryptoEngine;
+import uk.gov.moj.cp.util.Utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * The last case details successfully fetched for each URN, kept for {@code stale-if-error-seconds} after the fetch so
+ * that {@link CaseDetailsCache} can serve them once its own entry has expired: straight away, while they are
+ * refreshed, up to {@code stale-while-revalidate-seconds}, and after that only when the downstream APIs fail.
+ *
+ * <p>Details are held in memory and, when the disk tier is enabled, also written as one file per URN so they survive
+ * a restart. Each file holds the details as JSON encrypted with the users AES key, is named by the HMAC of the URN and
+ * is readable by the service's user only. Files are read and written off the request thread and the directory is
+ * pruned back to {@code maximum-entries}, oldest first, whenever it grows past it. A request that misses the memory
+ * tier waits at most {@code read-timeout-ms} for the file, which matters because that is exactly when the cache has
+ * expired and the downstream APIs are failing; a read that takes longer still fills the memory tier for the next
+ * request, and concurrent requests for the same URN share one read.
+ */
+@Slf4j
+@Component
+public class LastKnownGoodCaseDetailsStore {
+
+    private static final String LAST_KNOWN_GOOD_CACHE_NAME = "casedetails_last_known_good";
+    private static final String FILE_SUFFIX = ".json";
+    private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+    private static final Set<PosixFilePermission> OWNER_ONLY_FILE = PosixFilePermissions.fromString("rw-------");
+
+    private final boolean enabled;
+    @Getter
+    private final Duration staleWhileRevalidate;
+    private final Duration staleIfError;
+    private final Cache<String, StoredCaseDetails> memory;
+    private final ExecutorService downstreamExecutor;
+    private final CryptoEngine cryptoEngine;
+    private final Path directory;
+    private final long maximumDiskEntries;
+    private final AtomicLong diskEntries = new AtomicLong();
+    private final AtomicBoolean pruning = new AtomicBoolean();
+    private final long diskReadTimeoutMillis;
+    private final Map<String, CompletableFuture<StoredCaseDetails>> pendingReads = new ConcurrentHashMap<>();
+
+    public LastKnownGoodCaseDetailsStore(
+        CacheMetricsService cacheMetricsService,
+        ExecutorService downstreamExecutor,
+        SecretKeyLoader secretKeyLoader,
+        @Value("${services.case-details.last-known-good.enabled}") boolean enabled,
+        @Value("${services.case-details.last-known-good.maximum-size}") long maximumSize,
+        @Value("${services.case-details.last-known-good.stale-while-revalidate-seconds}") long staleWhileRevalidateSeconds,
+        @Value("${services.case-details.last-known-good.stale-if-error-seconds}") long staleIfErrorSeconds,
+        @Value("${services.case-details.last-known-good.disk.enabled}") boolean diskEnabled,
+        @Value("${services.case-details.last-known-good.disk.directory}") String directory,
+        @Value("${services.case-details.last-known-good.disk.maximum-entries}") long maximumDiskEntries,
+        @Value("${services.case-details.last-known-good.disk.read-timeout-ms}") long diskReadTimeoutMillis) {
+        this.enabled = enabled;
+        this.staleWhileRevalidate = Duration.ofSeconds(staleWhileRevalidateSeconds);
+        this.staleIfError = Duration.ofSeconds(staleIfErrorSeconds);
+        this.downstreamExecutor = downstreamExecutor;
+        this.cryptoEngine = secretKeyLoader.getCryptoEngine();
+        this.memory = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(staleIfError)
+            .recordStats()
+            .build();
+        cacheMetricsService.registerCache(LAST_KNOWN_GOOD_CACHE_NAME, memory);
+
+        if (enabled && diskEnabled && StringUtils.isBlank(directory)) {
+            throw new IllegalStateException(
+                "services.case-details.last-known-good.disk.directory must be set when the disk tier is enabled");
+        }
+        this.directory = enabled && diskEnabled ? Path.of(directory) : null;
+        this.maximumDiskEntries = maximumDiskEntries;
+        this.diskReadTimeoutMillis = diskReadTimeoutMillis;
+        if (this.directory != null) {
+            downstreamExecutor.execute(this::prune);
+        }
+    }
+
+    /**
+     * Returns the last details fetched for the URN within the stale-if-error window, or {@code null} if there are none.
+     */
+    public StoredCaseDetails get(String caseUrn) {
+        if (!enabled) {
+            return null;
+        }
+        final StoredCaseDetails stored = memory.getIfPresent(caseUrn);
+        if (stored == null && directory != null) {
+            return readFromDisk(caseUrn);
+        }
+        return stored;
+    }
+
+    public void put(String caseUrn, CaseDetailsDto caseDetails) {
+        if (!enabled) {
+            return;
+        }
+        final StoredCaseDetails stored = new StoredCaseDetails(caseDetails, System.currentTimeMillis());
+        memory.put(caseUrn, stored);
+        if (directory != null) {
+            downstreamExecutor.execute(() -> write(caseUrn, stored));
+        }
+    }
+
+    private StoredCaseDetails readFromDisk(String caseUrn) {
+        CompletableFuture<StoredCaseDetails> pending = pendingReads.get(caseUrn);
+        if (pending == null) {
+            final CompletableFuture<StoredCaseDetails> started = new CompletableFuture<>();
+            pending = pendingReads.putIfAbsent(caseUrn, started);
+            if (pending == null) {
+                pending = started;
+                try {
+                    downstreamExecutor.execute(() -> readIntoMemory(caseUrn, started));
+                } catch (RejectedExecutionException e) {
+                    pendingReads.remove(caseUrn, started);
+                    started.complete(null);
+                }
+            }
+        }
+        try {
+            return pending.get(diskReadTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.debug("Last known good case details not read from disk within {} ms", diskReadTimeoutMillis);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private void readIntoMemory(String caseUrn, CompletableFuture<StoredCaseDetails> pending) {
+        StoredCaseDetails stored = null;
+        try {
+            stored = read(caseUrn);
+            if (stored != null) {
+                // details fetched while the file was being read are newer
+                memory.asMap().putIfAbsent(caseUrn, stored);
+            }
+        } finally {
+            pendingReads.remove(caseUrn, pending);
+            pending.complete(stored);
+        }
+    }
+
+    private StoredCaseDetails read(String caseUrn) {
+        try {
+            final StoredCaseDetails stored = Utils.objectMapper.readValue(
+                cryptoEngine.aesDecrypt(Files.readString(file(caseUrn), StandardCharsets.ISO_8859_1)),
+                StoredCaseDetails.class
+            );
+            return stored.age().compareTo(staleIfError) <= 0 ? stored : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | IllegalStateException e) {
+            // also a file encrypted with a key that has since been rotated
+            log.warn("Failed to read last known good case details", e);
+            return null;
+        }
+    }
+
+    private void write(String caseUrn, StoredCaseDetails stored) {
+        try {
+            createDirectory();
+            final Path file = file(caseUrn);
+            final boolean added = !Files.exists(file);
+            // write then rename, so a reader never sees a half written file
+            final Path temporary = isPosix()
+                ? Files.createTempFile(directory, "write", ".tmp", PosixFilePermissions.asFileAttribute(OWNER_ONLY_FILE))
+                : Files.createTempFile(directory, "write", ".tmp");
+            Files.writeString(
+                temporary,
+                cryptoEngine.aesEncrypt(Utils.objectMapper.writeValueAsString(stored)),
+                StandardCharsets.ISO_8859_1
+            );
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (added && diskEntries.incrementAndGet() > maximumDiskEntries) {
+                prune();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write last known good case details", e);
+        }
+    }
+
+    // deletes the files past the stale-if-error window, then the oldest ones until a tenth of the room is free again
+    private void prune() {
+        if (!pruning.compareAndSet(false, true)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            final FileTime expiredBefore = FileTime.fromMillis(System.currentTimeMillis() - staleIfError.toMillis());
+            final List<FileEntry> entries = new ArrayList<>();
+            files.filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX))
+                .map(FileEntry::of)
+                .filter(Objects::nonNull)
+                .forEach(entry -> {
+                    if (entry.lastModified().compareTo(expiredBefore) >= 0 || !delete(entry)) {
+                        entries.add(entry);
+                    }
+                });
+            entries.sort(Comparator.comparing(FileEntry::lastModified));
+            final long excess = entries.size() - maximumDiskEntries * 9 / 10;
+            long remaining = entries.size();
+            for (int i = 0; i < excess; i++) {
+                if (delete(entries.get(i))) {
+                    remaining--;
+                }
+            }
+            diskEntries.set(remaining);
+        } catch (NoSuchFileException e) {
+            diskEntries.set(0);
+        } catch (IOException e) {
+            log.warn("Failed to prune last known good case details", e);
+        } finally {
+            pruning.set(false);
+        }
+    }
+
+    private static boolean delete(FileEntry entry) {
+        try {
+            Files.deleteIfExists(entry.file());
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void createDirectory() throws IOException {
+        if (Files.isDirectory(directory)) {
+            return;
+        }
+        if (isPosix()) {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY_DIRECTORY));
+            // the umask may have masked the permissions asked for, but it can only have removed some
+            Files.setPosixFilePermissions(directory, OWNER_ONLY_DIRECTORY);
+        } else {
+            Files.createDirectories(directory);
+        }
+    }
+
+    private boolean isPosix() {
+        return directory.getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+
+    // URNs are keyed hashed, so no URN can be read from or guessed against a file name, nor reach outside the directory
+    private Path file(String caseUrn) {
+        return directory.resolve(cryptoEngine.hmacEncrypt(caseUrn) + FILE_SUFFIX);
+    }
+
+    public record StoredCaseDetails(CaseDetailsDto caseDetails, long fetchedAtMillis) {
+
+        public Duration age() {
+            return Duration.ofMillis(Math.max(0, System.currentTimeMillis() - fetchedAtMillis));
+        }
+    }
+
+    private record FileEntry(Path file, FileTime lastModified) {
+
+        static FileEntry of(Path file) {
+            try {
+                return new FileEntry(file, Files.getLastModifiedTime(file));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+}
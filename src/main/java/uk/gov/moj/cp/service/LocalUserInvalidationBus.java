@@ -0,0 +1,27 @@
+package uk.gov.moj.cp.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process bus for a single instance, used when cross-instance invalidation is disabled.
+ */
+@Component
+@ConditionalOnProperty(name = "services.users.active-user-cache.invalidation.enabled", havingValue = "false")
+public class LocalUserInvalidationBus implements UserInvalidationBus {
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String emailLookup) {
+        subscribers.forEach(subscriber -> subscriber.onInvalidate(emailLookup));
+    }
+
+    @Override
+    public void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+}
@@ -0,0 +1,161 @@
+package uk.gov.moj.cp.service;
+
+import uk.gov.moj.cp.dto.inbound.CourtSittingDto;
+import uk.gov.moj.cp.dto.inbound.HearingDto;
+import uk.gov.moj.cp.dto.inbound.WeekCommencingDto;
+import uk.gov.moj.cp.dto.outbound.CaseDetailsCourtSittingDto;
+import uk.gov.moj.cp.dto.outbound.CaseDetailsHearingDto;
+import uk.gov.moj.cp.dto.outbound.CaseDetailsWeekCommencingDto;
+import uk.gov.moj.cp.dto.outbound.CourtHouseDto;
+import uk.gov.moj.cp.model.HearingType;
+import uk.gov.moj.cp.model.NextHearingWindow;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Chooses the next hearing of a court schedule in a single pass.
+ *
+ * <p>A hearing is a candidate when it meets the rules of {@link NextHearingWindow}. Candidates are ordered by their earliest date, then fixed date
+ * hearings before week commencing ones, then trials before other hearings. The dates of each hearing are reduced
+ * once to a primitive sort key, and only the winning hearing is turned into a {@link CaseDetailsHearingDto}, which
+ * is where its dates are formatted.
+ */
+final class NextHearingSelector {
+
+    private static final long REJECTED = Long.MAX_VALUE;
+
+    private static final Pattern HEARING_TYPE_TRIAL_PATTERN = Pattern.compile(
+        "\\b" + HearingType.TRIAL.getValue() + "\\b",
+        Pattern.CASE_INSENSITIVE
+    );
+
+    // candidates always have one of the enum hearing types, so the trial check is done once per type
+    private static final Set<HearingType> TRIAL_HEARING_TYPES = Arrays.stream(HearingType.values())
+        .filter(hearingType -> HEARING_TYPE_TRIAL_PATTERN.matcher(hearingType.getValue()).find())
+        .collect(Collectors.toCollection(() -> EnumSet.noneOf(HearingType.class)));
+
+    private NextHearingSelector() {
+    }
+
+    static Optional<CaseDetailsHearingDto> selectNextHearing(final List<HearingDto> hearings, final LocalDate today) {
+        final NextHearingWindow window = NextHearingWindow.startingOn(today);
+
+        HearingDto nextHearing = null;
+        long nextHearingKey = REJECTED;
+        for (HearingDto hearing : hearings) {
+            final long key = sortKey(hearing, window);
+            // strictly less, so that the first of equally ranked hearings wins
+            if (key < nextHearingKey) {
+                nextHearing = hearing;
+                nextHearingKey = key;
+            }
+        }
+        return Optional.ofNullable(nextHearing).map(NextHearingSelector::toCaseDetailsHearing);
+    }
+
+    /**
+     * Packs the earliest epoch day, the fixed date rank and the trial rank of a hearing into one long, or returns
+     * {@code REJECTED} when the hearing is not a candidate.
+     */
+    private static long sortKey(final HearingDto hearing, final NextHearingWindow window) {
+        if (isNull(hearing)) {
+            return REJECTED;
+        }
+        final HearingType hearingType = NextHearingWindow.candidateHearingType(hearing.getHearingType());
+        if (isNull(hearingType)) {
+            return REJECTED;
+        }
+
+        final boolean hasWeekCommencing = nonNull(hearing.getWeekCommencing());
+        final long earliestDay = hasWeekCommencing
+            ? weekCommencingDay(hearing.getWeekCommencing(), window)
+            : earliestSittingDay(hearing.getCourtSittings(), window);
+        if (earliestDay == REJECTED) {
+            return REJECTED;
+        }
+
+        final int fixedDateRank = hasWeekCommencing ? 1 : 0;
+        final int trialRank = TRIAL_HEARING_TYPES.contains(hearingType) ? 0 : 1;
+        return earliestDay << 2 | fixedDateRank << 1 | trialRank;
+    }
+
+    // week commencing hearings are ordered by the end of the week
+    private static long weekCommencingDay(final WeekCommencingDto weekCommencing, final NextHearingWindow window) {
+        return window.containsWeekCommencing(weekCommencing.getStartDate(), weekCommencing.getEndDate())
+            ? weekCommencing.getEndDate().toEpochDay()
+            : REJECTED;
+    }
+
+    // past sittings of a multi-day hearing still count towards its earliest day
+    private static long earliestSittingDay(final List<CourtSittingDto> sittings, final NextHearingWindow window) {
+        if (isNull(sittings) || sittings.isEmpty()) {
+            return REJECTED;
+        }
+        boolean hasAnyCurrentOrFutureSitting = false;
+        long earliestDay = REJECTED;
+        for (CourtSittingDto sitting : sittings) {
+            if (isNull(sitting.getSittingStart())) {
+                continue;
+            }
+            final long sittingDay = sitting.getSittingStart().toLocalDate().toEpochDay();
+            hasAnyCurrentOrFutureSitting |= window.contains(sittingDay);
+            earliestDay = Math.min(earliestDay, sittingDay);
+        }
+        return hasAnyCurrentOrFutureSitting ? earliestDay : REJECTED;
+    }
+
+    private static CaseDetailsHearingDto toCaseDetailsHearing(final HearingDto hearing) {
+        final WeekCommencingDto weekCommencing = hearing.getWeekCommencing();
+        return CaseDetailsHearingDto.builder()
+            .hearingId(hearing.getHearingId())
+            .hearingType(hearing.getHearingType())
+            .hearingDescription(hearing.getHearingDescription())
+            .listNote(hearing.getListNote())
+            .courtSittings(isNull(weekCommencing) ? toCaseDetailsCourtSittings(hearing.getCourtSittings()) : null)
+            .weekCommencing(nonNull(weekCommencing) ? toCaseDetailsWeekCommencing(weekCommencing) : null)
+            .build();
+    }
+
+    private static CaseDetailsWeekCommencingDto toCaseDetailsWeekCommencing(final WeekCommencingDto weekCommencing) {
+        final CourtHouseDto courtHouseDto = CourtHouseDto.builder()
+            .courtHouseId(weekCommencing.getCourtHouse())
+            .build();
+
+        return CaseDetailsWeekCommencingDto.builder()
+            .startDate(format(weekCommencing.getStartDate(), DateTimeFormatter.ISO_LOCAL_DATE))
+            .endDate(format(weekCommencing.getEndDate(), DateTimeFormatter.ISO_LOCAL_DATE))
+            .durationInWeeks(weekCommencing.getDurationInWeeks())
+            .courtHouse(courtHouseDto)
+            .build();
+    }
+
+    private static List<CaseDetailsCourtSittingDto> toCaseDetailsCourtSittings(final List<CourtSittingDto> courtSittings) {
+        return courtSittings.stream()
+            .map(courtSitting -> CaseDetailsCourtSittingDto.builder()
+                .judiciaryId(courtSitting.getJudiciaryId())
+                .sittingStart(format(courtSitting.getSittingStart(), DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .sittingEnd(format(courtSitting.getSittingEnd(), DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .courtHouse(CourtHouseDto.builder()
+                                .courtHouseId(courtSitting.getCourtHouse())
+                                .courtRoomId(courtSitting.getCourtRoom())
+                                .build())
+                .build())
+            .toList();
+    }
+
+    private static String format(final TemporalAccessor temporal, final DateTimeFormatter formatter) {
+        return nonNull(temporal) ? formatter.format(temporal) : null;
+    }
+}
@@ -1,27 +1,91 @@
 package uk.gov.moj.cp.service;
 
-import lombok.RequiredArgsConstructor;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
 import uk.gov.moj.cp.client.oauth.OAuthTokenClient;
+import uk.gov.moj.cp.metrics.OAuthTokenMetricsService;
 import uk.gov.moj.cp.model.AmpApiType;
 import uk.gov.moj.cp.model.CachedToken;
+import uk.gov.moj.cp.model.OAuthTokenResponse;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
+import static uk.gov.moj.cp.metrics.OAuthTokenMetricsService.TRIGGER_REQUEST;
+import static uk.gov.moj.cp.metrics.OAuthTokenMetricsService.TRIGGER_SCHEDULED;
+import static uk.gov.moj.cp.util.FutureUtils.join;
+
+/**
+ * Caches the OAuth token of each AMP API.
+ *
+ * <p>Tokens are cached until the {@code expires_in} of the token response, capped by the static
+ * {@code token-cache-ttl-minutes}, and are refreshed in the background ahead of expiry so that requests do not pay
+ * the token round-trip. Concurrent lookups that find no valid token share a single fetch. When a scheduled refresh
+ * fails the current token keeps being served and the refresh is retried with jittered exponential backoff.
+ *
+ * <p>Downstream calls made through {@link #executeWithToken} that fail with 401 or 403 evict only the rejected token
+ * of that API and replay only that call. The number of evictions per API is rate limited, so a storm of rejections
+ * cannot turn into a stampede on the token endpoint.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
-public class OAuthTokenService {
+public class OAuthTokenService implements DisposableBean {
 
     private final OAuthTokenClient oauthTokenClient;
-
-    @Value("${services.oauth-token.cache.token-cache-ttl-minutes}")
-    private long tokenCacheTtlMinutes;
+    private final OAuthTokenMetricsService oauthTokenMetricsService;
+    private final long tokenCacheTtlMinutes;
+    private final boolean refreshEnabled;
+    private final Duration refreshAhead;
+    private final Duration retryInitialDelay;
+    private final Duration retryMaxDelay;
+    private final Map<AmpApiType, Bucket> tokenEvictionBuckets = new EnumMap<>(AmpApiType.class);
 
     private final Map<AmpApiType, CachedToken> tokenCache = new ConcurrentHashMap<>();
+    private final Map<AmpApiType, CompletableFuture<CachedToken>> tokenFetchesInFlight = new ConcurrentHashMap<>();
+    private final Map<AmpApiType, ScheduledFuture<?>> scheduledRefreshes = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refreshScheduler =
+        Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("oauth-token-refresh").factory());
+
+    public OAuthTokenService(OAuthTokenClient oauthTokenClient,
+                             OAuthTokenMetricsService oauthTokenMetricsService,
+                             @Value("${services.oauth-token.cache.token-cache-ttl-minutes}") long tokenCacheTtlMinutes,
+                             @Value("${services.oauth-token.refresh.enabled}") boolean refreshEnabled,
+                             @Value("${services.oauth-token.refresh.refresh-ahead-seconds}") long refreshAheadSeconds,
+                             @Value("${services.oauth-token.refresh.retry-initial-delay-ms}") long retryInitialDelayMs,
+                             @Value("${services.oauth-token.refresh.retry-max-delay-ms}") long retryMaxDelayMs,
+                             @Value("${services.oauth-token.eviction-circuit.max-evictions}") int maxEvictions,
+                             @Value("${services.oauth-token.eviction-circuit.window-seconds}") long evictionWindowSeconds) {
+        this.oauthTokenClient = oauthTokenClient;
+        this.oauthTokenMetricsService = oauthTokenMetricsService;
+        this.tokenCacheTtlMinutes = tokenCacheTtlMinutes;
+        this.refreshEnabled = refreshEnabled;
+        this.refreshAhead = Duration.ofSeconds(refreshAheadSeconds);
+        this.retryInitialDelay = Duration.ofMillis(retryInitialDelayMs);
+        this.retryMaxDelay = Duration.ofMillis(retryMaxDelayMs);
+        for (AmpApiType ampApiType : AmpApiType.values()) {
+            Bandwidth limit = Bandwidth.builder()
+                .capacity(maxEvictions)
+                .refillGreedy(maxEvictions, Duration.ofSeconds(evictionWindowSeconds))
+                .build();
+            tokenEvictionBuckets.put(ampApiType, Bucket.builder().addLimit(limit).build());
+        }
+    }
 
     public String getJwtToken(AmpApiType ampApiType) {
         CachedToken cached = tokenCache.get(ampApiType);
@@ -29,15 +93,136 @@ public class OAuthTokenService {
             log.debug("Returning cached token for API: {}", ampApiType);
             return cached.getToken();
         }
-        log.info("Fetching new token for API: {}", ampApiType);
-        final String token = oauthTokenClient.getJwtToken(ampApiType).accessToken();
-        tokenCache.put(ampApiType, new CachedToken(token, tokenCacheTtlMinutes));
-        return token;
+        return fetchToken(ampApiType, TRIGGER_REQUEST).getToken();
+    }
+
+    /**
+     * Calls a downstream API with its token, replaying the call once with a new token if the token is rejected.
+     */
+    public <T> T executeWithToken(AmpApiType ampApiType, Function<String, T> call) {
+        final String token = getJwtToken(ampApiType);
+        try {
+            return call.apply(token);
+        } catch (HttpStatusCodeException e) {
+            if (!e.getStatusCode().isSameCodeAs(HttpStatus.UNAUTHORIZED) && !e.getStatusCode().isSameCodeAs(HttpStatus.FORBIDDEN)) {
+                throw e;
+            }
+            oauthTokenMetricsService.recordTokenRejected(ampApiType);
+            if (!evictRejectedToken(ampApiType, token)) {
+                oauthTokenMetricsService.recordEvictionCircuitOpen(ampApiType);
+                log.warn("Token rejected with status {} for API: {}, too many recent evictions so not replaying", e.getStatusCode(), ampApiType);
+                throw e;
+            }
+            log.warn("Token rejected with status {} for API: {}, replaying with a new token", e.getStatusCode(), ampApiType);
+            oauthTokenMetricsService.recordReplay(ampApiType);
+            return call.apply(getJwtToken(ampApiType));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        refreshScheduler.shutdownNow();
+    }
+
+    /**
+     * Returns false when the rejected token is still cached but the eviction circuit of the API is open. Concurrent
+     * calls rejected with the same token only evict it once; the others replay with the token fetched meanwhile.
+     */
+    private boolean evictRejectedToken(AmpApiType ampApiType, String rejectedToken) {
+        final CachedToken cached = tokenCache.get(ampApiType);
+        if (cached == null || !cached.getToken().equals(rejectedToken)) {
+            return true;
+        }
+        if (!tokenEvictionBuckets.get(ampApiType).tryConsume(1)) {
+            return false;
+        }
+        log.info("Evicting OAuth token for API: {}", ampApiType);
+        tokenCache.remove(ampApiType, cached);
+        return true;
+    }
+
+    private CachedToken fetchToken(AmpApiType ampApiType, String trigger) {
+        final CompletableFuture<CachedToken> leader = new CompletableFuture<>();
+        final CompletableFuture<CachedToken> inFlight = tokenFetchesInFlight.putIfAbsent(ampApiType, leader);
+        if (inFlight != null) {
+            oauthTokenMetricsService.recordCoalescedWait(ampApiType);
+            return join(inFlight);
+        }
+
+        try {
+            // another thread may have stored a new token between our cache miss and becoming the leader
+            final CachedToken current = tokenCache.get(ampApiType);
+            if (TRIGGER_REQUEST.equals(trigger) && current != null && !current.isExpired()) {
+                leader.complete(current);
+                return current;
+            }
+
+            log.info("Fetching new token for API: {}", ampApiType);
+            final long startedNanos = System.nanoTime();
+            final CachedToken token = toCachedToken(oauthTokenClient.getJwtToken(ampApiType));
+            oauthTokenMetricsService.recordTokenFetch(ampApiType, trigger, System.nanoTime() - startedNanos);
+            tokenCache.put(ampApiType, token);
+            scheduleRefresh(ampApiType, token);
+            leader.complete(token);
+            return token;
+        } catch (RuntimeException e) {
+            oauthTokenMetricsService.recordTokenFetchFailure(ampApiType, trigger);
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            tokenFetchesInFlight.remove(ampApiType, leader);
+        }
+    }
+
+    private CachedToken toCachedToken(OAuthTokenResponse response) {
+        final Instant now = Instant.now();
+        final Instant ttlExpiresAt = now.plus(Duration.ofMinutes(tokenCacheTtlMinutes));
+        final Instant tokenExpiresAt = now.plusSeconds(response.expiresIn());
+        final Instant expiresAt = response.expiresIn() > 0 && tokenExpiresAt.isBefore(ttlExpiresAt) ? tokenExpiresAt : ttlExpiresAt;
+        return new CachedToken(response.accessToken(), expiresAt);
+    }
+
+    private void scheduleRefresh(AmpApiType ampApiType, CachedToken token) {
+        if (!refreshEnabled) {
+            return;
+        }
+        final Duration lifetime = Duration.between(Instant.now(), token.getExpiresAt());
+        if (lifetime.isNegative() || lifetime.isZero()) {
+            return;
+        }
+        // short-lived tokens are refreshed half way through their lifetime
+        final Duration halfLifetime = lifetime.dividedBy(2);
+        final Duration lead = refreshAhead.compareTo(halfLifetime) < 0 ? refreshAhead : halfLifetime;
+        schedule(ampApiType, lifetime.minus(lead), 0);
+    }
+
+    private void schedule(AmpApiType ampApiType, Duration delay, int attempt) {
+        if (refreshScheduler.isShutdown()) {
+            return;
+        }
+        final ScheduledFuture<?> scheduledRefresh =
+            refreshScheduler.schedule(() -> refresh(ampApiType, attempt), delay.toMillis(), TimeUnit.MILLISECONDS);
+        final ScheduledFuture<?> previous = scheduledRefreshes.put(ampApiType, scheduledRefresh);
+        if (previous != null) {
+            previous.cancel(false);
+        }
     }
 
-    public void evictAllTokenCaches() {
-        log.info("Evicting all OAuth token caches");
-        tokenCache.clear();
+    private void refresh(AmpApiType ampApiType, int attempt) {
+        try {
+            fetchToken(ampApiType, TRIGGER_SCHEDULED);
+        } catch (RuntimeException e) {
+            final CachedToken current = tokenCache.get(ampApiType);
+            final Duration retryDelay = retryDelay(attempt);
+            log.warn("Scheduled refresh of token for API: {} failed, retrying in {} ms, current token still valid: {}",
+                     ampApiType, retryDelay.toMillis(), current != null && !current.isExpired(), e);
+            schedule(ampApiType, retryDelay, attempt + 1);
+        }
     }
 
+    private Duration retryDelay(int attempt) {
+        final long backoffMillis = Math.min(retryMaxDelay.toMillis(), retryInitialDelay.toMillis() << Math.min(attempt, 20));
+        // equal jitter, so that instances which failed together do not retry together
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(backoffMillis / 2, backoffMillis + 1));
+    }
 }
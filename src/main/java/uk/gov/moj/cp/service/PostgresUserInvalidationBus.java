@@ -0,0 +1,162 @@
+package uk.gov.moj.cp.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import uk.gov.moj.cp.metrics.UserInvalidationMetricsService;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Exchanges user cache invalidations between instances through Postgres {@code LISTEN/NOTIFY}.
+ *
+ * <p>Events are published with {@code pg_notify} on the connection of the current transaction, so Postgres only
+ * delivers them once the user change has committed. Each instance listens on its own connection, outside the pool.
+ * The payload is {@code <published epoch millis>:<email lookup>}; the timestamp is used for the propagation lag metric.
+ * Events sent while the listener is reconnecting are lost, so subscribers are told to drop everything on reconnect.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "services.users.active-user-cache.invalidation.enabled", havingValue = "true")
+public class PostgresUserInvalidationBus implements UserInvalidationBus, DisposableBean {
+
+    static final String CHANNEL = "tmc_user_invalidation";
+
+    private static final ResultSetExtractor<Void> IGNORE_RESULT = resultSet -> null;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserInvalidationMetricsService metricsService;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int pollTimeoutMillis;
+    private final Duration reconnectDelay;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Thread listenerThread;
+
+    private volatile boolean running = true;
+
+    public PostgresUserInvalidationBus(DataSource dataSource,
+                                       UserInvalidationMetricsService metricsService,
+                                       @Value("${spring.datasource.url}") String url,
+                                       @Value("${spring.datasource.username}") String username,
+                                       @Value("${spring.datasource.password}") String password,
+                                       @Value("${services.users.active-user-cache.invalidation.poll-timeout-ms}") int pollTimeoutMillis,
+                                       @Value("${services.users.active-user-cache.invalidation.reconnect-delay-ms}") long reconnectDelayMillis) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.metricsService = metricsService;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.pollTimeoutMillis = pollTimeoutMillis;
+        this.reconnectDelay = Duration.ofMillis(reconnectDelayMillis);
+        this.listenerThread = Thread.ofVirtual().name("user-invalidation-listener").start(this::listen);
+    }
+
+    @Override
+    public void publish(String emailLookup) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", IGNORE_RESULT, CHANNEL, System.currentTimeMillis() + ":" + emailLookup);
+        metricsService.recordPublished();
+    }
+
+    // one round trip for the whole collection rather than one per email lookup
+    @Override
+    public void publish(Collection<String> emailLookups) {
+        if (emailLookups.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT pg_notify(?, ? || ':' || email_lookup) FROM unnest(?) AS email_lookup")) {
+                statement.setString(1, CHANNEL);
+                statement.setString(2, String.valueOf(System.currentTimeMillis()));
+                statement.setArray(3, connection.createArrayOf("text", emailLookups.toArray()));
+                statement.executeQuery().close();
+            }
+            return null;
+        });
+        metricsService.recordPublished(emailLookups.size());
+    }
+
+    @Override
+    public void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        listenerThread.interrupt();
+        listenerThread.join(Duration.ofMillis(pollTimeoutMillis).plusSeconds(1));
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (reconnecting) {
+                    subscribers.forEach(Subscriber::onInvalidateAll);
+                    metricsService.recordListenerReconnect();
+                }
+                log.info("Listening for user invalidations on channel {}", CHANNEL);
+                final PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    final PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            deliver(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    log.warn("User invalidation listener failed, reconnecting in {}", reconnectDelay, e);
+                    reconnecting = true;
+                    pause();
+                }
+            }
+        }
+    }
+
+    private void deliver(String payload) {
+        final int separator = payload.indexOf(':');
+        final long publishedAt;
+        try {
+            publishedAt = Long.parseLong(payload.substring(0, Math.max(separator, 0)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed user invalidation event");
+            return;
+        }
+        final String emailLookup = payload.substring(separator + 1);
+        subscribers.forEach(subscriber -> subscriber.onInvalidate(emailLookup));
+        metricsService.recordReceived(System.currentTimeMillis() - publishedAt);
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(reconnectDelay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package uk.gov.moj.cp.service;
+
+import uk.gov.moj.cp.dto.outbound.CaseDetailsDto;
+
+import java.time.Duration;
+
+/**
+ * Case details as served to a request, with how long ago they were fetched from the downstream APIs. Details are
+ * stale once they are older than the case details cache TTL, which only happens when they come from the
+ * {@link LastKnownGoodCaseDetailsStore}.
+ */
+public record ServedCaseDetails(CaseDetailsDto caseDetails, Duration age, boolean stale) {
+
+    public static ServedCaseDetails fresh(CaseDetailsDto caseDetails) {
+        return new ServedCaseDetails(caseDetails, Duration.ZERO, false);
+    }
+}
@@ -0,0 +1,32 @@
+package uk.gov.moj.cp.service;
+
+import java.util.Collection;
+
+/**
+ * Carries user cache invalidations between the instances of the service.
+ *
+ * <p>Events identify a user by the HMAC email lookup only, never by the plaintext email.
+ */
+public interface UserInvalidationBus {
+
+    /**
+     * Publishes an invalidation. Inside a transaction the event is only delivered once the transaction commits.
+     */
+    void publish(String emailLookup);
+
+    default void publish(Collection<String> emailLookups) {
+        emailLookups.forEach(this::publish);
+    }
+
+    void subscribe(Subscriber subscriber);
+
+    interface Subscriber {
+
+        void onInvalidate(String emailLookup);
+
+        /**
+         * Called when events may have been missed, for example after the bus reconnected.
+         */
+        void onInvalidateAll();
+    }
+}
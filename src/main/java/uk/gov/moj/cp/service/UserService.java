@@ -3,20 +3,33 @@ package uk.gov.moj.cp.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import uk.gov.moj.cp.dto.UpdateUserDto;
 import uk.gov.moj.cp.dto.UserCreationResponseDto;
 import uk.gov.moj.cp.dto.UserDto;
+import uk.gov.moj.cp.dto.UserPageDto;
 import uk.gov.moj.cp.dto.UserResponseDto;
 import uk.gov.moj.cp.entity.User;
 import uk.gov.moj.cp.model.UserCreationStatus;
 import uk.gov.moj.cp.model.UserRole;
 import uk.gov.moj.cp.model.UserStatus;
+import uk.gov.moj.cp.repository.UserBulkRepository;
+import uk.gov.moj.cp.repository.UserBulkRepository.UserRow;
+import uk.gov.moj.cp.repository.UserListingRepository;
+import uk.gov.moj.cp.repository.UserListingRepository.Cursor;
+import uk.gov.moj.cp.repository.UserListingRepository.UserListing;
 import uk.gov.moj.cp.repository.UserRepository;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -24,6 +37,18 @@ import java.util.Optional;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final ActiveUserCache activeUserCache;
+    private final UserBulkRepository userBulkRepository;
+    private final UserListingRepository userListingRepository;
+
+    @Value("${services.users.bulk-import.chunk-size}")
+    private int chunkSize;
+
+    @Value("${services.users.listing.default-page-size}")
+    private int defaultPageSize;
+
+    @Value("${services.users.listing.max-page-size}")
+    private int maxPageSize;
 
     @Transactional(readOnly = true)
     public Optional<User> findByEmailLookup(final String email) {
@@ -40,7 +65,10 @@ public class UserService {
     public Optional<User> findActiveUserByEmail(final String email) {
         try {
             String trimmedEmail = email.toLowerCase().trim();
-            Optional<User> userOptional = userRepository.findByEmailLookupAndStatus(trimmedEmail, UserStatus.ACTIVE);
+            Optional<User> userOptional = activeUserCache.get(
+                trimmedEmail,
+                key -> userRepository.findByEmailLookupAndStatus(key, UserStatus.ACTIVE)
+            );
             if (userOptional.isPresent()) {
                 return userOptional;
             }
@@ -50,42 +78,80 @@ public class UserService {
         return Optional.empty();
     }
 
+    /**
+     * Creates users in bulk. Emails already in the database, or repeated in the request, are reported as failed.
+     * Duplicates are checked with one query, rows are encrypted in parallel and inserted in JDBC batches of
+     * {@code chunkSize}, and a result is returned for each requested email in request order.
+     */
     @Transactional
     public List<UserCreationResponseDto> addUsers(final List<UserDto> userDtos) {
-        return userDtos.stream().map(this::validateAndCreateUser).toList();
-    }
-
-    private UserCreationResponseDto validateAndCreateUser(UserDto userDto) {
-        try {
-            validateEmail(userDto.getEmail());
-            User user = new User(userDto.getEmail().toLowerCase().trim());
-            Optional<User> emailOptional = findByEmailLookup(user.getEmail());
-            if (emailOptional.isEmpty()) {
-                User savedUser = userRepository.save(user);
-                return UserCreationResponseDto.builder()
-                    .email(savedUser.getEmail())
-                    .status(UserCreationStatus.CREATED)
+        final UserCreationResponseDto[] responses = new UserCreationResponseDto[userDtos.size()];
+        final Map<String, Integer> requestIndexByEmail = new LinkedHashMap<>();
+        for (int i = 0; i < userDtos.size(); i++) {
+            final UserDto userDto = userDtos.get(i);
+            try {
+                validateEmail(userDto.getEmail());
+                final String email = userDto.getEmail().toLowerCase().trim();
+                if (requestIndexByEmail.putIfAbsent(email, i) != null) {
+                    responses[i] = emailAlreadyExists(email);
+                }
+            } catch (IllegalArgumentException e) {
+                responses[i] = UserCreationResponseDto.builder()
+                    .email(userDto.getEmail())
+                    .status(UserCreationStatus.FAILED)
+                    .reason("User email validation failed")
                     .build();
-            } else {
-                return UserCreationResponseDto.builder()
-                    .email(user.getEmail())
+            } catch (Exception e) {
+                responses[i] = UserCreationResponseDto.builder()
+                    .email(userDto == null ? null : userDto.getEmail())
                     .status(UserCreationStatus.FAILED)
-                    .reason("Email already exists")
+                    .reason("Invalid user data")
                     .build();
             }
-        } catch (IllegalArgumentException e) {
-            return UserCreationResponseDto.builder()
-                .email(userDto.getEmail())
-                .status(UserCreationStatus.FAILED)
-                .reason("User email validation failed")
-                .build();
-        } catch (Exception e) {
-            return UserCreationResponseDto.builder()
-                .email(userDto.getEmail())
-                .status(UserCreationStatus.FAILED)
-                .reason("Invalid user data")
-                .build();
         }
+
+        final List<UserRow> rows = userBulkRepository.prepare(List.copyOf(requestIndexByEmail.keySet()));
+        final Set<String> existingEmailLookups = userBulkRepository.findExistingEmailLookups(
+            rows.stream().map(UserRow::emailLookup).toList()
+        );
+        final List<UserRow> newRows = new ArrayList<>(rows.size());
+        for (UserRow row : rows) {
+            if (existingEmailLookups.contains(row.emailLookup())) {
+                responses[requestIndexByEmail.get(row.email())] = emailAlreadyExists(row.email());
+            } else {
+                newRows.add(row);
+            }
+        }
+
+        final List<String> createdEmailLookups = new ArrayList<>(newRows.size());
+        for (int from = 0; from < newRows.size(); from += chunkSize) {
+            final List<UserRow> chunk = newRows.subList(from, Math.min(from + chunkSize, newRows.size()));
+            final int[] updateCounts = userBulkRepository.insertIgnoringConflicts(chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                final UserRow row = chunk.get(i);
+                // only a count of exactly one is a row this request inserted
+                if (updateCounts[i] == 1) {
+                    createdEmailLookups.add(row.emailLookup());
+                    responses[requestIndexByEmail.get(row.email())] = UserCreationResponseDto.builder()
+                        .email(row.email())
+                        .status(UserCreationStatus.CREATED)
+                        .build();
+                } else {
+                    responses[requestIndexByEmail.get(row.email())] = emailAlreadyExists(row.email());
+                }
+            }
+        }
+        // drops cached "unknown email" entries so new users are not locked out until they expire
+        activeUserCache.invalidateEmailLookups(createdEmailLookups);
+        return Arrays.asList(responses);
+    }
+
+    private static UserCreationResponseDto emailAlreadyExists(String email) {
+        return UserCreationResponseDto.builder()
+            .email(email)
+            .status(UserCreationStatus.FAILED)
+            .reason("Email already exists")
+            .build();
     }
 
     private static void validateEmail(String email) {
@@ -125,6 +191,7 @@ public class UserService {
                     originalUser.setStatus(status);
                 }
                 User updatedUser = userRepository.save(originalUser);
+                activeUserCache.invalidate(email.toLowerCase().trim());
                 return getUserResponseDto(updatedUser);
             }
         } catch (Exception e) {
@@ -142,6 +209,7 @@ public class UserService {
                 User originalUser = userOptional.get();
                 originalUser.setStatus(UserStatus.DELETED);
                 User updatedUser = userRepository.save(originalUser);
+                activeUserCache.invalidate(userDto.getEmail().toLowerCase().trim());
                 return getUserResponseDto(updatedUser);
             }
         } catch (Exception e) {
@@ -150,12 +218,51 @@ public class UserService {
         return null;
     }
 
+    /**
+     * Returns every matching user in creation order, as GET /api/users does when no page is asked for.
+     */
     @Transactional(readOnly = true)
-    public List<UserResponseDto> getAllUsers() {
-        List<User> allUser = userRepository.findAll();
-        return allUser.stream()
-            .map(UserService::getUserResponseDto)
-            .toList();
+    public List<UserResponseDto> getAllUsers(final UserStatus status, final UserRole role) {
+        final List<UserResponseDto> users = new ArrayList<>();
+        userListingRepository.streamAll(status, role, userListing -> users.add(getUserResponseDto(userListing)));
+        return users;
+    }
+
+    /**
+     * Returns up to {@code limit} users, or {@code defaultPageSize} when not given, in creation order after the
+     * {@code after} cursor. The page carries the cursor of the next page when more users match.
+     */
+    @Transactional(readOnly = true)
+    public UserPageDto getUsers(final UserStatus status, final UserRole role, final String after, final Integer limit) {
+        final int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new IllegalArgumentException("Invalid limit: " + limit + ", must be between 1 and " + maxPageSize);
+        }
+        final Cursor cursor = StringUtils.isEmpty(after) ? null : Cursor.decode(after);
+        // one extra row tells whether there is a next page without a count query
+        final List<UserListing> userListings = userListingRepository.findPage(status, role, cursor, pageSize + 1);
+        final List<UserListing> page = userListings.subList(0, Math.min(pageSize, userListings.size()));
+        return UserPageDto.builder()
+            .users(page.stream().map(UserService::getUserResponseDto).toList())
+            .nextCursor(userListings.size() > pageSize ? Cursor.after(page.getLast()).encode() : null)
+            .build();
+    }
+
+    /**
+     * Passes every matching user to {@code consumer} in creation order as rows are read, without holding them.
+     */
+    @Transactional(readOnly = true)
+    public void streamUsers(final UserStatus status, final UserRole role, final Consumer<UserResponseDto> consumer) {
+        userListingRepository.streamAll(status, role, userListing -> consumer.accept(getUserResponseDto(userListing)));
+    }
+
+    private static UserResponseDto getUserResponseDto(UserListing userListing) {
+        return UserResponseDto.builder()
+            .email(userListing.email())
+            .role(userListing.role())
+            .status(userListing.status())
+            .updated(userListing.updated())
+            .build();
     }
 
     private static UserResponseDto getUserResponseDto(User user) {
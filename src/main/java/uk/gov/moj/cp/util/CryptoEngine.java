@@ -0,0 +1,148 @@
+package uk.gov.moj.cp.util;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static uk.gov.moj.cp.util.CryptoUtils.ENCRYPTION_PREFIX;
+
+/**
+ * The {@link CryptoUtils} operations bound to one AES key and one HMAC key, producing and accepting the same values.
+ *
+ * <p>Initialised {@link Cipher} and {@link Mac} instances are kept in small pools rather than looked up and keyed on
+ * every call. They are pooled rather than held per thread because requests also run on virtual threads, each of which
+ * would start with an empty thread local. A {@code Mac} is reset by {@code doFinal}, so it is keyed once. A GCM
+ * {@code Cipher} still has to be initialised for every value with a fresh IV, but reusing it saves the provider
+ * lookup and the AES key expansion, which the provider skips when the key is unchanged. Base64 is encoded and decoded
+ * between byte arrays rather than through intermediate strings. An instance that throws is not returned to its pool.
+ */
+public class CryptoEngine {
+
+    private static final int IV_LEN_BYTES = 12;     // 96 bits, a multiple of 3 so its Base64 has no padding
+    private static final int TAG_LEN_BITS = 128;    // per NIST SP 800-38D
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String HMAC_ALGO = "HmacSHA256";
+    private static final byte[] PREFIX = ENCRYPTION_PREFIX.getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte SEPARATOR = ':';
+    private static final int ENCODED_IV_LEN = IV_LEN_BYTES / 3 * 4;
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    private static final SecureRandom RNG = new SecureRandom();
+
+    private final Key aesKey;
+    private final byte[] hmacKey;
+    private final BlockingQueue<Cipher> ciphers = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final BlockingQueue<Mac> macs = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    public CryptoEngine(Key aesKey, byte[] hmacKey) {
+        this.aesKey = aesKey;
+        this.hmacKey = hmacKey.clone();
+    }
+
+    /**
+     * Same as {@link CryptoUtils#aesEncrypt(String, Key)} with this engine's AES key.
+     */
+    public String aesEncrypt(String plaintext) throws IllegalStateException {
+        if (plaintext == null) {
+            return null;
+        }
+        try {
+            final byte[] iv = new byte[IV_LEN_BYTES];
+            RNG.nextBytes(iv);
+
+            final byte[] plain = plaintext.getBytes(StandardCharsets.UTF_8);
+            final Cipher cipher = borrowCipher();
+            cipher.init(Cipher.ENCRYPT_MODE, aesKey, new GCMParameterSpec(TAG_LEN_BITS, iv));
+            final byte[] ivAndCiphertext = new byte[IV_LEN_BYTES + cipher.getOutputSize(plain.length)];
+            System.arraycopy(iv, 0, ivAndCiphertext, 0, IV_LEN_BYTES);
+            cipher.doFinal(plain, 0, plain.length, ivAndCiphertext, IV_LEN_BYTES);
+            ciphers.offer(cipher);
+
+            // the IV is a whole number of Base64 groups, so the IV and ciphertext are encoded in one go and split after
+            final byte[] encoded = Base64.getEncoder().encode(ivAndCiphertext);
+            final byte[] value = new byte[PREFIX.length + encoded.length + 1];
+            System.arraycopy(PREFIX, 0, value, 0, PREFIX.length);
+            System.arraycopy(encoded, 0, value, PREFIX.length, ENCODED_IV_LEN);
+            value[PREFIX.length + ENCODED_IV_LEN] = SEPARATOR;
+            System.arraycopy(encoded, ENCODED_IV_LEN, value, PREFIX.length + ENCODED_IV_LEN + 1,
+                             encoded.length - ENCODED_IV_LEN);
+            return new String(value, StandardCharsets.ISO_8859_1);
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Same as {@link CryptoUtils#aesDecrypt(String, Key)} with this engine's AES key.
+     */
+    public String aesDecrypt(String dbData) throws IllegalStateException {
+        if (dbData == null) {
+            return null;
+        }
+        if (!dbData.startsWith(ENCRYPTION_PREFIX)) {
+            return dbData;
+        }
+        try {
+            final byte[] value = dbData.getBytes(StandardCharsets.ISO_8859_1);
+            final int separator = indexOf(value, SEPARATOR, PREFIX.length);
+            final ByteBuffer iv = Base64.getDecoder().decode(ByteBuffer.wrap(value, PREFIX.length, separator - PREFIX.length));
+            final ByteBuffer ciphertext = Base64.getDecoder().decode(ByteBuffer.wrap(value, separator + 1, value.length - separator - 1));
+
+            final Cipher cipher = borrowCipher();
+            cipher.init(Cipher.DECRYPT_MODE, aesKey, new GCMParameterSpec(TAG_LEN_BITS, iv.array(), 0, iv.remaining()));
+            final byte[] plain = cipher.doFinal(ciphertext.array(), 0, ciphertext.remaining());
+            ciphers.offer(cipher);
+
+            return new String(plain, StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new IllegalStateException("Attribute decryption failed", e);
+        }
+    }
+
+    /**
+     * Same as {@link CryptoUtils#hmacEncrypt(String, byte[])} with this engine's HMAC key.
+     */
+    public String hmacEncrypt(final String plaintext) {
+        try {
+            final Mac mac = borrowMac();
+            final byte[] h = mac.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+            macs.offer(mac);
+            return new String(Base64.getUrlEncoder().withoutPadding().encode(h), StandardCharsets.ISO_8859_1);
+        } catch (Exception e) {
+            throw new IllegalStateException("Attribute decryption failed", e);
+        }
+    }
+
+    private Cipher borrowCipher() throws GeneralSecurityException {
+        final Cipher cipher = ciphers.poll();
+        return cipher != null ? cipher : Cipher.getInstance(TRANSFORMATION);
+    }
+
+    private Mac borrowMac() throws GeneralSecurityException {
+        final Mac pooled = macs.poll();
+        if (pooled != null) {
+            return pooled;
+        }
+        final Mac mac = Mac.getInstance(HMAC_ALGO);
+        mac.init(new SecretKeySpec(hmacKey, HMAC_ALGO));
+        return mac;
+    }
+
+    private static int indexOf(byte[] value, byte b, int from) {
+        for (int i = from; i < value.length; i++) {
+            if (value[i] == b) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Missing separator");
+    }
+}
@@ -9,6 +9,10 @@ import java.security.Key;
 import java.security.SecureRandom;
 import java.util.Base64;
 
+/**
+ * Encrypts and hashes attributes with keys passed on every call. Code holding a {@code SecretKeyLoader} should use its
+ * {@link CryptoEngine}, which produces the same values with pooled {@code Cipher} and {@code Mac} instances.
+ */
 public class CryptoUtils {
 
     public static final String ENCRYPTION_PREFIX = "ENC1:";   // version marker
@@ -0,0 +1,28 @@
+package uk.gov.moj.cp.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@UtilityClass
+public class FutureUtils {
+
+    /**
+     * Waits for the future and rethrows the original unchecked exception it failed with, rather than the
+     * {@link CompletionException} wrapper, so callers and the exception handler see the downstream error unchanged.
+     */
+    public static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
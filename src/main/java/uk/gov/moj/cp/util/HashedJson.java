@@ -0,0 +1,45 @@
+package uk.gov.moj.cp.util;
+
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * A value serialised to JSON together with a strong entity tag for it. The bytes are hashed as the generator writes
+ * them, so the tag costs no second pass over the body, and equal values always produce equal bytes and tags. Callers
+ * pass the application's {@code JsonMapper}, the one its JSON message converter writes every other response with.
+ */
+public record HashedJson(byte[] body, String etag) {
+
+    // 128 bits of SHA-256 are plenty to tell two versions of a response apart
+    private static final int ETAG_BYTES = 16;
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    public static HashedJson of(ObjectMapper objectMapper, Object value) {
+        final MessageDigest digest = sha256();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        try (OutputStream out = new DigestOutputStream(body, digest)) {
+            objectMapper.writeValue(out, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final byte[] hash = Arrays.copyOf(digest.digest(), ETAG_BYTES);
+        return new HashedJson(body.toByteArray(), '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + '"');
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package uk.gov.moj.cp.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets through at most {@code permits} occurrences of a log line per {@code interval} and counts the ones it holds
+ * back, so a message that can fire on every request cannot flood the logs. The count is reported, and reset, with the
+ * next occurrence let through.
+ *
+ * <pre>{@code
+ * if (missingHeaderLog.tryAcquire()) {
+ *     log.error("Header not set ({} similar messages suppressed)", missingHeaderLog.drainSuppressed());
+ * }
+ * }</pre>
+ */
+public final class RateLimitedLog {
+
+    private final int permits;
+    private final long intervalNanos;
+    private final AtomicLong windowStartNanos = new AtomicLong(System.nanoTime());
+    private final AtomicInteger used = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public RateLimitedLog(int permits, Duration interval) {
+        this.permits = permits;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    public boolean tryAcquire() {
+        final long now = System.nanoTime();
+        final long windowStart = windowStartNanos.get();
+        if (now - windowStart >= intervalNanos && windowStartNanos.compareAndSet(windowStart, now)) {
+            used.set(0);
+        }
+        if (used.incrementAndGet() <= permits) {
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+
+    public long drainSuppressed() {
+        return suppressed.getAndSet(0);
+    }
+}
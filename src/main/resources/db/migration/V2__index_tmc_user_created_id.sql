@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_tmc_user_created_id ON tmc_user (created, id);
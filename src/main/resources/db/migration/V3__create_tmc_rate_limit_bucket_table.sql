@@ -0,0 +1,8 @@
+-- Bucket4j state of the rate limit buckets when services.rate-limit.store is jdbc
+CREATE TABLE IF NOT EXISTS tmc_rate_limit_bucket (
+    id varchar(64) PRIMARY KEY,
+    state BYTEA,
+    expires_at BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_tmc_rate_limit_bucket_expires_at ON tmc_rate_limit_bucket (expires_at);
@@ -0,0 +1,208 @@
+package uk.gov.moj.cp.client.api;
+
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import uk.gov.moj.cp.exception.UpstreamOverloadedException;
+import uk.gov.moj.cp.metrics.ConcurrencyLimitMetricsService;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final String UPSTREAM = "slc";
+
+    private final PrometheusRegistry prometheusRegistry = new PrometheusRegistry();
+
+    @Test
+    @DisplayName("Should reject a call straight away once the limit is in flight")
+    void shouldRejectCallsOverTheLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(1, 1, 10_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> inFlight = CompletableFuture.supplyAsync(() -> limiter.call(() -> {
+            started.countDown();
+            await(release);
+            return "first";
+        }));
+        started.await();
+
+        assertThatThrownBy(() -> limiter.call(() -> "second"))
+            .isInstanceOf(UpstreamOverloadedException.class)
+            .hasMessageContaining(UPSTREAM);
+        assertThat(gaugeValue("trackmycase_upstream_concurrency_in_flight")).isEqualTo(1.0);
+        assertThat(counterValue("trackmycase_upstream_concurrency_rejections")).isEqualTo(1.0);
+
+        release.countDown();
+        assertThat(inFlight.get()).isEqualTo("first");
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should raise the limit by one after a fast call that used it")
+    void shouldIncreaseLimitAfterFastCalls() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(1, 3, 10_000);
+
+        limiter.call(() -> "ok");
+        limiter.call(() -> "ok");
+        limiter.call(() -> "ok");
+
+        assertThat(limiter.getLimit()).isEqualTo(3);
+        assertThat(gaugeValue("trackmycase_upstream_concurrency_limit")).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Should back off when the upstream answers with a 5xx or 429")
+    void shouldDecreaseLimitOnOverloadResponses() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(10, 10, 10_000);
+
+        assertThatThrownBy(() -> limiter.call(() -> {
+            throw HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Unavailable", HttpHeaders.EMPTY, null, null);
+        })).isInstanceOf(HttpServerErrorException.class);
+        assertThat(limiter.getLimit()).isEqualTo(9);
+
+        assertThatThrownBy(() -> limiter.call(() -> {
+            throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", HttpHeaders.EMPTY, null, null);
+        })).isInstanceOf(HttpClientErrorException.class);
+        assertThat(limiter.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Should back off when a call times out or is slow")
+    void shouldDecreaseLimitOnTimeoutsAndSlowCalls() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(10, 10, 10_000);
+        assertThatThrownBy(() -> limiter.call(() -> {
+            throw new ResourceAccessException("Read timed out");
+        })).isInstanceOf(ResourceAccessException.class);
+        assertThat(limiter.getLimit()).isEqualTo(9);
+
+        AdaptiveConcurrencyLimiter slowLimiter = newLimiter(10, 10, 0);
+        slowLimiter.call(() -> {
+            sleep();
+            return "slow";
+        });
+        assertThat(slowLimiter.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Should back off once for a burst of slow calls that went out under the same limit")
+    void shouldDecreaseLimitOncePerBurstOfSlowCalls() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(10, 10, 0);
+        CountDownLatch allStarted = new CountDownLatch(8);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            CompletableFuture.allOf(IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> limiter.call(() -> {
+                    allStarted.countDown();
+                    await(allStarted);
+                    sleep();
+                    return "slow";
+                }), executor))
+                .toArray(CompletableFuture[]::new)).join();
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(9);
+        limiter.call(() -> {
+            sleep();
+            return "slow";
+        });
+        assertThat(limiter.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Should leave the limit alone when the upstream answers a fast 404")
+    void shouldIgnoreClientErrors() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(10, 10, 10_000);
+
+        assertThatThrownBy(() -> limiter.call(() -> {
+            throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", HttpHeaders.EMPTY, null, null);
+        })).isInstanceOf(HttpClientErrorException.NotFound.class);
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should never back off below the minimum limit")
+    void shouldKeepMinimumLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+            UPSTREAM, true, 3, 2, 10, 10_000, 0.5, new ConcurrencyLimitMetricsService(prometheusRegistry)
+        );
+
+        for (int i = 0; i < 20; i++) {
+            try {
+                limiter.call(() -> {
+                    throw new ResourceAccessException("Connection refused");
+                });
+            } catch (ResourceAccessException e) {
+                // expected
+            }
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        assertThat(limiter.call(() -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    @DisplayName("Should call straight through when disabled")
+    void shouldPassThroughWhenDisabled() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+            UPSTREAM, false, 1, 1, 1, 0, 0.5, new ConcurrencyLimitMetricsService(prometheusRegistry)
+        );
+
+        assertThat(limiter.call(() -> limiter.call(() -> "nested"))).isEqualTo("nested");
+        assertThat(limiter.getLimit()).isEqualTo(1);
+    }
+
+    private AdaptiveConcurrencyLimiter newLimiter(int initialLimit, int maxLimit, long slowCallMillis) {
+        return new AdaptiveConcurrencyLimiter(
+            UPSTREAM, true, initialLimit, 1, maxLimit, slowCallMillis, 0.9,
+            new ConcurrencyLimitMetricsService(prometheusRegistry)
+        );
+    }
+
+    private double counterValue(String name) {
+        return ((CounterSnapshot) snapshot(name)).getDataPoints().getFirst().getValue();
+    }
+
+    private double gaugeValue(String name) {
+        return ((GaugeSnapshot) snapshot(name)).getDataPoints().getFirst().getValue();
+    }
+
+    private MetricSnapshot snapshot(String name) {
+        return prometheusRegistry.scrape().stream()
+            .filter(metricSnapshot -> name.equals(metricSnapshot.getMetadata().getName()))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
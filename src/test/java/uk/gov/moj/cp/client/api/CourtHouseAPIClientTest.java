@@ -3,6 +3,7 @@ package uk.gov.moj.cp.client.api;
 import com.moj.generated.hmcts.Address;
 import com.moj.generated.hmcts.CourtHouse;
 import com.moj.generated.hmcts.CourtRoom;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpHeaders;
@@ -11,6 +12,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import uk.gov.moj.cp.metrics.ConcurrencyLimitMetricsService;
 
 import java.util.List;
 
@@ -34,7 +36,9 @@ class CourtHouseAPIClientTest {
     @BeforeEach
     public void setUp() {
         restTemplate = mock(RestTemplate.class);
-        courtHouseAPIClient = new CourtHouseAPIClient(restTemplate) {
+        courtHouseAPIClient = new CourtHouseAPIClient(restTemplate, new AdaptiveConcurrencyLimiter(
+            "rcc", true, 10, 1, 10, 10_000, 0.9, new ConcurrencyLimitMetricsService(new PrometheusRegistry())
+        )) {
             @Override
             public String getAmpUrl() {
                 return ampUrl;
@@ -6,15 +6,20 @@ import com.moj.generated.hmcts.CourtScheduleSchema;
 import com.moj.generated.hmcts.CourtSitting;
 import com.moj.generated.hmcts.Hearing;
 import com.moj.generated.hmcts.WeekCommencing;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import uk.gov.moj.cp.metrics.ConcurrencyLimitMetricsService;
 
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
@@ -25,6 +30,11 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 
 class CourtScheduleAPIClientTest {
 
@@ -41,22 +51,7 @@ class CourtScheduleAPIClientTest {
     public void setUp() {
         restTemplate = mock(RestTemplate.class);
 
-        courtScheduleAPIClient = new CourtScheduleAPIClient(restTemplate) {
-            @Override
-            public String getAmpUrl() {
-                return ampUrl;
-            }
-
-            @Override
-            public String getSlcAmpSubscriptionKey() {
-                return ampSubscriptionKey;
-            }
-
-            @Override
-            public String getApiCpCrimeSchedulingAndListingCourtSchedulePath() {
-                return apiCpCrimeSchedulingAndListingCourtSchedulePath;
-            }
-        };
+        courtScheduleAPIClient = newClient(restTemplate, false);
     }
 
     @Test
@@ -140,4 +135,69 @@ class CourtScheduleAPIClientTest {
             .isInstanceOf(HttpClientErrorException.class)
             .hasMessageContaining("503");
     }
+
+    @Test
+    void shouldReturnOnlyCandidateHearings_whenStreamingParseEnabled() {
+        RestTemplate streamingRestTemplate = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(streamingRestTemplate).build();
+        String futureSitting = LocalDate.now().plusDays(3) + "T10:00:00Z";
+        String body = """
+            {"courtSchedule":[{"hearings":[
+              {"hearingId":"1","hearingType":"Mention","courtSittings":[{"sittingStart":"%1$s","sittingEnd":"%1$s"}]},
+              {"hearingId":"2","hearingType":"Trial","listNote":"note","courtSittings":[{"sittingStart":"%1$s","sittingEnd":"%1$s","courtRoom":"room"}]}
+            ]}]}
+            """.formatted(futureSitting);
+        server.expect(requestTo("https://some.dev.environment.com/case/CASE123/courtschedule"))
+            .andExpect(method(HttpMethod.GET))
+            .andExpect(header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+            .andExpect(header("Ocp-Apim-Subscription-Key", ampSubscriptionKey))
+            .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+
+        ResponseEntity<CourtScheduleSchema> actual = newClient(streamingRestTemplate, true).getCourtScheduleByCaseUrn(accessToken, "CASE123");
+
+        server.verify();
+        assertThat(actual.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<Hearing> hearings = actual.getBody().getCourtSchedule().getFirst().getHearings();
+        assertThat(hearings).extracting(Hearing::getHearingId).containsExactly("2");
+        assertThat(hearings.getFirst().getListNote()).isEqualTo("note");
+        assertThat(hearings.getFirst().getCourtSittings().getFirst().getCourtRoom()).isEqualTo("room");
+    }
+
+    @Test
+    void shouldPropagateHttpErrors_whenStreamingParseEnabled() {
+        RestTemplate streamingRestTemplate = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(streamingRestTemplate).build();
+        server.expect(requestTo("https://some.dev.environment.com/case/CASE123/courtschedule"))
+            .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThatThrownBy(() -> newClient(streamingRestTemplate, true).getCourtScheduleByCaseUrn(accessToken, "CASE123"))
+            .isInstanceOf(HttpServerErrorException.class)
+            .hasMessageContaining("503");
+    }
+
+    private CourtScheduleAPIClient newClient(RestTemplate restTemplate, boolean streamingParseEnabled) {
+        return new CourtScheduleAPIClient(restTemplate, new AdaptiveConcurrencyLimiter(
+            "slc", true, 10, 1, 10, 10_000, 0.9, new ConcurrencyLimitMetricsService(new PrometheusRegistry())
+        ), new CourtScheduleStreamingParser()) {
+            @Override
+            public String getAmpUrl() {
+                return ampUrl;
+            }
+
+            @Override
+            public String getSlcAmpSubscriptionKey() {
+                return ampSubscriptionKey;
+            }
+
+            @Override
+            public String getApiCpCrimeSchedulingAndListingCourtSchedulePath() {
+                return apiCpCrimeSchedulingAndListingCourtSchedulePath;
+            }
+
+            @Override
+            public boolean isStreamingParseEnabled() {
+                return streamingParseEnabled;
+            }
+        };
+    }
 }
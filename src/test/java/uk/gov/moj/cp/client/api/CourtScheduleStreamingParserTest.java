@@ -0,0 +1,146 @@
+package uk.gov.moj.cp.client.api;
+
+import com.moj.generated.hmcts.CourtScheduleSchema;
+import com.moj.generated.hmcts.CourtSitting;
+import com.moj.generated.hmcts.Hearing;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import uk.gov.moj.cp.model.NextHearingFixtures;
+import uk.gov.moj.cp.model.NextHearingFixtures.Fixture;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CourtScheduleStreamingParserTest {
+
+    private static final LocalDate TODAY = NextHearingFixtures.TODAY;
+
+    private final CourtScheduleStreamingParser parser = new CourtScheduleStreamingParser();
+
+    @Test
+    @DisplayName("keeps every field of a candidate hearing and ignores unknown fields")
+    void shouldMaterialiseCandidateHearing() throws IOException {
+        CourtScheduleSchema schema = parse("""
+            {"courtSchedule":[{"hearings":[{
+              "hearingId":"H1","hearingType":"Trial (Floater)","hearingDescription":"desc","listNote":null,
+              "unexpected":{"nested":[1,2,3]},
+              "courtSittings":[{"sittingStart":"2026-03-17T10:00:00Z","sittingEnd":"2026-03-17T16:00:00Z",
+                "judiciaryId":"judge","courtHouse":"house","courtRoom":"room"}]
+            }]}],"other":"ignored"}
+            """);
+
+        Hearing hearing = schema.getCourtSchedule().getFirst().getHearings().getFirst();
+        assertThat(hearing.getHearingId()).isEqualTo("H1");
+        assertThat(hearing.getHearingType()).isEqualTo("Trial (Floater)");
+        assertThat(hearing.getHearingDescription()).isEqualTo("desc");
+        assertThat(hearing.getListNote()).isNull();
+        assertThat(hearing.getWeekCommencing()).isNull();
+        CourtSitting courtSitting = hearing.getCourtSittings().getFirst();
+        assertThat(courtSitting.getSittingStart().toInstant()).isEqualTo(ZonedDateTime.parse("2026-03-17T10:00:00Z").toInstant());
+        assertThat(courtSitting.getSittingEnd().toInstant()).isEqualTo(ZonedDateTime.parse("2026-03-17T16:00:00Z").toInstant());
+        assertThat(courtSitting.getJudiciaryId()).isEqualTo("judge");
+        assertThat(courtSitting.getCourtHouse()).isEqualTo("house");
+        assertThat(courtSitting.getCourtRoom()).isEqualTo("room");
+    }
+
+    @Test
+    @DisplayName("drops hearings with unknown hearing types wherever the hearing type appears")
+    void shouldDropUnknownHearingTypes() throws IOException {
+        CourtScheduleSchema schema = parse("""
+            {"courtSchedule":[{"hearings":[
+              {"hearingId":"1","hearingType":"Mention","courtSittings":[{"sittingStart":"2026-03-17T10:00:00Z"}]},
+              {"hearingId":"2","courtSittings":[{"sittingStart":"2026-03-17T10:00:00Z"}],"hearingType":"Bail Application"},
+              {"hearingId":"3","courtSittings":[{"sittingStart":"2026-03-17T10:00:00Z"}]},
+              {"hearingId":"4","courtSittings":[{"sittingStart":"2026-03-17T10:00:00Z"}],"hearingType":"sentence"}
+            ]}]}
+            """);
+
+        assertThat(hearingIds(schema)).containsExactly("4");
+    }
+
+    @Test
+    @DisplayName("drops hearings with no sitting or week commencing between today and ten years ahead")
+    void shouldDropHearingsOutsideDateWindow() throws IOException {
+        CourtScheduleSchema schema = parse("""
+            {"courtSchedule":[{"hearings":[
+              {"hearingId":"past","hearingType":"Trial","courtSittings":[{"sittingStart":"2026-03-15T10:00:00Z"}]},
+              {"hearingId":"multiDay","hearingType":"Trial","courtSittings":[
+                {"sittingStart":"2026-03-15T10:00:00Z"},{"sittingStart":"2026-03-16T10:00:00Z"}]},
+              {"hearingId":"tooFar","hearingType":"Trial","courtSittings":[{"sittingStart":"2036-03-17T10:00:00Z"}]},
+              {"hearingId":"noSittings","hearingType":"Trial","courtSittings":[]},
+              {"hearingId":"weekEndingToday","hearingType":"Trial",
+                "weekCommencing":{"courtHouse":"house","startDate":"2026-03-10","endDate":"2026-03-16","durationInWeeks":1}},
+              {"hearingId":"pastWeek","hearingType":"Trial",
+                "weekCommencing":{"startDate":"2026-03-02","endDate":"2026-03-08","durationInWeeks":1}},
+              {"hearingId":"openWeek","hearingType":"Trial","weekCommencing":{"startDate":"2026-03-20"}}
+            ]}]}
+            """);
+
+        assertThat(hearingIds(schema)).containsExactly("multiDay", "weekEndingToday");
+        Hearing weekCommencingHearing = schema.getCourtSchedule().getFirst().getHearings().get(1);
+        assertThat(weekCommencingHearing.getWeekCommencing().getCourtHouse()).isEqualTo("house");
+        assertThat(weekCommencingHearing.getWeekCommencing().getStartDate()).isEqualTo(LocalDate.of(2026, 3, 10));
+        assertThat(weekCommencingHearing.getWeekCommencing().getEndDate()).isEqualTo(TODAY);
+        assertThat(weekCommencingHearing.getWeekCommencing().getDurationInWeeks()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @MethodSource("uk.gov.moj.cp.model.NextHearingFixtures#fixtures")
+    @DisplayName("keeps a hearing only when it meets the next hearing rules")
+    void shouldKeepOnlyHearingsMeetingTheRules(Fixture fixture) throws IOException {
+        CourtScheduleSchema schema = parse("{\"courtSchedule\":[{\"hearings\":[" + hearingJson(fixture) + "]}]}");
+
+        assertThat(hearingIds(schema).contains("1")).isEqualTo(fixture.candidate());
+    }
+
+    @Test
+    @DisplayName("returns no schema for an empty body and rejects a body that is not an object")
+    void shouldHandleEmptyAndMalformedBodies() throws IOException {
+        assertThat(parse("")).isNull();
+        assertThat(parse("{}").getCourtSchedule()).isEmpty();
+        assertThatThrownBy(() -> parse("[]")).isInstanceOf(IOException.class);
+    }
+
+    private CourtScheduleSchema parse(String json) throws IOException {
+        return parser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), TODAY);
+    }
+
+    private static String hearingJson(Fixture fixture) {
+        List<String> fields = new ArrayList<>();
+        fields.add("\"hearingId\":\"1\"");
+        if (fixture.hearingType() != null) {
+            fields.add("\"hearingType\":\"" + fixture.hearingType() + "\"");
+        }
+        if (fixture.hasWeekCommencing()) {
+            List<String> weekCommencing = new ArrayList<>();
+            if (fixture.weekCommencingStart() != null) {
+                weekCommencing.add("\"startDate\":\"" + fixture.weekCommencingStart() + "\"");
+            }
+            if (fixture.weekCommencingEnd() != null) {
+                weekCommencing.add("\"endDate\":\"" + fixture.weekCommencingEnd() + "\"");
+            }
+            fields.add("\"weekCommencing\":{" + String.join(",", weekCommencing) + "}");
+        }
+        fields.add(fixture.sittingDates().stream()
+                       .map(sittingDate -> "{\"sittingStart\":\"" + sittingDate + "T10:00:00Z\"}")
+                       .collect(Collectors.joining(",", "\"courtSittings\":[", "]")));
+        return "{" + String.join(",", fields) + "}";
+    }
+
+    private List<String> hearingIds(CourtScheduleSchema schema) {
+        return schema.getCourtSchedule().getFirst().getHearings().stream()
+            .map(Hearing::getHearingId)
+            .toList();
+    }
+}
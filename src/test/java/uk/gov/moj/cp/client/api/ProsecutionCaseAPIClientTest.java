@@ -1,6 +1,7 @@
 package uk.gov.moj.cp.client.api;
 
 import com.moj.generated.hmcts.ProsecutionCase;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpHeaders;
@@ -10,6 +11,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import uk.gov.moj.cp.dto.outbound.CaseStatus;
+import uk.gov.moj.cp.metrics.ConcurrencyLimitMetricsService;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -31,7 +33,9 @@ class ProsecutionCaseAPIClientTest {
     @BeforeEach
     void setUp() {
         restTemplate = mock(RestTemplate.class);
-        prosecutionCaseAPIClient = new ProsecutionCaseAPIClient(restTemplate) {
+        prosecutionCaseAPIClient = new ProsecutionCaseAPIClient(restTemplate, new AdaptiveConcurrencyLimiter(
+            "pcd", true, 10, 1, 10, 10_000, 0.9, new ConcurrencyLimitMetricsService(new PrometheusRegistry())
+        )) {
             @Override
             public String getAmpUrl() {
                 return ampUrl;
@@ -0,0 +1,99 @@
+package uk.gov.moj.cp.config;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.HandlerMapping;
+import uk.gov.moj.cp.metrics.AccessLog;
+import uk.gov.moj.cp.metrics.RequestTimings;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.moj.cp.config.AccessLogInterceptor.STARTED_NANOS_ATTRIBUTE;
+import static uk.gov.moj.cp.config.AccessLogInterceptor.TIMINGS_ATTRIBUTE;
+
+@ExtendWith(MockitoExtension.class)
+class AccessLogInterceptorTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private AccessLog accessLog;
+
+    @Mock
+    private RequestTimings timings;
+
+    @Test
+    @DisplayName("Should keep nothing on the request when it is not sampled")
+    void shouldSkipUnsampledRequest() {
+        AccessLogInterceptor interceptor = new AccessLogInterceptor(accessLog);
+
+        assertThat(interceptor.preHandle(request, response, new Object())).isTrue();
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        verify(request, never()).setAttribute(anyString(), any());
+        verify(accessLog, never()).finish(any(), anyString(), anyString(), anyInt(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should log a sampled request by its route pattern and status")
+    void shouldLogSampledRequestByRoute() {
+        AccessLogInterceptor interceptor = new AccessLogInterceptor(accessLog);
+        when(accessLog.start()).thenReturn(timings);
+        when(request.getAttribute(TIMINGS_ATTRIBUTE)).thenReturn(timings);
+        when(request.getAttribute(STARTED_NANOS_ATTRIBUTE)).thenReturn(System.nanoTime());
+        when(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE))
+            .thenReturn("/api/cases/{case_urn}/casedetails");
+        when(request.getMethod()).thenReturn("GET");
+        when(response.getStatus()).thenReturn(200);
+
+        interceptor.preHandle(request, response, new Object());
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        verify(request).setAttribute(TIMINGS_ATTRIBUTE, timings);
+        verify(accessLog).finish(eq(timings), eq("GET"), eq("/api/cases/{case_urn}/casedetails"), eq(200), anyLong(),
+                                 isNull());
+    }
+
+    @Test
+    @DisplayName("Should not sample an async request again when it is dispatched back")
+    void shouldNotResampleAsyncDispatch() {
+        AccessLogInterceptor interceptor = new AccessLogInterceptor(accessLog);
+        when(request.getDispatcherType()).thenReturn(DispatcherType.ASYNC);
+
+        assertThat(interceptor.preHandle(request, response, new Object())).isTrue();
+
+        verify(accessLog, never()).start();
+        verify(request, never()).setAttribute(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should unbind the timings from the worker thread once async handling starts")
+    void shouldUnbindTimingsWhenAsyncHandlingStarts() {
+        AccessLogInterceptor interceptor = new AccessLogInterceptor(accessLog);
+        RequestTimings bound = RequestTimings.bind();
+
+        interceptor.afterConcurrentHandlingStarted(request, response, new Object());
+        RequestTimings.recordDownstreamCall(1_000_000);
+
+        assertThat(bound.downstreamCalls()).isZero();
+        verify(accessLog, never()).finish(any(), anyString(), anyString(), anyInt(), anyLong(), any());
+    }
+}
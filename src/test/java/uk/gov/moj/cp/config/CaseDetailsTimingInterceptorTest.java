@@ -0,0 +1,65 @@
+package uk.gov.moj.cp.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.moj.cp.config.CaseDetailsTimingInterceptor.STARTED_NANOS_ATTRIBUTE;
+
+@ExtendWith(MockitoExtension.class)
+class CaseDetailsTimingInterceptorTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private TrackMyCaseMetricsService trackMyCaseMetricsService;
+
+    @Test
+    @DisplayName("Should store the start time and let the request through")
+    void shouldStoreStartTime() {
+        CaseDetailsTimingInterceptor interceptor = new CaseDetailsTimingInterceptor(trackMyCaseMetricsService);
+
+        assertThat(interceptor.preHandle(request, response, new Object())).isTrue();
+
+        verify(request).setAttribute(eq(STARTED_NANOS_ATTRIBUTE), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should record the elapsed time against the response status")
+    void shouldRecordElapsedTimeAgainstStatus() {
+        CaseDetailsTimingInterceptor interceptor = new CaseDetailsTimingInterceptor(trackMyCaseMetricsService);
+        when(request.getAttribute(STARTED_NANOS_ATTRIBUTE)).thenReturn(System.nanoTime() - 5_000_000);
+        when(response.getStatus()).thenReturn(429);
+
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        verify(trackMyCaseMetricsService).recordCaseDetailsRequest(eq(429), longThat(nanos -> nanos >= 5_000_000));
+    }
+
+    @Test
+    @DisplayName("Should record nothing when the request was not started by the interceptor")
+    void shouldRecordNothingWithoutStartTime() {
+        CaseDetailsTimingInterceptor interceptor = new CaseDetailsTimingInterceptor(trackMyCaseMetricsService);
+
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        verify(trackMyCaseMetricsService, never()).recordCaseDetailsRequest(anyInt(), anyLong());
+    }
+}
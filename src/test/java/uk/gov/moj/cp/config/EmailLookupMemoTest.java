@@ -0,0 +1,70 @@
+package uk.gov.moj.cp.config;
+
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+import uk.gov.moj.cp.util.CryptoUtils;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static uk.gov.moj.cp.repository.TestCryptoConfig.generateBase64Key;
+
+class EmailLookupMemoTest {
+
+    private final SecretKeyLoader secretKeyLoader = new SecretKeyLoader(generateBase64Key(), generateBase64Key());
+    private final PrometheusRegistry prometheusRegistry = new PrometheusRegistry();
+
+    @Test
+    @DisplayName("Should return the stored HMAC lookup value and report repeated emails as hits")
+    void shouldMemoiseEmailLookups() {
+        EmailLookupMemo memo = newMemo(100);
+        String expected = CryptoUtils.hmacEncrypt("user@example.com", secretKeyLoader.getHmacEncryptionSecret());
+
+        assertThat(memo.emailLookup("user@example.com")).isEqualTo(expected);
+        assertThat(memo.emailLookup("user@example.com")).isEqualTo(expected);
+        assertThat(memo.emailLookup("user@example.com")).isEqualTo(expected);
+        assertThat(memo.emailLookup("other@example.com")).isNotEqualTo(expected);
+
+        assertThat(gaugeValue("trackmycase_cache_hit_ratio")).isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("Should keep at most the maximum number of emails")
+    void shouldBeBoundedByMaximumSize() {
+        EmailLookupMemo memo = newMemo(10);
+
+        IntStream.range(0, 1000).forEach(i -> memo.emailLookup("user" + i + "@example.com"));
+
+        // Caffeine evicts on its maintenance thread, so the size can overshoot until that has run
+        await().atMost(Duration.ofSeconds(5)).until(() -> gaugeValue("trackmycase_cache_size") <= 10);
+    }
+
+    @Test
+    @DisplayName("Should fail on a null email as the unmemoised HMAC does")
+    void shouldFailOnNullEmail() {
+        EmailLookupMemo memo = newMemo(10);
+
+        assertThatThrownBy(() -> memo.emailLookup(null))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Attribute decryption failed");
+    }
+
+    private EmailLookupMemo newMemo(long maximumSize) {
+        return new EmailLookupMemo(secretKeyLoader, new CacheMetricsService(prometheusRegistry), maximumSize);
+    }
+
+    private double gaugeValue(String name) {
+        return prometheusRegistry.scrape().stream()
+            .filter(metricSnapshot -> name.equals(metricSnapshot.getMetadata().getName()))
+            .map(GaugeSnapshot.class::cast)
+            .findFirst()
+            .orElseThrow()
+            .getDataPoints().getFirst().getValue();
+    }
+}
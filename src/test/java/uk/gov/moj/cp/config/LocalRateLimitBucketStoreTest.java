@@ -0,0 +1,86 @@
+package uk.gov.moj.cp.config;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalRateLimitBucketStoreTest {
+
+    private static final BucketConfiguration CONFIGURATION = BucketConfiguration.builder()
+        .addLimit(RateLimitBucketStore.bandwidth(100, 100, Duration.ofMinutes(1)))
+        .build();
+
+    private final PrometheusRegistry prometheusRegistry = new PrometheusRegistry();
+
+    @Test
+    @DisplayName("Should create buckets with every bandwidth of the configuration")
+    void shouldApplyEveryBandwidth() {
+        LocalRateLimitBucketStore store = newStore(10);
+        BucketConfiguration burstAndSustained = BucketConfiguration.builder()
+            .addLimit(RateLimitBucketStore.bandwidth(5, 5, Duration.ofSeconds(10)))
+            .addLimit(RateLimitBucketStore.bandwidth(3, 3, Duration.ofHours(1)))
+            .build();
+
+        Bucket bucket = store.resolveBucket("key", burstAndSustained);
+
+        assertThat(bucket.tryConsume(3)).isTrue();
+        assertThat(bucket.tryConsume(1)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should return the same bucket for the same key and count the hit")
+    void shouldReuseBucketsPerKey() {
+        LocalRateLimitBucketStore store = newStore(10);
+
+        Bucket bucket = store.resolveBucket("key", CONFIGURATION);
+
+        assertThat(store.resolveBucket("key", CONFIGURATION)).isSameAs(bucket);
+        assertThat(store.resolveBucket("other-key", CONFIGURATION)).isNotSameAs(bucket);
+        assertThat(counterValue("trackmycase_cache_hits")).isEqualTo(1.0);
+        assertThat(counterValue("trackmycase_cache_misses")).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should hold at most the maximum number of buckets when flooded with unique keys")
+    void shouldStayBoundedWhenFloodedWithUniqueKeys() {
+        LocalRateLimitBucketStore store = newStore(1_000);
+
+        IntStream.range(0, 100_000)
+            .mapToObj(i -> RateLimitInterceptor.compactKey("rotated-session-" + i))
+            .forEach(key -> store.resolveBucket(key, CONFIGURATION).tryConsume(1));
+        store.cleanUp();
+
+        assertThat(gaugeValue("trackmycase_cache_size")).isLessThanOrEqualTo(1_000);
+        assertThat(counterValue("trackmycase_cache_evictions")).isGreaterThanOrEqualTo(99_000);
+    }
+
+    private LocalRateLimitBucketStore newStore(long maximumBuckets) {
+        return new LocalRateLimitBucketStore(new CacheMetricsService(prometheusRegistry), maximumBuckets);
+    }
+
+    private double counterValue(String name) {
+        return ((CounterSnapshot) snapshot(name)).getDataPoints().getFirst().getValue();
+    }
+
+    private double gaugeValue(String name) {
+        return ((GaugeSnapshot) snapshot(name)).getDataPoints().getFirst().getValue();
+    }
+
+    private MetricSnapshot snapshot(String name) {
+        return prometheusRegistry.scrape().stream()
+            .filter(metricSnapshot -> name.equals(metricSnapshot.getMetadata().getName()))
+            .findFirst()
+            .orElseThrow();
+    }
+}
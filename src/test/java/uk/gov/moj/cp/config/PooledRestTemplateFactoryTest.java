@@ -0,0 +1,136 @@
+package uk.gov.moj.cp.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.HistogramSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+import uk.gov.moj.cp.metrics.HttpClientMetricsService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PooledRestTemplateFactoryTest {
+
+    private static final String UPSTREAM = "slc";
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private PrometheusRegistry prometheusRegistry;
+    private PooledRestTemplateFactory factory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/ping", exchange -> {
+            byte[] body = "pong".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        prometheusRegistry = new PrometheusRegistry();
+        factory = new PooledRestTemplateFactory(new HttpClientMetricsService(prometheusRegistry), executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        factory.destroy();
+        executor.close();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should reuse pooled connections and export pool metrics for the upstream")
+    void shouldReusePooledConnectionsAndExportMetrics() {
+        RestTemplate restTemplate = factory.create(UPSTREAM, settings(false));
+
+        assertThat(restTemplate.getForObject(url(), String.class)).isEqualTo("pong");
+        assertThat(restTemplate.getForObject(url(), String.class)).isEqualTo("pong");
+
+        assertThat(counterValue("trackmycase_http_client_connections_opened")).isEqualTo(1.0);
+        assertThat(histogramCount("trackmycase_http_client_connection_acquire_seconds")).isEqualTo(2);
+        assertThat(gaugeValue("trackmycase_http_client_pool_max")).isEqualTo(5.0);
+        assertThat(gaugeValue("trackmycase_http_client_pool_leased")).isZero();
+        assertThat(gaugeValue("trackmycase_http_client_pool_available")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should time each request to the upstream by status class")
+    void shouldTimeRequestsByStatusClass() {
+        RestTemplate restTemplate = factory.create(UPSTREAM, settings(false));
+
+        restTemplate.getForObject(url(), String.class);
+        restTemplate.getForObject(url(), String.class);
+
+        HistogramSnapshot snapshot = (HistogramSnapshot) snapshot("trackmycase_http_client_request_duration_seconds");
+        assertThat(snapshot.getDataPoints())
+            .filteredOn(dataPoint -> UPSTREAM.equals(dataPoint.getLabels().get("upstream")))
+            .filteredOn(dataPoint -> "2xx".equals(dataPoint.getLabels().get("outcome")))
+            .singleElement()
+            .satisfies(dataPoint -> assertThat(dataPoint.getCount()).isEqualTo(2));
+    }
+
+    @Test
+    @DisplayName("Should use the JDK client without pool metrics when HTTP/2 is enabled")
+    void shouldUseJdkClientWhenHttp2Enabled() {
+        RestTemplate restTemplate = factory.create(UPSTREAM, settings(true));
+
+        assertThat(restTemplate.getForObject(url(), String.class)).isEqualTo("pong");
+        assertThat(((GaugeSnapshot) snapshot("trackmycase_http_client_pool_max")).getDataPoints()).isEmpty();
+    }
+
+    private HttpClientSettings settings(boolean http2Enabled) {
+        return new HttpClientSettings(5, 1000, 1000, 1000, 30, 30, http2Enabled);
+    }
+
+    private String url() {
+        return "http://localhost:" + server.getAddress().getPort() + "/ping";
+    }
+
+    private double counterValue(String name) {
+        return ((CounterSnapshot) snapshot(name)).getDataPoints().stream()
+            .filter(dataPoint -> UPSTREAM.equals(dataPoint.getLabels().get("upstream")))
+            .findFirst()
+            .orElseThrow()
+            .getValue();
+    }
+
+    private double gaugeValue(String name) {
+        return ((GaugeSnapshot) snapshot(name)).getDataPoints().stream()
+            .filter(dataPoint -> UPSTREAM.equals(dataPoint.getLabels().get("upstream")))
+            .findFirst()
+            .orElseThrow()
+            .getValue();
+    }
+
+    private long histogramCount(String name) {
+        return ((HistogramSnapshot) snapshot(name)).getDataPoints().stream()
+            .filter(dataPoint -> UPSTREAM.equals(dataPoint.getLabels().get("upstream")))
+            .findFirst()
+            .orElseThrow()
+            .getCount();
+    }
+
+    private MetricSnapshot snapshot(String name) {
+        return prometheusRegistry.scrape().stream()
+            .filter(metricSnapshot -> name.equals(metricSnapshot.getMetadata().getName()))
+            .findFirst()
+            .orElseThrow();
+    }
+}
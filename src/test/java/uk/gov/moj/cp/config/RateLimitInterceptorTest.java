@@ -1,5 +1,12 @@
 package uk.gov.moj.cp.config;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.github.bucket4j.BucketConfiguration;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.catalina.connector.ResponseFacade;
@@ -9,12 +16,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
 import org.mockito.ArgumentCaptor;
+import org.slf4j.LoggerFactory;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+import uk.gov.moj.cp.metrics.RateLimitMetricsService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,13 +45,16 @@ class RateLimitInterceptorTest {
 
     private RateLimitInterceptor interceptor;
 
+    private static final String POLICY = "test";
     private static final String SESSION_ID = "session-abc-123";
+
+    private final PrometheusRegistry prometheusRegistry = new PrometheusRegistry();
     private static final String AUTH_HEADER = "Bearer valid-token-456";
     private static final String REMOTE_ADDR = "1.1.1.1";
 
     @BeforeEach
     void setUp() {
-        interceptor = new RateLimitInterceptor(100, 100, 1);
+        interceptor = newInterceptor(100);
         response = mock(ResponseFacade.class);
     }
 
@@ -87,7 +104,7 @@ class RateLimitInterceptorTest {
     @DisplayName("Should return false and set 429 status when rate limit is exceeded")
     void testPreHandle_ExceedingRateLimit_ShouldReturnFalseAndSet429() throws Exception {
         // Given - capacity of 1 to easily trigger the limit
-        RateLimitInterceptor limitedInterceptor = new RateLimitInterceptor(1, 1, 1);
+        RateLimitInterceptor limitedInterceptor = newInterceptor(1);
         when(request.getHeader("X-Session-Id")).thenReturn(SESSION_ID);
 
         // When - first request exhausts the bucket, second exceeds limit
@@ -103,7 +120,7 @@ class RateLimitInterceptorTest {
     @DisplayName("Should set X-Rate-Limit-Retry-After-Seconds header when rate limit is exceeded")
     void testPreHandle_ExceedingRateLimit_ShouldSetRetryAfterHeader() throws Exception {
         // Given
-        RateLimitInterceptor limitedInterceptor = new RateLimitInterceptor(1, 1, 1);
+        RateLimitInterceptor limitedInterceptor = newInterceptor(1);
         when(request.getHeader("X-Session-Id")).thenReturn(SESSION_ID);
 
         // When
@@ -120,7 +137,7 @@ class RateLimitInterceptorTest {
     @DisplayName("Should call sendError with 429 and correct message when rate limit is exceeded")
     void testPreHandle_ExceedingRateLimit_ShouldCallSendError() throws Exception {
         // Given
-        RateLimitInterceptor limitedInterceptor = new RateLimitInterceptor(1, 1, 1);
+        RateLimitInterceptor limitedInterceptor = newInterceptor(1);
         when(request.getHeader("X-Session-Id")).thenReturn(SESSION_ID);
 
         // When
@@ -135,7 +152,7 @@ class RateLimitInterceptorTest {
     @DisplayName("Should set content type to application/json when rate limit exceeded")
     void testPreHandle_ExceedingRateLimit_ShouldSetJsonContentType() throws Exception {
         // Given
-        RateLimitInterceptor limitedInterceptor = new RateLimitInterceptor(1, 1, 1);
+        RateLimitInterceptor limitedInterceptor = newInterceptor(1);
         when(request.getHeader("X-Session-Id")).thenReturn(SESSION_ID);
 
         // When
@@ -150,7 +167,7 @@ class RateLimitInterceptorTest {
     @DisplayName("Should give independent buckets to different session IDs")
     void testPreHandle_DifferentSessionIds_HaveIndependentBuckets() throws Exception {
         // Given
-        RateLimitInterceptor limitedInterceptor = new RateLimitInterceptor(1, 1, 1);
+        RateLimitInterceptor limitedInterceptor = newInterceptor(1);
         HttpServletRequest request2 = mock(HttpServletRequest.class);
         when(request.getHeader("X-Session-Id")).thenReturn("session-1");
         when(request2.getHeader("X-Session-Id")).thenReturn("session-2");
@@ -167,7 +184,7 @@ class RateLimitInterceptorTest {
     @DisplayName("Should share bucket between requests with the same session ID")
     void testPreHandle_SameSessionId_SharesBucket() throws Exception {
         // Given - capacity of 2
-        RateLimitInterceptor limitedInterceptor = new RateLimitInterceptor(2, 2, 1);
+        RateLimitInterceptor limitedInterceptor = newInterceptor(2);
         when(request.getHeader("X-Session-Id")).thenReturn(SESSION_ID);
 
         // When
@@ -185,7 +202,7 @@ class RateLimitInterceptorTest {
     @DisplayName("Should use Authorization token part as rate limit key when X-Session-Id is absent")
     void testPreHandle_AuthorizationHeader_UsedAsRateLimitKey_WhenNoSessionId() throws Exception {
         // Given
-        RateLimitInterceptor limitedInterceptor = new RateLimitInterceptor(1, 1, 1);
+        RateLimitInterceptor limitedInterceptor = newInterceptor(1);
         when(request.getHeader("X-Session-Id")).thenReturn(null);
         when(request.getHeader("Authorization")).thenReturn(AUTH_HEADER);
 
@@ -226,4 +243,180 @@ class RateLimitInterceptorTest {
         assertThat(result).isTrue();
         verify(request).getRemoteAddr();
     }
+
+    @Test
+    @DisplayName("Should fall back to remoteAddr when the Authorization header has no credentials")
+    void testPreHandle_AuthorizationHeaderWithoutCredentials_FallsBackToRemoteAddr() throws Exception {
+        // Given
+        when(request.getHeader("X-Session-Id")).thenReturn(null);
+        when(request.getHeader("Authorization")).thenReturn("Bearer");
+        when(request.getRemoteAddr()).thenReturn(REMOTE_ADDR);
+
+        // When
+        boolean result = interceptor.preHandle(request, response, handler);
+
+        // Then
+        assertThat(result).isTrue();
+        verify(request).getRemoteAddr();
+    }
+
+    @Test
+    @DisplayName("Should log only the compacted rate limit key at debug")
+    void testPreHandle_DoesNotLogSessionIdOrToken() throws Exception {
+        // Given
+        Logger logger = (Logger) LoggerFactory.getLogger(RateLimitInterceptor.class);
+        Level level = logger.getLevel();
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        logger.setLevel(Level.DEBUG);
+        when(request.getHeader("X-Session-Id")).thenReturn(null, SESSION_ID);
+        when(request.getHeader("Authorization")).thenReturn(AUTH_HEADER);
+
+        // When
+        try {
+            interceptor.preHandle(request, response, handler);
+            interceptor.preHandle(request, response, handler);
+        } finally {
+            logger.detachAppender(appender);
+            logger.setLevel(level);
+        }
+
+        // Then
+        assertThat(appender.list).isNotEmpty().allSatisfy(event -> assertThat(event.getFormattedMessage())
+            .doesNotContain(SESSION_ID, "valid-token-456"));
+    }
+
+    @Test
+    @DisplayName("Should allow the request when the bucket store cannot be reached")
+    void testPreHandle_BucketStoreUnavailable_ShouldAllow() throws Exception {
+        // Given
+        RateLimitInterceptor unavailableStoreInterceptor = new RateLimitInterceptor(
+            policy(RateLimitPolicy.Scope.CALLER, 1), (key, configuration) -> {
+                throw new IllegalStateException("Connection refused");
+            }, new RateLimitMetricsService(prometheusRegistry)
+        );
+        when(request.getHeader("X-Session-Id")).thenReturn(SESSION_ID);
+
+        // When
+        boolean result = unavailableStoreInterceptor.preHandle(request, response, handler);
+
+        // Then
+        assertThat(result).isTrue();
+        assertThat(counterValue("trackmycase_rate_limit_store_failures")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should key buckets by a fixed-width hash rather than the token itself")
+    void testPreHandle_KeysBucketsByFixedWidthHash() throws Exception {
+        // Given
+        List<String> keys = new ArrayList<>();
+        RateLimitBucketStore store = newStore();
+        RateLimitInterceptor recordingInterceptor = new RateLimitInterceptor(
+            policy(RateLimitPolicy.Scope.CALLER, 100), (key, configuration) -> {
+                keys.add(key);
+                return store.resolveBucket(key, configuration);
+            }, new RateLimitMetricsService(prometheusRegistry)
+        );
+        when(request.getHeader("X-Session-Id")).thenReturn(null);
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + "x".repeat(2000));
+
+        // When
+        recordingInterceptor.preHandle(request, response, handler);
+
+        // Then
+        assertThat(keys).singleElement().satisfies(key -> {
+            assertThat(key).hasSize(POLICY.length() + 1 + 22).doesNotContain("xxx");
+            assertThat(key).isEqualTo(POLICY + ":" + RateLimitInterceptor.compactKey("x".repeat(2000)));
+        });
+    }
+
+    @Test
+    @DisplayName("Should count rejected requests under the policy's name")
+    void testPreHandle_ExceedingRateLimit_ShouldCountRejection() throws Exception {
+        // Given
+        RateLimitInterceptor limitedInterceptor = newInterceptor(1);
+        when(request.getHeader("X-Session-Id")).thenReturn(SESSION_ID);
+
+        // When
+        limitedInterceptor.preHandle(request, response, handler);
+        limitedInterceptor.preHandle(request, response, handler);
+        limitedInterceptor.preHandle(request, response, handler);
+
+        // Then
+        assertThat(counterValue("trackmycase_rate_limit_rejections")).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should share one bucket between all callers under a global policy")
+    void testPreHandle_GlobalPolicy_SharesBucketBetweenCallers() throws Exception {
+        // Given
+        RateLimitInterceptor globalInterceptor = new RateLimitInterceptor(
+            policy(RateLimitPolicy.Scope.GLOBAL, 1), newStore(), new RateLimitMetricsService(prometheusRegistry)
+        );
+        HttpServletRequest request2 = mock(HttpServletRequest.class);
+
+        // When
+        boolean first = globalInterceptor.preHandle(request, response, handler);
+        boolean second = globalInterceptor.preHandle(request2, response, handler);
+
+        // Then - no caller key is resolved, and the second caller finds the bucket empty
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        verify(request2, never()).getHeader("X-Session-Id");
+    }
+
+    @Test
+    @DisplayName("Should keep separate buckets for the same caller under different policies")
+    void testPreHandle_DifferentPolicies_HaveIndependentBuckets() throws Exception {
+        // Given
+        RateLimitBucketStore store = newStore();
+        RateLimitMetricsService metricsService = new RateLimitMetricsService(prometheusRegistry);
+        RateLimitInterceptor first = new RateLimitInterceptor(
+            new RateLimitPolicy("first", RateLimitPolicy.Scope.CALLER, List.of(), List.of(), configuration(1)),
+            store, metricsService
+        );
+        RateLimitInterceptor second = new RateLimitInterceptor(
+            new RateLimitPolicy("second", RateLimitPolicy.Scope.CALLER, List.of(), List.of(), configuration(1)),
+            store, metricsService
+        );
+        when(request.getHeader("X-Session-Id")).thenReturn(SESSION_ID);
+
+        // When
+        first.preHandle(request, response, handler);
+        boolean result = second.preHandle(request, response, handler);
+
+        // Then
+        assertThat(result).isTrue();
+    }
+
+    private RateLimitInterceptor newInterceptor(int capacity) {
+        return new RateLimitInterceptor(
+            policy(RateLimitPolicy.Scope.CALLER, capacity), newStore(), new RateLimitMetricsService(prometheusRegistry)
+        );
+    }
+
+    private static RateLimitBucketStore newStore() {
+        return new LocalRateLimitBucketStore(new CacheMetricsService(new PrometheusRegistry()), 1000);
+    }
+
+    private static RateLimitPolicy policy(RateLimitPolicy.Scope scope, int capacity) {
+        return new RateLimitPolicy(POLICY, scope, List.of(), List.of(), configuration(capacity));
+    }
+
+    private static BucketConfiguration configuration(int capacity) {
+        return BucketConfiguration.builder()
+            .addLimit(RateLimitBucketStore.bandwidth(capacity, capacity, Duration.ofMinutes(1)))
+            .build();
+    }
+
+    private double counterValue(String name) {
+        return prometheusRegistry.scrape().stream()
+            .filter(snapshot -> name.equals(snapshot.getMetadata().getName()))
+            .flatMap(snapshot -> ((CounterSnapshot) snapshot).getDataPoints().stream())
+            .filter(dataPoint -> POLICY.equals(dataPoint.getLabels().get("policy")))
+            .findFirst()
+            .orElseThrow()
+            .getValue();
+    }
 }
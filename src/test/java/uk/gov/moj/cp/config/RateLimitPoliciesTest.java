@@ -0,0 +1,57 @@
+package uk.gov.moj.cp.config;
+
+import io.github.bucket4j.Bandwidth;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitPoliciesTest {
+
+    private final List<RateLimitPolicy> policies = new RateLimitPolicies(
+        300, 150, 5,
+        20, 10, 150, 5,
+        60, 1,
+        100, 1
+    ).getPolicies();
+
+    @Test
+    @DisplayName("Should run the per-caller policies before the global ceiling")
+    void shouldOrderPolicies() {
+        assertThat(policies).extracting(RateLimitPolicy::name)
+            .containsExactly("case-details", "users", "default", "case-details-global");
+        assertThat(policies).extracting(RateLimitPolicy::scope).containsExactly(
+            RateLimitPolicy.Scope.CALLER, RateLimitPolicy.Scope.CALLER, RateLimitPolicy.Scope.CALLER,
+            RateLimitPolicy.Scope.GLOBAL
+        );
+    }
+
+    @Test
+    @DisplayName("Should leave the paths of the other per-caller policies out of the default policy")
+    void shouldExcludeOtherPoliciesFromDefault() {
+        RateLimitPolicy defaultPolicy = policy("default");
+
+        assertThat(defaultPolicy.pathPatterns()).containsExactly("/api/**");
+        assertThat(defaultPolicy.excludePathPatterns())
+            .containsExactlyInAnyOrder("/api/health", "/api/cases/*/casedetails", "/api/users/**");
+    }
+
+    @Test
+    @DisplayName("Should limit case details by a burst and a sustained bandwidth")
+    void shouldCombineBurstAndSustainedBandwidths() {
+        Bandwidth[] bandwidths = policy("case-details").configuration().getBandwidths();
+
+        assertThat(bandwidths).hasSize(2);
+        assertThat(bandwidths[0].getCapacity()).isEqualTo(20);
+        assertThat(bandwidths[0].getRefillPeriodNanos()).isEqualTo(Duration.ofSeconds(10).toNanos());
+        assertThat(bandwidths[1].getCapacity()).isEqualTo(150);
+        assertThat(bandwidths[1].getRefillPeriodNanos()).isEqualTo(Duration.ofMinutes(5).toNanos());
+    }
+
+    private RateLimitPolicy policy(String name) {
+        return policies.stream().filter(policy -> policy.name().equals(name)).findFirst().orElseThrow();
+    }
+}
@@ -1,5 +1,6 @@
 package uk.gov.moj.cp.config;
 
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,6 +9,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import uk.gov.moj.cp.metrics.AccessLog;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+import uk.gov.moj.cp.metrics.RateLimitMetricsService;
+import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService;
 
 import java.util.List;
 
@@ -31,12 +36,7 @@ public class SecurityConfigTest {
     @DisplayName("Should register RateLimitInterceptor when addInterceptors is called")
     void testAddInterceptors_ShouldRegisterRateLimitInterceptor() {
         // Given
-        SecurityConfig config = new SecurityConfig(
-            usersAuthorizationHeader,
-            rateLimitMaximumTokensCapacity,
-            rateLimitRefillTokens,
-            rateLimitRefillPeriodMinutes
-        );
+        SecurityConfig config = newSecurityConfig();
         InterceptorRegistry registry = mock(InterceptorRegistry.class);
         InterceptorRegistration registration = mock(InterceptorRegistration.class, RETURNS_DEEP_STUBS);
         when(registry.addInterceptor(any(HandlerInterceptor.class))).thenReturn(registration);
@@ -46,7 +46,7 @@ public class SecurityConfigTest {
 
         // Then
         ArgumentCaptor<HandlerInterceptor> captor = ArgumentCaptor.forClass(HandlerInterceptor.class);
-        verify(registry, times(2)).addInterceptor(captor.capture());
+        verify(registry, times(7)).addInterceptor(captor.capture());
         List<HandlerInterceptor> interceptors = captor.getAllValues();
         assertThat(interceptors).hasAtLeastOneElementOfType(RateLimitInterceptor.class);
     }
@@ -55,12 +55,7 @@ public class SecurityConfigTest {
     @DisplayName("Should register UsersAuthorizationInterceptor when addInterceptors is called")
     void testAddInterceptors_ShouldRegisterUsersAuthorizationInterceptor() {
         // Given
-        SecurityConfig config = new SecurityConfig(
-            usersAuthorizationHeader,
-            rateLimitMaximumTokensCapacity,
-            rateLimitRefillTokens,
-            rateLimitRefillPeriodMinutes
-        );
+        SecurityConfig config = newSecurityConfig();
         InterceptorRegistry registry = mock(InterceptorRegistry.class);
         InterceptorRegistration registration = mock(InterceptorRegistration.class, RETURNS_DEEP_STUBS);
         when(registry.addInterceptor(any(HandlerInterceptor.class))).thenReturn(registration);
@@ -70,21 +65,16 @@ public class SecurityConfigTest {
 
         // Then
         ArgumentCaptor<HandlerInterceptor> captor = ArgumentCaptor.forClass(HandlerInterceptor.class);
-        verify(registry, times(2)).addInterceptor(captor.capture());
+        verify(registry, times(7)).addInterceptor(captor.capture());
         List<HandlerInterceptor> interceptors = captor.getAllValues();
         assertThat(interceptors).hasAtLeastOneElementOfType(UsersAuthorizationInterceptor.class);
     }
 
     @Test
-    @DisplayName("Should register exactly two interceptors when addInterceptors is called")
-    void testAddInterceptors_ShouldRegisterExactlyTwoInterceptors() {
+    @DisplayName("Should register one interceptor per rate limit policy, one each for logging and timing and one for the users API")
+    void testAddInterceptors_ShouldRegisterOneInterceptorPerPolicy() {
         // Given
-        SecurityConfig config = new SecurityConfig(
-            usersAuthorizationHeader,
-            rateLimitMaximumTokensCapacity,
-            rateLimitRefillTokens,
-            rateLimitRefillPeriodMinutes
-        );
+        SecurityConfig config = newSecurityConfig();
         InterceptorRegistry registry = mock(InterceptorRegistry.class);
         InterceptorRegistration registration = mock(InterceptorRegistration.class, RETURNS_DEEP_STUBS);
         when(registry.addInterceptor(any(HandlerInterceptor.class))).thenReturn(registration);
@@ -93,19 +83,14 @@ public class SecurityConfigTest {
         config.addInterceptors(registry);
 
         // Then
-        verify(registry, times(2)).addInterceptor(any(HandlerInterceptor.class));
+        verify(registry, times(7)).addInterceptor(any(HandlerInterceptor.class));
     }
 
     @Test
-    @DisplayName("Should register RateLimitInterceptor before UsersAuthorizationInterceptor")
+    @DisplayName("Should register the logging and timing interceptors first and RateLimitInterceptors before UsersAuthorizationInterceptor")
     void testAddInterceptors_RateLimitInterceptorRegisteredFirst() {
         // Given
-        SecurityConfig config = new SecurityConfig(
-            usersAuthorizationHeader,
-            rateLimitMaximumTokensCapacity,
-            rateLimitRefillTokens,
-            rateLimitRefillPeriodMinutes
-        );
+        SecurityConfig config = newSecurityConfig();
         InterceptorRegistry registry = mock(InterceptorRegistry.class);
         InterceptorRegistration registration = mock(InterceptorRegistration.class, RETURNS_DEEP_STUBS);
         when(registry.addInterceptor(any(HandlerInterceptor.class))).thenReturn(registration);
@@ -115,9 +100,45 @@ public class SecurityConfigTest {
 
         // Then
         ArgumentCaptor<HandlerInterceptor> captor = ArgumentCaptor.forClass(HandlerInterceptor.class);
-        verify(registry, times(2)).addInterceptor(captor.capture());
+        verify(registry, times(7)).addInterceptor(captor.capture());
         List<HandlerInterceptor> interceptors = captor.getAllValues();
-        assertThat(interceptors.get(0)).isInstanceOf(RateLimitInterceptor.class);
-        assertThat(interceptors.get(1)).isInstanceOf(UsersAuthorizationInterceptor.class);
+        assertThat(interceptors.get(0)).isInstanceOf(AccessLogInterceptor.class);
+        assertThat(interceptors.get(1)).isInstanceOf(CaseDetailsTimingInterceptor.class);
+        assertThat(interceptors.subList(2, 6)).allMatch(RateLimitInterceptor.class::isInstance);
+        assertThat(interceptors.get(6)).isInstanceOf(UsersAuthorizationInterceptor.class);
+    }
+
+    @Test
+    @DisplayName("Should register each rate limit policy for its own paths")
+    void testAddInterceptors_ShouldRegisterPolicyPaths() {
+        // Given
+        SecurityConfig config = newSecurityConfig();
+        InterceptorRegistry registry = mock(InterceptorRegistry.class);
+        InterceptorRegistration registration = mock(InterceptorRegistration.class, RETURNS_DEEP_STUBS);
+        when(registry.addInterceptor(any(HandlerInterceptor.class))).thenReturn(registration);
+
+        // When
+        config.addInterceptors(registry);
+
+        // Then
+        verify(registration, times(3)).addPathPatterns(List.of("/api/cases/*/casedetails"));
+        verify(registration, times(2)).addPathPatterns(List.of("/api/users/**"));
+        verify(registration, times(2)).addPathPatterns(List.of("/api/**"));
+    }
+
+    private static SecurityConfig newSecurityConfig() {
+        return new SecurityConfig(
+            usersAuthorizationHeader,
+            new LocalRateLimitBucketStore(new CacheMetricsService(new PrometheusRegistry()), 1000),
+            new RateLimitPolicies(
+                rateLimitMaximumTokensCapacity, rateLimitRefillTokens, rateLimitRefillPeriodMinutes,
+                20, 10, 150, 5,
+                60, 1,
+                100, 1
+            ),
+            new RateLimitMetricsService(new PrometheusRegistry()),
+            new TrackMyCaseMetricsService(new PrometheusRegistry()),
+            new AccessLog(true, 0.05)
+        );
     }
 }
@@ -7,30 +7,45 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.databind.json.JsonMapper;
 import uk.gov.moj.cp.dto.UserCreationResponseDto;
 import uk.gov.moj.cp.dto.UserDto;
+import uk.gov.moj.cp.dto.UserPageDto;
 import uk.gov.moj.cp.dto.UserResponseDto;
 import uk.gov.moj.cp.dto.UpdateUserDto;
+import uk.gov.moj.cp.exception.ApplicationExceptionHandler;
 import uk.gov.moj.cp.model.UserCreationStatus;
 import uk.gov.moj.cp.model.UserStatus;
 import uk.gov.moj.cp.model.UserRole;
 import uk.gov.moj.cp.service.UserService;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static uk.gov.moj.cp.util.Utils.objectMapper;
 
 class UserControllerTest {
+
+    private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+
     private MockMvc mockMvc;
 
     @Mock
@@ -41,8 +56,10 @@ class UserControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        userController = new UserController(userService);
-        mockMvc = MockMvcBuilders.standaloneSetup(userController).build();
+        userController = new UserController(userService, JSON_MAPPER);
+        mockMvc = MockMvcBuilders.standaloneSetup(userController)
+            .setControllerAdvice(new ApplicationExceptionHandler())
+            .build();
     }
 
     @Test
@@ -62,10 +79,11 @@ class UserControllerTest {
             .updated(java.time.LocalDateTime.now())
             .build();
 
-        when(userService.getAllUsers()).thenReturn(List.of(u1, u2));
+        when(userService.getAllUsers(null, null)).thenReturn(List.of(u1, u2));
 
         mockMvc.perform(get("/api/users"))
             .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(UserController.NEXT_CURSOR_HEADER))
             .andExpect(jsonPath("$.length()").value(2))
             .andExpect(jsonPath("$[0].email").value("user1@example.com"))
             .andExpect(jsonPath("$[0].role").value("USER"))
@@ -73,6 +91,97 @@ class UserControllerTest {
             .andExpect(jsonPath("$[1].role").value("ADMIN"));
     }
 
+    @Test
+    @DisplayName("GET /api/users - filter a page of users and return the next page's cursor in a header")
+    void testGetUsersPage() throws Exception {
+        final UserResponseDto user = UserResponseDto.builder()
+            .email("admin@example.com")
+            .role(UserRole.ADMIN)
+            .status(UserStatus.ACTIVE)
+            .build();
+
+        when(userService.getUsers(UserStatus.ACTIVE, UserRole.ADMIN, "cursor1", 1))
+            .thenReturn(UserPageDto.builder().users(List.of(user)).nextCursor("cursor2").build());
+
+        mockMvc.perform(get("/api/users?status=active&role=ADMIN&after=cursor1&limit=1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(UserController.NEXT_CURSOR_HEADER, "cursor2"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].email").value("admin@example.com"));
+    }
+
+    @Test
+    @DisplayName("GET /api/users - page users only when a limit is given")
+    void testGetUsersFirstPage() throws Exception {
+        final UserResponseDto user = UserResponseDto.builder()
+            .email("user1@example.com")
+            .role(UserRole.USER)
+            .status(UserStatus.ACTIVE)
+            .build();
+
+        when(userService.getUsers(null, null, null, 1))
+            .thenReturn(UserPageDto.builder().users(List.of(user)).nextCursor("cursor1").build());
+
+        mockMvc.perform(get("/api/users?limit=1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(UserController.NEXT_CURSOR_HEADER, "cursor1"))
+            .andExpect(jsonPath("$.length()").value(1));
+        verify(userService, never()).getAllUsers(any(), any());
+    }
+
+    @Test
+    @DisplayName("GET /api/users - reject an unknown status filter")
+    void testGetUsersInvalidStatus() throws Exception {
+        mockMvc.perform(get("/api/users?status=UNKNOWN"))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().string("Invalid status: UNKNOWN"));
+    }
+
+    @Test
+    @DisplayName("GET /api/users - stream users as newline delimited JSON")
+    void testStreamUsers() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<UserResponseDto> consumer = invocation.getArgument(2);
+            consumer.accept(UserResponseDto.builder().email("user1@example.com").role(UserRole.USER).build());
+            consumer.accept(UserResponseDto.builder().email("user2@example.com").role(UserRole.ADMIN).build());
+            return null;
+        }).when(userService).streamUsers(eq(null), eq(UserRole.ADMIN), any());
+
+        MvcResult result = mockMvc.perform(get("/api/users?role=admin").accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andExpect(content().string(
+                "{\"email\":\"user1@example.com\",\"role\":\"USER\"}\n"
+                    + "{\"email\":\"user2@example.com\",\"role\":\"ADMIN\"}\n"));
+    }
+
+    @Test
+    @DisplayName("GET /api/users - write each streamed user as the application's JsonMapper does")
+    void testStreamUsersWithJsonMapper() throws Exception {
+        final UserResponseDto user = UserResponseDto.builder()
+            .email("user1@example.com")
+            .role(UserRole.USER)
+            .status(UserStatus.ACTIVE)
+            .updated(java.time.LocalDateTime.of(2026, 3, 16, 10, 30, 15))
+            .build();
+        doAnswer(invocation -> {
+            invocation.<Consumer<UserResponseDto>>getArgument(2).accept(user);
+            return null;
+        }).when(userService).streamUsers(eq(null), eq(null), any());
+
+        MvcResult result = mockMvc.perform(get("/api/users").accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().string(JSON_MAPPER.writeValueAsString(user) + "\n"));
+    }
+
     @Test
     @DisplayName("DELETE /api/user - delete user")
     void testDeleteUser() throws Exception {
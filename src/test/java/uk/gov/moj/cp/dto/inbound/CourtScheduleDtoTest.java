@@ -3,6 +3,8 @@ package uk.gov.moj.cp.dto.inbound;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -14,13 +16,13 @@ class CourtScheduleDtoTest {
     void testJsonInclude() throws JsonProcessingException {
         WeekCommencingDto weekCommencing = WeekCommencingDto.builder()
             .courtHouse("London Court")
-            .startDate("2025-01-06")
-            .endDate("2025-01-12")
+            .startDate(LocalDate.parse("2025-01-06"))
+            .endDate(LocalDate.parse("2025-01-12"))
             .durationInWeeks(1)
             .build();
         CourtSittingDto sitting = CourtSittingDto.builder()
-            .sittingStart("2025-01-01T09:00")
-            .sittingEnd("2025-01-01T17:00")
+            .sittingStart(LocalDateTime.parse("2025-01-01T09:00"))
+            .sittingEnd(LocalDateTime.parse("2025-01-01T17:00"))
             .judiciaryId("J001")
             .courtHouse("London Court")
             .courtRoom("Room 1")
@@ -42,7 +44,7 @@ class CourtScheduleDtoTest {
         String expectedHearing = """
             {"hearingId":"H001","hearingType":"Trial","hearingDescription":"Main trial hearing","listNote":"List note one",
             "weekCommencing":{"courtHouse":"London Court","startDate":"2025-01-06","endDate":"2025-01-12","durationInWeeks":1},
-            "courtSittings":[{"sittingStart":"2025-01-01T09:00","sittingEnd":"2025-01-01T17:00","judiciaryId":"J001",
+            "courtSittings":[{"sittingStart":"2025-01-01T09:00:00","sittingEnd":"2025-01-01T17:00:00","judiciaryId":"J001",
             "courtHouse":"London Court","courtRoom":"Room 1"}]}
             """;
         assertEquals(
@@ -56,13 +58,13 @@ class CourtScheduleDtoTest {
     void testBuilderAndEquals() {
         WeekCommencingDto weekCommencing = WeekCommencingDto.builder()
             .courtHouse("London Court")
-            .startDate("2025-01-06")
-            .endDate("2025-01-12")
+            .startDate(LocalDate.parse("2025-01-06"))
+            .endDate(LocalDate.parse("2025-01-12"))
             .durationInWeeks(1)
             .build();
         CourtSittingDto sitting = CourtSittingDto.builder()
-            .sittingStart("2025-01-01T09:00")
-            .sittingEnd("2025-01-01T17:00")
+            .sittingStart(LocalDateTime.parse("2025-01-01T09:00"))
+            .sittingEnd(LocalDateTime.parse("2025-01-01T17:00"))
             .judiciaryId("J001")
             .courtHouse("London Court")
             .courtRoom("Room 1")
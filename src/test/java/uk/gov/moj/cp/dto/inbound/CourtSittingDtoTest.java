@@ -3,6 +3,8 @@ package uk.gov.moj.cp.dto.inbound;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDateTime;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static uk.gov.moj.cp.util.Utils.objectMapper;
 
@@ -11,8 +13,8 @@ class CourtSittingDtoTest {
     @Test
     void testJsonInclude() throws JsonProcessingException {
         CourtSittingDto s1 = CourtSittingDto.builder()
-            .sittingStart("2025-01-01T09:00")
-            .sittingEnd("2025-01-01T17:00")
+            .sittingStart(LocalDateTime.parse("2025-01-01T09:00"))
+            .sittingEnd(LocalDateTime.parse("2025-01-01T17:00"))
             .judiciaryId("J001")
             .courtHouse("London Court")
             .courtRoom("Room 1")
@@ -20,7 +22,7 @@ class CourtSittingDtoTest {
         CourtSittingDto s2 = CourtSittingDto.builder().build();
 
         assertEquals(
-            "{\"sittingStart\":\"2025-01-01T09:00\",\"sittingEnd\":\"2025-01-01T17:00\",\"judiciaryId\":\"J001\",\"courtHouse\":\"London Court\",\"courtRoom\":\"Room 1\"}",
+            "{\"sittingStart\":\"2025-01-01T09:00:00\",\"sittingEnd\":\"2025-01-01T17:00:00\",\"judiciaryId\":\"J001\",\"courtHouse\":\"London Court\",\"courtRoom\":\"Room 1\"}",
             objectMapper.writeValueAsString(s1)
         );
         assertEquals("{\"sittingStart\":null,\"sittingEnd\":null,\"judiciaryId\":null,\"courtHouse\":null,\"courtRoom\":null}", objectMapper.writeValueAsString(s2));
@@ -29,15 +31,15 @@ class CourtSittingDtoTest {
     @Test
     void testBuilderAndEquals() {
         CourtSittingDto s1 = CourtSittingDto.builder()
-            .sittingStart("2025-01-01T09:00")
-            .sittingEnd("2025-01-01T17:00")
+            .sittingStart(LocalDateTime.parse("2025-01-01T09:00"))
+            .sittingEnd(LocalDateTime.parse("2025-01-01T17:00"))
             .judiciaryId("J001")
             .courtHouse("London Court")
             .courtRoom("Room 1")
             .build();
         CourtSittingDto s2 = CourtSittingDto.builder()
-            .sittingStart("2025-01-01T09:00")
-            .sittingEnd("2025-01-01T17:00")
+            .sittingStart(LocalDateTime.parse("2025-01-01T09:00"))
+            .sittingEnd(LocalDateTime.parse("2025-01-01T17:00"))
             .judiciaryId("J001")
             .courtHouse("London Court")
             .courtRoom("Room 1")
@@ -3,6 +3,8 @@ package uk.gov.moj.cp.dto.inbound;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -14,20 +16,20 @@ class HearingDtoTest {
     void testJsonInclude() throws JsonProcessingException {
         WeekCommencingDto weekCommencing = WeekCommencingDto.builder()
             .courtHouse("London Court")
-            .startDate("2025-01-06")
-            .endDate("2025-01-12")
+            .startDate(LocalDate.parse("2025-01-06"))
+            .endDate(LocalDate.parse("2025-01-12"))
             .durationInWeeks(1)
             .build();
         CourtSittingDto sitting1 = CourtSittingDto.builder()
-            .sittingStart("2025-01-01T09:00")
-            .sittingEnd("2025-01-01T17:00")
+            .sittingStart(LocalDateTime.parse("2025-01-01T09:00"))
+            .sittingEnd(LocalDateTime.parse("2025-01-01T17:00"))
             .judiciaryId("J001")
             .courtHouse("London Court")
             .courtRoom("Room 1")
             .build();
         CourtSittingDto sitting2 = CourtSittingDto.builder()
-            .sittingStart("2025-01-02T09:00")
-            .sittingEnd("2025-01-02T17:00")
+            .sittingStart(LocalDateTime.parse("2025-01-02T09:00"))
+            .sittingEnd(LocalDateTime.parse("2025-01-02T17:00"))
             .judiciaryId("J002")
             .courtHouse("London Court")
             .courtRoom("Room 2")
@@ -44,8 +46,8 @@ class HearingDtoTest {
         HearingDto h2 = HearingDto.builder().build();
 
         String expectedWeekCommencing = "{\"courtHouse\":\"London Court\",\"startDate\":\"2025-01-06\",\"endDate\":\"2025-01-12\",\"durationInWeeks\":1}";
-        String expectedSitting1 = "{\"sittingStart\":\"2025-01-01T09:00\",\"sittingEnd\":\"2025-01-01T17:00\",\"judiciaryId\":\"J001\",\"courtHouse\":\"London Court\",\"courtRoom\":\"Room 1\"}";
-        String expectedSitting2 = "{\"sittingStart\":\"2025-01-02T09:00\",\"sittingEnd\":\"2025-01-02T17:00\",\"judiciaryId\":\"J002\",\"courtHouse\":\"London Court\",\"courtRoom\":\"Room 2\"}";
+        String expectedSitting1 = "{\"sittingStart\":\"2025-01-01T09:00:00\",\"sittingEnd\":\"2025-01-01T17:00:00\",\"judiciaryId\":\"J001\",\"courtHouse\":\"London Court\",\"courtRoom\":\"Room 1\"}";
+        String expectedSitting2 = "{\"sittingStart\":\"2025-01-02T09:00:00\",\"sittingEnd\":\"2025-01-02T17:00:00\",\"judiciaryId\":\"J002\",\"courtHouse\":\"London Court\",\"courtRoom\":\"Room 2\"}";
         String expected = "{\"hearingId\":\"H001\",\"hearingType\":\"Trial\",\"hearingDescription\":\"Main hearing\",\"listNote\":\"List note\","
             + "\"weekCommencing\":" + expectedWeekCommencing + ",\"courtSittings\":[" + expectedSitting1 + "," + expectedSitting2 + "]}";
         assertEquals(expected, objectMapper.writeValueAsString(h1));
@@ -56,20 +58,20 @@ class HearingDtoTest {
     void testBuilderAndEquals() {
         WeekCommencingDto weekCommencing = WeekCommencingDto.builder()
             .courtHouse("London Court")
-            .startDate("2025-01-06")
-            .endDate("2025-01-12")
+            .startDate(LocalDate.parse("2025-01-06"))
+            .endDate(LocalDate.parse("2025-01-12"))
             .durationInWeeks(1)
             .build();
         CourtSittingDto sitting1 = CourtSittingDto.builder()
-            .sittingStart("2025-01-01T09:00")
-            .sittingEnd("2025-01-01T17:00")
+            .sittingStart(LocalDateTime.parse("2025-01-01T09:00"))
+            .sittingEnd(LocalDateTime.parse("2025-01-01T17:00"))
             .judiciaryId("J001")
             .courtHouse("London Court")
             .courtRoom("Room 1")
             .build();
         CourtSittingDto sitting2 = CourtSittingDto.builder()
-            .sittingStart("2025-01-02T09:00")
-            .sittingEnd("2025-01-02T17:00")
+            .sittingStart(LocalDateTime.parse("2025-01-02T09:00"))
+            .sittingEnd(LocalDateTime.parse("2025-01-02T17:00"))
             .judiciaryId("J002")
             .courtHouse("London Court")
             .courtRoom("Room 2")
@@ -3,6 +3,8 @@ package uk.gov.moj.cp.dto.inbound;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static uk.gov.moj.cp.util.Utils.objectMapper;
 
@@ -12,8 +14,8 @@ class WeekCommencingDtoTest {
     void testJsonInclude() throws JsonProcessingException {
         WeekCommencingDto w1 = WeekCommencingDto.builder()
             .courtHouse("London Court")
-            .startDate("2025-01-06")
-            .endDate("2025-01-12")
+            .startDate(LocalDate.parse("2025-01-06"))
+            .endDate(LocalDate.parse("2025-01-12"))
             .durationInWeeks(1)
             .build();
         WeekCommencingDto w2 = WeekCommencingDto.builder().build();
@@ -29,14 +31,14 @@ class WeekCommencingDtoTest {
     void testBuilderAndEquals() {
         WeekCommencingDto w1 = WeekCommencingDto.builder()
             .courtHouse("London Court")
-            .startDate("2025-01-06")
-            .endDate("2025-01-12")
+            .startDate(LocalDate.parse("2025-01-06"))
+            .endDate(LocalDate.parse("2025-01-12"))
             .durationInWeeks(1)
             .build();
         WeekCommencingDto w2 = WeekCommencingDto.builder()
             .courtHouse("London Court")
-            .startDate("2025-01-06")
-            .endDate("2025-01-12")
+            .startDate(LocalDate.parse("2025-01-06"))
+            .endDate(LocalDate.parse("2025-01-12"))
             .durationInWeeks(1)
             .build();
 
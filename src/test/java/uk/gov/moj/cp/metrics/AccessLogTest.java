@@ -0,0 +1,85 @@
+package uk.gov.moj.cp.metrics;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService.Stage;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogTest {
+
+    private final Logger accessLogger = (Logger) LoggerFactory.getLogger(AccessLog.LOGGER_NAME);
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    void setUp() {
+        appender = new ListAppender<>();
+        appender.start();
+        accessLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accessLogger.detachAppender(appender);
+        RequestTimings.unbind();
+    }
+
+    @Test
+    @DisplayName("Should not sample any request when disabled")
+    void shouldNotSampleWhenDisabled() {
+        assertThat(new AccessLog(false, 1.0).start()).isNull();
+        assertThat(new AccessLog(true, 0).start()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should log the timings recorded for a sampled request as key-value pairs")
+    void shouldLogSampledRequest() {
+        AccessLog accessLog = new AccessLog(true, 1.0);
+
+        RequestTimings timings = accessLog.start();
+        RequestTimings.recordStage(Stage.COURT_SCHEDULE_CONVERSION, 2_500_000);
+        RequestTimings.recordDownstreamCall(40_000_000);
+        accessLog.finish(timings, "GET", "/api/cases/{case_urn}/casedetails", 200, 50_000_000, null);
+
+        assertThat(appender.list).hasSize(1);
+        Map<String, Object> fields = appender.list.getFirst().getKeyValuePairs().stream()
+            .collect(Collectors.toMap(pair -> pair.key, pair -> pair.value));
+        assertThat(fields)
+            .containsEntry("method", "GET")
+            .containsEntry("route", "/api/cases/{case_urn}/casedetails")
+            .containsEntry("status", 200)
+            .containsEntry("duration_ms", 50.0)
+            .containsEntry("downstream_calls", 1)
+            .containsEntry("downstream_ms", 40.0)
+            .containsEntry("court_schedule_conversion_ms", 2.5)
+            .containsEntry("hearing_selection_ms", 0.0)
+            .doesNotContainKey("error");
+    }
+
+    @Test
+    @DisplayName("Should name the exception a request failed with and unbind its timings")
+    void shouldLogErrorAndUnbind() {
+        AccessLog accessLog = new AccessLog(true, 1.0);
+
+        RequestTimings timings = accessLog.start();
+        accessLog.finish(timings, "GET", "/api/cases/{case_urn}/casedetails", 500, 1_000_000,
+                         new IllegalStateException("boom"));
+        RequestTimings.recordDownstreamCall(1_000);
+
+        assertThat(appender.list.getFirst().getKeyValuePairs())
+            .anySatisfy(pair -> {
+                assertThat(pair.key).isEqualTo("error");
+                assertThat(pair.value).isEqualTo("IllegalStateException");
+            });
+        assertThat(timings.downstreamCalls()).isZero();
+    }
+}
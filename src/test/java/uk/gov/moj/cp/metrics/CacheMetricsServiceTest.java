@@ -0,0 +1,73 @@
+package uk.gov.moj.cp.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheMetricsServiceTest {
+
+    private PrometheusRegistry prometheusRegistry;
+    private CacheMetricsService cacheMetricsService;
+
+    @BeforeEach
+    void setUp() {
+        prometheusRegistry = new PrometheusRegistry();
+        cacheMetricsService = new CacheMetricsService(prometheusRegistry);
+    }
+
+    @Test
+    @DisplayName("Should export hit, miss, hit ratio and size metrics labelled by cache name")
+    void shouldExportCacheStatisticsLabelledByCacheName() {
+        Cache<String, String> cache = Caffeine.newBuilder().recordStats().build();
+        cacheMetricsService.registerCache("test", cache);
+
+        cache.get("key", key -> "value");
+        cache.getIfPresent("key");
+        cache.getIfPresent("other");
+
+        assertThat(counterValue("trackmycase_cache_hits", "test")).isEqualTo(1.0);
+        assertThat(counterValue("trackmycase_cache_misses", "test")).isEqualTo(2.0);
+        assertThat(counterValue("trackmycase_cache_loads", "test")).isEqualTo(1.0);
+        assertThat(gaugeValue("trackmycase_cache_size", "test")).isEqualTo(1.0);
+        assertThat(gaugeValue("trackmycase_cache_hit_ratio", "test")).isEqualTo(1.0 / 3);
+    }
+
+    @Test
+    @DisplayName("Should export no data points when no cache is registered")
+    void shouldExportNoDataPointsWhenNoCacheRegistered() {
+        CounterSnapshot snapshot = (CounterSnapshot) snapshot("trackmycase_cache_hits");
+
+        assertThat(snapshot.getDataPoints()).isEmpty();
+    }
+
+    private double counterValue(String name, String cacheName) {
+        return ((CounterSnapshot) snapshot(name)).getDataPoints().stream()
+            .filter(dataPoint -> cacheName.equals(dataPoint.getLabels().get("cache")))
+            .findFirst()
+            .orElseThrow()
+            .getValue();
+    }
+
+    private double gaugeValue(String name, String cacheName) {
+        return ((GaugeSnapshot) snapshot(name)).getDataPoints().stream()
+            .filter(dataPoint -> cacheName.equals(dataPoint.getLabels().get("cache")))
+            .findFirst()
+            .orElseThrow()
+            .getValue();
+    }
+
+    private MetricSnapshot snapshot(String name) {
+        return prometheusRegistry.scrape().stream()
+            .filter(metricSnapshot -> name.equals(metricSnapshot.getMetadata().getName()))
+            .findFirst()
+            .orElseThrow();
+    }
+}
@@ -0,0 +1,75 @@
+package uk.gov.moj.cp.metrics;
+
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.DataPointSnapshot;
+import io.prometheus.metrics.model.snapshots.HistogramSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.gov.moj.cp.model.AmpApiType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OAuthTokenMetricsServiceTest {
+
+    private final PrometheusRegistry prometheusRegistry = new PrometheusRegistry();
+    private final OAuthTokenMetricsService oauthTokenMetricsService = new OAuthTokenMetricsService(prometheusRegistry);
+
+    @Test
+    @DisplayName("Should record token fetches by API and trigger")
+    void shouldRecordTokenFetchesByApiAndTrigger() {
+        oauthTokenMetricsService.recordTokenFetch(AmpApiType.SLC, OAuthTokenMetricsService.TRIGGER_REQUEST, 2_000_000);
+        oauthTokenMetricsService.recordTokenFetch(AmpApiType.SLC, OAuthTokenMetricsService.TRIGGER_SCHEDULED, 3_000_000);
+        oauthTokenMetricsService.recordTokenFetch(AmpApiType.SLC, OAuthTokenMetricsService.TRIGGER_SCHEDULED, 4_000_000);
+        oauthTokenMetricsService.recordTokenFetchFailure(AmpApiType.PCD, OAuthTokenMetricsService.TRIGGER_SCHEDULED);
+
+        assertThat(histogramCount("SLC", OAuthTokenMetricsService.TRIGGER_REQUEST)).isEqualTo(1);
+        assertThat(histogramCount("SLC", OAuthTokenMetricsService.TRIGGER_SCHEDULED)).isEqualTo(2);
+        assertThat(histogramCount("RCC", OAuthTokenMetricsService.TRIGGER_REQUEST)).isZero();
+        assertThat(counterValue("trackmycase_oauth_token_fetch_failures", "PCD", OAuthTokenMetricsService.TRIGGER_SCHEDULED))
+            .isEqualTo(1.0);
+        assertThat(counterValue("trackmycase_oauth_token_fetch_failures", "PCD", OAuthTokenMetricsService.TRIGGER_REQUEST))
+            .isZero();
+    }
+
+    @Test
+    @DisplayName("Should count waits, rejections, replays and open circuits by API")
+    void shouldCountEventsByApi() {
+        oauthTokenMetricsService.recordCoalescedWait(AmpApiType.RCC);
+        oauthTokenMetricsService.recordTokenRejected(AmpApiType.RCC);
+        oauthTokenMetricsService.recordTokenRejected(AmpApiType.RCC);
+        oauthTokenMetricsService.recordReplay(AmpApiType.PCD);
+        oauthTokenMetricsService.recordEvictionCircuitOpen(AmpApiType.SLC);
+
+        assertThat(counterValue("trackmycase_oauth_token_coalesced_waits", "RCC", null)).isEqualTo(1.0);
+        assertThat(counterValue("trackmycase_oauth_token_rejections", "RCC", null)).isEqualTo(2.0);
+        assertThat(counterValue("trackmycase_oauth_token_rejections", "PCD", null)).isZero();
+        assertThat(counterValue("trackmycase_oauth_token_replays", "PCD", null)).isEqualTo(1.0);
+        assertThat(counterValue("trackmycase_oauth_token_eviction_circuit_open", "SLC", null)).isEqualTo(1.0);
+    }
+
+    private long histogramCount(String api, String trigger) {
+        return prometheusRegistry.scrape().stream()
+            .filter(snapshot -> "trackmycase_oauth_token_fetch_duration_seconds".equals(snapshot.getMetadata().getName()))
+            .map(HistogramSnapshot.class::cast)
+            .flatMap(snapshot -> snapshot.getDataPoints().stream())
+            .filter(dataPoint -> matches(dataPoint, api, trigger))
+            .mapToLong(HistogramSnapshot.HistogramDataPointSnapshot::getCount)
+            .sum();
+    }
+
+    private double counterValue(String name, String api, String trigger) {
+        return prometheusRegistry.scrape().stream()
+            .filter(snapshot -> name.equals(snapshot.getMetadata().getName()))
+            .map(CounterSnapshot.class::cast)
+            .flatMap(snapshot -> snapshot.getDataPoints().stream())
+            .filter(dataPoint -> matches(dataPoint, api, trigger))
+            .mapToDouble(CounterSnapshot.CounterDataPointSnapshot::getValue)
+            .sum();
+    }
+
+    private static boolean matches(DataPointSnapshot dataPoint, String api, String trigger) {
+        return api.equals(dataPoint.getLabels().get("api"))
+            && (trigger == null || trigger.equals(dataPoint.getLabels().get("trigger")));
+    }
+}
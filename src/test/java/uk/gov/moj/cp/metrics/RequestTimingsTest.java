@@ -0,0 +1,53 @@
+package uk.gov.moj.cp.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService.Stage;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestTimingsTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.unbind();
+    }
+
+    @Test
+    @DisplayName("Should add stage and downstream timings to the bound request")
+    void shouldRecordIntoBoundTimings() {
+        RequestTimings timings = RequestTimings.bind();
+
+        RequestTimings.recordStage(Stage.HEARING_SELECTION, 100);
+        RequestTimings.recordStage(Stage.HEARING_SELECTION, 50);
+        RequestTimings.recordDownstreamCall(1_000);
+        RequestTimings.recordDownstreamCall(2_000);
+
+        assertThat(timings.stageNanos(Stage.HEARING_SELECTION)).isEqualTo(150);
+        assertThat(timings.stageNanos(Stage.COURT_HOUSE_CONVERSION)).isZero();
+        assertThat(timings.downstreamNanos()).isEqualTo(3_000);
+        assertThat(timings.downstreamCalls()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should carry the request's timings onto the executor and clear them afterwards")
+    void shouldPropagateTimingsToExecutor() throws Exception {
+        RequestTimings timings = RequestTimings.bind();
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            CompletableFuture.runAsync(() -> RequestTimings.recordDownstreamCall(500), RequestTimings.propagating(executor))
+                .get();
+            RequestTimings.unbind();
+            CompletableFuture.runAsync(() -> RequestTimings.recordDownstreamCall(500), RequestTimings.propagating(executor))
+                .get();
+        }
+
+        assertThat(timings.downstreamCalls()).isEqualTo(1);
+        assertThat(timings.downstreamNanos()).isEqualTo(500);
+    }
+}
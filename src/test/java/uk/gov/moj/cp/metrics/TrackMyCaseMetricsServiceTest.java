@@ -2,13 +2,19 @@ package uk.gov.moj.cp.metrics;
 
 import io.prometheus.metrics.core.metrics.Counter;
 import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.HistogramSnapshot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.moj.cp.dto.outbound.CaseStatus;
+import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService.Stage;
+import uk.gov.moj.cp.model.HearingType;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 
 @ExtendWith(MockitoExtension.class)
 class TrackMyCaseMetricsServiceTest {
@@ -145,5 +151,89 @@ class TrackMyCaseMetricsServiceTest {
         int expectedIncrements = numberOfThreads * incrementsPerThread;
         assertThat(finalCount).isEqualTo(initialCount + expectedIncrements);
     }
-}
 
+    @Test
+    @DisplayName("Should record stage durations under the stage label")
+    void shouldRecordStageDurations() {
+        trackMyCaseMetricsService.recordStage(Stage.HEARING_SELECTION, 2_000_000);
+        trackMyCaseMetricsService.recordStage(Stage.HEARING_SELECTION, 3_000_000);
+        trackMyCaseMetricsService.recordStage(Stage.COURT_HOUSE_CONVERSION, 1_000_000);
+
+        HistogramSnapshot.HistogramDataPointSnapshot hearingSelection =
+            dataPoint("trackmycase_case_details_stage_duration_seconds", "stage", "hearing_selection");
+        assertThat(hearingSelection.getCount()).isEqualTo(2);
+        assertThat(hearingSelection.getSum()).isEqualTo(0.005, within(1e-9));
+        assertThat(dataPoint("trackmycase_case_details_stage_duration_seconds", "stage", "court_house_conversion")
+                       .getCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should record case details requests by status class")
+    void shouldRecordCaseDetailsRequestsByStatusClass() {
+        trackMyCaseMetricsService.recordCaseDetailsRequest(200, 1_000_000);
+        trackMyCaseMetricsService.recordCaseDetailsRequest(304, 1_000_000);
+        trackMyCaseMetricsService.recordCaseDetailsRequest(429, 1_000_000);
+        trackMyCaseMetricsService.recordCaseDetailsRequest(503, 1_000_000);
+        trackMyCaseMetricsService.recordCaseDetailsRequest(503, 1_000_000);
+
+        String name = "trackmycase_case_details_request_duration_seconds";
+        assertThat(dataPoint(name, "outcome", "2xx").getCount()).isEqualTo(1);
+        assertThat(dataPoint(name, "outcome", "3xx").getCount()).isEqualTo(1);
+        assertThat(dataPoint(name, "outcome", "4xx").getCount()).isEqualTo(1);
+        assertThat(dataPoint(name, "outcome", "5xx").getCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should count case statuses outside the known set as other")
+    void shouldCountCaseStatuses() {
+        trackMyCaseMetricsService.recordCaseStatus(CaseStatus.ACTIVE);
+        trackMyCaseMetricsService.recordCaseStatus(CaseStatus.ACTIVE);
+        trackMyCaseMetricsService.recordCaseStatus(CaseStatus.INACTIVE);
+        trackMyCaseMetricsService.recordCaseStatus("SJP_REFERRAL");
+        trackMyCaseMetricsService.recordCaseStatus(null);
+
+        String name = "trackmycase_case_details_case_status";
+        assertThat(counterValue(name, "case_status", "active")).isEqualTo(2.0);
+        assertThat(counterValue(name, "case_status", "inactive")).isEqualTo(1.0);
+        assertThat(counterValue(name, "case_status", "other")).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should count next hearings by result, hearing type and listing")
+    void shouldCountNextHearings() {
+        trackMyCaseMetricsService.recordNextHearingFound(true);
+        trackMyCaseMetricsService.recordNextHearingFound(true);
+        trackMyCaseMetricsService.recordNextHearingFound(false);
+        trackMyCaseMetricsService.recordNextHearing(HearingType.TRIAL, false);
+        trackMyCaseMetricsService.recordNextHearing(HearingType.SENTENCE, true);
+
+        assertThat(counterValue("trackmycase_case_details_next_hearing", "result", "found")).isEqualTo(2.0);
+        assertThat(counterValue("trackmycase_case_details_next_hearing", "result", "not_found")).isEqualTo(1.0);
+        assertThat(counterValue("trackmycase_case_details_next_hearing_type", "hearing_type", "trial")).isEqualTo(1.0);
+        assertThat(counterValue("trackmycase_case_details_next_hearing_type", "hearing_type", "sentence")).isEqualTo(1.0);
+        assertThat(counterValue("trackmycase_case_details_next_hearing_listing", "listing", "fixed_date")).isEqualTo(1.0);
+        assertThat(counterValue("trackmycase_case_details_next_hearing_listing", "listing", "week_commencing"))
+            .isEqualTo(1.0);
+    }
+
+    private double counterValue(String name, String label, String value) {
+        return prometheusRegistry.scrape().stream()
+            .filter(snapshot -> name.equals(snapshot.getMetadata().getName()))
+            .map(CounterSnapshot.class::cast)
+            .flatMap(snapshot -> snapshot.getDataPoints().stream())
+            .filter(dataPoint -> value.equals(dataPoint.getLabels().get(label)))
+            .findFirst()
+            .orElseThrow()
+            .getValue();
+    }
+
+    private HistogramSnapshot.HistogramDataPointSnapshot dataPoint(String name, String label, String value) {
+        return prometheusRegistry.scrape().stream()
+            .filter(snapshot -> name.equals(snapshot.getMetadata().getName()))
+            .map(HistogramSnapshot.class::cast)
+            .flatMap(snapshot -> snapshot.getDataPoints().stream())
+            .filter(dataPoint -> value.equals(dataPoint.getLabels().get(label)))
+            .findFirst()
+            .orElseThrow();
+    }
+}
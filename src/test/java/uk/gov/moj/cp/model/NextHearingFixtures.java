@@ -0,0 +1,60 @@
+package uk.gov.moj.cp.model;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Hearings on either side of the {@link NextHearingWindow} rules, shared by the tests of the court schedule parser and
+ * the next hearing selection so that both are held to the same answers.
+ */
+public final class NextHearingFixtures {
+
+    public static final LocalDate TODAY = LocalDate.of(2026, 3, 16);
+
+    private static final LocalDate LAST_VALID_DAY = TODAY.plusYears(10);
+
+    private NextHearingFixtures() {
+    }
+
+    public record Fixture(String name, String hearingType, LocalDate weekCommencingStart, LocalDate weekCommencingEnd,
+                          List<LocalDate> sittingDates, boolean candidate) {
+
+        public boolean hasWeekCommencing() {
+            return weekCommencingStart != null || weekCommencingEnd != null;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    public static Stream<Fixture> fixtures() {
+        return Stream.of(
+            sittings("sitting today", "Trial", true, TODAY),
+            sittings("sitting on the last day of the window", "Trial (Floater)", true, LAST_VALID_DAY),
+            sittings("sitting the day after the window", "Trial", false, LAST_VALID_DAY.plusDays(1)),
+            sittings("sitting yesterday", "Trial", false, TODAY.minusDays(1)),
+            sittings("multi-day hearing still sitting today", "Trial", true, TODAY.minusDays(1), TODAY),
+            sittings("no sittings", "Trial", false),
+            sittings("lower case sentence", "sentence", true, TODAY.plusDays(1)),
+            sittings("hearing type not in the enum", "Mention", false, TODAY.plusDays(1)),
+            sittings("hearing type containing trial but not in the enum", "Trial by jury", false, TODAY.plusDays(1)),
+            sittings("no hearing type", null, false, TODAY.plusDays(1)),
+            weekCommencing("week ending today", TODAY.minusDays(6), TODAY, true),
+            weekCommencing("week starting on the last day of the window", LAST_VALID_DAY, LAST_VALID_DAY.plusDays(6), true),
+            weekCommencing("past week", TODAY.minusDays(14), TODAY.minusDays(8), false),
+            weekCommencing("open ended week", TODAY.plusDays(4), null, false),
+            new Fixture("past week with a sitting today", "Trial", TODAY.minusDays(14), TODAY.minusDays(8), List.of(TODAY), false)
+        );
+    }
+
+    private static Fixture sittings(String name, String hearingType, boolean candidate, LocalDate... sittingDates) {
+        return new Fixture(name, hearingType, null, null, List.of(sittingDates), candidate);
+    }
+
+    private static Fixture weekCommencing(String name, LocalDate startDate, LocalDate endDate, boolean candidate) {
+        return new Fixture(name, "Trial", startDate, endDate, List.of(), candidate);
+    }
+}
@@ -0,0 +1,39 @@
+package uk.gov.moj.cp.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.moj.cp.model.NextHearingFixtures.TODAY;
+
+class NextHearingWindowTest {
+
+    private final NextHearingWindow window = NextHearingWindow.startingOn(TODAY);
+
+    @Test
+    @DisplayName("spans today to ten years from now inclusive")
+    void shouldSpanTenYearsFromToday() {
+        assertThat(window.containsSitting(TODAY)).isTrue();
+        assertThat(window.containsSitting(TODAY.plusYears(10))).isTrue();
+        assertThat(window.containsSitting(TODAY.minusDays(1))).isFalse();
+        assertThat(window.containsSitting(TODAY.plusYears(10).plusDays(1))).isFalse();
+        assertThat(window.containsSitting(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("accepts a week commencing with both dates known and either of them in the window")
+    void shouldAcceptWeekCommencingWithADateInWindow() {
+        assertThat(window.containsWeekCommencing(TODAY.minusDays(6), TODAY)).isTrue();
+        assertThat(window.containsWeekCommencing(TODAY.minusDays(14), TODAY.minusDays(8))).isFalse();
+        assertThat(window.containsWeekCommencing(TODAY, null)).isFalse();
+        assertThat(window.containsWeekCommencing(null, TODAY)).isFalse();
+    }
+
+    @Test
+    @DisplayName("accepts only the hearing types of the enum, in any case")
+    void shouldAcceptEnumHearingTypes() {
+        assertThat(NextHearingWindow.candidateHearingType("trial (floater)")).isEqualTo(HearingType.TRIAL_FLOATER);
+        assertThat(NextHearingWindow.candidateHearingType("Trial by jury")).isNull();
+        assertThat(NextHearingWindow.candidateHearingType(null)).isNull();
+    }
+}
@@ -1,8 +1,11 @@
 package uk.gov.moj.cp.repository;
 
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import uk.gov.moj.cp.config.SecretKeyLoader;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+import uk.gov.moj.cp.config.EmailLookupMemo;
 
 import java.security.SecureRandom;
 import java.util.Base64;
@@ -23,4 +26,9 @@ public class TestCryptoConfig {
             generateBase64Key()
         );
     }
+
+    @Bean
+    public EmailLookupMemo emailLookupMemo(SecretKeyLoader secretKeyLoader) {
+        return new EmailLookupMemo(secretKeyLoader, new CacheMetricsService(new PrometheusRegistry()), 100);
+    }
 }
@@ -0,0 +1,144 @@
+package uk.gov.moj.cp.service;
+
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.gov.moj.cp.config.EmailLookupMemo;
+import uk.gov.moj.cp.config.SecretKeyLoader;
+import uk.gov.moj.cp.entity.User;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.gov.moj.cp.repository.TestCryptoConfig.generateBase64Key;
+
+class ActiveUserCacheTest {
+
+    private static final String EMAIL = "user@example.com";
+
+    private final SecretKeyLoader secretKeyLoader = new SecretKeyLoader(generateBase64Key(), generateBase64Key());
+    private final AtomicInteger loads = new AtomicInteger();
+    private final LocalUserInvalidationBus userInvalidationBus = new LocalUserInvalidationBus();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve repeated lookups of a known and an unknown email from the cache")
+    void shouldCacheKnownAndUnknownEmails() {
+        ActiveUserCache cache = newCache(true, 60, 60);
+        User user = new User(EMAIL);
+
+        assertThat(cache.get(EMAIL, email -> load(Optional.of(user)))).containsSame(user);
+        assertThat(cache.get(EMAIL, email -> load(Optional.empty()))).containsSame(user);
+        assertThat(cache.get("unknown@example.com", email -> load(Optional.empty()))).isEmpty();
+        assertThat(cache.get("unknown@example.com", email -> load(Optional.of(user)))).isEmpty();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should expire unknown emails after the negative TTL")
+    void shouldExpireUnknownEmailsAfterNegativeTtl() {
+        ActiveUserCache cache = newCache(true, 60, 0);
+        User user = new User(EMAIL);
+
+        assertThat(cache.get(EMAIL, email -> load(Optional.empty()))).isEmpty();
+        assertThat(cache.get(EMAIL, email -> load(Optional.of(user)))).containsSame(user);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should load again after an entry is invalidated")
+    void shouldLoadAgainAfterInvalidate() {
+        ActiveUserCache cache = newCache(true, 60, 60);
+        cache.get(EMAIL, email -> load(Optional.of(new User(EMAIL))));
+
+        cache.invalidate(EMAIL);
+
+        assertThat(cache.get(EMAIL, email -> load(Optional.empty()))).isEmpty();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should invalidate again when the surrounding transaction completes")
+    void shouldInvalidateAgainAfterTransactionCompletes() {
+        ActiveUserCache cache = newCache(true, 60, 60);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidate(EMAIL);
+        // a lookup racing the write reads the row as it was before the commit
+        cache.get(EMAIL, email -> load(Optional.of(new User(EMAIL))));
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertThat(cache.get(EMAIL, email -> load(Optional.empty()))).isEmpty();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should drop entries invalidated by another instance")
+    void shouldDropEntriesInvalidatedByAnotherInstance() {
+        ActiveUserCache cache = newCache(true, 60, 60);
+        ActiveUserCache otherInstanceCache = newCache(true, 60, 60);
+        cache.get(EMAIL, email -> load(Optional.of(new User(EMAIL))));
+        cache.get("other@example.com", email -> load(Optional.of(new User("other@example.com"))));
+
+        otherInstanceCache.invalidate(EMAIL);
+
+        assertThat(cache.get(EMAIL, email -> load(Optional.empty()))).isEmpty();
+        assertThat(cache.get("other@example.com", email -> load(Optional.empty()))).isPresent();
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("Should not cache a failed lookup")
+    void shouldNotCacheFailedLookup() {
+        ActiveUserCache cache = newCache(true, 60, 60);
+
+        assertThatThrownBy(() -> cache.get(EMAIL, email -> {
+            throw new IllegalStateException("database unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.get(EMAIL, email -> load(Optional.empty()))).isEmpty();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should call the loader on every lookup when disabled")
+    void shouldNotCacheWhenDisabled() {
+        ActiveUserCache cache = newCache(false, 60, 60);
+
+        cache.get(EMAIL, email -> load(Optional.empty()));
+        cache.get(EMAIL, email -> load(Optional.empty()));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private Optional<User> load(Optional<User> user) {
+        loads.incrementAndGet();
+        return user;
+    }
+
+    private ActiveUserCache newCache(boolean enabled, long ttlSeconds, long negativeTtlSeconds) {
+        CacheMetricsService cacheMetricsService = new CacheMetricsService(new PrometheusRegistry());
+        return new ActiveUserCache(
+            new EmailLookupMemo(secretKeyLoader, cacheMetricsService, 100),
+            cacheMetricsService,
+            userInvalidationBus,
+            enabled,
+            100,
+            ttlSeconds,
+            negativeTtlSeconds
+        );
+    }
+}
@@ -0,0 +1,301 @@
+package uk.gov.moj.cp.service;
+
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot.CounterDataPointSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import uk.gov.moj.cp.config.SecretKeyLoader;
+import uk.gov.moj.cp.dto.outbound.CaseDetailsDto;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static uk.gov.moj.cp.repository.TestCryptoConfig.generateBase64Key;
+
+class CaseDetailsCacheTest {
+
+    private static final String CASE_URN = "CASE123";
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private ExecutorService executor;
+    private PrometheusRegistry prometheusRegistry;
+    private LastKnownGoodCaseDetailsStore lastKnownGoodStore;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        prometheusRegistry = new PrometheusRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    @DisplayName("Should serve repeated lookups from the cache")
+    void shouldServeRepeatedLookupsFromCache() {
+        CaseDetailsCache cache = newCache(true, 60, 60);
+
+        CaseDetailsDto first = cache.get(CASE_URN, false, this::load).caseDetails();
+        CaseDetailsDto second = cache.get(CASE_URN, false, this::load).caseDetails();
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should share one in-flight fetch between concurrent misses for the same URN")
+    void shouldCoalesceConcurrentMisses() throws Exception {
+        CaseDetailsCache cache = newCache(true, 60, 60);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<String, CaseDetailsDto> slowLoader = caseUrn -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return load(caseUrn);
+        };
+
+        List<Future<ServedCaseDetails>> results = List.of(
+            executor.submit(() -> cache.get(CASE_URN, false, slowLoader)),
+            executor.submit(() -> cache.get(CASE_URN, false, slowLoader)),
+            executor.submit(() -> cache.get(CASE_URN, false, slowLoader))
+        );
+        await().atMost(5, TimeUnit.SECONDS)
+            .until(() -> counterValue("trackmycase_case_details_cache_coalesced_waits") == 2.0);
+        release.countDown();
+
+        for (Future<ServedCaseDetails> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS).caseDetails().getCaseUrn()).isEqualTo(CASE_URN);
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should not cache failed fetches")
+    void shouldNotCacheFailedFetches() {
+        CaseDetailsCache cache = newCache(true, 60, 60);
+        Function<String, CaseDetailsDto> failingLoader = caseUrn -> {
+            loads.incrementAndGet();
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        };
+
+        assertThatThrownBy(() -> cache.get(CASE_URN, false, failingLoader)).isInstanceOf(HttpServerErrorException.class);
+        assertThatThrownBy(() -> cache.get(CASE_URN, false, failingLoader)).isInstanceOf(HttpServerErrorException.class);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should fetch and replace the cached entry when bypassed")
+    void shouldFetchAndReplaceEntryWhenBypassed() {
+        CaseDetailsCache cache = newCache(true, 60, 60);
+
+        cache.get(CASE_URN, false, this::load);
+        CaseDetailsDto bypassed = cache.get(CASE_URN, true, this::load).caseDetails();
+        CaseDetailsDto cached = cache.get(CASE_URN, false, this::load).caseDetails();
+
+        assertThat(cached).isSameAs(bypassed);
+        assertThat(loads).hasValue(2);
+        assertThat(counterValue("trackmycase_case_details_cache_bypassed")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should serve an entry due for refresh and refresh it in the background")
+    void shouldServeStaleEntryAndRefreshInBackground() {
+        CaseDetailsCache cache = newCache(true, 60, 0);
+
+        CaseDetailsDto first = cache.get(CASE_URN, false, this::load).caseDetails();
+        ServedCaseDetails stale = cache.get(CASE_URN, false, this::load);
+
+        assertThat(stale.caseDetails()).isSameAs(first);
+        assertThat(stale.stale()).isFalse();
+        assertThat(counterValue("trackmycase_case_details_cache_stale_served")).isEqualTo(1.0);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> loads.get() == 2);
+    }
+
+    @Test
+    @DisplayName("Should always fetch when the cache is disabled")
+    void shouldAlwaysFetchWhenDisabled() {
+        CaseDetailsCache cache = newCache(false, 60, 60);
+
+        cache.get(CASE_URN, false, this::load);
+        cache.get(CASE_URN, false, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should serve last known good details after expiry and revalidate them in the background")
+    void shouldServeLastKnownGoodWhileRevalidating() {
+        CaseDetailsCache cache = newCache(true, 0, 0);
+
+        CaseDetailsDto first = cache.get(CASE_URN, false, this::load).caseDetails();
+        ServedCaseDetails revalidating = cache.get(CASE_URN, false, this::load);
+
+        assertThat(revalidating.caseDetails()).isSameAs(first);
+        assertThat(lastKnownGoodValue("revalidate")).isEqualTo(1.0);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> loads.get() == 2);
+    }
+
+    @Test
+    @DisplayName("Should serve last known good details as stale when the downstream APIs are unavailable")
+    void shouldServeLastKnownGoodOnDownstreamFailure() {
+        CaseDetailsCache cache = newCache(true, 0, 0, 0);
+        CaseDetailsDto first = cache.get(CASE_URN, false, this::load).caseDetails();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> lastKnownGoodStore.get(CASE_URN).age().toMillis() > 0);
+
+        ServedCaseDetails served = cache.get(CASE_URN, false, caseUrn -> {
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        });
+
+        assertThat(served.caseDetails()).isSameAs(first);
+        assertThat(served.stale()).isTrue();
+        assertThat(served.age()).isPositive();
+        assertThat(lastKnownGoodValue("error")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should call the upstream once when several requests are served last known good details during an outage")
+    void shouldNotRetryFailingUpstreamPerRequest() {
+        CaseDetailsCache cache = newCache(true, 60, 1, 0);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        Function<String, CaseDetailsDto> failingLoader = caseUrn -> {
+            upstreamCalls.incrementAndGet();
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        };
+        CaseDetailsDto lastKnownGood = load(CASE_URN);
+        lastKnownGoodStore.put(CASE_URN, lastKnownGood);
+        // older than refresh-after, as restored details always are
+        await().atMost(5, TimeUnit.SECONDS).until(() -> lastKnownGoodStore.get(CASE_URN).age().toMillis() > 1_100);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(cache.get(CASE_URN, false, failingLoader).caseDetails()).isSameAs(lastKnownGood);
+        }
+
+        await().during(200, TimeUnit.MILLISECONDS).atMost(1, TimeUnit.SECONDS).until(() -> upstreamCalls.get() == 1);
+        assertThat(lastKnownGoodValue("error")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should start one background refresh when several requests are served last known good details while revalidating")
+    void shouldRevalidateOnceForConcurrentRequests() {
+        CaseDetailsCache cache = newCache(true, 60, 1);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        Function<String, CaseDetailsDto> failingLoader = caseUrn -> {
+            upstreamCalls.incrementAndGet();
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        };
+        lastKnownGoodStore.put(CASE_URN, load(CASE_URN));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> lastKnownGoodStore.get(CASE_URN).age().toMillis() > 1_100);
+
+        for (int i = 0; i < 5; i++) {
+            cache.get(CASE_URN, false, failingLoader);
+        }
+
+        await().during(200, TimeUnit.MILLISECONDS).atMost(1, TimeUnit.SECONDS).until(() -> upstreamCalls.get() == 1);
+        assertThat(lastKnownGoodValue("revalidate")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should not mask a not found response with last known good details")
+    void shouldNotServeLastKnownGoodOnNotFound() {
+        CaseDetailsCache cache = newCache(true, 0, 0, 0);
+        cache.get(CASE_URN, false, this::load);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> lastKnownGoodStore.get(CASE_URN).age().toMillis() > 0);
+
+        assertThatThrownBy(() -> cache.get(CASE_URN, false, caseUrn -> {
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        })).isInstanceOf(HttpClientErrorException.class);
+        assertThat(lastKnownGoodValue("error")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should serve last known good details when the cache is disabled and the fetch fails")
+    void shouldServeLastKnownGoodOnDownstreamFailureWhenDisabled() {
+        CaseDetailsCache cache = newCache(false, 60, 60);
+        CaseDetailsDto first = cache.get(CASE_URN, false, this::load).caseDetails();
+
+        ServedCaseDetails served = cache.get(CASE_URN, false, caseUrn -> {
+            throw new ResourceAccessException("connection refused");
+        });
+
+        assertThat(served.caseDetails()).isSameAs(first);
+        assertThat(lastKnownGoodValue("error")).isEqualTo(1.0);
+    }
+
+    private CaseDetailsCache newCache(boolean enabled, long ttlSeconds, long refreshAfterSeconds) {
+        return newCache(enabled, ttlSeconds, refreshAfterSeconds, 300);
+    }
+
+    private CaseDetailsCache newCache(boolean enabled, long ttlSeconds, long refreshAfterSeconds,
+                                      long staleWhileRevalidateSeconds) {
+        CacheMetricsService cacheMetricsService = new CacheMetricsService(prometheusRegistry);
+        lastKnownGoodStore = new LastKnownGoodCaseDetailsStore(
+            cacheMetricsService,
+            executor,
+            new SecretKeyLoader(generateBase64Key(), generateBase64Key()),
+            true,
+            100,
+            staleWhileRevalidateSeconds,
+            86400,
+            false,
+            "",
+            100,
+            1000
+        );
+        return new CaseDetailsCache(
+            cacheMetricsService,
+            prometheusRegistry,
+            executor,
+            lastKnownGoodStore,
+            enabled,
+            100,
+            ttlSeconds,
+            refreshAfterSeconds
+        );
+    }
+
+    private CaseDetailsDto load(String caseUrn) {
+        loads.incrementAndGet();
+        return CaseDetailsDto.builder().caseUrn(caseUrn).courtSchedules(List.of()).build();
+    }
+
+    private double lastKnownGoodValue(String reason) {
+        return prometheusRegistry.scrape().stream()
+            .filter(snapshot -> "trackmycase_case_details_last_known_good_served".equals(snapshot.getMetadata().getName()))
+            .map(CounterSnapshot.class::cast)
+            .flatMap(snapshot -> snapshot.getDataPoints().stream())
+            .filter(dataPoint -> reason.equals(dataPoint.getLabels().get("reason")))
+            .mapToDouble(CounterDataPointSnapshot::getValue)
+            .sum();
+    }
+
+    private double counterValue(String name) {
+        return prometheusRegistry.scrape().stream()
+            .filter(snapshot -> name.equals(snapshot.getMetadata().getName()))
+            .map(CounterSnapshot.class::cast)
+            .flatMap(snapshot -> snapshot.getDataPoints().stream())
+            .mapToDouble(CounterDataPointSnapshot::getValue)
+            .sum();
+    }
+}
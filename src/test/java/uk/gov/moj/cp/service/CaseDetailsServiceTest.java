@@ -4,14 +4,19 @@ import org.apache.logging.log4j.util.Strings;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import uk.gov.moj.cp.dto.outbound.CaseDetailsCourtScheduleDto;
 import uk.gov.moj.cp.dto.outbound.CaseDetailsDto;
 import uk.gov.moj.cp.dto.outbound.CaseDetailsHearingDto;
+import uk.gov.moj.cp.dto.outbound.CaseDetailsWeekCommencingDto;
 import uk.gov.moj.cp.dto.outbound.CaseStatus;
 import uk.gov.moj.cp.dto.outbound.ProsecutionCaseDTO;
 import uk.gov.moj.cp.dto.outbound.CourtHouseDto;
@@ -29,16 +34,26 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 
+import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 import static java.util.UUID.randomUUID;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -60,6 +75,9 @@ class CaseDetailsServiceTest {
     @Mock
     private TrackMyCaseMetricsService trackMyCaseMetricsService;
 
+    @Mock
+    private CaseDetailsCache caseDetailsCache;
+
     @InjectMocks
     private CaseDetailsService caseDetailsService;
     private final String accessToken = "testToken";
@@ -94,12 +112,12 @@ class CaseDetailsServiceTest {
         courtRoomId = randomUUID().toString();
         judgeId = randomUUID().toString();
         hearingId = randomUUID().toString();
-        pastSittingStartDate = LocalDateTime.now().minusDays(1).toString();
-        pastSittingEndDate = LocalDateTime.now().minusDays(1).plusHours(2).toString();
-        currentSittingStartDate = LocalDateTime.now().toString();
-        currentSittingEndDate = LocalDateTime.now().toString();
-        futureSittingStartDate = LocalDateTime.now().plusDays(1).toString();
-        futureSittingEndDate = LocalDateTime.now().plusDays(1).plusHours(2).toString();
+        pastSittingStartDate = LocalDateTime.now().minusDays(1).format(ISO_LOCAL_DATE_TIME);
+        pastSittingEndDate = LocalDateTime.now().minusDays(1).plusHours(2).format(ISO_LOCAL_DATE_TIME);
+        currentSittingStartDate = LocalDateTime.now().format(ISO_LOCAL_DATE_TIME);
+        currentSittingEndDate = LocalDateTime.now().format(ISO_LOCAL_DATE_TIME);
+        futureSittingStartDate = LocalDateTime.now().plusDays(1).format(ISO_LOCAL_DATE_TIME);
+        futureSittingEndDate = LocalDateTime.now().plusDays(1).plusHours(2).format(ISO_LOCAL_DATE_TIME);
 
         datePlus7 = LocalDate.now().plusDays(7).toString();
         datePlus13 = LocalDate.now().plusDays(13).toString();
@@ -127,9 +145,11 @@ class CaseDetailsServiceTest {
             caseUrn
         )).thenReturn(ProsecutionCaseDTO.builder().caseStatus(
             CaseStatus.ACTIVE).build());
-        when(oauthTokenService.getJwtToken(eq(AmpApiType.SLC))).thenReturn(accessToken);
-        when(oauthTokenService.getJwtToken(eq(AmpApiType.RCC))).thenReturn(accessToken);
-        when(oauthTokenService.getJwtToken(eq(AmpApiType.PCD))).thenReturn(accessToken);
+        lenient().when(oauthTokenService.executeWithToken(any(AmpApiType.class), any()))
+            .thenAnswer(invocation -> invocation.<Function<String, Object>>getArgument(1).apply(accessToken));
+        lenient().when(caseDetailsCache.get(anyString(), anyBoolean(), any()))
+            .thenAnswer(invocation -> ServedCaseDetails.fresh(
+                invocation.<Function<String, CaseDetailsDto>>getArgument(2).apply(invocation.getArgument(0))));
     }
 
     @Test
@@ -178,6 +198,9 @@ class CaseDetailsServiceTest {
         assertEquals("CourtRoom 01", schedule.getCourtHouse().getCourtRooms().getFirst().getCourtRoomName());
 
         verify(trackMyCaseMetricsService).incrementCaseDetailsCount(caseUrn);
+        verify(trackMyCaseMetricsService).recordCaseStatus(CaseStatus.ACTIVE);
+        verify(trackMyCaseMetricsService).recordNextHearingFound(true);
+        verify(trackMyCaseMetricsService).recordNextHearing(HearingType.TRIAL, false);
     }
 
 
@@ -204,6 +227,8 @@ class CaseDetailsServiceTest {
         assertEquals(0, caseDetails.getCourtSchedules().getFirst().getHearings().size());
 
         verify(trackMyCaseMetricsService).incrementCaseDetailsCount(caseUrn);
+        verify(trackMyCaseMetricsService).recordNextHearingFound(false);
+        verify(trackMyCaseMetricsService, never()).recordNextHearing(any(), anyBoolean());
     }
 
 
@@ -347,8 +372,8 @@ class CaseDetailsServiceTest {
     @Test
     @DisplayName("includes hearings when sitting date is today, but before now")
     void testGetCaseDetailsByCaseUrnWithValidHearingScheduleDetailsForCurrentDateButBeforeCurrentTime() {
-        final String todayStartDate = LocalDateTime.now().minusHours(2).toString();
-        final String todayEndDate = LocalDateTime.now().minusHours(1).toString();
+        final String todayStartDate = LocalDateTime.now().minusHours(2).format(ISO_LOCAL_DATE_TIME);
+        final String todayEndDate = LocalDateTime.now().minusHours(1).format(ISO_LOCAL_DATE_TIME);
 
         final List<CourtSittingDto> courtSittings = List.of(createCourtSitting(todayStartDate, todayEndDate));
         final HearingDto hearingDto = createHearing(HearingType.SENTENCE.getValue(), courtSittings);
@@ -695,8 +720,8 @@ class CaseDetailsServiceTest {
         final HearingDto hearingDto = createHearing(HearingType.TRIAL.getValue(), courtSittings1);
 
         final CourtSittingDto futureSittingDto2 = createCourtSitting(
-            LocalDateTime.now().toString(),
-            LocalDateTime.now().plusHours(2).toString()
+            LocalDateTime.now().format(ISO_LOCAL_DATE_TIME),
+            LocalDateTime.now().plusHours(2).format(ISO_LOCAL_DATE_TIME)
         );
         final List<CourtSittingDto> courtSittings2 = List.of(futureSittingDto2);
         final HearingDto hearingDto1 = createHearing(HearingType.SENTENCE.getValue(), courtSittings2);
@@ -826,8 +851,8 @@ class CaseDetailsServiceTest {
 
     @Test
     void testGetCaseDetailsByCaseUrnWhenCourtSittingAndWeeCommencingDateAreSame() {
-        futureSittingStartDate = LocalDateTime.now().plusDays(7).toString();
-        futureSittingEndDate = LocalDateTime.now().plusDays(7).plusHours(2).toString();
+        futureSittingStartDate = LocalDateTime.now().plusDays(7).format(ISO_LOCAL_DATE_TIME);
+        futureSittingEndDate = LocalDateTime.now().plusDays(7).plusHours(2).format(ISO_LOCAL_DATE_TIME);
 
         final CourtSittingDto currentSittingDto = createCourtSitting(futureSittingStartDate, futureSittingEndDate);
         final List<CourtSittingDto> courtSittings = List.of(currentSittingDto);
@@ -995,8 +1020,8 @@ class CaseDetailsServiceTest {
         );
 
         // Hearing with courtSitting: sittingStart = today + 3 days
-        String sittingStartDate = LocalDateTime.now().plusDays(3).toString();
-        String sittingEndDate = LocalDateTime.now().plusDays(3).plusHours(2).toString();
+        String sittingStartDate = LocalDateTime.now().plusDays(3).format(ISO_LOCAL_DATE_TIME);
+        String sittingEndDate = LocalDateTime.now().plusDays(3).plusHours(2).format(ISO_LOCAL_DATE_TIME);
         final CourtSittingDto courtSittingDto = createCourtSitting(sittingStartDate, sittingEndDate);
         final List<CourtSittingDto> courtSittings = List.of(courtSittingDto);
         final HearingDto hearingWithCourtSitting = createHearing(
@@ -1046,8 +1071,8 @@ class CaseDetailsServiceTest {
             3
         );
 
-        String sittingStartDate = LocalDateTime.now().plusDays(1).toString();
-        String sittingEndDate = LocalDateTime.now().plusDays(1).plusHours(2).toString();
+        String sittingStartDate = LocalDateTime.now().plusDays(1).format(ISO_LOCAL_DATE_TIME);
+        String sittingEndDate = LocalDateTime.now().plusDays(1).plusHours(2).format(ISO_LOCAL_DATE_TIME);
         final CourtSittingDto courtSittingDto = createCourtSitting(sittingStartDate, sittingEndDate);
         final List<CourtSittingDto> courtSittings = List.of(courtSittingDto);
         final HearingDto hearingWithCourtSitting = createHearing(
@@ -1212,13 +1237,13 @@ class CaseDetailsServiceTest {
         final LocalDateTime in10Years = now.plusYears(10).plusDays(1).atStartOfDay();
         final LocalDateTime in1Years = now.plusYears(1).plusDays(1).atStartOfDay();
 
-        String sittingStart10Years = in10Years.toString();
-        String sittingEnd10Years = in10Years.plusHours(2).toString();
+        String sittingStart10Years = in10Years.format(ISO_LOCAL_DATE_TIME);
+        String sittingEnd10Years = in10Years.plusHours(2).format(ISO_LOCAL_DATE_TIME);
         String weekCommencingStart10Years = now.plusYears(10).plusDays(1).toString();
         String weekCommencingEnd10Years = now.plusYears(10).plusDays(7).toString();
 
-        String sittingStart1Years = in1Years.toString();
-        String sittingEnd1Years = in1Years.plusHours(2).toString();
+        String sittingStart1Years = in1Years.format(ISO_LOCAL_DATE_TIME);
+        String sittingEnd1Years = in1Years.plusHours(2).format(ISO_LOCAL_DATE_TIME);
         String weekCommencingStart5Years = now.plusYears(5).plusDays(1).toString();
         String weekCommencingEnd5Years = now.plusYears(5).plusDays(7).toString();
 
@@ -1288,8 +1313,8 @@ class CaseDetailsServiceTest {
         final LocalDate now = LocalDate.now();
         final LocalDateTime in10Years = now.plusYears(10).plusDays(1).atStartOfDay();
 
-        String sittingStart10Years = in10Years.toString();
-        String sittingEnd10Years = in10Years.plusHours(2).toString();
+        String sittingStart10Years = in10Years.format(ISO_LOCAL_DATE_TIME);
+        String sittingEnd10Years = in10Years.plusHours(2).format(ISO_LOCAL_DATE_TIME);
         String weekCommencingStart10Years = now.plusYears(10).plusDays(1).toString();
         String weekCommencingEnd10Years = now.plusYears(10).plusDays(7).toString();
 
@@ -1323,37 +1348,65 @@ class CaseDetailsServiceTest {
     }
 
     @Test
-    @DisplayName("should evict token caches and succeed on retry after 401 Unauthorized")
-    void shouldRetryAndSucceedOnUnauthorizedException() {
-        CourtScheduleDto scheduleDto = CourtScheduleDto.builder().hearings(List.of()).build();
-
-        when(courtScheduleService.getCourtScheduleByCaseUrn(eq(accessToken), eq(caseUrn)))
-            .thenThrow(new HttpClientErrorException(HttpStatus.UNAUTHORIZED))
-            .thenReturn(List.of(scheduleDto));
+    @DisplayName("should call each downstream API with its own token")
+    void shouldCallEachDownstreamApiWithItsOwnToken() {
+        final List<CourtSittingDto> futureCourtSittings = List.of(createCourtSitting(
+            futureSittingStartDate,
+            futureSittingEndDate
+        ));
+        final CourtScheduleDto scheduleDto = CourtScheduleDto.builder()
+            .hearings(List.of(createHearing(HearingType.TRIAL.getValue(), futureCourtSittings)))
+            .build();
+        when(courtScheduleService.getCourtScheduleByCaseUrn(eq(accessToken), eq(caseUrn))).thenReturn(List.of(scheduleDto));
+        when(courtHouseService.getCourtHouseById(eq(accessToken), eq(courtHouseId), eq(courtRoomId))).thenReturn(
+            createCourtHouse(courtRoomDto, addressDto));
 
-        CaseDetailsDto result = caseDetailsService.getCaseDetailsByCaseUrn(caseUrn);
+        caseDetailsService.getCaseDetailsByCaseUrn(caseUrn);
 
-        assertNotNull(result);
-        assertEquals(caseUrn, result.getCaseUrn());
-        verify(oauthTokenService).evictAllTokenCaches();
-        verify(courtScheduleService, times(2)).getCourtScheduleByCaseUrn(eq(accessToken), eq(caseUrn));
+        verify(oauthTokenService).executeWithToken(eq(AmpApiType.SLC), any());
+        verify(oauthTokenService).executeWithToken(eq(AmpApiType.PCD), any());
+        verify(oauthTokenService).executeWithToken(eq(AmpApiType.RCC), any());
     }
 
     @Test
-    @DisplayName("should evict token caches and succeed on retry after 403 Forbidden")
-    void shouldRetryAndSucceedOnForbiddenException() {
-        CourtScheduleDto scheduleDto = CourtScheduleDto.builder().hearings(List.of()).build();
+    @DisplayName("should count the case viewed, its status and its next hearings when served from the cache")
+    void shouldCountCaseStatusWhenServedFromCache() {
+        final CaseDetailsHearingDto nextHearing = CaseDetailsHearingDto.builder()
+            .hearingId(hearingId)
+            .hearingType(HearingType.SENTENCE.getValue())
+            .weekCommencing(CaseDetailsWeekCommencingDto.builder().startDate(datePlus7).endDate(datePlus13).build())
+            .build();
+        when(caseDetailsCache.get(eq(caseUrn), eq(false), any())).thenReturn(ServedCaseDetails.fresh(
+            CaseDetailsDto.builder()
+                .caseUrn(caseUrn)
+                .caseStatus(CaseStatus.INACTIVE)
+                .courtSchedules(List.of(
+                    CaseDetailsCourtScheduleDto.builder().hearings(List.of(nextHearing)).build(),
+                    CaseDetailsCourtScheduleDto.builder().hearings(List.of()).build()
+                ))
+                .build()));
+
+        caseDetailsService.getCaseDetailsByCaseUrn(caseUrn);
 
+        verify(trackMyCaseMetricsService).incrementCaseDetailsCount(caseUrn);
+        verify(trackMyCaseMetricsService).recordCaseStatus(CaseStatus.INACTIVE);
+        verify(trackMyCaseMetricsService).recordNextHearingFound(true);
+        verify(trackMyCaseMetricsService).recordNextHearingFound(false);
+        verify(trackMyCaseMetricsService).recordNextHearing(HearingType.SENTENCE, true);
+        verify(courtScheduleService, never()).getCourtScheduleByCaseUrn(any(), any());
+    }
+
+    @Test
+    @DisplayName("should propagate a token rejection that could not be recovered by the token service")
+    void shouldPropagateUnrecoveredTokenRejection() {
         when(courtScheduleService.getCourtScheduleByCaseUrn(eq(accessToken), eq(caseUrn)))
-            .thenThrow(new HttpClientErrorException(HttpStatus.FORBIDDEN))
-            .thenReturn(List.of(scheduleDto));
+            .thenThrow(new HttpClientErrorException(HttpStatus.UNAUTHORIZED));
 
-        CaseDetailsDto result = caseDetailsService.getCaseDetailsByCaseUrn(caseUrn);
+        assertThatThrownBy(() -> caseDetailsService.getCaseDetailsByCaseUrn(caseUrn))
+            .isInstanceOf(HttpClientErrorException.Unauthorized.class);
 
-        assertNotNull(result);
-        assertEquals(caseUrn, result.getCaseUrn());
-        verify(oauthTokenService).evictAllTokenCaches();
-        verify(courtScheduleService, times(2)).getCourtScheduleByCaseUrn(eq(accessToken), eq(caseUrn));
+        verify(courtScheduleService, times(1)).getCourtScheduleByCaseUrn(eq(accessToken), eq(caseUrn));
+        verify(trackMyCaseMetricsService, never()).incrementCaseDetailsCount(caseUrn);
     }
 
     @Test
@@ -1365,27 +1418,94 @@ class CaseDetailsServiceTest {
         assertThatThrownBy(() -> caseDetailsService.getCaseDetailsByCaseUrn(caseUrn))
             .isInstanceOf(HttpClientErrorException.class);
 
-        verify(oauthTokenService, never()).evictAllTokenCaches();
         verify(courtScheduleService, times(1)).getCourtScheduleByCaseUrn(eq(accessToken), eq(caseUrn));
     }
 
     @Test
-    @DisplayName("should propagate exception if retry also fails with 401")
-    void shouldPropagateExceptionIfRetryAlsoFails() {
+    @DisplayName("concurrent fetch assembles the same case details as the sequential fetch")
+    void shouldAssembleCaseDetailsWhenFetchingConcurrently() {
+        enableConcurrentFetch();
+        final List<CourtSittingDto> futureCourtSittings = List.of(createCourtSitting(
+            futureSittingStartDate,
+            futureSittingEndDate
+        ));
+        final CourtScheduleDto scheduleDto = CourtScheduleDto.builder()
+            .hearings(List.of(createHearing(HearingType.TRIAL.getValue(), futureCourtSittings)))
+            .build();
+        final CourtScheduleDto emptyScheduleDto = CourtScheduleDto.builder().hearings(List.of()).build();
+
+        when(courtHouseService.getCourtHouseById(eq(accessToken), eq(courtHouseId), eq(courtRoomId))).thenReturn(
+            createCourtHouse(courtRoomDto, addressDto));
+        when(courtScheduleService.getCourtScheduleByCaseUrn(eq(accessToken), eq(caseUrn))).thenReturn(List.of(
+            scheduleDto, emptyScheduleDto));
+
+        final CaseDetailsDto caseDetails = caseDetailsService.getCaseDetailsByCaseUrn(caseUrn);
+
+        assertEquals(caseUrn, caseDetails.getCaseUrn());
+        assertEquals(CaseStatus.ACTIVE, caseDetails.getCaseStatus());
+        assertEquals(2, caseDetails.getCourtSchedules().size());
+        assertEquals(1, caseDetails.getCourtSchedules().getFirst().getHearings().size());
+        assertEquals(0, caseDetails.getCourtSchedules().get(1).getHearings().size());
+
+        var schedule = caseDetails.getCourtSchedules().getFirst().getHearings().getFirst().getCourtSittings().getFirst();
+        assertEquals(courtHouseId, schedule.getCourtHouse().getCourtHouseId());
+        assertEquals("Lavender Hill", schedule.getCourtHouse().getCourtHouseName());
+
+        verify(trackMyCaseMetricsService).incrementCaseDetailsCount(caseUrn);
+    }
+
+    @Test
+    @DisplayName("concurrent fetch propagates downstream HTTP errors unwrapped")
+    void shouldPropagateHttpStatusCodeExceptionWhenFetchingConcurrently() {
+        enableConcurrentFetch();
         when(courtScheduleService.getCourtScheduleByCaseUrn(eq(accessToken), eq(caseUrn)))
-            .thenThrow(new HttpClientErrorException(HttpStatus.UNAUTHORIZED));
+            .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
 
         assertThatThrownBy(() -> caseDetailsService.getCaseDetailsByCaseUrn(caseUrn))
-            .isInstanceOf(HttpClientErrorException.class);
+            .isInstanceOf(HttpClientErrorException.NotFound.class);
+
+        verify(oauthTokenService, timeout(1000)).executeWithToken(eq(AmpApiType.PCD), any());
+        verify(trackMyCaseMetricsService, never()).incrementCaseDetailsCount(caseUrn);
+    }
+
+    @Test
+    @Timeout(5)
+    @DisplayName("concurrent fetch fails as soon as the PCD leg fails, without waiting for the SLC leg or starting RCC")
+    void shouldFailFastWhenProsecutionCaseFailsFirst() {
+        enableConcurrentFetch();
+        final CourtScheduleDto scheduleDto = CourtScheduleDto.builder()
+            .hearings(List.of(createHearing(HearingType.TRIAL.getValue(), List.of(createCourtSitting(
+                futureSittingStartDate,
+                futureSittingEndDate
+            )))))
+            .build();
+        final CountDownLatch releaseCourtSchedule = new CountDownLatch(1);
+        when(courtScheduleService.getCourtScheduleByCaseUrn(eq(accessToken), eq(caseUrn))).thenAnswer(invocation -> {
+            releaseCourtSchedule.await();
+            return List.of(scheduleDto);
+        });
+        doThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY)).when(prosectionCaseService).getCaseStatus(accessToken, caseUrn);
+
+        try {
+            assertThatThrownBy(() -> caseDetailsService.getCaseDetailsByCaseUrn(caseUrn))
+                .isInstanceOf(HttpServerErrorException.class);
+        } finally {
+            releaseCourtSchedule.countDown();
+        }
+
+        verify(courtScheduleService, timeout(1000)).getCourtScheduleByCaseUrn(eq(accessToken), eq(caseUrn));
+        verify(courtHouseService, after(200).never()).getCourtHouseById(any(), any(), any());
+    }
 
-        verify(oauthTokenService, times(1)).evictAllTokenCaches();
-        verify(courtScheduleService, times(2)).getCourtScheduleByCaseUrn(eq(accessToken), eq(caseUrn));
+    private void enableConcurrentFetch() {
+        ReflectionTestUtils.setField(caseDetailsService, "concurrentFetchEnabled", true);
+        ReflectionTestUtils.setField(caseDetailsService, "downstreamExecutor", Executors.newVirtualThreadPerTaskExecutor());
     }
 
     private CourtSittingDto createCourtSitting(final String sittingStartDate, final String sittingEndDate) {
         return CourtSittingDto.builder()
-            .sittingStart(sittingStartDate)
-            .sittingEnd(sittingEndDate)
+            .sittingStart(LocalDateTime.parse(sittingStartDate))
+            .sittingEnd(LocalDateTime.parse(sittingEndDate))
             .judiciaryId(judgeId)
             .courtHouse(courtHouseId)
             .courtRoom(courtRoomId)
@@ -1424,8 +1544,8 @@ class CaseDetailsServiceTest {
 
         final WeekCommencingDto weekCommencingDto = WeekCommencingDto.builder()
             .courtHouse(courtHouseId)
-            .startDate(startDate)
-            .endDate(endDate)
+            .startDate(Strings.isEmpty(startDate) ? null : LocalDate.parse(startDate))
+            .endDate(Strings.isEmpty(endDate) ? null : LocalDate.parse(endDate))
             .durationInWeeks(durationInWeeks)
             .build();
 
@@ -4,22 +4,33 @@ import com.moj.generated.hmcts.Address;
 import com.moj.generated.hmcts.CourtHouse;
 import com.moj.generated.hmcts.CourtHouse.CourtHouseType;
 import com.moj.generated.hmcts.CourtRoom;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
 import uk.gov.moj.cp.client.api.CourtHouseAPIClient;
 import uk.gov.moj.cp.dto.outbound.CourtHouseDto;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService;
 
 import java.util.List;
+import java.util.concurrent.Executors;
 
 import static java.util.UUID.randomUUID;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,10 +39,27 @@ class CourtHouseServiceTest {
     @Mock
     private CourtHouseAPIClient courtHouseAPIClient;
 
-    @InjectMocks
+    @Mock
+    private OAuthTokenService oauthTokenService;
+
     private CourtHouseService courtHouseService;
     private final String accessToken = "testToken";
 
+    @BeforeEach
+    void setUp() {
+        courtHouseService = new CourtHouseService(
+            courtHouseAPIClient,
+            oauthTokenService,
+            new CacheMetricsService(new PrometheusRegistry()),
+            new TrackMyCaseMetricsService(new PrometheusRegistry()),
+            Executors.newVirtualThreadPerTaskExecutor(),
+            100,
+            60,
+            30,
+            5
+        );
+    }
+
     @Test
     void testGetCourtHouseByCourtHouseById_successfulCourtHouseDetails() {
         final String courtHouseId = randomUUID().toString();
@@ -92,6 +120,69 @@ class CourtHouseServiceTest {
         assertNull(result);
     }
 
-}
+    @Test
+    void testGetCourtHouseByCourtHouseById_servedFromCacheOnRepeatedLookup() {
+        final CourtHouse courtHouse = new CourtHouse(
+            CourtHouseType.CROWN,
+            "CHC123",
+            "Lavender Hill",
+            new Address("1 High Street", null, null, null, "AA1 2BB", "UK"),
+            List.of(new CourtRoom(10, "CourtRoom 10"))
+        );
+        when(courtHouseAPIClient.getCourtHouseById(accessToken, "courtId", "courtRoomId"))
+            .thenReturn(ResponseEntity.ok(courtHouse));
 
+        CourtHouseDto first = courtHouseService.getCourtHouseById(accessToken, "courtId", "courtRoomId");
+        CourtHouseDto second = courtHouseService.getCourtHouseById(accessToken, "courtId", "courtRoomId");
+
+        assertEquals("Lavender Hill", first.getCourtHouseName());
+        assertEquals(first, second);
+        verify(courtHouseAPIClient, times(1)).getCourtHouseById(accessToken, "courtId", "courtRoomId");
+        verifyNoInteractions(oauthTokenService);
+    }
 
+    @Test
+    void testGetCourtHouseByCourtHouseById_cachesCourtHousesPerCourtRoom() {
+        final CourtHouse courtHouse = new CourtHouse(
+            CourtHouseType.CROWN,
+            "CHC123",
+            "Lavender Hill",
+            new Address("1 High Street", null, null, null, "AA1 2BB", "UK"),
+            null
+        );
+        when(courtHouseAPIClient.getCourtHouseById(eq(accessToken), eq("courtId"), eq("courtRoom1")))
+            .thenReturn(ResponseEntity.ok(courtHouse));
+        when(courtHouseAPIClient.getCourtHouseById(eq(accessToken), eq("courtId"), eq("courtRoom2")))
+            .thenReturn(ResponseEntity.ok(courtHouse));
+
+        assertEquals("courtRoom1", courtHouseService.getCourtHouseById(accessToken, "courtId", "courtRoom1").getCourtRoomId());
+        assertEquals("courtRoom2", courtHouseService.getCourtHouseById(accessToken, "courtId", "courtRoom2").getCourtRoomId());
+    }
+
+    @Test
+    void testGetCourtHouseByCourtHouseById_cachesNotFound() {
+        when(courtHouseAPIClient.getCourtHouseById(eq(accessToken), eq("unknownCourtId"), eq("courtRoomId")))
+            .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", HttpHeaders.EMPTY, new byte[0], null));
+
+        assertThatThrownBy(() -> courtHouseService.getCourtHouseById(accessToken, "unknownCourtId", "courtRoomId"))
+            .isInstanceOf(HttpClientErrorException.NotFound.class);
+        assertThatThrownBy(() -> courtHouseService.getCourtHouseById(accessToken, "unknownCourtId", "courtRoomId"))
+            .isInstanceOf(HttpClientErrorException.NotFound.class);
+
+        verify(courtHouseAPIClient, times(1)).getCourtHouseById(accessToken, "unknownCourtId", "courtRoomId");
+    }
+
+    @Test
+    void testGetCourtHouseByCourtHouseById_doesNotCacheOtherErrors() {
+        when(courtHouseAPIClient.getCourtHouseById(eq(accessToken), eq("courtId"), eq("courtRoomId")))
+            .thenThrow(HttpClientErrorException.create(HttpStatus.UNAUTHORIZED, "Unauthorized", HttpHeaders.EMPTY, new byte[0], null));
+
+        assertThatThrownBy(() -> courtHouseService.getCourtHouseById(accessToken, "courtId", "courtRoomId"))
+            .isInstanceOf(HttpClientErrorException.Unauthorized.class);
+        assertThatThrownBy(() -> courtHouseService.getCourtHouseById(accessToken, "courtId", "courtRoomId"))
+            .isInstanceOf(HttpClientErrorException.Unauthorized.class);
+
+        verify(courtHouseAPIClient, times(2)).getCourtHouseById(accessToken, "courtId", "courtRoomId");
+    }
+
+}
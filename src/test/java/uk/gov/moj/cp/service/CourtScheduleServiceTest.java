@@ -15,6 +15,7 @@ import uk.gov.moj.cp.client.api.CourtScheduleAPIClient;
 import uk.gov.moj.cp.dto.inbound.CourtScheduleDto;
 import uk.gov.moj.cp.dto.inbound.CourtSittingDto;
 import uk.gov.moj.cp.dto.inbound.HearingDto;
+import uk.gov.moj.cp.metrics.TrackMyCaseMetricsService;
 
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
@@ -31,6 +32,9 @@ class CourtScheduleServiceTest {
     @Mock
     private CourtScheduleAPIClient courtScheduleAPIClient;
 
+    @Mock
+    private TrackMyCaseMetricsService trackMyCaseMetricsService;
+
     @InjectMocks
     private CourtScheduleService courtScheduleService;
     private final String accessToken = "testToken";
@@ -112,8 +116,10 @@ class CourtScheduleServiceTest {
         assertEquals(1, hearingDto1.getCourtSittings().size());
 
         CourtSittingDto sittingDto1 = hearingDto1.getCourtSittings().get(0);
-        assertNotNull(sittingDto1.getSittingStart());
-        assertNotNull(sittingDto1.getSittingEnd());
+        assertEquals(sittingStart.toLocalDateTime(), sittingDto1.getSittingStart());
+        assertEquals(sittingEnd.toLocalDateTime(), sittingDto1.getSittingEnd());
+        assertEquals(LocalDate.now(), hearingDto1.getWeekCommencing().getStartDate());
+        assertEquals(LocalDate.now().plusDays(7), hearingDto1.getWeekCommencing().getEndDate());
         assertEquals(judiciaryId, sittingDto1.getJudiciaryId());
         assertEquals(courtHouseId, sittingDto1.getCourtHouse());
         assertEquals(courtRoomId, sittingDto1.getCourtRoom());
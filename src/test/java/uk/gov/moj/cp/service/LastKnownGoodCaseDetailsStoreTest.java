@@ -0,0 +1,216 @@
+package uk.gov.moj.cp.service;
+
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.moj.cp.config.SecretKeyLoader;
+import uk.gov.moj.cp.dto.outbound.CaseDetailsCourtScheduleDto;
+import uk.gov.moj.cp.dto.outbound.CaseDetailsDto;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
+import uk.gov.moj.cp.service.LastKnownGoodCaseDetailsStore.StoredCaseDetails;
+import uk.gov.moj.cp.util.CryptoUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static uk.gov.moj.cp.repository.TestCryptoConfig.generateBase64Key;
+
+class LastKnownGoodCaseDetailsStoreTest {
+
+    private static final String CASE_URN = "CASE123";
+
+    @TempDir
+    Path directory;
+
+    private final SecretKeyLoader secretKeyLoader = new SecretKeyLoader(generateBase64Key(), generateBase64Key());
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    @DisplayName("Should return the last details put for a URN")
+    void shouldReturnLastDetailsPut() {
+        LastKnownGoodCaseDetailsStore store = newStore(true, false, 100);
+        CaseDetailsDto caseDetails = caseDetails(CASE_URN);
+
+        store.put(CASE_URN, caseDetails);
+        StoredCaseDetails stored = store.get(CASE_URN);
+
+        assertThat(stored.caseDetails()).isSameAs(caseDetails);
+        assertThat(store.get("OTHER")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should keep nothing when disabled")
+    void shouldKeepNothingWhenDisabled() {
+        LastKnownGoodCaseDetailsStore store = newStore(false, true, 100);
+
+        store.put(CASE_URN, caseDetails(CASE_URN));
+
+        assertThat(store.get(CASE_URN)).isNull();
+        assertThat(directory).isEmptyDirectory();
+    }
+
+    @Test
+    @DisplayName("Should read details written by an earlier instance from disk without the URN in the file name")
+    void shouldReadDetailsFromDisk() throws IOException {
+        LastKnownGoodCaseDetailsStore writer = newStore(true, true, 100);
+        writer.put(CASE_URN, caseDetails(CASE_URN));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> jsonFiles().size() == 1);
+
+        StoredCaseDetails stored = newStore(true, true, 100).get(CASE_URN);
+
+        assertThat(stored.caseDetails()).isEqualTo(caseDetails(CASE_URN));
+        assertThat(jsonFiles().getFirst().getFileName().toString()).doesNotContain(CASE_URN);
+    }
+
+    @Test
+    @DisplayName("Should not hold a request up for longer than the read timeout while the file is read")
+    void shouldBoundDiskReadWait() throws Exception {
+        newStore(true, true, 100).put(CASE_URN, caseDetails(CASE_URN));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> jsonFiles().size() == 1);
+        CountDownLatch readerBusy = new CountDownLatch(1);
+        try (ExecutorService slowExecutor = Executors.newSingleThreadExecutor()) {
+            LastKnownGoodCaseDetailsStore store = new LastKnownGoodCaseDetailsStore(
+                new CacheMetricsService(new PrometheusRegistry()),
+                slowExecutor,
+                secretKeyLoader,
+                true, 100, 300, 86400, true, directory.toString(), 100, 50
+            );
+            slowExecutor.execute(() -> awaitQuietly(readerBusy));
+
+            long started = System.nanoTime();
+            assertThat(store.get(CASE_URN)).isNull();
+            assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+
+            readerBusy.countDown();
+            await().atMost(5, TimeUnit.SECONDS).until(() -> store.get(CASE_URN) != null);
+            assertThat(store.get(CASE_URN).caseDetails()).isEqualTo(caseDetails(CASE_URN));
+        }
+    }
+
+    @Test
+    @DisplayName("Should prune the oldest files once the directory holds more than the maximum entries")
+    void shouldPruneOldestFiles() {
+        // one writer thread, so the start up prune and the writes run in order
+        executor.close();
+        executor = Executors.newSingleThreadExecutor();
+        LastKnownGoodCaseDetailsStore store = newStore(true, true, 10);
+
+        for (int i = 0; i < 11; i++) {
+            store.put(CASE_URN + i, caseDetails(CASE_URN + i));
+        }
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> jsonFiles().size() == 9);
+    }
+
+    @Test
+    @DisplayName("Should write files encrypted and readable by the owner only")
+    void shouldWriteEncryptedOwnerOnlyFiles() throws IOException {
+        assumeTrue(directory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Path storeDirectory = directory.resolve("case-details");
+        newStore(true, true, 100, storeDirectory.toString()).put(CASE_URN, caseDetails(CASE_URN));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> Files.isDirectory(storeDirectory) && jsonFiles(storeDirectory).size() == 1);
+
+        Path file = jsonFiles(storeDirectory).getFirst();
+
+        assertThat(Files.readString(file)).startsWith(CryptoUtils.ENCRYPTION_PREFIX).doesNotContain(CASE_URN, "ACTIVE");
+        assertThat(Files.getPosixFilePermissions(file)).isEqualTo(PosixFilePermissions.fromString("rw-------"));
+        assertThat(Files.getPosixFilePermissions(storeDirectory)).isEqualTo(PosixFilePermissions.fromString("rwx------"));
+    }
+
+    @Test
+    @DisplayName("Should not read files encrypted with another key")
+    void shouldNotReadFilesEncryptedWithAnotherKey() {
+        newStore(true, true, 100).put(CASE_URN, caseDetails(CASE_URN));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> jsonFiles().size() == 1);
+
+        LastKnownGoodCaseDetailsStore rotated = new LastKnownGoodCaseDetailsStore(
+            new CacheMetricsService(new PrometheusRegistry()),
+            executor,
+            new SecretKeyLoader(generateBase64Key(), generateBase64Key()),
+            true, 100, 300, 86400, true, directory.toString(), 100, 1000
+        );
+
+        assertThat(rotated.get(CASE_URN)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should require a directory when the disk tier is enabled")
+    void shouldRequireDirectoryForDiskTier() {
+        assertThatThrownBy(() -> newStore(true, true, 100, " "))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("disk.directory");
+    }
+
+    private LastKnownGoodCaseDetailsStore newStore(boolean enabled, boolean diskEnabled, long maximumDiskEntries) {
+        return newStore(enabled, diskEnabled, maximumDiskEntries, directory.toString());
+    }
+
+    private LastKnownGoodCaseDetailsStore newStore(boolean enabled, boolean diskEnabled, long maximumDiskEntries,
+                                                   String directory) {
+        return new LastKnownGoodCaseDetailsStore(
+            new CacheMetricsService(new PrometheusRegistry()),
+            executor,
+            secretKeyLoader,
+            enabled,
+            100,
+            300,
+            86400,
+            diskEnabled,
+            directory,
+            maximumDiskEntries,
+            1000
+        );
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Path> jsonFiles() throws IOException {
+        return jsonFiles(directory);
+    }
+
+    private static List<Path> jsonFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".json")).toList();
+        }
+    }
+
+    private static CaseDetailsDto caseDetails(String caseUrn) {
+        return CaseDetailsDto.builder()
+            .caseUrn(caseUrn)
+            .caseStatus("ACTIVE")
+            .courtSchedules(List.of(CaseDetailsCourtScheduleDto.builder().hearings(List.of()).build()))
+            .build();
+    }
+}
@@ -0,0 +1,172 @@
+package uk.gov.moj.cp.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import uk.gov.moj.cp.dto.inbound.CourtSittingDto;
+import uk.gov.moj.cp.dto.inbound.HearingDto;
+import uk.gov.moj.cp.dto.inbound.WeekCommencingDto;
+import uk.gov.moj.cp.dto.outbound.CaseDetailsHearingDto;
+import uk.gov.moj.cp.model.HearingType;
+import uk.gov.moj.cp.model.NextHearingFixtures;
+import uk.gov.moj.cp.model.NextHearingFixtures.Fixture;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NextHearingSelectorTest {
+
+    private static final LocalDate TODAY = NextHearingFixtures.TODAY;
+
+    @Test
+    @DisplayName("selects the hearing with the earliest date regardless of its position")
+    void shouldSelectEarliestHearing() {
+        List<HearingDto> hearings = List.of(
+            hearing("1", HearingType.TRIAL, TODAY.plusDays(10)),
+            hearing("2", HearingType.TRIAL, TODAY.plusDays(2)),
+            hearing("3", HearingType.TRIAL, TODAY.plusDays(5))
+        );
+
+        assertThat(selectedHearingId(hearings)).contains("2");
+    }
+
+    @Test
+    @DisplayName("selects the first of equally ranked hearings")
+    void shouldSelectFirstOfEquallyRankedHearings() {
+        List<HearingDto> hearings = List.of(
+            hearing("1", HearingType.SENTENCE, TODAY.plusDays(3)),
+            hearing("2", HearingType.SENTENCE, TODAY.plusDays(3))
+        );
+
+        assertThat(selectedHearingId(hearings)).contains("1");
+    }
+
+    @Test
+    @DisplayName("prefers fixed date hearings, then trials, when hearings fall on the same day")
+    void shouldBreakTiesOnFixedDateThenTrial() {
+        LocalDate hearingDate = TODAY.plusDays(4);
+        List<HearingDto> hearings = List.of(
+            weekCommencingHearing("1", HearingType.TRIAL, hearingDate.minusDays(4), hearingDate),
+            hearing("2", HearingType.DEFERRED_SENTENCE, hearingDate),
+            hearing("3", HearingType.TRIAL_FLOATER, hearingDate)
+        );
+
+        assertThat(selectedHearingId(hearings)).contains("3");
+        assertThat(selectedHearingId(hearings.subList(0, 2))).contains("2");
+    }
+
+    @Test
+    @DisplayName("orders week commencing hearings by the end of the week")
+    void shouldOrderWeekCommencingByEndDate() {
+        List<HearingDto> hearings = List.of(
+            hearing("1", HearingType.TRIAL, TODAY.plusDays(3)),
+            weekCommencingHearing("2", HearingType.TRIAL, TODAY.minusDays(2), TODAY.plusDays(5))
+        );
+
+        assertThat(selectedHearingId(hearings)).contains("1");
+    }
+
+    @Test
+    @DisplayName("ranks a multi-day hearing by its earliest sitting, even when that sitting is in the past")
+    void shouldRankMultiDayHearingByEarliestSitting() {
+        List<HearingDto> hearings = List.of(
+            hearing("1", HearingType.TRIAL, TODAY),
+            hearing("2", HearingType.TRIAL, TODAY.minusDays(1), TODAY.plusDays(1))
+        );
+
+        assertThat(selectedHearingId(hearings)).contains("2");
+    }
+
+    @Test
+    @DisplayName("rejects unknown hearing types, past hearings and hearings more than ten years away")
+    void shouldRejectNonCandidateHearings() {
+        List<HearingDto> hearings = List.of(
+            hearing("1", null, TODAY.plusDays(1)),
+            HearingDto.builder().hearingId("2").hearingType("Mention").courtSittings(List.of(sitting(TODAY.plusDays(1)))).build(),
+            hearing("3", HearingType.TRIAL, TODAY.minusDays(1)),
+            hearing("4", HearingType.TRIAL, TODAY.plusYears(10).plusDays(1)),
+            weekCommencingHearing("5", HearingType.TRIAL, TODAY.minusDays(14), TODAY.minusDays(10)),
+            hearing("6", HearingType.TRIAL)
+        );
+
+        assertThat(selectedHearingId(hearings)).isEmpty();
+    }
+
+    @ParameterizedTest
+    @MethodSource("uk.gov.moj.cp.model.NextHearingFixtures#fixtures")
+    @DisplayName("selects a hearing only when it meets the next hearing rules")
+    void shouldSelectOnlyHearingsMeetingTheRules(Fixture fixture) {
+        HearingDto hearing = HearingDto.builder()
+            .hearingId("1")
+            .hearingType(fixture.hearingType())
+            .courtSittings(fixture.sittingDates().stream().map(this::sitting).toList())
+            .weekCommencing(fixture.hasWeekCommencing()
+                                ? WeekCommencingDto.builder()
+                                    .startDate(fixture.weekCommencingStart())
+                                    .endDate(fixture.weekCommencingEnd())
+                                    .build()
+                                : null)
+            .build();
+
+        assertThat(selectedHearingId(List.of(hearing)).isPresent()).isEqualTo(fixture.candidate());
+    }
+
+    @Test
+    @DisplayName("builds the outbound DTO of the selected hearing only")
+    void shouldMaterialiseSelectedHearing() {
+        HearingDto hearing = hearing("1", HearingType.TRIAL, TODAY.plusDays(1), TODAY.plusDays(2));
+
+        Optional<CaseDetailsHearingDto> selected = NextHearingSelector.selectNextHearing(List.of(hearing), TODAY);
+
+        assertThat(selected).isPresent();
+        CaseDetailsHearingDto nextHearing = selected.get();
+        assertThat(nextHearing.getHearingType()).isEqualTo(HearingType.TRIAL.getValue());
+        assertThat(nextHearing.getListNote()).isEqualTo("Note1");
+        assertThat(nextHearing.getWeekCommencing()).isNull();
+        assertThat(nextHearing.getCourtSittings()).hasSize(2);
+        assertThat(nextHearing.getCourtSittings().getFirst().getSittingStart()).isEqualTo(TODAY.plusDays(1) + "T10:00:00");
+        assertThat(nextHearing.getCourtSittings().getFirst().getCourtHouse().getCourtHouseId()).isEqualTo("courtHouse");
+        assertThat(nextHearing.getCourtSittings().getFirst().getCourtHouse().getCourtRoomId()).isEqualTo("courtRoom");
+    }
+
+    private Optional<String> selectedHearingId(List<HearingDto> hearings) {
+        return NextHearingSelector.selectNextHearing(hearings, TODAY).map(CaseDetailsHearingDto::getHearingId);
+    }
+
+    private HearingDto hearing(String hearingId, HearingType hearingType, LocalDate... sittingDates) {
+        return HearingDto.builder()
+            .hearingId(hearingId)
+            .hearingType(hearingType == null ? null : hearingType.getValue())
+            .listNote("Note1")
+            .courtSittings(Arrays.stream(sittingDates).map(this::sitting).toList())
+            .build();
+    }
+
+    private HearingDto weekCommencingHearing(String hearingId, HearingType hearingType, LocalDate startDate, LocalDate endDate) {
+        return HearingDto.builder()
+            .hearingId(hearingId)
+            .hearingType(hearingType.getValue())
+            .weekCommencing(WeekCommencingDto.builder()
+                                .courtHouse("courtHouse")
+                                .startDate(startDate)
+                                .endDate(endDate)
+                                .durationInWeeks(1)
+                                .build())
+            .build();
+    }
+
+    private CourtSittingDto sitting(LocalDate sittingDate) {
+        return CourtSittingDto.builder()
+            .sittingStart(sittingDate.atTime(10, 0))
+            .sittingEnd(sittingDate.atTime(16, 0))
+            .judiciaryId("judge")
+            .courtHouse("courtHouse")
+            .courtRoom("courtRoom")
+            .build();
+    }
+}
@@ -1,19 +1,35 @@
 package uk.gov.moj.cp.service;
 
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot.CounterDataPointSnapshot;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
 import uk.gov.moj.cp.client.oauth.OAuthTokenClient;
+import uk.gov.moj.cp.metrics.OAuthTokenMetricsService;
 import uk.gov.moj.cp.model.OAuthTokenResponse;
 import uk.gov.moj.cp.model.AmpApiType;
 
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -23,8 +39,10 @@ class OAuthTokenServiceTest {
     @Mock
     private OAuthTokenClient oauthTokenClient;
 
-    @InjectMocks
     private OAuthTokenService oauthTokenService;
+    private PrometheusRegistry prometheusRegistry;
+
+    private static final int MAX_EVICTIONS = 3;
 
     private static final OAuthTokenResponse TOKEN_RESPONSE =
         new OAuthTokenResponse("Bearer", 3600, 3600, "access-token-value");
@@ -32,7 +50,12 @@ class OAuthTokenServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        ReflectionTestUtils.setField(oauthTokenService, "tokenCacheTtlMinutes", 1440L);
+        oauthTokenService = newService(1440L, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        oauthTokenService.destroy();
     }
 
     @Test
@@ -61,7 +84,7 @@ class OAuthTokenServiceTest {
     @Test
     @DisplayName("Should fetch new token from client when cached token is expired")
     void shouldFetchNewTokenWhenCacheIsExpired() {
-        ReflectionTestUtils.setField(oauthTokenService, "tokenCacheTtlMinutes", -1L);
+        oauthTokenService = newService(-1L, false);
         when(oauthTokenClient.getJwtToken(AmpApiType.SLC)).thenReturn(TOKEN_RESPONSE);
 
         oauthTokenService.getJwtToken(AmpApiType.SLC);
@@ -70,28 +93,6 @@ class OAuthTokenServiceTest {
         verify(oauthTokenClient, times(2)).getJwtToken(AmpApiType.SLC);
     }
 
-    @Test
-    @DisplayName("Should fetch new token from client after cache eviction for all API types")
-    void shouldFetchNewTokenAfterCacheEviction() {
-        when(oauthTokenClient.getJwtToken(eq(AmpApiType.SLC))).thenReturn(TOKEN_RESPONSE);
-        when(oauthTokenClient.getJwtToken(eq(AmpApiType.RCC))).thenReturn(TOKEN_RESPONSE);
-        when(oauthTokenClient.getJwtToken(eq(AmpApiType.PCD))).thenReturn(TOKEN_RESPONSE);
-
-        oauthTokenService.getJwtToken(AmpApiType.SLC);
-        oauthTokenService.getJwtToken(AmpApiType.RCC);
-        oauthTokenService.getJwtToken(AmpApiType.PCD);
-
-        oauthTokenService.evictAllTokenCaches();
-
-        oauthTokenService.getJwtToken(AmpApiType.SLC);
-        oauthTokenService.getJwtToken(AmpApiType.RCC);
-        oauthTokenService.getJwtToken(AmpApiType.PCD);
-
-        verify(oauthTokenClient, times(2)).getJwtToken(AmpApiType.SLC);
-        verify(oauthTokenClient, times(2)).getJwtToken(AmpApiType.RCC);
-        verify(oauthTokenClient, times(2)).getJwtToken(AmpApiType.PCD);
-    }
-
     @Test
     @DisplayName("Should cache tokens independently per API type")
     void shouldCacheTokensIndependentlyPerApiType() {
@@ -129,14 +130,188 @@ class OAuthTokenServiceTest {
     }
 
     @Test
-    @DisplayName("Should evict empty cache without throwing an exception")
-    void shouldEvictEmptyCacheWithoutException() {
-        oauthTokenService.evictAllTokenCaches();
+    @DisplayName("Should cache the token for expires_in when it is shorter than the cache TTL")
+    void shouldCacheTokenForExpiresInWhenShorterThanTtl() {
+        when(oauthTokenClient.getJwtToken(AmpApiType.SLC))
+            .thenReturn(new OAuthTokenResponse("Bearer", 1, 1, "short-lived-token"));
+
+        oauthTokenService.getJwtToken(AmpApiType.SLC);
+        verify(oauthTokenClient, times(1)).getJwtToken(AmpApiType.SLC);
+
+        await().atMost(3, TimeUnit.SECONDS).untilAsserted(() -> {
+            oauthTokenService.getJwtToken(AmpApiType.SLC);
+            verify(oauthTokenClient, times(2)).getJwtToken(AmpApiType.SLC);
+        });
+    }
+
+    @Test
+    @DisplayName("Should share a single token fetch between concurrent lookups")
+    void shouldCoalesceConcurrentTokenFetches() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(oauthTokenClient.getJwtToken(AmpApiType.SLC)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return TOKEN_RESPONSE;
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> tokens = List.of(
+                executor.submit(() -> oauthTokenService.getJwtToken(AmpApiType.SLC)),
+                executor.submit(() -> oauthTokenService.getJwtToken(AmpApiType.SLC)),
+                executor.submit(() -> oauthTokenService.getJwtToken(AmpApiType.SLC))
+            );
+            verify(oauthTokenClient, timeout(1000)).getJwtToken(AmpApiType.SLC);
+            release.countDown();
+
+            for (Future<String> token : tokens) {
+                assertThat(token.get(5, TimeUnit.SECONDS)).isEqualTo("access-token-value");
+            }
+        }
+        verify(oauthTokenClient, times(1)).getJwtToken(AmpApiType.SLC);
+    }
+
+    @Test
+    @DisplayName("Should refresh the token in the background before it expires")
+    void shouldRefreshTokenBeforeExpiry() {
+        oauthTokenService = newService(1440L, true);
+        when(oauthTokenClient.getJwtToken(AmpApiType.RCC))
+            .thenReturn(new OAuthTokenResponse("Bearer", 2, 2, "first-token"))
+            .thenReturn(new OAuthTokenResponse("Bearer", 3600, 3600, "second-token"));
+
+        assertThat(oauthTokenService.getJwtToken(AmpApiType.RCC)).isEqualTo("first-token");
+
+        verify(oauthTokenClient, timeout(3000).times(2)).getJwtToken(AmpApiType.RCC);
+        await().atMost(1, TimeUnit.SECONDS).until(() -> "second-token".equals(oauthTokenService.getJwtToken(AmpApiType.RCC)));
+        verify(oauthTokenClient, times(2)).getJwtToken(AmpApiType.RCC);
+    }
+
+    @Test
+    @DisplayName("Should keep serving the current token and retry when a background refresh fails")
+    void shouldServeCurrentTokenAndRetryWhenRefreshFails() {
+        oauthTokenService = newService(1440L, true);
+        when(oauthTokenClient.getJwtToken(AmpApiType.PCD))
+            .thenReturn(new OAuthTokenResponse("Bearer", 4, 4, "first-token"))
+            .thenThrow(new RuntimeException("token endpoint unavailable"))
+            .thenReturn(new OAuthTokenResponse("Bearer", 3600, 3600, "second-token"));
 
+        assertThat(oauthTokenService.getJwtToken(AmpApiType.PCD)).isEqualTo("first-token");
+
+        verify(oauthTokenClient, timeout(3000).times(2)).getJwtToken(AmpApiType.PCD);
+        assertThat(oauthTokenService.getJwtToken(AmpApiType.PCD)).isEqualTo("first-token");
+        verify(oauthTokenClient, timeout(1500).times(3)).getJwtToken(AmpApiType.PCD);
+        await().atMost(1, TimeUnit.SECONDS).until(() -> "second-token".equals(oauthTokenService.getJwtToken(AmpApiType.PCD)));
+    }
+
+    @Test
+    @DisplayName("Should evict only the rejected API token and replay the call once on 401")
+    void shouldEvictRejectedTokenAndReplayCallOnUnauthorized() {
+        when(oauthTokenClient.getJwtToken(AmpApiType.SLC))
+            .thenReturn(new OAuthTokenResponse("Bearer", 3600, 3600, "slc-token-1"))
+            .thenReturn(new OAuthTokenResponse("Bearer", 3600, 3600, "slc-token-2"));
+        when(oauthTokenClient.getJwtToken(AmpApiType.PCD)).thenReturn(TOKEN_RESPONSE);
+        oauthTokenService.getJwtToken(AmpApiType.PCD);
+
+        String result = oauthTokenService.executeWithToken(AmpApiType.SLC, rejecting("slc-token-1", HttpStatus.UNAUTHORIZED));
+
+        assertThat(result).isEqualTo("called with slc-token-2");
+        assertThat(oauthTokenService.getJwtToken(AmpApiType.PCD)).isEqualTo("access-token-value");
+        verify(oauthTokenClient, times(2)).getJwtToken(AmpApiType.SLC);
+        verify(oauthTokenClient, times(1)).getJwtToken(AmpApiType.PCD);
+        assertThat(counterValue("trackmycase_oauth_token_rejections", AmpApiType.SLC)).isEqualTo(1.0);
+        assertThat(counterValue("trackmycase_oauth_token_replays", AmpApiType.SLC)).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should evict the rejected token and replay the call once on 403")
+    void shouldEvictRejectedTokenAndReplayCallOnForbidden() {
+        when(oauthTokenClient.getJwtToken(AmpApiType.RCC))
+            .thenReturn(new OAuthTokenResponse("Bearer", 3600, 3600, "rcc-token-1"))
+            .thenReturn(new OAuthTokenResponse("Bearer", 3600, 3600, "rcc-token-2"));
+
+        String result = oauthTokenService.executeWithToken(AmpApiType.RCC, rejecting("rcc-token-1", HttpStatus.FORBIDDEN));
+
+        assertThat(result).isEqualTo("called with rcc-token-2");
+        verify(oauthTokenClient, times(2)).getJwtToken(AmpApiType.RCC);
+    }
+
+    @Test
+    @DisplayName("Should not evict the token or replay the call for non-auth HTTP errors")
+    void shouldNotReplayCallOnNonAuthHttpErrors() {
         when(oauthTokenClient.getJwtToken(AmpApiType.SLC)).thenReturn(TOKEN_RESPONSE);
-        String token = oauthTokenService.getJwtToken(AmpApiType.SLC);
 
-        assertThat(token).isEqualTo("access-token-value");
+        assertThatThrownBy(() -> oauthTokenService.executeWithToken(AmpApiType.SLC, rejecting("access-token-value", HttpStatus.NOT_FOUND)))
+            .isInstanceOf(HttpClientErrorException.NotFound.class);
+
+        oauthTokenService.getJwtToken(AmpApiType.SLC);
         verify(oauthTokenClient, times(1)).getJwtToken(AmpApiType.SLC);
     }
+
+    @Test
+    @DisplayName("Should propagate the rejection when the replayed call is rejected again")
+    void shouldPropagateRejectionWhenReplayIsRejected() {
+        when(oauthTokenClient.getJwtToken(AmpApiType.PCD)).thenReturn(TOKEN_RESPONSE);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> oauthTokenService.executeWithToken(AmpApiType.PCD, accessToken -> {
+            calls.incrementAndGet();
+            throw new HttpClientErrorException(HttpStatus.UNAUTHORIZED);
+        })).isInstanceOf(HttpClientErrorException.Unauthorized.class);
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should stop evicting tokens and replaying calls once the eviction circuit is open")
+    void shouldNotReplayCallWhenEvictionCircuitIsOpen() {
+        AtomicInteger tokens = new AtomicInteger();
+        when(oauthTokenClient.getJwtToken(AmpApiType.SLC))
+            .thenAnswer(invocation -> new OAuthTokenResponse("Bearer", 3600, 3600, "slc-token-" + tokens.incrementAndGet()));
+        Function<String, String> alwaysRejected = accessToken -> {
+            throw new HttpClientErrorException(HttpStatus.UNAUTHORIZED);
+        };
+
+        for (int i = 0; i < MAX_EVICTIONS; i++) {
+            assertThatThrownBy(() -> oauthTokenService.executeWithToken(AmpApiType.SLC, alwaysRejected))
+                .isInstanceOf(HttpClientErrorException.Unauthorized.class);
+        }
+        assertThatThrownBy(() -> oauthTokenService.executeWithToken(AmpApiType.SLC, alwaysRejected))
+            .isInstanceOf(HttpClientErrorException.Unauthorized.class);
+
+        verify(oauthTokenClient, times(MAX_EVICTIONS + 1)).getJwtToken(AmpApiType.SLC);
+        assertThat(counterValue("trackmycase_oauth_token_replays", AmpApiType.SLC)).isEqualTo(MAX_EVICTIONS);
+        assertThat(counterValue("trackmycase_oauth_token_eviction_circuit_open", AmpApiType.SLC)).isEqualTo(1.0);
+    }
+
+    private static Function<String, String> rejecting(String rejectedToken, HttpStatus status) {
+        return accessToken -> {
+            if (rejectedToken.equals(accessToken)) {
+                throw new HttpClientErrorException(status);
+            }
+            return "called with " + accessToken;
+        };
+    }
+
+    private double counterValue(String name, AmpApiType ampApiType) {
+        return prometheusRegistry.scrape().stream()
+            .filter(snapshot -> name.equals(snapshot.getMetadata().getName()))
+            .map(CounterSnapshot.class::cast)
+            .flatMap(snapshot -> snapshot.getDataPoints().stream())
+            .filter(dataPoint -> ampApiType.name().equals(dataPoint.getLabels().get("api")))
+            .mapToDouble(CounterDataPointSnapshot::getValue)
+            .sum();
+    }
+
+    private OAuthTokenService newService(long tokenCacheTtlMinutes, boolean refreshEnabled) {
+        prometheusRegistry = new PrometheusRegistry();
+        return new OAuthTokenService(
+            oauthTokenClient,
+            new OAuthTokenMetricsService(prometheusRegistry),
+            tokenCacheTtlMinutes,
+            refreshEnabled,
+            300,
+            500,
+            1000,
+            MAX_EVICTIONS,
+            60
+        );
+    }
 }
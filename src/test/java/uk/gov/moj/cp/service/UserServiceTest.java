@@ -1,41 +1,98 @@
 package uk.gov.moj.cp.service;
 
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.gov.moj.cp.config.EmailLookupMemo;
+import uk.gov.moj.cp.config.SecretKeyLoader;
 import uk.gov.moj.cp.dto.UpdateUserDto;
 import uk.gov.moj.cp.dto.UserCreationResponseDto;
 import uk.gov.moj.cp.dto.UserDto;
+import uk.gov.moj.cp.dto.UserPageDto;
 import uk.gov.moj.cp.dto.UserResponseDto;
 import uk.gov.moj.cp.entity.User;
+import uk.gov.moj.cp.metrics.CacheMetricsService;
 import uk.gov.moj.cp.model.UserCreationStatus;
 import uk.gov.moj.cp.model.UserRole;
 import uk.gov.moj.cp.model.UserStatus;
+import uk.gov.moj.cp.repository.UserBulkRepository;
+import uk.gov.moj.cp.repository.UserBulkRepository.UserRow;
+import uk.gov.moj.cp.repository.UserListingRepository;
+import uk.gov.moj.cp.repository.UserListingRepository.Cursor;
+import uk.gov.moj.cp.repository.UserListingRepository.UserListing;
 import uk.gov.moj.cp.repository.UserRepository;
 
+import javax.sql.DataSource;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static uk.gov.moj.cp.repository.TestCryptoConfig.generateBase64Key;
 
 public class UserServiceTest {
 
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    @Mock
+    private UserBulkRepository userBulkRepository;
+
+    @Mock
+    private UserListingRepository userListingRepository;
+
+    private final SecretKeyLoader secretKeyLoader = new SecretKeyLoader(generateBase64Key(), generateBase64Key());
+
     private UserService userService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        CacheMetricsService cacheMetricsService = new CacheMetricsService(new PrometheusRegistry());
+        ActiveUserCache activeUserCache = new ActiveUserCache(
+            new EmailLookupMemo(secretKeyLoader, cacheMetricsService, 100),
+            cacheMetricsService,
+            new LocalUserInvalidationBus(),
+            true,
+            100,
+            60,
+            60
+        );
+        userService = new UserService(userRepository, activeUserCache, userBulkRepository, userListingRepository);
+        ReflectionTestUtils.setField(userService, "chunkSize", 2);
+        ReflectionTestUtils.setField(userService, "defaultPageSize", 100);
+        ReflectionTestUtils.setField(userService, "maxPageSize", 1000);
+
+        // rows are encrypted for real, so that their email lookups match the active user cache keys
+        UserBulkRepository encryptingRepository = new UserBulkRepository(mock(DataSource.class), secretKeyLoader);
+        when(userBulkRepository.prepare(anyList()))
+            .thenAnswer(invocation -> encryptingRepository.prepare(invocation.getArgument(0)));
+        when(userBulkRepository.insertIgnoringConflicts(anyList()))
+            .thenAnswer(invocation -> insertedUpdateCounts(invocation.getArgument(0)));
     }
 
     @Test
@@ -45,19 +102,12 @@ public class UserServiceTest {
             .email("test@example.com")
             .build();
 
-        User savedUser = new User("test@example.com");
-        savedUser.setRole(UserRole.USER);
-        savedUser.setStatus(UserStatus.ACTIVE);
-
-        when(userRepository.findByEmailLookup("test@example.com")).thenReturn(Optional.empty());
-        when(userRepository.save(any(User.class))).thenReturn(savedUser);
-
         List<UserCreationResponseDto> result = userService.addUsers(List.of(userDto));
 
         assertThat(!result.isEmpty()).isTrue();
         assertThat(result.getFirst().getEmail()).isEqualTo("test@example.com");
         assertThat(result.getFirst().getStatus()).isEqualTo(UserCreationStatus.CREATED);
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userBulkRepository, times(1)).insertIgnoringConflicts(anyList());
     }
 
     @Test
@@ -82,8 +132,8 @@ public class UserServiceTest {
             .email("existing@example.com")
             .build();
 
-        User existingUser = new User("existing@example.com");
-        when(userRepository.findByEmailLookup("existing@example.com")).thenReturn(Optional.of(existingUser));
+        when(userBulkRepository.findExistingEmailLookups(anyList()))
+            .thenAnswer(invocation -> Set.copyOf(invocation.<List<String>>getArgument(0)));
 
         List<UserCreationResponseDto> results = userService.addUsers(List.of(userDto));
 
@@ -92,7 +142,21 @@ public class UserServiceTest {
         assertThat(result.getEmail()).isEqualTo("existing@example.com");
         assertThat(result.getStatus()).isEqualTo(UserCreationStatus.FAILED);
         assertThat(result.getReason()).isEqualTo("Email already exists");
-        verify(userRepository, times(0)).save(any(User.class));
+        verify(userBulkRepository, never()).insertIgnoringConflicts(anyList());
+    }
+
+    @Test
+    @DisplayName("Should report only rows with an update count of one as created")
+    void testCreateUser_OnlyInsertedRowsCreated() {
+        when(userBulkRepository.insertIgnoringConflicts(anyList())).thenReturn(new int[] {1, Statement.SUCCESS_NO_INFO});
+
+        List<UserCreationResponseDto> results = userService.addUsers(List.of(
+            UserDto.builder().email("user1@example.com").build(),
+            UserDto.builder().email("user2@example.com").build()
+        ));
+
+        assertThat(results).extracting(UserCreationResponseDto::getStatus)
+            .containsExactly(UserCreationStatus.CREATED, UserCreationStatus.FAILED);
     }
 
     @Test
@@ -181,27 +245,79 @@ public class UserServiceTest {
     }
 
     @Test
-    @DisplayName("Should return all users")
-    void testGetAllUsers() {
-        User user1 = new User("user1@example.com");
-        user1.setRole(UserRole.USER);
-        user1.setStatus(UserStatus.ACTIVE);
+    @DisplayName("Should return a page of users with the cursor of the next page")
+    void testGetUsers_FirstPage() {
+        UserListing user1 = userListing("user1@example.com", UserRole.USER);
+        UserListing user2 = userListing("user2@example.com", UserRole.ADMIN);
+        UserListing user3 = userListing("user3@example.com", UserRole.USER);
+        when(userListingRepository.findPage(UserStatus.ACTIVE, null, null, 3)).thenReturn(List.of(user1, user2, user3));
+
+        UserPageDto result = userService.getUsers(UserStatus.ACTIVE, null, null, 2);
+
+        assertThat(result.getUsers()).extracting(UserResponseDto::getEmail)
+            .containsExactly("user1@example.com", "user2@example.com");
+        assertThat(result.getUsers().get(1).getRole()).isEqualTo(UserRole.ADMIN);
+        assertThat(Cursor.decode(result.getNextCursor())).isEqualTo(Cursor.after(user2));
+    }
 
-        User user2 = new User("user2@example.com");
-        user2.setRole(UserRole.ADMIN);
-        user2.setStatus(UserStatus.ACTIVE);
+    @Test
+    @DisplayName("Should read the page after the cursor and return no cursor on the last page")
+    void testGetUsers_LastPage() {
+        UserListing user1 = userListing("user1@example.com", UserRole.USER);
+        UserListing user2 = userListing("user2@example.com", UserRole.USER);
+        Cursor after = Cursor.after(user1);
+        when(userListingRepository.findPage(null, UserRole.USER, after, 101)).thenReturn(List.of(user2));
+
+        UserPageDto result = userService.getUsers(null, UserRole.USER, after.encode(), null);
 
-        List<User> users = List.of(user1, user2);
-        when(userRepository.findAll()).thenReturn(users);
+        assertThat(result.getUsers()).extracting(UserResponseDto::getEmail).containsExactly("user2@example.com");
+        assertThat(result.getNextCursor()).isNull();
+    }
 
-        List<UserResponseDto> result = userService.getAllUsers();
+    @Test
+    @DisplayName("Should reject a limit outside the page size bounds and a malformed cursor")
+    void testGetUsers_InvalidArguments() {
+        assertThatThrownBy(() -> userService.getUsers(null, null, null, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> userService.getUsers(null, null, null, 1001))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> userService.getUsers(null, null, "not-a-cursor", null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Invalid cursor");
+        verify(userListingRepository, never()).findPage(any(), any(), any(), anyInt());
+    }
 
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getEmail()).isEqualTo("user1@example.com");
-        assertThat(result.get(0).getRole()).isEqualTo(UserRole.USER);
-        assertThat(result.get(1).getEmail()).isEqualTo("user2@example.com");
-        assertThat(result.get(1).getRole()).isEqualTo(UserRole.ADMIN);
-        verify(userRepository).findAll();
+    @Test
+    @DisplayName("Should pass streamed users to the consumer as they are read")
+    void testStreamUsers() {
+        doAnswer(invocation -> {
+            Consumer<UserListing> consumer = invocation.getArgument(2);
+            consumer.accept(userListing("user1@example.com", UserRole.USER));
+            consumer.accept(userListing("user2@example.com", UserRole.ADMIN));
+            return null;
+        }).when(userListingRepository).streamAll(eq(UserStatus.ACTIVE), eq(null), any());
+
+        List<UserResponseDto> streamed = new ArrayList<>();
+        userService.streamUsers(UserStatus.ACTIVE, null, streamed::add);
+
+        assertThat(streamed).extracting(UserResponseDto::getEmail)
+            .containsExactly("user1@example.com", "user2@example.com");
+    }
+
+    @Test
+    @DisplayName("Should get every matching user in creation order")
+    void testGetAllUsers() {
+        doAnswer(invocation -> {
+            Consumer<UserListing> consumer = invocation.getArgument(2);
+            consumer.accept(userListing("user1@example.com", UserRole.USER));
+            consumer.accept(userListing("user2@example.com", UserRole.ADMIN));
+            return null;
+        }).when(userListingRepository).streamAll(eq(null), eq(UserRole.ADMIN), any());
+
+        List<UserResponseDto> users = userService.getAllUsers(null, UserRole.ADMIN);
+
+        assertThat(users).extracting(UserResponseDto::getEmail)
+            .containsExactly("user1@example.com", "user2@example.com");
     }
 
     @Test
@@ -251,19 +367,6 @@ public class UserServiceTest {
             .email("user2@example.com")
             .build();
 
-        User savedUser1 = new User("user1@example.com");
-        savedUser1.setRole(UserRole.USER);
-        savedUser1.setStatus(UserStatus.ACTIVE);
-
-        User savedUser2 = new User("user2@example.com");
-        savedUser2.setRole(UserRole.USER);
-        savedUser2.setStatus(UserStatus.ACTIVE);
-
-        when(userRepository.findByEmailLookup("user1@example.com")).thenReturn(Optional.empty());
-        when(userRepository.findByEmailLookup("user2@example.com")).thenReturn(Optional.empty());
-        when(userRepository.save(any(User.class)))
-            .thenAnswer(invocation -> invocation.getArgument(0));
-
         List<UserCreationResponseDto> response = userService.addUsers(List.of(userDto1, userDto2));
 
         assertThat(response).hasSize(2);
@@ -273,4 +376,126 @@ public class UserServiceTest {
         assertThat(response.get(1).getEmail()).isEqualTo("user2@example.com");
     }
 
+    @Test
+    @DisplayName("Should check duplicates once, insert in chunks and report each email in request order")
+    void testAddUsers_Bulk() {
+        List<UserDto> userDtos = List.of(
+            UserDto.builder().email("user1@example.com").build(),
+            UserDto.builder().email("invalid-email").build(),
+            UserDto.builder().email("existing@example.com").build(),
+            UserDto.builder().email(" User1@Example.com").build(),
+            UserDto.builder().email("user2@example.com").build(),
+            UserDto.builder().email("concurrent@example.com").build(),
+            UserDto.builder().email("user3@example.com").build()
+        );
+        Map<String, String> emailByLookup = new HashMap<>();
+        when(userBulkRepository.prepare(anyList())).thenAnswer(invocation -> {
+            List<UserRow> rows = new UserBulkRepository(mock(DataSource.class), secretKeyLoader)
+                .prepare(invocation.getArgument(0));
+            rows.forEach(row -> emailByLookup.put(row.emailLookup(), row.email()));
+            return rows;
+        });
+        when(userBulkRepository.findExistingEmailLookups(anyList())).thenAnswer(invocation -> emailLookupsOf(
+            invocation.<List<String>>getArgument(0), emailByLookup, "existing@example.com"
+        ));
+        // concurrent@example.com is created by another request after the duplicate check
+        when(userBulkRepository.insertIgnoringConflicts(anyList())).thenAnswer(invocation -> invocation.<List<UserRow>>getArgument(0)
+            .stream()
+            .mapToInt(row -> "concurrent@example.com".equals(row.email()) ? 0 : 1)
+            .toArray());
+
+        List<UserCreationResponseDto> response = userService.addUsers(userDtos);
+
+        assertThat(response).extracting(UserCreationResponseDto::getEmail).containsExactly(
+            "user1@example.com", "invalid-email", "existing@example.com", "user1@example.com",
+            "user2@example.com", "concurrent@example.com", "user3@example.com"
+        );
+        assertThat(response).extracting(UserCreationResponseDto::getStatus).containsExactly(
+            UserCreationStatus.CREATED, UserCreationStatus.FAILED, UserCreationStatus.FAILED, UserCreationStatus.FAILED,
+            UserCreationStatus.CREATED, UserCreationStatus.FAILED, UserCreationStatus.CREATED
+        );
+        assertThat(response).extracting(UserCreationResponseDto::getReason).containsExactly(
+            null, "User email validation failed", "Email already exists", "Email already exists",
+            null, "Email already exists", null
+        );
+        verify(userBulkRepository, times(1)).findExistingEmailLookups(anyList());
+        // four new emails in chunks of two
+        verify(userBulkRepository, times(2)).insertIgnoringConflicts(anyList());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Should serve repeated active user lookups from the cache")
+    void testFindActiveUserByEmail_Cached() {
+        User activeUser = new User("test@example.com");
+        when(userRepository.findByEmailLookupAndStatus("test@example.com", UserStatus.ACTIVE))
+            .thenReturn(Optional.of(activeUser));
+
+        assertThat(userService.findActiveUserByEmail("test@example.com")).containsSame(activeUser);
+        assertThat(userService.findActiveUserByEmail(" Test@Example.com ")).containsSame(activeUser);
+        assertThat(userService.findActiveUserByEmail("missing@example.com")).isEmpty();
+        assertThat(userService.findActiveUserByEmail("missing@example.com")).isEmpty();
+
+        verify(userRepository, times(1)).findByEmailLookupAndStatus("test@example.com", UserStatus.ACTIVE);
+        verify(userRepository, times(1)).findByEmailLookupAndStatus("missing@example.com", UserStatus.ACTIVE);
+    }
+
+    @Test
+    @DisplayName("Should lock out a user whose status is updated without waiting for the cache to expire")
+    void testUpdateUser_InvalidatesActiveUserCache() {
+        User activeUser = new User("test@example.com");
+        when(userRepository.findByEmailLookupAndStatus("test@example.com", UserStatus.ACTIVE))
+            .thenReturn(Optional.of(activeUser))
+            .thenReturn(Optional.empty());
+        when(userRepository.findByEmailLookup("test@example.com")).thenReturn(Optional.of(activeUser));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        assertThat(userService.findActiveUserByEmail("test@example.com")).isPresent();
+
+        userService.updateUser(UpdateUserDto.builder()
+                                   .email("Test@Example.com")
+                                   .status(UserStatus.DELETED)
+                                   .build());
+
+        assertThat(userService.findActiveUserByEmail("test@example.com")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should lock out a deleted user and let a newly added user in straight away")
+    void testDeleteAndAddUser_InvalidateActiveUserCache() {
+        User activeUser = new User("test@example.com");
+        when(userRepository.findByEmailLookupAndStatus("test@example.com", UserStatus.ACTIVE))
+            .thenReturn(Optional.of(activeUser))
+            .thenReturn(Optional.empty());
+        when(userRepository.findByEmailLookupAndStatus("new@example.com", UserStatus.ACTIVE))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(new User("new@example.com")));
+        when(userRepository.findByEmailLookup("test@example.com")).thenReturn(Optional.of(activeUser));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        assertThat(userService.findActiveUserByEmail("test@example.com")).isPresent();
+        assertThat(userService.findActiveUserByEmail("new@example.com")).isEmpty();
+
+        userService.deleteUser(UserDto.builder().email("test@example.com").build());
+        userService.addUsers(List.of(UserDto.builder().email("new@example.com").build()));
+
+        assertThat(userService.findActiveUserByEmail("test@example.com")).isEmpty();
+        assertThat(userService.findActiveUserByEmail("new@example.com")).isPresent();
+    }
+
+    private static int[] insertedUpdateCounts(List<UserRow> rows) {
+        final int[] updateCounts = new int[rows.size()];
+        Arrays.fill(updateCounts, 1);
+        return updateCounts;
+    }
+
+    private static Set<String> emailLookupsOf(List<String> emailLookups, Map<String, String> emailByLookup, String... emails) {
+        final Set<String> wanted = Set.of(emails);
+        return emailLookups.stream()
+            .filter(emailLookup -> wanted.contains(emailByLookup.get(emailLookup)))
+            .collect(Collectors.toSet());
+    }
+
+    private static UserListing userListing(String email, UserRole role) {
+        LocalDateTime now = LocalDateTime.now();
+        return new UserListing(UUID.randomUUID(), email, UserStatus.ACTIVE, role, now, now);
+    }
 }
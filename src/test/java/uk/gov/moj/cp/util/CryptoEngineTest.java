@@ -0,0 +1,90 @@
+package uk.gov.moj.cp.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.gov.moj.cp.config.SecretKeyLoader;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static uk.gov.moj.cp.repository.TestCryptoConfig.generateBase64Key;
+
+class CryptoEngineTest {
+
+    private final SecretKeyLoader secretKeyLoader = new SecretKeyLoader(generateBase64Key(), generateBase64Key());
+    private final CryptoEngine cryptoEngine = secretKeyLoader.getCryptoEngine();
+
+    @Test
+    @DisplayName("Should read values written by CryptoUtils and write values CryptoUtils reads")
+    void testCompatibleWithCryptoUtils() {
+        final String email = "my.\u00e9mail@example.com";
+
+        String encryptedByEngine = cryptoEngine.aesEncrypt(email);
+        String encryptedByUtils = CryptoUtils.aesEncrypt(email, secretKeyLoader.getAesSecretKeySpec());
+
+        assertThat(encryptedByEngine).startsWith(CryptoUtils.ENCRYPTION_PREFIX);
+        assertThat(encryptedByEngine).hasSameSizeAs(encryptedByUtils);
+        assertThat(CryptoUtils.aesDecrypt(encryptedByEngine, secretKeyLoader.getAesSecretKeySpec())).isEqualTo(email);
+        assertThat(cryptoEngine.aesDecrypt(encryptedByUtils)).isEqualTo(email);
+        assertThat(cryptoEngine.hmacEncrypt(email))
+            .isEqualTo(CryptoUtils.hmacEncrypt(email, secretKeyLoader.getHmacEncryptionSecret()));
+    }
+
+    @Test
+    @DisplayName("Should return null or values without the encryption prefix unchanged")
+    void testReturnNull() {
+        assertThat(cryptoEngine.aesEncrypt(null)).isNull();
+        assertThat(cryptoEngine.aesDecrypt(null)).isNull();
+        assertThat(cryptoEngine.aesDecrypt("bad-prefix:xxxx")).isEqualTo("bad-prefix:xxxx");
+    }
+
+    @Test
+    @DisplayName("Should fail on decryption with another key, then keep working")
+    void testDecryptFailure() {
+        String encrypted = new SecretKeyLoader(generateBase64Key(), generateBase64Key())
+            .getCryptoEngine()
+            .aesEncrypt("my@email.com");
+
+        IllegalStateException illegalStateException = assertThrows(
+            IllegalStateException.class, () -> cryptoEngine.aesDecrypt(encrypted)
+        );
+        assertThat(illegalStateException.getMessage()).isEqualTo("Attribute decryption failed");
+        assertThrows(IllegalStateException.class, () -> cryptoEngine.aesDecrypt(CryptoUtils.ENCRYPTION_PREFIX + "no-separator"));
+        assertThat(cryptoEngine.aesDecrypt(cryptoEngine.aesEncrypt("my@email.com"))).isEqualTo("my@email.com");
+    }
+
+    @Test
+    @DisplayName("Should fail on hashing with an empty key")
+    void testHmacFailure() {
+        CryptoEngine emptyKeyEngine = new CryptoEngine(secretKeyLoader.getAesSecretKeySpec(), new byte[0]);
+
+        IllegalStateException illegalStateException = assertThrows(
+            IllegalStateException.class, () -> emptyKeyEngine.hmacEncrypt("my@email.com")
+        );
+        assertThat(illegalStateException.getMessage()).isEqualTo("Attribute decryption failed");
+    }
+
+    @Test
+    @DisplayName("Should give the same results when pooled instances are shared between threads")
+    void testConcurrentUse() throws Exception {
+        List<String> emails = IntStream.range(0, 2000).mapToObj(i -> "user" + i + "@example.com").toList();
+        List<Callable<Boolean>> tasks = emails.stream()
+            .map(email -> (Callable<Boolean>) () ->
+                cryptoEngine.aesDecrypt(cryptoEngine.aesEncrypt(email)).equals(email)
+                    && cryptoEngine.hmacEncrypt(email).equals(
+                    CryptoUtils.hmacEncrypt(email, secretKeyLoader.getHmacEncryptionSecret())))
+            .toList();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                assertThat(result.get()).isTrue();
+            }
+        }
+    }
+}
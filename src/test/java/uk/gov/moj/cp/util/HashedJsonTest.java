@@ -0,0 +1,41 @@
+package uk.gov.moj.cp.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+import uk.gov.moj.cp.dto.outbound.CaseDetailsDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedJsonTest {
+
+    private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+
+    @Test
+    @DisplayName("Should serialise the value as the given mapper does")
+    void shouldSerialiseValue() {
+        CaseDetailsDto caseDetails = caseDetails("ACTIVE");
+
+        HashedJson hashedJson = HashedJson.of(JSON_MAPPER, caseDetails);
+
+        assertThat(new String(hashedJson.body(), StandardCharsets.UTF_8))
+            .isEqualTo(JSON_MAPPER.writeValueAsString(caseDetails));
+    }
+
+    @Test
+    @DisplayName("Should give equal values the same quoted ETag and different values different ones")
+    void shouldHashBody() {
+        String etag = HashedJson.of(JSON_MAPPER, caseDetails("ACTIVE")).etag();
+
+        assertThat(etag).matches("\"[A-Za-z0-9_-]{22}\"");
+        assertThat(HashedJson.of(JSON_MAPPER, caseDetails("ACTIVE")).etag()).isEqualTo(etag);
+        assertThat(HashedJson.of(JSON_MAPPER, caseDetails("INACTIVE")).etag()).isNotEqualTo(etag);
+    }
+
+    private static CaseDetailsDto caseDetails(String caseStatus) {
+        return CaseDetailsDto.builder().caseUrn("CASE123").caseStatus(caseStatus).courtSchedules(List.of()).build();
+    }
+}
@@ -0,0 +1,38 @@
+package uk.gov.moj.cp.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitedLogTest {
+
+    @Test
+    @DisplayName("Should let through up to the permits per interval and count the rest")
+    void shouldLimitOccurrencesPerInterval() {
+        RateLimitedLog rateLimitedLog = new RateLimitedLog(2, Duration.ofHours(1));
+
+        assertThat(rateLimitedLog.tryAcquire()).isTrue();
+        assertThat(rateLimitedLog.tryAcquire()).isTrue();
+        assertThat(rateLimitedLog.tryAcquire()).isFalse();
+        assertThat(rateLimitedLog.tryAcquire()).isFalse();
+
+        assertThat(rateLimitedLog.drainSuppressed()).isEqualTo(2);
+        assertThat(rateLimitedLog.drainSuppressed()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should let occurrences through again once the interval has passed")
+    void shouldResetAfterInterval() throws InterruptedException {
+        RateLimitedLog rateLimitedLog = new RateLimitedLog(1, Duration.ofMillis(20));
+
+        assertThat(rateLimitedLog.tryAcquire()).isTrue();
+        assertThat(rateLimitedLog.tryAcquire()).isFalse();
+        Thread.sleep(40);
+
+        assertThat(rateLimitedLog.tryAcquire()).isTrue();
+        assertThat(rateLimitedLog.drainSuppressed()).isEqualTo(1);
+    }
+}